@@ -0,0 +1,137 @@
+package com.example.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.model.JobPosition;
+import com.example.service.OCRResumeParser;
+import com.example.service.OcrEnginePool;
+import com.example.service.OcrProperties;
+import com.example.service.PipelineMetrics;
+import com.example.service.RasterBufferPool;
+import com.example.service.ResumeParserService;
+import com.example.service.ResumeSegmenter;
+import com.example.service.SkillNormalizer;
+import com.example.service.UploadResourceGuard;
+import com.example.store.ColumnarCatalogWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 基准测试和压测的公共设置：不启动Spring容器时按application.properties的默认值直接构造解析服务，
+ * 生成并缓存岗位库文件，解析--key=value形式的命令行参数
+ */
+public final class BenchmarkSupport {
+
+    /**
+     * 不超过该岗位数时生成堆内岗位库(JSON)，更大的岗位库生成列式文件
+     */
+    public static final int HEAP_CATALOG_LIMIT = 10_000;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 服务中的逐次INFO日志会主导微基准的耗时，基准运行时只保留WARN及以上
+     */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    public static SkillNormalizer skillNormalizer() {
+        return new SkillNormalizer("", true, 7, 9, 10000);
+    }
+
+    public static UploadResourceGuard uploadResourceGuard() {
+        return new UploadResourceGuard(400_000_000L, 25_000_000L, 2000, 209_715_200L, 100, 50, 200_000, 134_217_728L);
+    }
+
+    public static ResumeParserService resumeParserService() {
+        SkillNormalizer skillNormalizer = skillNormalizer();
+        return new ResumeParserService(skillNormalizer, new ResumeSegmenter(skillNormalizer), uploadResourceGuard(),
+                pipelineMetrics());
+    }
+
+    public static OCRResumeParser ocrResumeParser() {
+        return ocrResumeParser(new RasterBufferPool(256));
+    }
+
+    public static OCRResumeParser ocrResumeParser(RasterBufferPool rasterBufferPool) {
+        return new OCRResumeParser(uploadResourceGuard(), pipelineMetrics(), new OcrEnginePool(1, List.of(), 0),
+                rasterBufferPool, new OcrProperties());
+    }
+
+    /**
+     * 阶段计时记录到内存注册表，与生产环境的记录开销一致
+     */
+    public static PipelineMetrics pipelineMetrics() {
+        return new PipelineMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * 生成指定规模的岗位库文件并缓存在target/jmh-data，重复运行时复用
+     */
+    public static Path catalogFile(int jobs) throws IOException {
+        Path directory = Path.of("target", "jmh-data");
+        Files.createDirectories(directory);
+        boolean heap = jobs <= HEAP_CATALOG_LIMIT;
+        Path file = directory.resolve("catalog-" + jobs + (heap ? ".json" : ".col"));
+        if (Files.exists(file)) return file;
+
+        List<JobPosition> generated = new SyntheticData(7).jobs(jobs);
+        Path temp = Files.createTempFile(directory, "catalog-", ".tmp");
+        if (heap) {
+            new ObjectMapper().writeValue(temp.toFile(), generated);
+        } else {
+            ColumnarCatalogWriter.write(generated, temp);
+        }
+        return Files.move(temp, file);
+    }
+
+    /**
+     * 以命令行参数形式指定岗位库，优先于application.properties中的同名配置
+     */
+    public static String catalogArgument(int jobs, Path catalog) {
+        return (jobs <= HEAP_CATALOG_LIMIT ? "--app.catalog.path=" : "--app.catalog.columnar-path=") + catalog.toAbsolutePath();
+    }
+
+    /**
+     * 解析--key=value参数；不带值的--flag记为"true"
+     */
+    public static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("参数须为--key=value形式: " + arg);
+            int eq = arg.indexOf('=');
+            if (eq < 0) options.put(arg.substring(2), "true");
+            else options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    public static <T> List<T> parseList(String value, Function<String, T> parser) {
+        List<T> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) items.add(parser.apply(item.trim()));
+        }
+        if (items.isEmpty()) throw new IllegalArgumentException("列表参数为空");
+        return items;
+    }
+
+    /**
+     * "3"或"1-6"形式的闭区间
+     */
+    public static int[] parseRange(String value) {
+        String[] parts = value.split("-");
+        int min = Integer.parseInt(parts[0].trim());
+        int max = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : min;
+        if (min < 0 || max < min) throw new IllegalArgumentException("区间无效: " + value);
+        return new int[]{min, max};
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.benchmark;
+
+import com.example.EnhancedResumeApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 端到端压测 - 在随机端口启动内嵌服务器，用合成语料并发调用ResumeController的上传和匹配接口
+ * <p>
+ * 每个并发级别先预热再计时，工作线程轮流发送各(接口, 格式)组合的请求；按组合统计吞吐量、p50/p99/p999延迟和错误率
+ * (非2xx响应和超时都计为错误)，结果打印为表格并写入JSON报告。默认关闭匹配结果缓存和近重复检测，
+ * 测量完整的解析和匹配路径；--with-caches保留生产配置。其余--app.*参数原样传给服务器。
+ * <p>
+ * 命令行: mvn -Pbenchmark test-compile exec:exec@load -Dload.args="--concurrency=1,4,16 --duration=20 --jobs=1000"
+ */
+public class LoadHarness {
+
+    private static final List<String> DEFAULT_ENDPOINTS = List.of("upload", "basic-match", "advanced-match");
+
+    private final Map<String, String> options;
+    private final List<String> endpoints;
+    private final List<SyntheticCorpus.Format> formats;
+    private final Map<SyntheticCorpus.Format, List<SyntheticCorpus.Document>> corpus = new EnumMap<>(SyntheticCorpus.Format.class);
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final Duration requestTimeout;
+    private String baseUrl;
+
+    public LoadHarness(Map<String, String> options) {
+        this.options = options;
+        this.endpoints = BenchmarkSupport.parseList(options.getOrDefault("endpoints", String.join(",", DEFAULT_ENDPOINTS)), s -> s);
+        this.formats = BenchmarkSupport.parseList(
+                options.getOrDefault("formats", "txt,docx,pdf,scanned_pdf,png,jpeg"), SyntheticCorpus.Format::parse);
+        this.requestTimeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "60")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.quietLogging();
+        Map<String, String> options = BenchmarkSupport.parseOptions(args);
+        LoadHarness harness = new LoadHarness(options);
+        harness.generateCorpus();
+
+        ConfigurableApplicationContext context = harness.startServer();
+        try {
+            List<Map<String, Object>> steps = new ArrayList<>();
+            for (int concurrency : BenchmarkSupport.parseList(options.getOrDefault("concurrency", "1,4,16"), Integer::parseInt)) {
+                steps.add(harness.runStep(concurrency));
+            }
+            harness.writeReport(steps);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void generateCorpus() {
+        int perFormat = Integer.parseInt(options.getOrDefault("corpus-size", "40"));
+        List<SyntheticData.Language> languages = BenchmarkSupport.parseList(options.getOrDefault("languages", "zh,en"),
+                name -> SyntheticData.Language.valueOf(name.toUpperCase(Locale.ROOT)));
+        int[] workEntries = BenchmarkSupport.parseRange(options.getOrDefault("work-entries", "1-6"));
+        int skills = Integer.parseInt(options.getOrDefault("skills", "8"));
+        double noise = Double.parseDouble(options.getOrDefault("noise", "0"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        SyntheticCorpus generator = new SyntheticCorpus(seed, options.get("font"));
+        Random random = new Random(seed);
+        long start = System.currentTimeMillis();
+        int index = 0;
+        for (SyntheticCorpus.Format format : formats) {
+            List<SyntheticCorpus.Document> documents = new ArrayList<>(perFormat);
+            for (int i = 0; i < perFormat; i++) {
+                int entries = workEntries[0] + random.nextInt(workEntries[1] - workEntries[0] + 1);
+                documents.add(generator.generate(index++, format, languages.get(i % languages.size()), entries, skills, noise));
+            }
+            corpus.put(format, documents);
+        }
+        System.out.printf("生成压测语料: %d 种格式 x %d 份, 耗时 %dms%n",
+                formats.size(), perFormat, System.currentTimeMillis() - start);
+    }
+
+    private ConfigurableApplicationContext startServer() throws IOException {
+        int jobs = Integer.parseInt(options.getOrDefault("jobs", "1000"));
+        List<String> serverArgs = new ArrayList<>();
+        serverArgs.add("--server.port=0");
+        serverArgs.add("--logging.level.root=WARN");
+        serverArgs.add(BenchmarkSupport.catalogArgument(jobs, BenchmarkSupport.catalogFile(jobs)));
+        if (!Boolean.parseBoolean(options.getOrDefault("with-caches", "false"))) {
+            serverArgs.add("--app.match.cache.enabled=false");
+            serverArgs.add("--app.dedup.enabled=false");
+        }
+        options.forEach((key, value) -> {
+            if (key.startsWith("app.")) serverArgs.add("--" + key + "=" + value);
+        });
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EnhancedResumeApplication.class)
+                .logStartupInfo(false)
+                .run(serverArgs.toArray(String[]::new));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/resume/";
+        System.out.printf("内嵌服务器已启动: %s, 岗位数: %d%n", baseUrl, jobs);
+        return context;
+    }
+
+    /**
+     * 一个并发级别：预热后计时，返回该级别的汇总和各(接口, 格式)组合的统计
+     */
+    private Map<String, Object> runStep(int concurrency) throws InterruptedException {
+        long warmupMillis = Long.parseLong(options.getOrDefault("warmup", "5")) * 1000;
+        long durationMillis = Long.parseLong(options.getOrDefault("duration", "20")) * 1000;
+
+        List<String[]> scenarios = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            for (SyntheticCorpus.Format format : formats) {
+                scenarios.add(new String[]{endpoint, format.name()});
+            }
+        }
+        Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+        for (String[] scenario : scenarios) {
+            recorders.put(scenario[0] + "/" + scenario[1], new Recorder());
+        }
+
+        AtomicInteger documentCursor = new AtomicInteger();
+        long warmupEnd = System.nanoTime() + warmupMillis * 1_000_000;
+        long end = warmupEnd + durationMillis * 1_000_000;
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            int offset = worker;
+            workers.submit(() -> {
+                for (int i = offset; System.nanoTime() < end; i++) {
+                    String[] scenario = scenarios.get(i % scenarios.size());
+                    SyntheticCorpus.Format format = SyntheticCorpus.Format.valueOf(scenario[1]);
+                    List<SyntheticCorpus.Document> documents = corpus.get(format);
+                    SyntheticCorpus.Document document = documents.get(Math.floorMod(documentCursor.getAndIncrement(), documents.size()));
+
+                    long start = System.nanoTime();
+                    boolean success = send(scenario[0], document);
+                    long elapsed = System.nanoTime() - start;
+                    // 预热期间发出的请求不计入统计
+                    if (start >= warmupEnd) {
+                        recorders.get(scenario[0] + "/" + scenario[1]).record(elapsed, success);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(warmupMillis + durationMillis + requestTimeout.toMillis() + 10_000, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+
+        double seconds = durationMillis / 1000.0;
+        List<Map<String, Object>> results = new ArrayList<>();
+        long total = 0;
+        long errors = 0;
+        System.out.printf("%n并发 %d, 计时 %.0fs%n", concurrency, seconds);
+        System.out.printf("%-16s %-12s %8s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "format", "requests", "req/s", "err%", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (String[] scenario : scenarios) {
+            Map<String, Object> summary = recorders.get(scenario[0] + "/" + scenario[1]).summarize(seconds);
+            summary.put("endpoint", scenario[0]);
+            summary.put("format", scenario[1].toLowerCase(Locale.ROOT));
+            results.add(summary);
+            total += (long) summary.get("requests");
+            errors += (long) summary.get("errors");
+            System.out.printf("%-16s %-12s %8d %10.1f %8.2f %10.1f %10.1f %10.1f %10.1f%n",
+                    scenario[0], scenario[1].toLowerCase(Locale.ROOT), summary.get("requests"), summary.get("throughput"),
+                    (double) summary.get("errorRate") * 100, summary.get("p50Ms"), summary.get("p99Ms"),
+                    summary.get("p999Ms"), summary.get("maxMs"));
+        }
+        System.out.printf("合计: %d 请求, %.1f req/s, 错误率 %.2f%%%n", total, total / seconds,
+                total == 0 ? 0.0 : errors * 100.0 / total);
+
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("concurrency", concurrency);
+        step.put("durationSeconds", seconds);
+        step.put("requests", total);
+        step.put("throughput", total / seconds);
+        step.put("errorRate", total == 0 ? 0.0 : (double) errors / total);
+        step.put("scenarios", results);
+        return step;
+    }
+
+    private boolean send(String endpoint, SyntheticCorpus.Document document) {
+        String boundary = "----load-" + UUID.randomUUID();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+                .timeout(requestTimeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, document)))
+                .build();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static byte[] multipart(String boundary, SyntheticCorpus.Document document) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(document.content().length + 256);
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + document.fileName() + "\"\r\n"
+                + "Content-Type: " + document.format().contentType() + "\r\n\r\n";
+        body.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(document.content());
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private void writeReport(List<Map<String, Object>> steps) throws IOException {
+        Path out = Path.of(options.getOrDefault("out", "target/jmh/load-report.json"));
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", new Date());
+        report.put("options", options);
+        report.put("steps", steps);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("\n压测报告: " + out.toAbsolutePath());
+    }
+
+    /**
+     * 单个(接口, 格式)组合的延迟样本(纳秒)和错误数
+     */
+    private static class Recorder {
+
+        private long[] samples = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void record(long nanos, boolean success) {
+            if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+            samples[count++] = nanos;
+            if (!success) errors++;
+        }
+
+        synchronized Map<String, Object> summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", (long) count);
+            summary.put("throughput", count / seconds);
+            summary.put("errors", errors);
+            summary.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+            summary.put("p50Ms", percentile(sorted, 0.50));
+            summary.put("p99Ms", percentile(sorted, 0.99));
+            summary.put("p999Ms", percentile(sorted, 0.999));
+            summary.put("maxMs", count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+            return summary;
+        }
+
+        /**
+         * 最近秩法：样本不足时高分位退化为最大值
+         */
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) return 0.0;
+            int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.benchmark;
+
+import org.apache.fontbox.ttf.TrueTypeCollection;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.List;
+
+/**
+ * 合成简历语料 - 将SyntheticData生成的简历文本渲染为TXT、DOCX、文本层PDF、扫描版PDF(仅图像)以及PNG/JPEG
+ * <p>
+ * 噪声率对文本类格式表现为OCR式的字符混淆和断行，对图像类格式表现为椒盐噪点、轻微倾斜和更低的JPEG质量。
+ * 中文渲染需要CJK字体：可用--font指定TTF/OTF文件，未指定时在常见系统字体位置查找；找不到时PDF中无法编码的字符被丢弃，
+ * 图像中显示为缺字方框(英文简历不受影响)。
+ * <p>
+ * 命令行: mvn -Pbenchmark test-compile exec:exec@corpus -Dcorpus.args="--out=target/corpus --count=20 --formats=txt,docx,pdf,png"
+ */
+public class SyntheticCorpus {
+
+    public enum Format {
+        TXT("txt", "text/plain"),
+        DOCX("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+        PDF("pdf", "application/pdf"),
+        SCANNED_PDF("pdf", "application/pdf"),
+        PNG("png", "image/png"),
+        JPEG("jpg", "image/jpeg");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public static Format parse(String name) {
+            return Format.valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public record Document(String fileName, Format format, SyntheticData.Language language, byte[] content) {
+    }
+
+    private static final List<String> CJK_FONT_CANDIDATES = List.of(
+            "/usr/share/fonts/opentype/noto/NotoSansCJK-Regular.ttc",
+            "/usr/share/fonts/noto-cjk/NotoSansCJK-Regular.ttc",
+            "/usr/share/fonts/truetype/wqy/wqy-microhei.ttc",
+            "/usr/share/fonts/truetype/wqy/wqy-zenhei.ttc",
+            "/usr/share/fonts/truetype/arphic/uming.ttc",
+            "C:/Windows/Fonts/simhei.ttf",
+            "C:/Windows/Fonts/simsun.ttc",
+            "/System/Library/Fonts/PingFang.ttc",
+            "/Library/Fonts/Arial Unicode.ttf");
+
+    private static final int PAGE_WIDTH_PX = 1240;      // A4 150dpi
+    private static final int PAGE_HEIGHT_PX = 1754;
+    private static final int FONT_PX = 22;
+    private static final int LINE_PX = 36;
+    private static final float PDF_FONT_SIZE = 11;
+    private static final float PDF_LEADING = 15;
+    private static final float PDF_MARGIN = 56;
+
+    private final SyntheticData data;
+    private final Random random;
+    private final File fontFile;
+    private final Font rasterFont;
+    private TrueTypeFont collectionFont;
+
+    public SyntheticCorpus(long seed, String fontPath) {
+        this.data = new SyntheticData(seed);
+        this.random = new Random(seed ^ 0x5DEECE66DL);
+        this.fontFile = resolveFont(fontPath);
+        this.rasterFont = loadRasterFont(fontFile);
+    }
+
+    /**
+     * @param workEntries 工作经历条数(决定篇幅)
+     * @param skillCount  技能数量
+     * @param noise       噪声率，0为干净文档
+     */
+    public Document generate(int index, Format format, SyntheticData.Language language,
+                             int workEntries, int skillCount, double noise) {
+        String text = data.resume(language, workEntries, skillCount, 0);
+        String name = String.format("resume-%05d-%s.%s", index, language.name().toLowerCase(Locale.ROOT),
+                format == Format.SCANNED_PDF ? "scan.pdf" : format.extension());
+        return new Document(name, format, language, render(text, format, noise));
+    }
+
+    public byte[] render(String text, Format format, double noise) {
+        try {
+            return switch (format) {
+                case TXT -> noisy(text, noise).getBytes(StandardCharsets.UTF_8);
+                case DOCX -> docx(noisy(text, noise));
+                case PDF -> textPdf(noisy(text, noise));
+                case SCANNED_PDF -> scannedPdf(pages(text, noise), noise);
+                case PNG -> imageBytes(singlePage(text, noise), "png", 1f);
+                case JPEG -> imageBytes(singlePage(text, noise), "jpg", jpegQuality(noise));
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("渲染" + format + "失败: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean hasCjkFont() {
+        return fontFile != null;
+    }
+
+    private String noisy(String text, double noise) {
+        return noise > 0 ? data.addNoise(text, noise) : text;
+    }
+
+    private byte[] docx(String text) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (String line : text.split("\n", -1)) {
+                document.createParagraph().createRun().setText(line);
+            }
+            document.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private byte[] textPdf(String text) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDFont font = pdfFont(document);
+            float width = PDRectangle.A4.getWidth() - 2 * PDF_MARGIN;
+            List<String> lines = new ArrayList<>();
+            for (String line : text.split("\n", -1)) {
+                lines.addAll(wrapPdf(encodable(font, line), font, width));
+            }
+
+            int linesPerPage = (int) ((PDRectangle.A4.getHeight() - 2 * PDF_MARGIN) / PDF_LEADING);
+            for (int start = 0; start < lines.size(); start += linesPerPage) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, PDF_FONT_SIZE);
+                    content.setLeading(PDF_LEADING);
+                    content.newLineAtOffset(PDF_MARGIN, PDRectangle.A4.getHeight() - PDF_MARGIN);
+                    for (String line : lines.subList(start, Math.min(lines.size(), start + linesPerPage))) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 字体集合(.ttc)取其中第一个字体；未找到CJK字体时使用Helvetica
+     */
+    private PDFont pdfFont(PDDocument document) throws IOException {
+        if (fontFile == null) return new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        if (!fontFile.getName().toLowerCase(Locale.ROOT).endsWith(".ttc")) return PDType0Font.load(document, fontFile);
+
+        if (collectionFont == null) {
+            // 集合在生成器生命周期内保持打开，每个文档保存子集时都要读取字形
+            TrueTypeFont[] first = new TrueTypeFont[1];
+            new TrueTypeCollection(fontFile).processAllFonts(ttf -> {
+                if (first[0] == null) first[0] = ttf;
+            });
+            collectionFont = first[0];
+        }
+        return PDType0Font.load(document, collectionFont, true);
+    }
+
+    /**
+     * 扫描件：每页一张JPEG图像，不含文本层
+     */
+    private byte[] scannedPdf(List<BufferedImage> pages, double noise) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (BufferedImage image : pages) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                PDImageXObject xObject = JPEGFactory.createFromImage(document, image, jpegQuality(noise));
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.drawImage(xObject, 0, 0, PDRectangle.A4.getWidth(), PDRectangle.A4.getHeight());
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 单张图片简历：高度随内容增长，不分页
+     */
+    private BufferedImage singlePage(String text, double noise) {
+        List<String> lines = wrapRaster(text);
+        int height = Math.max(PAGE_HEIGHT_PX / 2, 80 + lines.size() * LINE_PX);
+        return drawPage(lines, height, noise);
+    }
+
+    private List<BufferedImage> pages(String text, double noise) {
+        List<String> lines = wrapRaster(text);
+        int perPage = (PAGE_HEIGHT_PX - 160) / LINE_PX;
+        List<BufferedImage> pages = new ArrayList<>();
+        for (int start = 0; start < lines.size(); start += perPage) {
+            pages.add(drawPage(lines.subList(start, Math.min(lines.size(), start + perPage)), PAGE_HEIGHT_PX, noise));
+        }
+        return pages;
+    }
+
+    private BufferedImage drawPage(List<String> lines, int height, double noise) {
+        BufferedImage image = new BufferedImage(PAGE_WIDTH_PX, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, PAGE_WIDTH_PX, height);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        if (noise > 0) {
+            // 扫描倾斜：最大约3度
+            double degrees = (random.nextDouble() * 2 - 1) * Math.min(3.0, noise * 30);
+            g.transform(AffineTransform.getRotateInstance(Math.toRadians(degrees), PAGE_WIDTH_PX / 2.0, height / 2.0));
+        }
+        g.setColor(Color.BLACK);
+        g.setFont(rasterFont);
+        int y = 80;
+        for (String line : lines) {
+            g.drawString(line, 80, y);
+            y += LINE_PX;
+        }
+        g.dispose();
+
+        long speckles = (long) (noise * 0.05 * PAGE_WIDTH_PX * height);
+        for (long i = 0; i < speckles; i++) {
+            image.setRGB(random.nextInt(PAGE_WIDTH_PX), random.nextInt(height),
+                    random.nextBoolean() ? 0x202020 : 0xF0F0F0);
+        }
+        return image;
+    }
+
+    private List<String> wrapRaster(String text) {
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scratch.createGraphics();
+        FontMetrics metrics = g.getFontMetrics(rasterFont);
+        int width = PAGE_WIDTH_PX - 160;
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\n", -1)) {
+            StringBuilder current = new StringBuilder();
+            for (int i = 0; i < line.length(); i++) {
+                current.append(line.charAt(i));
+                if (metrics.stringWidth(current.toString()) > width) {
+                    current.setLength(current.length() - 1);
+                    lines.add(current.toString());
+                    current.setLength(0);
+                    current.append(line.charAt(i));
+                }
+            }
+            lines.add(current.toString());
+        }
+        g.dispose();
+        return lines;
+    }
+
+    private List<String> wrapPdf(String line, PDFont font, float width) throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            current.append(line.charAt(i));
+            if (font.getStringWidth(current.toString()) / 1000 * PDF_FONT_SIZE > width) {
+                current.setLength(current.length() - 1);
+                lines.add(current.toString());
+                current.setLength(0);
+                current.append(line.charAt(i));
+            }
+        }
+        lines.add(current.toString());
+        return lines;
+    }
+
+    /**
+     * 去掉字体无法编码的字符(制表符等控制字符也不能出现在PDF文本中)
+     */
+    private static String encodable(PDFont font, String line) {
+        StringBuilder sb = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            String c = String.valueOf(line.charAt(i));
+            if (line.charAt(i) == '\t') c = " ";
+            try {
+                font.encode(c);
+                sb.append(c);
+            } catch (IllegalArgumentException | IOException e) {
+                // 不可编码字符丢弃
+            }
+        }
+        return sb.toString();
+    }
+
+    private static float jpegQuality(double noise) {
+        return (float) Math.max(0.3, 0.9 - noise * 4);
+    }
+
+    private static byte[] imageBytes(BufferedImage image, String format, float quality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if ("jpg".equals(format)) {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        } else {
+            ImageIO.write(image, format, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static File resolveFont(String fontPath) {
+        if (fontPath != null && !fontPath.isBlank()) {
+            File file = new File(fontPath);
+            if (!file.exists()) throw new IllegalArgumentException("字体文件不存在: " + fontPath);
+            return file;
+        }
+        for (String candidate : CJK_FONT_CANDIDATES) {
+            File file = new File(candidate);
+            if (file.exists()) return file;
+        }
+        return null;
+    }
+
+    private static Font loadRasterFont(File fontFile) {
+        if (fontFile != null) {
+            try {
+                return Font.createFonts(fontFile)[0].deriveFont((float) FONT_PX);
+            } catch (FontFormatException | IOException e) {
+                System.err.println("字体加载失败，使用默认字体: " + fontFile + ", 原因: " + e.getMessage());
+            }
+        }
+        return new Font(Font.SANS_SERIF, Font.PLAIN, FONT_PX);
+    }
+
+    /**
+     * 按参数批量生成语料文件
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = BenchmarkSupport.parseOptions(args);
+        Path out = Path.of(options.getOrDefault("out", "target/corpus"));
+        int count = Integer.parseInt(options.getOrDefault("count", "20"));
+        List<Format> formats = BenchmarkSupport.parseList(options.getOrDefault("formats", "txt,docx,pdf,scanned_pdf,png,jpeg"), Format::parse);
+        List<SyntheticData.Language> languages = BenchmarkSupport.parseList(options.getOrDefault("languages", "zh,en"),
+                name -> SyntheticData.Language.valueOf(name.toUpperCase(Locale.ROOT)));
+        int[] workEntries = BenchmarkSupport.parseRange(options.getOrDefault("work-entries", "1-6"));
+        int skills = Integer.parseInt(options.getOrDefault("skills", "8"));
+        double noise = Double.parseDouble(options.getOrDefault("noise", "0"));
+
+        SyntheticCorpus corpus = new SyntheticCorpus(Long.parseLong(options.getOrDefault("seed", "42")), options.get("font"));
+        if (!corpus.hasCjkFont() && languages.contains(SyntheticData.Language.ZH)) {
+            System.err.println("未找到CJK字体(可用--font指定)：中文PDF会丢弃汉字，中文图片显示为缺字方框");
+        }
+        Files.createDirectories(out);
+        Random random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+        for (int i = 0; i < count; i++) {
+            Format format = formats.get(i % formats.size());
+            SyntheticData.Language language = languages.get((i / formats.size()) % languages.size());
+            int entries = workEntries[0] + random.nextInt(workEntries[1] - workEntries[0] + 1);
+            Document document = corpus.generate(i, format, language, entries, skills, noise);
+            Files.write(out.resolve(document.fileName()), document.content());
+        }
+        System.out.println("生成语料 " + count + " 份: " + out.toAbsolutePath());
+    }
+}
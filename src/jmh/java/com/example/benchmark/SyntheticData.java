@@ -0,0 +1,227 @@
+package com.example.benchmark;
+
+import com.example.model.JobPosition;
+import com.example.service.JobCatalogService;
+
+import java.util.*;
+
+/**
+ * 合成简历与岗位数据 - 基准测试和压测使用的确定性生成器，同一种子生成相同数据，不含任何真实候选人信息
+ * <p>
+ * 简历按语言、工作经历条数、技能数量和噪声率生成：技能按比例使用别名(k8s、SpringBoot)和OCR式的错字，
+ * 噪声率控制逐字符的OCR混淆、多余空格和断行。
+ */
+public class SyntheticData {
+
+    public enum Language {ZH, EN}
+
+    static final List<String> SKILLS = List.of(
+            "Java", "Spring", "Spring Boot", "MySQL", "Redis", "Python", "JavaScript", "Vue", "React",
+            "HTML", "CSS", "Docker", "Kubernetes", "Git", "Maven", "Gradle", "Linux", "AWS",
+            "微服务", "分布式", "多线程", "RESTful");
+
+    /**
+     * 简历中技能的其他写法：别名和常见OCR识别错误，均应归一化为标准技能名
+     */
+    private static final Map<String, List<String>> SKILL_VARIANTS = Map.of(
+            "Spring Boot", List.of("SpringBoot", "springboot", "Spring-Boot"),
+            "Kubernetes", List.of("k8s", "K8S", "Kubernetse"),
+            "JavaScript", List.of("JS", "javascript", "Javascirpt"),
+            "MySQL", List.of("mysql", "MySOL"),
+            "Redis", List.of("redis", "Rediss"),
+            "Docker", List.of("docker", "Dockre"),
+            "Vue", List.of("Vue.js", "VueJS"));
+
+    private static final String[] SURNAMES = {"王", "李", "张", "刘", "陈", "杨", "赵", "黄", "周", "吴"};
+    private static final String[] GIVEN_NAMES = {"伟", "芳", "娜", "敏", "静", "磊", "洋", "勇", "艳", "杰", "涛", "明"};
+    private static final String[] EN_FIRST = {"John", "Alice", "David", "Emma", "Michael", "Olivia", "Daniel", "Sophia"};
+    private static final String[] EN_LAST = {"Smith", "Chen", "Wang", "Brown", "Lee", "Garcia", "Miller", "Wilson"};
+    private static final String[] CITIES = {"北京", "上海", "杭州", "深圳", "广州", "成都", "南京", "武汉"};
+    private static final String[] ZH_POSITIONS = {"Java开发工程师", "高级Java开发工程师", "后端开发工程师",
+            "前端开发工程师", "全栈开发工程师", "架构师", "技术负责人", "运维开发工程师"};
+    private static final String[] EN_POSITIONS = {"Software Engineer", "Senior Software Engineer", "Backend Developer",
+            "Frontend Developer", "Full Stack Developer", "Software Architect", "Tech Lead", "DevOps Engineer"};
+    private static final String[] EN_COMPANIES = {"Acme Technologies Inc", "Globex Corp", "Initech Ltd",
+            "Umbrella Software Inc", "Stark Systems Corp", "Wayne Digital Ltd"};
+    private static final String[] ZH_SCHOOLS = {"浙江大学", "复旦大学", "武汉大学", "南京大学", "中山大学", "四川大学"};
+    private static final String[] EN_SCHOOLS = {"University of Washington", "Boston University", "University of Toronto"};
+    private static final String[] MAJORS = {"计算机科学与技术", "软件工程", "信息管理与信息系统", "电子信息工程"};
+    private static final String[] CERTIFICATIONS = {"PMP", "软件设计师", "CET-6", "AWS Certified Solutions Architect", "CKA"};
+    private static final String[] ZH_DUTIES = {"负责%s系统的设计与开发，使用%s和%s",
+            "参与%s平台微服务改造，引入%s，接口性能提升30%%，并推广%s",
+            "主导%s模块重构，基于%s实现高并发处理，结合%s完成容量规划"};
+    private static final String[] EN_DUTIES = {"Designed and built the %s service with %s and %s.",
+            "Migrated the %s platform to %s, cutting latency by 30%% and adopting %s.",
+            "Led the %s rewrite on %s and introduced %s for capacity planning."};
+    private static final String[] SYSTEMS = {"订单", "支付", "风控", "用户中心", "搜索", "推荐", "库存", "消息推送"};
+    private static final String[] EN_SYSTEMS = {"order", "payment", "risk", "identity", "search", "recommendation"};
+    private static final String[] INDUSTRIES = {"互联网", "金融", "电商", "教育", "制造"};
+    private static final String[] EDUCATIONS = {"大专", "本科", "硕士"};
+
+    /**
+     * OCR常见的字符混淆
+     */
+    private static final Map<Character, char[]> OCR_CONFUSIONS = Map.of(
+            'l', new char[]{'1', 'I'}, 'O', new char[]{'0', 'Q'}, 'o', new char[]{'0'},
+            'S', new char[]{'5'}, 'B', new char[]{'8'}, 'm', new char[]{'r'},
+            '架', new char[]{'炽'}, '系', new char[]{'熨'}, '微', new char[]{'恪'}, '术', new char[]{'丐'});
+
+    private final Random random;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param workEntries 工作经历条数(决定简历长度)
+     * @param skillCount  简历中出现的不同技能数
+     * @param noise       逐字符噪声率，0为干净文本
+     */
+    public String resume(Language language, int workEntries, int skillCount, double noise) {
+        List<String> skills = pick(SKILLS, Math.min(skillCount, SKILLS.size()));
+        String text = language == Language.ZH
+                ? chineseResume(workEntries, skills)
+                : englishResume(workEntries, skills);
+        return noise > 0 ? addNoise(text, noise) : text;
+    }
+
+    /**
+     * 生成岗位：id按序号稳定，技能取自与简历相同的技能表，描述为可参与TF-IDF的中文句子
+     */
+    public List<JobPosition> jobs(int count) {
+        List<JobPosition> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JobPosition job = new JobPosition();
+            String title = ZH_POSITIONS[random.nextInt(ZH_POSITIONS.length)];
+            job.setCompany(CITIES[random.nextInt(CITIES.length)] + "某某科技" + (i % 997) + "有限公司");
+            job.setTitle(title);
+            job.setId(JobCatalogService.stableId(job.getCompany(), title + "#" + i));
+            List<String> skills = pick(SKILLS, 3 + random.nextInt(5));
+            job.setRequiredSkills(skills);
+            job.setMinExperience(random.nextInt(9));
+            job.setRequiredEducation(EDUCATIONS[random.nextInt(EDUCATIONS.length)]);
+            job.setIndustry(INDUSTRIES[random.nextInt(INDUSTRIES.length)]);
+            job.setBaseSalary(8000.0 + 1000 * random.nextInt(40));
+            job.setDescription("招聘" + title + "，负责" + SYSTEMS[random.nextInt(SYSTEMS.length)]
+                    + "系统研发，需要掌握" + String.join("、", skills) + "等技术，具有"
+                    + job.getMinExperience() + "年以上相关经验");
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    /**
+     * 模拟OCR输出：字符混淆、多余空格和随机断行
+     */
+    public String addNoise(String text, double rate) {
+        StringBuilder out = new StringBuilder(text.length() + text.length() / 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (random.nextDouble() >= rate) {
+                out.append(c);
+                continue;
+            }
+            char[] confusions = OCR_CONFUSIONS.get(c);
+            switch (random.nextInt(3)) {
+                case 0 -> out.append(confusions != null ? confusions[random.nextInt(confusions.length)] : c);
+                case 1 -> out.append(c).append(' ');
+                default -> out.append(c).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private String chineseResume(int workEntries, List<String> skills) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("姓名：").append(SURNAMES[random.nextInt(SURNAMES.length)])
+                .append(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)]).append('\n');
+        sb.append("电话：1").append(3 + random.nextInt(7)).append(String.format("%09d", random.nextInt(1_000_000_000))).append('\n');
+        sb.append("邮箱：candidate").append(random.nextInt(100000)).append("@example.com\n");
+        sb.append("现居：").append(CITIES[random.nextInt(CITIES.length)]).append("\n\n");
+
+        int endYear = 2024;
+        sb.append("个人总结\n").append(workEntries * 2 + 1).append("年").append(skills.get(0))
+                .append("开发经验，熟悉").append(String.join("、", variants(skills))).append("\n\n");
+
+        sb.append("工作经历\n");
+        for (int i = 0; i < workEntries; i++) {
+            int startYear = endYear - 2 - random.nextInt(2);
+            String end = i == 0 ? "至今" : endYear + "." + String.format("%02d", 1 + random.nextInt(12));
+            sb.append(startYear).append('.').append(String.format("%02d", 1 + random.nextInt(12))).append(" - ")
+                    .append(end).append("    ").append(CITIES[random.nextInt(CITIES.length)]).append("某某")
+                    .append(SYSTEMS[random.nextInt(SYSTEMS.length)]).append("科技有限公司    ")
+                    .append(ZH_POSITIONS[random.nextInt(ZH_POSITIONS.length)]).append('\n');
+            for (int d = 0; d < 2; d++) {
+                sb.append("• ").append(String.format(ZH_DUTIES[random.nextInt(ZH_DUTIES.length)],
+                        SYSTEMS[random.nextInt(SYSTEMS.length)], variant(randomOf(skills)), variant(randomOf(skills)))).append('\n');
+            }
+            endYear = startYear;
+        }
+
+        sb.append("\n教育背景\n");
+        int graduation = endYear - random.nextInt(2);
+        sb.append(graduation - 4).append(".09-").append(graduation).append(".06 ")
+                .append(ZH_SCHOOLS[random.nextInt(ZH_SCHOOLS.length)]).append(' ')
+                .append(MAJORS[random.nextInt(MAJORS.length)]).append(" 本科\n");
+
+        sb.append("\n专业技能\n").append(String.join("、", variants(skills))).append('\n');
+        sb.append("\n证书\n").append(String.join("、", pick(Arrays.asList(CERTIFICATIONS), 2))).append('\n');
+        return sb.toString();
+    }
+
+    private String englishResume(int workEntries, List<String> skills) {
+        StringBuilder sb = new StringBuilder();
+        String first = EN_FIRST[random.nextInt(EN_FIRST.length)];
+        sb.append(first).append(' ').append(EN_LAST[random.nextInt(EN_LAST.length)]).append('\n');
+        sb.append(first.toLowerCase(Locale.ROOT)).append(random.nextInt(10000)).append("@example.com\n\n");
+        sb.append("SUMMARY\nBackend developer with ").append(workEntries * 2 + 1)
+                .append("+ years of professional experience in ").append(String.join(", ", variants(skills))).append(".\n\n");
+
+        String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        int endYear = 2024;
+        sb.append("WORK EXPERIENCE\n");
+        for (int i = 0; i < workEntries; i++) {
+            int startYear = endYear - 2 - random.nextInt(2);
+            String end = i == 0 ? "Present" : months[random.nextInt(12)] + " " + endYear;
+            sb.append(EN_COMPANIES[random.nextInt(EN_COMPANIES.length)]).append(" | ")
+                    .append(EN_POSITIONS[random.nextInt(EN_POSITIONS.length)]).append(" | ")
+                    .append(months[random.nextInt(12)]).append(' ').append(startYear).append(" - ").append(end).append('\n');
+            for (int d = 0; d < 2; d++) {
+                sb.append("- ").append(String.format(EN_DUTIES[random.nextInt(EN_DUTIES.length)],
+                        EN_SYSTEMS[random.nextInt(EN_SYSTEMS.length)], variant(randomOf(skills)), variant(randomOf(skills)))).append('\n');
+            }
+            endYear = startYear;
+        }
+
+        sb.append("\nEDUCATION\n").append(EN_SCHOOLS[random.nextInt(EN_SCHOOLS.length)])
+                .append(", B.S. Computer Science, ").append(endYear - 5).append(" - ").append(endYear - 1).append('\n');
+        sb.append("\nSKILLS\n").append(String.join(", ", variants(skills))).append('\n');
+        sb.append("Certifications: ").append(CERTIFICATIONS[3]).append(", ").append(CERTIFICATIONS[4]).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * 约三分之一的技能使用别名或错字写法
+     */
+    private String variant(String skill) {
+        List<String> variants = SKILL_VARIANTS.get(skill);
+        if (variants == null || random.nextInt(3) != 0) return skill;
+        return variants.get(random.nextInt(variants.size()));
+    }
+
+    private List<String> variants(List<String> skills) {
+        List<String> written = new ArrayList<>(skills.size());
+        for (String skill : skills) written.add(variant(skill));
+        return written;
+    }
+
+    private <T> List<T> pick(List<T> source, int count) {
+        List<T> copy = new ArrayList<>(source);
+        Collections.shuffle(copy, random);
+        return new ArrayList<>(copy.subList(0, Math.min(count, copy.size())));
+    }
+
+    private <T> T randomOf(List<T> items) {
+        return items.get(random.nextInt(items.size()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.service;
+
+import com.example.EnhancedResumeApplication;
+import com.example.benchmark.BenchmarkSupport;
+import com.example.benchmark.SyntheticData;
+import com.example.model.JobFilter;
+import com.example.model.MatchOptions;
+import com.example.model.MatchResult;
+import com.example.model.ParsedResume;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端高级匹配：在生成的岗位库上启动不含Web层的应用上下文，对同一份解析后的简历反复匹配(关闭匹配结果缓存)
+ * <p>
+ * 不超过1万个岗位时使用堆内岗位库(JSON文件)，更大的岗位库使用列式文件(内存映射，始终走级联)，
+ * 因此10万和100万岗位下exhaustive与cascade两种模式结果相同。生成的岗位库缓存在target/jmh-data，重复运行时复用。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MatchingBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int jobs;
+
+    @Param({MatchOptions.MODE_EXHAUSTIVE, MatchOptions.MODE_CASCADE})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private AdvancedMatchingService matchingService;
+    private ParsedResume resume;
+    private JobFilter filter;
+    private MatchOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkSupport.quietLogging();
+        Path catalog = BenchmarkSupport.catalogFile(jobs);
+
+        // 以命令行参数传入，优先于application.properties中的同名配置
+        context = new SpringApplicationBuilder(EnhancedResumeApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(BenchmarkSupport.catalogArgument(jobs, catalog),
+                        "--app.match.cache.enabled=false",
+                        "--app.match.cascade.recall-sample-rate=0",
+                        "--logging.level.root=WARN");
+        matchingService = context.getBean(AdvancedMatchingService.class);
+        resume = context.getBean(ResumeParserService.class)
+                .extractResumeInfo(new SyntheticData(42).resume(SyntheticData.Language.ZH, 4, 8, 0));
+        filter = new JobFilter();
+        options = new MatchOptions();
+        options.setMode(mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MatchResult advancedMatch() {
+        return matchingService.advancedMatch(resume, filter, options);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.service;
+
+import com.example.benchmark.BenchmarkSupport;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OCR图像预处理各阶段及完整流水线，输入为合成的扫描页(白底黑字加椒盐噪声，RGB解码结果)
+ * <p>
+ * 600x800为低分辨率截图(会触发放大)，1240x1754和2480x3508分别为A4纸150dpi和300dpi扫描。
+ * 每个阶段的输入取前一阶段在初始化时的输出，只测量该阶段本身；版面分析的输入为二值化结果。
+ * 每次调用与请求一样从缓冲池租用输出缓冲并在结束时归还，稳态下不再分配栅格(可加-prof gc查看每次调用的分配量)。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OcrPreprocessBenchmark {
+
+    @Param({"600x800", "1240x1754", "2480x3508"})
+    public String size;
+
+    private OCRResumeParser parser;
+    private RasterBufferPool bufferPool;
+    private RasterBuffers setupBuffers;
+    private BufferedImage rgb;
+    private BufferedImage gray;
+    private BufferedImage scaled;
+    private BufferedImage blurred;
+    private BufferedImage binary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        bufferPool = new RasterBufferPool(256);
+        parser = BenchmarkSupport.ocrResumeParser(bufferPool);
+
+        String[] dimensions = size.split("x");
+        rgb = scannedPage(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), 7);
+        setupBuffers = bufferPool.lease();
+        gray = parser.convertToGrayscale(rgb, setupBuffers);
+        scaled = parser.scaleImageIfNeeded(gray, setupBuffers);
+        blurred = parser.applyGaussianBlur(scaled, 0.8f, setupBuffers);
+        binary = parser.applyAdaptiveThreshold(blurred, setupBuffers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        setupBuffers.close();
+    }
+
+    @Benchmark
+    public BufferedImage grayscale() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.convertToGrayscale(rgb, buffers);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage scale() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.scaleImageIfNeeded(gray, buffers);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage gaussianBlur() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.applyGaussianBlur(scaled, 0.8f, buffers);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage adaptiveThreshold() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.applyAdaptiveThreshold(blurred, buffers);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage sauvolaThreshold() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.applyLocalThreshold(blurred, "sauvola", buffers);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage sharpen() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.applySharpen(binary, buffers);
+        }
+    }
+
+    @Benchmark
+    public List<Rectangle> layout() {
+        return LayoutAnalyzer.findTextBlocks(binary);
+    }
+
+    @Benchmark
+    public BufferedImage fullPipeline() {
+        try (RasterBuffers buffers = bufferPool.lease()) {
+            return parser.preprocessImage(rgb, "png", buffers);
+        }
+    }
+
+    /**
+     * 白底黑字的文本行，字号随页宽缩放，并加入0.5%的椒盐噪声
+     */
+    static BufferedImage scannedPage(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        int fontSize = Math.max(10, width / 60);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, fontSize));
+        String[] lines = {"姓名：张三  Java开发工程师", "2019.03 - 至今  某某科技有限公司",
+                "负责订单系统微服务改造，使用Spring Boot、Redis和MySQL", "Skills: Java, Spring, Docker, Kubernetes"};
+        int margin = width / 12;
+        for (int y = margin, i = 0; y < height - margin; y += fontSize * 2, i++) {
+            g.drawString(lines[i % lines.length], margin, y);
+        }
+        g.dispose();
+
+        Random random = new Random(seed);
+        int noisePixels = (int) ((long) width * height / 200);
+        for (int i = 0; i < noisePixels; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height), random.nextBoolean() ? 0x000000 : 0xFFFFFF);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.service;
+
+import com.example.benchmark.BenchmarkSupport;
+import com.example.benchmark.SyntheticData;
+import com.example.model.JobPosition;
+import com.example.model.ParsedResume;
+import com.example.vector.TermVectors;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文本解析热点：技能提取、完整信息抽取(含分段)、OCR文本清理，以及精排中的TF-IDF词项向量、余弦相似度和加权Jaccard
+ * <p>
+ * 简历长度由工作经历条数控制；OCR文本在同一份简历上加入5%的字符噪声。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParsingBenchmark {
+
+    @Param({"ZH", "EN"})
+    public SyntheticData.Language language;
+
+    @Param({"2", "8"})
+    public int workEntries;
+
+    private ResumeParserService parser;
+    private OCRResumeParser ocrParser;
+    private String resumeText;
+    private String ocrText;
+    private ParsedResume resume;
+    private JobPosition job;
+    private Map<String, Double> resumeTerms;
+    private Map<String, Double> jobTerms;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        parser = BenchmarkSupport.resumeParserService();
+        ocrParser = BenchmarkSupport.ocrResumeParser();
+
+        SyntheticData data = new SyntheticData(42);
+        resumeText = data.resume(language, workEntries, 8, 0);
+        ocrText = data.addNoise(resumeText, 0.05);
+        resume = parser.extractResumeInfo(resumeText);
+        List<JobPosition> jobs = data.jobs(1);
+        job = jobs.get(0);
+        resumeTerms = TermVectors.compute(resumeText.toLowerCase());
+        jobTerms = TermVectors.forJob(job);
+    }
+
+    @Benchmark
+    public List<String> extractSkills() {
+        return parser.extractSkills(resumeText);
+    }
+
+    @Benchmark
+    public ParsedResume extractResumeInfo() {
+        return parser.extractResumeInfo(resumeText);
+    }
+
+    @Benchmark
+    public String cleanOCRText() {
+        return ocrParser.cleanOCRText(ocrText);
+    }
+
+    @Benchmark
+    public Map<String, Double> termVector() {
+        return TermVectors.compute(resumeText.toLowerCase());
+    }
+
+    @Benchmark
+    public double cosineSimilarity() {
+        return TermVectors.cosine(resumeTerms, jobTerms);
+    }
+
+    @Benchmark
+    public double weightedJaccard() {
+        return AdvancedMatchingService.calculateWeightedJaccard(resume, job);
+    }
+}
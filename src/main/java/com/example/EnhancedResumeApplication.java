@@ -1,9 +1,12 @@
 package com.example;
 
+import com.example.service.OcrProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication(scanBasePackages = "com.example")
+@EnableConfigurationProperties(OcrProperties.class)
 public class EnhancedResumeApplication {
     public static void main(String[] args) {
         SpringApplication.run(EnhancedResumeApplication.class, args);
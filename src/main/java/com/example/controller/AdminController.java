@@ -0,0 +1,196 @@
+package com.example.controller;
+
+import com.example.model.JobPosition;
+import com.example.service.AdvancedMatchingService;
+import com.example.service.EmbeddingService;
+import com.example.service.IncrementalRescoringService;
+import com.example.service.JobCatalogService;
+import com.example.service.JobCatalogSnapshot;
+import com.example.service.MatchResultCache;
+import com.example.service.NearDuplicateService;
+import com.example.service.OCRResumeParser;
+import com.example.service.ShardedMatchingService;
+import com.example.index.SkillTaxonomy;
+import com.example.service.SkillNormalizer;
+import com.example.service.SkillTaxonomyService;
+import com.example.service.SlowRequestRecorder;
+import com.example.service.UploadResourceGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final JobCatalogService jobCatalogService;
+    private final MatchResultCache matchResultCache;
+    private final AdvancedMatchingService advancedMatchingService;
+    private final EmbeddingService embeddingService;
+    private final ShardedMatchingService shardedMatchingService;
+    private final IncrementalRescoringService incrementalRescoringService;
+    private final NearDuplicateService nearDuplicateService;
+    private final SkillNormalizer skillNormalizer;
+    private final SkillTaxonomyService skillTaxonomyService;
+    private final UploadResourceGuard uploadResourceGuard;
+    private final SlowRequestRecorder slowRequestRecorder;
+    private final OCRResumeParser ocrResumeParser;
+
+    @GetMapping("/catalog")
+    public ResponseEntity<Map<String, Object>> getCatalogInfo() {
+        JobCatalogSnapshot catalog = jobCatalogService.getSnapshot();
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("version", catalog.getVersion());
+        info.put("jobCount", catalog.size());
+        return ResponseEntity.ok(info);
+    }
+
+    @PostMapping("/catalog/reload")
+    public ResponseEntity<Map<String, Object>> reloadCatalog() {
+        log.info("岗位库重新加载请求");
+        JobCatalogSnapshot catalog = jobCatalogService.reload();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("version", catalog.getVersion());
+        result.put("jobCount", catalog.size());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 新增或修改岗位(按id覆盖，id为空时按公司+岗位名生成)
+     */
+    @PutMapping("/catalog/jobs")
+    public ResponseEntity<Map<String, Object>> upsertJobs(@RequestBody List<JobPosition> jobs) {
+        log.info("岗位增量修改请求，岗位数: {}", jobs.size());
+        return ResponseEntity.ok(catalogChangeResult(jobCatalogService.applyChanges(jobs, List.of())));
+    }
+
+    @DeleteMapping("/catalog/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> removeJob(@PathVariable String id) {
+        log.info("岗位删除请求，岗位id: {}", id);
+        return ResponseEntity.ok(catalogChangeResult(jobCatalogService.applyChanges(List.of(), List.of(id))));
+    }
+
+    @GetMapping("/rankings")
+    public ResponseEntity<Map<String, Object>> getRankingStats() {
+        return ResponseEntity.ok(incrementalRescoringService.getStats());
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<Map<String, Object>> getDuplicateStats() {
+        return ResponseEntity.ok(nearDuplicateService.getStats());
+    }
+
+    @GetMapping("/match-cache")
+    public ResponseEntity<Map<String, Object>> getMatchCacheStats() {
+        return ResponseEntity.ok(matchResultCache.getStats());
+    }
+
+    @GetMapping("/cascade-recall")
+    public ResponseEntity<Map<String, Object>> getCascadeRecallStats() {
+        return ResponseEntity.ok(advancedMatchingService.getCascadeRecallStats());
+    }
+
+    @GetMapping("/semantic")
+    public ResponseEntity<Map<String, Object>> getSemanticStatus() {
+        return ResponseEntity.ok(embeddingService.getStatus());
+    }
+
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getClusterStatus() {
+        return ResponseEntity.ok(shardedMatchingService.getStatus());
+    }
+
+    @GetMapping("/skills")
+    public ResponseEntity<Map<String, Object>> getSkillStats() {
+        return ResponseEntity.ok(skillNormalizer.getStats());
+    }
+
+    @GetMapping("/skills/taxonomy")
+    public ResponseEntity<Map<String, Object>> getTaxonomyStats() {
+        return ResponseEntity.ok(skillTaxonomyService.getStats());
+    }
+
+    @GetMapping("/uploads")
+    public ResponseEntity<Map<String, Object>> getUploadLimits() {
+        return ResponseEntity.ok(uploadResourceGuard.getStats());
+    }
+
+    /**
+     * 自适应OCR统计：快速识别直接采用、升级到完整流程的次数和平均置信度
+     */
+    @GetMapping("/ocr")
+    public ResponseEntity<Map<String, Object>> getOcrStats() {
+        return ResponseEntity.ok(ocrResumeParser.getStats());
+    }
+
+    /**
+     * 最近的慢请求(最新的在前)：阶段耗时、文件元数据和内容哈希
+     */
+    @GetMapping("/slow-requests")
+    public ResponseEntity<Map<String, Object>> getSlowRequests() {
+        Map<String, Object> result = new LinkedHashMap<>(slowRequestRecorder.getStats());
+        result.put("requests", slowRequestRecorder.getRecent());
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/slow-requests")
+    public ResponseEntity<Map<String, Object>> clearSlowRequests() {
+        slowRequestRecorder.clear();
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/skills/taxonomy/reload")
+    public ResponseEntity<Map<String, Object>> reloadTaxonomy() {
+        log.info("技能分类体系重新加载请求");
+        SkillTaxonomy taxonomy = skillTaxonomyService.reload();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("version", taxonomy.getVersion());
+        result.put("skillCount", taxonomy.skillCount());
+        return ResponseEntity.ok(result);
+    }
+
+    private Map<String, Object> catalogChangeResult(JobCatalogSnapshot catalog) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("version", catalog.getVersion());
+        result.put("jobCount", catalog.size());
+        return result;
+    }
+
+    /**
+     * 分类文件格式错误等无效输入，保留当前版本
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(result);
+    }
+
+    /**
+     * 只读岗位库(列式)不支持增量修改
+     */
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalState(IllegalStateException e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", e.getMessage());
+        return ResponseEntity.status(409).body(result);
+    }
+}
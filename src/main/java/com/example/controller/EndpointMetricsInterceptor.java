@@ -0,0 +1,59 @@
+package com.example.controller;
+
+import com.example.service.PipelineMetrics;
+import com.example.service.RequestTimings;
+import com.example.service.SlowRequestRecorder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 把请求映射的路径模式(如/api/resume/upload、/api/resume/rankings/{resumeHash})绑定到请求线程，
+ * 作为流水线阶段计时的endpoint标签；使用路径模式而不是实际路径，路径变量不会增加标签基数。
+ * 同时开始记录请求的阶段耗时和上传文件元数据，请求结束时交给慢请求记录
+ */
+@Component
+@RequiredArgsConstructor
+public class EndpointMetricsInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        PipelineMetrics.beginRequest(pattern != null ? pattern.toString() : "unmapped");
+
+        // 拦截器执行前DispatcherServlet已解析multipart请求，此处只取文件名、大小和类型
+        if (request instanceof MultipartHttpServletRequest multipart) {
+            MultipartFile file = multipart.getFile("file");
+            if (file != null) {
+                PipelineMetrics.annotate("fileName", file.getOriginalFilename());
+                PipelineMetrics.annotate("fileSize", file.getSize());
+                PipelineMetrics.annotate("contentType", file.getContentType());
+                PipelineMetrics.annotate("format", PipelineMetrics.formatOf(file.getOriginalFilename()));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTimings timings = PipelineMetrics.currentRequest();
+        PipelineMetrics.endRequest();
+        if (timings != null) {
+            slowRequestRecorder.complete(timings, request.getMethod(), response.getStatus());
+        }
+    }
+}
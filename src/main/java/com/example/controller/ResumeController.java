@@ -1,11 +1,16 @@
 package com.example.controller;
 
 
+import com.example.model.JobFilter;
+import com.example.model.MatchOptions;
 import com.example.model.MatchResult;
+import com.example.model.OcrOptions;
 import com.example.model.ParsedResume;
+import com.example.model.ShardMatchRequest;
 import com.example.service.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,63 +28,235 @@ public class ResumeController {
     private final OCRResumeParser ocrResumeParser;
     private final JobMatchingService jobMatchingService;
     private final AdvancedMatchingService advancedMatchingService;
+    private final MatchResultProjector matchResultProjector;
+    private final EmbeddingService embeddingService;
+    private final ShardedMatchingService shardedMatchingService;
+    private final IncrementalRescoringService incrementalRescoringService;
+    private final NearDuplicateService nearDuplicateService;
 
     @PostMapping("/upload")
     public ResponseEntity<ParsedResume> uploadResume(@RequestParam("file") MultipartFile file) {
         log.info("收到简历上传请求，文件名: {}, 大小: {} bytes",
                 file.getOriginalFilename(), file.getSize());
 
-        ParsedResume resume = resumeParserService.parseResume(file);
+        ParsedResume resume = nearDuplicateService.resolve(resumeParserService.parseResume(file), false);
+        attachToRequest(resume);
         return ResponseEntity.ok(resume);
     }
 
     @PostMapping("/basic-match")
-    public ResponseEntity<MatchResult> basicMatch(
+    public ResponseEntity<Object> basicMatch(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "industry", required = false) String industry) {
+            @ModelAttribute JobFilter filter,
+            @ModelAttribute OcrOptions ocrOptions,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "timings", defaultValue = "false") boolean timings) {
 
-        log.info("基础匹配请求，文件: {}, 行业: {}", file.getOriginalFilename(), industry);
+        log.info("基础匹配请求，文件: {}, 过滤条件: {}", file.getOriginalFilename(), filter.cacheKey());
 
-        ParsedResume resume = parseResumeWithOCR(file);
-        MatchResult result = jobMatchingService.basicMatch(resume, industry);
+        ParsedResume resume = parseResumeWithOCR(file, ocrOptions);
+        MatchResult result = basicMatch(resume, filter);
+        if (timings) result = withTimings(result);
 
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(matchResultProjector.project(result, view, fields));
     }
 
     @PostMapping("/advanced-match")
-    public ResponseEntity<MatchResult> advancedMatch(
+    public ResponseEntity<Object> advancedMatch(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "industry", required = false) String industry) {
+            @ModelAttribute JobFilter filter,
+            @ModelAttribute MatchOptions options,
+            @ModelAttribute OcrOptions ocrOptions,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "timings", defaultValue = "false") boolean timings) {
 
-        log.info("高级匹配请求，文件: {}, 行业: {}", file.getOriginalFilename(), industry);
+        log.info("高级匹配请求，文件: {}, 过滤条件: {}", file.getOriginalFilename(), filter.cacheKey());
 
-        ParsedResume resume = parseResumeWithOCR(file);
-        MatchResult result = advancedMatchingService.advancedMatch(resume, industry);
+        ParsedResume resume = parseResumeWithOCR(file, ocrOptions);
+        MatchResult result = advancedMatch(resume, filter, options);
+        if (timings) result = withTimings(result);
 
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(matchResultProjector.project(result, view, fields));
     }
 
     @PostMapping("/compare-match")
     public ResponseEntity<Map<String, Object>> compareMatch(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(value = "industry", required = false) String industry) {
+            @ModelAttribute JobFilter filter,
+            @ModelAttribute OcrOptions ocrOptions,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "timings", defaultValue = "false") boolean timings) {
 
-        log.info("对比匹配请求，文件: {}, 行业: {}", file.getOriginalFilename(), industry);
+        log.info("对比匹配请求，文件: {}, 过滤条件: {}", file.getOriginalFilename(), filter.cacheKey());
 
-        ParsedResume resume = parseResumeWithOCR(file);
+        ParsedResume resume = parseResumeWithOCR(file, ocrOptions);
 
-        MatchResult basicResult = jobMatchingService.basicMatch(resume, industry);
-        MatchResult advancedResult = advancedMatchingService.advancedMatch(resume, industry);
-
-        Map<String, Object> comparison = new HashMap<>();
-        comparison.put("basicMatch", basicResult);
-        comparison.put("advancedMatch", advancedResult);
-        comparison.put("resume", resume);
+        MatchResult basicResult = basicMatch(resume, filter);
+        MatchResult advancedResult = advancedMatch(resume, filter, MatchOptions.exhaustive());
 
+        Map<String, Object> comparison = matchResultProjector.projectComparison(
+                resume, basicResult, advancedResult, view, fields);
+        RequestTimings request = PipelineMetrics.currentRequest();
+        if (timings && request != null) comparison.put("timings", request.toMillis());
         return ResponseEntity.ok(comparison);
     }
 
-    private ParsedResume parseResumeWithOCR(MultipartFile file) {
+    /**
+     * 注册简历的全量排名，岗位库增量修改后排名自动增量更新
+     */
+    @PostMapping("/rankings")
+    public ResponseEntity<Map<String, Object>> registerRanking(
+            @RequestParam("file") MultipartFile file,
+            @ModelAttribute OcrOptions ocrOptions,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+
+        log.info("注册简历排名，文件: {}", file.getOriginalFilename());
+
+        ParsedResume resume = parseResumeWithOCR(file, ocrOptions);
+        MatchResult result = incrementalRescoringService.register(resume);
+        return ResponseEntity.ok(rankingResponse(ResumeFingerprint.contentHash(resume), result, view, fields));
+    }
+
+    @GetMapping("/rankings/{resumeHash}")
+    public ResponseEntity<Map<String, Object>> getRanking(
+            @PathVariable String resumeHash,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) String fields) {
+
+        MatchResult result = incrementalRescoringService.getRanking(resumeHash);
+        if (result == null) {
+            Map<String, Object> notFound = new HashMap<>();
+            notFound.put("success", false);
+            notFound.put("message", "简历排名未注册: " + resumeHash);
+            return ResponseEntity.status(404).body(notFound);
+        }
+        return ResponseEntity.ok(rankingResponse(resumeHash, result, view, fields));
+    }
+
+    @DeleteMapping("/rankings/{resumeHash}")
+    public ResponseEntity<Map<String, Object>> unregisterRanking(@PathVariable String resumeHash) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", incrementalRescoringService.unregister(resumeHash));
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/nearest-jobs")
+    public ResponseEntity<Map<String, Object>> nearestJobs(
+            @RequestParam("file") MultipartFile file,
+            @ModelAttribute OcrOptions ocrOptions,
+            @RequestParam(value = "k", defaultValue = "10") int k,
+            @RequestParam(value = "ef", required = false) Integer ef,
+            @RequestParam(value = "exact", defaultValue = "false") boolean exact) {
+
+        log.info("向量近邻岗位查询，文件: {}, k: {}, ef: {}, 精确检索: {}", file.getOriginalFilename(), k, ef, exact);
+
+        Map<String, Object> result = new HashMap<>();
+        if (!embeddingService.isEnabled()) {
+            result.put("success", false);
+            result.put("message", "未配置词向量文件，向量语义检索不可用");
+            return ResponseEntity.ok(result);
+        }
+
+        ParsedResume resume = parseResumeWithOCR(file, ocrOptions);
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        List<EmbeddingService.ScoredJob> nearest = exact
+                ? embeddingService.exactNearestJobs(resume, k)
+                : embeddingService.nearestJobs(resume, k, ef);
+        for (EmbeddingService.ScoredJob scored : nearest) {
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("jobId", scored.job().getId());
+            job.put("title", scored.job().getTitle());
+            job.put("similarity", scored.similarity());
+            jobs.add(job);
+        }
+        result.put("success", true);
+        result.put("jobs", jobs);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 非法请求参数(如不支持的视图或字段)统一返回400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(result);
+    }
+
+    @ExceptionHandler(UploadLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleUploadLimitExceeded(UploadLimitExceededException e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", "上传文件超出资源限制: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(result);
+    }
+
+    /**
+     * 附加本次请求的阶段耗时；匹配服务返回的结果可能同时存放在缓存中，复制后再设置，不修改缓存条目
+     */
+    private MatchResult withTimings(MatchResult result) {
+        RequestTimings request = PipelineMetrics.currentRequest();
+        if (request == null) return result;
+        MatchResult timed = new MatchResult();
+        timed.setResume(result.getResume());
+        timed.setJobMatches(result.getJobMatches());
+        timed.setAnalysis(result.getAnalysis());
+        timed.setAlgorithmUsed(result.getAlgorithmUsed());
+        timed.setProcessingTimeMs(result.getProcessingTimeMs());
+        timed.setCached(result.isCached());
+        timed.setCascadeDiagnostics(result.getCascadeDiagnostics());
+        timed.setClusterDiagnostics(result.getClusterDiagnostics());
+        timed.setTimings(request.toMillis());
+        return timed;
+    }
+
+    /**
+     * 慢请求记录只保存简历的内容哈希，哈希在请求超过阈值时才计算
+     */
+    private void attachToRequest(ParsedResume resume) {
+        RequestTimings request = PipelineMetrics.currentRequest();
+        if (request != null) request.setResume(resume);
+    }
+
+    private Map<String, Object> rankingResponse(String resumeHash, MatchResult result, String view, String fields) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("resumeHash", resumeHash);
+        response.put("ranking", matchResultProjector.project(result, view, fields));
+        return response;
+    }
+
+    /**
+     * 协调节点上匹配请求扇出到各分片，否则在本地岗位库上匹配
+     */
+    private MatchResult basicMatch(ParsedResume resume, JobFilter filter) {
+        if (shardedMatchingService.isCoordinator()) {
+            return shardedMatchingService.match(ShardMatchRequest.ALGORITHM_BASIC, resume, filter, MatchOptions.exhaustive());
+        }
+        return jobMatchingService.basicMatch(resume, filter);
+    }
+
+    private MatchResult advancedMatch(ParsedResume resume, JobFilter filter, MatchOptions options) {
+        if (shardedMatchingService.isCoordinator()) {
+            return shardedMatchingService.match(ShardMatchRequest.ALGORITHM_ADVANCED, resume, filter, options);
+        }
+        return advancedMatchingService.advancedMatch(resume, filter, options);
+    }
+
+    private ParsedResume parseResumeWithOCR(MultipartFile file, OcrOptions ocrOptions) {
+        // 选项错误返回400，不在OCR失败时回退到基础处理
+        ocrOptions.validate();
+        ParsedResume resume = parseResumeFile(file, ocrOptions);
+        attachToRequest(resume);
+        return resume;
+    }
+
+    private ParsedResume parseResumeFile(MultipartFile file, OcrOptions ocrOptions) {
         if (ocrResumeParser.isImageFile(file.getOriginalFilename())) {
             log.info("检测到图片简历，启动OCR解析: {}", file.getOriginalFilename());
 
@@ -90,18 +267,22 @@ public class ResumeController {
             }
 
             try {
-                String ocrText = ocrResumeParser.parseImageResume(file);
-                log.info("OCR识别结果字符数: {}", ocrText.length());
+                OCRResumeParser.OcrResult ocr = ocrResumeParser.recognize(file, ocrOptions);
+                log.info("OCR识别结果字符数: {}, 置信度: {}", ocr.text().length(), ocr.confidence().getExplanation());
 
                 // 使用专门的图片简历解析方法
-                return resumeParserService.parseImageResume(file, ocrText);
+                ParsedResume resume = resumeParserService.parseImageResume(file, ocr.text());
+                resume.setOcrResult(ocr.confidence());
+                return nearDuplicateService.resolve(resume, true);
 
+            } catch (UploadLimitExceededException e) {
+                throw e;
             } catch (Exception e) {
                 log.error("OCR解析失败，回退到基础处理", e);
                 return createBasicResumeFromImage(file);
             }
         } else {
-            return resumeParserService.parseResume(file);
+            return nearDuplicateService.resolve(resumeParserService.parseResume(file), false);
         }
     }
 
@@ -174,8 +355,10 @@ public class ResumeController {
     }
 
     @PostMapping("/test-ocr")
-    public ResponseEntity<Map<String, Object>> testOCR(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> testOCR(@RequestParam("file") MultipartFile file,
+                                                       @ModelAttribute OcrOptions ocrOptions) {
         log.info("OCR专用测试接口，文件: {}", file.getOriginalFilename());
+        ocrOptions.validate();
 
         Map<String, Object> result = new HashMap<>();
 
@@ -199,7 +382,8 @@ public class ResumeController {
 
             // 执行OCR解析
             long startTime = System.currentTimeMillis();
-            String ocrText = ocrResumeParser.parseImageResume(file);
+            OCRResumeParser.OcrResult ocr = ocrResumeParser.recognize(file, ocrOptions);
+            String ocrText = ocr.text();
             long endTime = System.currentTimeMillis();
 
             result.put("success", true);
@@ -207,6 +391,7 @@ public class ResumeController {
             result.put("fileSize", file.getSize());
             result.put("processingTimeMs", endTime - startTime);
             result.put("ocrTextLength", ocrText.length());
+            result.put("ocrConfidence", ocr.confidence());
             result.put("ocrText", ocrText);
 
             // 尝试提取技能信息
@@ -218,6 +403,8 @@ public class ResumeController {
 
             return ResponseEntity.ok(result);
 
+        } catch (UploadLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("OCR测试失败", e);
             result.put("success", false);
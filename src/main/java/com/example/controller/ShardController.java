@@ -0,0 +1,40 @@
+package com.example.controller;
+
+import com.example.model.ShardMatchRequest;
+import com.example.model.ShardMatchResponse;
+import com.example.service.ShardedMatchingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分片节点接口 - 由协调节点调用，在本节点持有的岗位库分片上匹配
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/shard")
+@RequiredArgsConstructor
+public class ShardController {
+
+    private final ShardedMatchingService shardedMatchingService;
+
+    @PostMapping("/match")
+    public ResponseEntity<ShardMatchResponse> match(@RequestBody ShardMatchRequest request) {
+        ShardMatchResponse response = shardedMatchingService.matchLocal(request);
+        log.debug("分片匹配完成，算法: {}, 返回结果数: {}, 处理时间: {}ms",
+                request.getAlgorithm(), response.getMatches().size(), response.getProcessingTimeMs());
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(result);
+    }
+}
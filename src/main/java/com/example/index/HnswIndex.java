@@ -0,0 +1,437 @@
+package com.example.index;
+
+import com.example.vector.VectorMath;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存HNSW(分层可导航小世界图)近邻索引
+ * <p>
+ * 向量在加入前需做L2归一化，相似度为点积(即余弦相似度)。
+ * m/efConstruction决定建图质量，efSearch决定查询时的召回率与延迟，可在运行期调整。
+ * 删除只做标记(markDeleted)：被删节点仍参与图的导航，但不再出现在查询结果中，删除较多时应整体重建。
+ * 查询之间可并发执行；加入和删除与查询互斥，可在服务运行期间增量修改。
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 2;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private volatile int efSearch;
+
+    private final List<float[]> vectors = new ArrayList<>();
+    private final List<int[][]> links = new ArrayList<>();
+    private final List<Integer> labels = new ArrayList<>();
+    private final BitSet deletedLabels = new BitSet();
+    private final Random random = new Random(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch) {
+        if (dimension <= 0 || m < 2 || efConstruction <= 0 || efSearch <= 0) {
+            throw new IllegalArgumentException("HNSW参数非法: dimension=" + dimension + ", m=" + m
+                    + ", efConstruction=" + efConstruction + ", efSearch=" + efSearch);
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * 图中的节点数，包含已标记删除的节点
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return deletedLabels.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isDeleted(int label) {
+        lock.readLock().lock();
+        try {
+            return deletedLabels.get(label);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 标记删除label，之后的查询不再返回它
+     */
+    public void markDeleted(int label) {
+        lock.writeLock().lock();
+        try {
+            deletedLabels.set(label);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 第node个插入的节点的标签，用于从持久化的索引恢复调用方的向量矩阵
+     */
+    public int label(int node) {
+        lock.readLock().lock();
+        try {
+            return labels.get(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 第node个插入的节点的向量(内部数组，调用方不得修改)
+     */
+    public float[] vector(int node) {
+        lock.readLock().lock();
+        try {
+            return vectors.get(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        if (efSearch <= 0) throw new IllegalArgumentException("efSearch必须为正整数");
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * 加入一个向量，label为调用方的外部编号(如岗位行号)
+     */
+    public void add(int label, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("向量维度不匹配: " + vector.length + " != " + dimension);
+        }
+        lock.writeLock().lock();
+        try {
+            insert(label, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(int label, float[] vector) {
+        int node = vectors.size();
+        int level = randomLevel();
+        vectors.add(vector);
+        labels.add(label);
+        int[][] nodeLinks = new int[level + 1][];
+        Arrays.fill(nodeLinks, new int[0]);
+        links.add(nodeLinks);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+
+        List<Integer> entryPoints = List.of(current);
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> found = searchLayer(vector, entryPoints, efConstruction, l, false);
+            List<Candidate> sorted = toAscending(found);
+            int[] neighbors = selectNeighbors(vector, sorted, m);
+            nodeLinks[l] = neighbors;
+
+            for (int neighbor : neighbors) {
+                connect(neighbor, node, l);
+            }
+
+            List<Integer> next = new ArrayList<>(sorted.size());
+            for (Candidate candidate : sorted) next.add(candidate.node);
+            entryPoints = next;
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    public List<Neighbor> search(float[] query, int k) {
+        return search(query, k, efSearch);
+    }
+
+    /**
+     * 查询最相近的k个向量，ef越大召回率越高、延迟越大(ef至少取k)
+     */
+    public List<Neighbor> search(float[] query, int k, int ef) {
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("查询向量维度不匹配: " + query.length + " != " + dimension);
+        }
+        lock.readLock().lock();
+        try {
+            return find(query, k, ef);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Neighbor> find(float[] query, int k, int ef) {
+        if (entryPoint < 0 || k <= 0) return Collections.emptyList();
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+
+        List<Candidate> sorted = toAscending(searchLayer(query, List.of(current), Math.max(ef, k), 0, true));
+        List<Neighbor> result = new ArrayList<>(Math.min(k, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < k; i++) {
+            Candidate candidate = sorted.get(i);
+            result.add(new Neighbor(labels.get(candidate.node), 1.0 - candidate.distance));
+        }
+        return result;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            write(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(dimension);
+        out.writeInt(m);
+        out.writeInt(efConstruction);
+        out.writeInt(efSearch);
+        out.writeInt(vectors.size());
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+
+        for (int node = 0; node < vectors.size(); node++) {
+            out.writeInt(labels.get(node));
+            for (float value : vectors.get(node)) {
+                out.writeFloat(value);
+            }
+            int[][] nodeLinks = links.get(node);
+            out.writeInt(nodeLinks.length);
+            for (int[] levelLinks : nodeLinks) {
+                out.writeInt(levelLinks.length);
+                for (int neighbor : levelLinks) {
+                    out.writeInt(neighbor);
+                }
+            }
+        }
+        out.writeInt(deletedLabels.cardinality());
+        for (int label = deletedLabels.nextSetBit(0); label >= 0; label = deletedLabels.nextSetBit(label + 1)) {
+            out.writeInt(label);
+        }
+    }
+
+    public static HnswIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("不是HNSW索引文件");
+        int formatVersion = in.readInt();
+        if (formatVersion != 1 && formatVersion != FORMAT_VERSION) throw new IOException("不支持的HNSW索引版本: " + formatVersion);
+
+        int dimension = in.readInt();
+        int m = in.readInt();
+        int efConstruction = in.readInt();
+        int efSearch = in.readInt();
+        HnswIndex index = new HnswIndex(dimension, m, efConstruction, efSearch);
+
+        int size = in.readInt();
+        index.entryPoint = in.readInt();
+        index.maxLevel = in.readInt();
+        for (int node = 0; node < size; node++) {
+            index.labels.add(in.readInt());
+            float[] vector = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = in.readFloat();
+            }
+            index.vectors.add(vector);
+
+            int[][] nodeLinks = new int[in.readInt()][];
+            for (int l = 0; l < nodeLinks.length; l++) {
+                int[] levelLinks = new int[in.readInt()];
+                for (int i = 0; i < levelLinks.length; i++) {
+                    levelLinks[i] = in.readInt();
+                }
+                nodeLinks[l] = levelLinks;
+            }
+            index.links.add(nodeLinks);
+        }
+        // 版本1没有删除标记
+        int deleted = formatVersion == 1 ? 0 : in.readInt();
+        for (int i = 0; i < deleted; i++) {
+            index.deletedLabels.set(in.readInt());
+        }
+        return index;
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - random.nextDouble();
+        return (int) Math.floor(-Math.log(u) * levelMultiplier);
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        double currentDistance = distance(query, vectors.get(current));
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : linksAt(current, level)) {
+                double d = distance(query, vectors.get(neighbor));
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 单层束搜索，返回以距离为序的大顶堆(堆顶为最远的结果)；skipDeleted时已删除节点只用于导航，不进入结果
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, List<Integer> entryPoints, int ef, int level,
+                                                 boolean skipDeleted) {
+        BitSet visited = new BitSet(vectors.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(c -> c.distance));
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distance).reversed());
+
+        for (int entry : entryPoints) {
+            if (!visited.get(entry)) {
+                visited.set(entry);
+                Candidate candidate = new Candidate(entry, distance(query, vectors.get(entry)));
+                candidates.add(candidate);
+                if (!skipDeleted || !deletedLabels.get(labels.get(entry))) results.add(candidate);
+                if (results.size() > ef) results.poll();
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.distance > results.peek().distance) break;
+
+            for (int neighbor : linksAt(closest.node, level)) {
+                if (visited.get(neighbor)) continue;
+                visited.set(neighbor);
+                double d = distance(query, vectors.get(neighbor));
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate candidate = new Candidate(neighbor, d);
+                    candidates.add(candidate);
+                    if (!skipDeleted || !deletedLabels.get(labels.get(neighbor))) results.add(candidate);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 启发式邻居选择：优先保留彼此分散的近邻，不足时用被裁掉的候选补齐
+     */
+    private int[] selectNeighbors(float[] base, List<Candidate> ascending, int limit) {
+        List<Candidate> selected = new ArrayList<>(limit);
+        List<Candidate> discarded = new ArrayList<>();
+
+        for (Candidate candidate : ascending) {
+            if (selected.size() >= limit) break;
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (distance(vectors.get(candidate.node), vectors.get(chosen.node)) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) selected.add(candidate);
+            else discarded.add(candidate);
+        }
+        for (int i = 0; i < discarded.size() && selected.size() < limit; i++) {
+            selected.add(discarded.get(i));
+        }
+
+        int[] result = new int[selected.size()];
+        for (int i = 0; i < result.length; i++) result[i] = selected.get(i).node;
+        return result;
+    }
+
+    private void connect(int node, int newNeighbor, int level) {
+        int[][] nodeLinks = links.get(node);
+        int[] current = nodeLinks[level];
+        int limit = level == 0 ? maxM0 : m;
+
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = newNeighbor;
+        if (extended.length <= limit) {
+            nodeLinks[level] = extended;
+            return;
+        }
+
+        float[] base = vectors.get(node);
+        List<Candidate> candidates = new ArrayList<>(extended.length);
+        for (int neighbor : extended) {
+            candidates.add(new Candidate(neighbor, distance(base, vectors.get(neighbor))));
+        }
+        candidates.sort(Comparator.comparingDouble(c -> c.distance));
+        nodeLinks[level] = selectNeighbors(base, candidates, limit);
+    }
+
+    private int[] linksAt(int node, int level) {
+        int[][] nodeLinks = links.get(node);
+        return level < nodeLinks.length ? nodeLinks[level] : new int[0];
+    }
+
+    private static List<Candidate> toAscending(PriorityQueue<Candidate> heap) {
+        List<Candidate> sorted = new ArrayList<>(heap);
+        sorted.sort(Comparator.comparingDouble(c -> c.distance));
+        return sorted;
+    }
+
+    private static double distance(float[] a, float[] b) {
+        return 1.0 - VectorMath.dot(a, b);
+    }
+
+    private record Candidate(int node, double distance) {
+    }
+
+    public record Neighbor(int label, double similarity) {
+    }
+}
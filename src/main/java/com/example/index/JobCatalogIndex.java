@@ -0,0 +1,275 @@
+package com.example.index;
+
+import com.example.model.JobFilter;
+import com.example.store.JobStore;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * 岗位库过滤索引 - 随岗位库快照预先构建
+ * <p>
+ * 类别列(行业/公司/学历)按取值建倒排表：稀疏取值(如公司)保存升序行号数组，
+ * 覆盖行数达到总行数1/32(行号数组不小于位图)的取值才保存位图。
+ * 数值列(经验/薪资)按值排序后保存行号，范围查询通过二分定位区间再置位。
+ * 过滤结果为行号位图，直接用于候选岗位检索。
+ */
+public class JobCatalogIndex {
+
+    /**
+     * 行号数组每行4字节，位图每行1/8字节：取值覆盖行数 * 32 >= 总行数时改用位图
+     */
+    private static final int DENSE_FACTOR = 32;
+
+    private final int rowCount;
+    private final BitSet allRows;
+
+    private final Map<String, Postings> industryPostings;
+    private final Map<String, Postings> companyPostings;
+    private final Map<String, Postings> educationPostings;
+
+    private final SortedIntColumn experienceColumn;
+    private final SortedDoubleColumn salaryColumn;
+
+    public JobCatalogIndex(JobStore store) {
+        this.rowCount = store.size();
+        this.allRows = new BitSet(rowCount);
+        allRows.set(0, rowCount);
+
+        this.industryPostings = buildPostings(rowCount, store::industry);
+        this.companyPostings = buildPostings(rowCount, store::company);
+        this.educationPostings = buildPostings(rowCount, store::requiredEducation);
+        this.experienceColumn = SortedIntColumn.build(rowCount, store::minExperience);
+        this.salaryColumn = SortedDoubleColumn.build(rowCount, store::baseSalary);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 计算满足过滤条件的行号位图；空条件返回全部行
+     */
+    public BitSet evaluate(JobFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return (BitSet) allRows.clone();
+        }
+
+        List<BitSet> predicates = new ArrayList<>();
+        addIfPresent(predicates, lookup(industryPostings, filter.getIndustry()));
+        addIfPresent(predicates, lookup(companyPostings, filter.getCompany()));
+        addIfPresent(predicates, lookup(educationPostings, filter.getEducation()));
+        if (filter.getExperienceMin() != null || filter.getExperienceMax() != null) {
+            predicates.add(experienceColumn.range(filter.getExperienceMin(), filter.getExperienceMax(), rowCount));
+        }
+        if (filter.getSalaryMin() != null || filter.getSalaryMax() != null) {
+            predicates.add(salaryColumn.range(filter.getSalaryMin(), filter.getSalaryMax(), rowCount));
+        }
+
+        boolean orMode = filter.isOrMode();
+        BitSet result = orMode ? new BitSet(rowCount) : (BitSet) allRows.clone();
+        for (BitSet predicate : predicates) {
+            if (orMode) {
+                result.or(predicate);
+            } else {
+                result.and(predicate);
+                if (result.isEmpty()) break;
+            }
+        }
+        return result;
+    }
+
+    private void addIfPresent(List<BitSet> predicates, BitSet bitmap) {
+        if (bitmap != null) predicates.add(bitmap);
+    }
+
+    /**
+     * 类别列查询：多个取值取并集；未指定取值时返回null表示不参与组合
+     */
+    private BitSet lookup(Map<String, Postings> postings, List<String> values) {
+        if (values == null) return null;
+
+        BitSet result = null;
+        for (String value : values) {
+            if (value == null || value.isBlank()) continue;
+            if (result == null) result = new BitSet(rowCount);
+            Postings posting = postings.get(normalize(value));
+            if (posting != null) posting.orInto(result);
+        }
+        return result;
+    }
+
+    /**
+     * 先按取值收集升序行号，建完后按覆盖行数决定保留行号数组还是转成位图
+     */
+    private static Map<String, Postings> buildPostings(int rowCount, IntFunction<String> column) {
+        Map<String, RowList> lists = new HashMap<>();
+        for (int row = 0; row < rowCount; row++) {
+            String value = column.apply(row);
+            if (value == null || value.isBlank()) continue;
+            lists.computeIfAbsent(normalize(value), k -> new RowList()).add(row);
+        }
+        Map<String, Postings> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<String, RowList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toPostings(rowCount));
+        }
+        return postings;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase();
+    }
+
+    /**
+     * 类别列单个取值的倒排表：rows(稀疏，升序行号)和bitmap(稠密)二者只有一个非空
+     */
+    private static final class Postings {
+        private final int[] rows;
+        private final BitSet bitmap;
+
+        private Postings(int[] rows, BitSet bitmap) {
+            this.rows = rows;
+            this.bitmap = bitmap;
+        }
+
+        void orInto(BitSet result) {
+            if (bitmap != null) {
+                result.or(bitmap);
+                return;
+            }
+            for (int row : rows) {
+                result.set(row);
+            }
+        }
+    }
+
+    /**
+     * 构建期间的行号缓冲，按行号递增追加
+     */
+    private static final class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+
+        Postings toPostings(int rowCount) {
+            if ((long) size * DENSE_FACTOR < rowCount) {
+                return new Postings(Arrays.copyOf(rows, size), null);
+            }
+            BitSet bitmap = new BitSet(rowCount);
+            for (int i = 0; i < size; i++) {
+                bitmap.set(rows[i]);
+            }
+            return new Postings(null, bitmap);
+        }
+    }
+
+    /**
+     * 整数排序列：values升序，rows为对应行号；空值不入列
+     */
+    private static final class SortedIntColumn {
+        private final int[] values;
+        private final int[] rows;
+
+        private SortedIntColumn(int[] values, int[] rows) {
+            this.values = values;
+            this.rows = rows;
+        }
+
+        static SortedIntColumn build(int rowCount, IntFunction<Integer> column) {
+            List<long[]> pairs = new ArrayList<>();
+            for (int row = 0; row < rowCount; row++) {
+                Integer value = column.apply(row);
+                if (value != null) pairs.add(new long[]{value, row});
+            }
+            pairs.sort(Comparator.comparingLong(p -> p[0]));
+
+            int[] values = new int[pairs.size()];
+            int[] rows = new int[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+                values[i] = (int) pairs.get(i)[0];
+                rows[i] = (int) pairs.get(i)[1];
+            }
+            return new SortedIntColumn(values, rows);
+        }
+
+        BitSet range(Integer min, Integer max, int rowCount) {
+            int from = min == null ? 0 : lowerBound(min);
+            int to = max == null ? values.length : lowerBound(max + 1L);
+            BitSet result = new BitSet(rowCount);
+            for (int i = from; i < to; i++) {
+                result.set(rows[i]);
+            }
+            return result;
+        }
+
+        private int lowerBound(long key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * 浮点排序列：用于薪资区间查询，闭区间[min, max]
+     */
+    private static final class SortedDoubleColumn {
+        private final double[] values;
+        private final int[] rows;
+
+        private SortedDoubleColumn(double[] values, int[] rows) {
+            this.values = values;
+            this.rows = rows;
+        }
+
+        static SortedDoubleColumn build(int rowCount, IntFunction<Double> column) {
+            List<long[]> pairs = new ArrayList<>();
+            for (int row = 0; row < rowCount; row++) {
+                Double value = column.apply(row);
+                if (value != null) pairs.add(new long[]{Double.doubleToLongBits(value), row});
+            }
+            pairs.sort(Comparator.comparingDouble(p -> Double.longBitsToDouble(p[0])));
+
+            double[] values = new double[pairs.size()];
+            int[] rows = new int[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+                values[i] = Double.longBitsToDouble(pairs.get(i)[0]);
+                rows[i] = (int) pairs.get(i)[1];
+            }
+            return new SortedDoubleColumn(values, rows);
+        }
+
+        BitSet range(Double min, Double max, int rowCount) {
+            int from = min == null ? 0 : firstIndex(min, false);
+            int to = max == null ? values.length : firstIndex(max, true);
+            BitSet result = new BitSet(rowCount);
+            for (int i = from; i < to; i++) {
+                result.set(rows[i]);
+            }
+            return result;
+        }
+
+        /**
+         * inclusive=false: 第一个 >= key 的位置；inclusive=true: 第一个 > key 的位置
+         */
+        private int firstIndex(double key, boolean inclusive) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                boolean before = inclusive ? values[mid] <= key : values[mid] < key;
+                if (before) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+}
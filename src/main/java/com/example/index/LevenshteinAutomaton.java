@@ -0,0 +1,72 @@
+package com.example.index;
+
+/**
+ * 有界编辑距离的Levenshtein自动机(插入、删除、替换以及相邻字符交换各计1次编辑)
+ * <p>
+ * 状态为查询词各前缀到已读入字符串的编辑距离向量(超过maxEdits的分量截断为maxEdits+1)，
+ * 与Levenshtein NFA在每个位置上的最小活跃编辑数一一对应；为判断相邻交换，状态中还带有上一步的向量和上一个字符。
+ * 自动机与字典trie同步遍历：共享前缀只计算一次，canMatch为false的分支整体剪枝，不再逐个词条计算编辑距离。
+ */
+public class LevenshteinAutomaton {
+
+    private final String word;
+    private final int maxEdits;
+    private final int width;
+
+    public LevenshteinAutomaton(String word, int maxEdits) {
+        this.word = word;
+        this.maxEdits = maxEdits;
+        this.width = word.length() + 1;
+    }
+
+    /**
+     * 状态布局: [当前向量 | 上一步向量 | 上一个字符]
+     */
+    public int[] start() {
+        int[] state = new int[width * 2 + 1];
+        for (int i = 0; i < width; i++) {
+            state[i] = Math.min(i, maxEdits + 1);
+            state[width + i] = maxEdits + 1;
+        }
+        state[width * 2] = -1;
+        return state;
+    }
+
+    public int[] step(int[] state, char c) {
+        int[] next = new int[state.length];
+        int previousChar = state[width * 2];
+        next[0] = Math.min(state[0] + 1, maxEdits + 1);
+        for (int i = 1; i < width; i++) {
+            int cost = word.charAt(i - 1) == c ? 0 : 1;
+            int value = Math.min(state[i - 1] + cost, Math.min(state[i] + 1, next[i - 1] + 1));
+            if (i > 1 && word.charAt(i - 1) == previousChar && word.charAt(i - 2) == c) {
+                value = Math.min(value, state[width + i - 2] + 1);
+            }
+            next[i] = Math.min(value, maxEdits + 1);
+        }
+        System.arraycopy(state, 0, next, width, width);
+        next[width * 2] = c;
+        return next;
+    }
+
+    /**
+     * 已读入的字符串与查询词的编辑距离不超过maxEdits
+     */
+    public boolean isMatch(int[] state) {
+        return state[width - 1] <= maxEdits;
+    }
+
+    /**
+     * 继续读入字符后仍可能匹配(当前向量或可用于交换的上一步向量中仍有未超出预算的分量)
+     */
+    public boolean canMatch(int[] state) {
+        for (int i = 0; i < width * 2; i++) {
+            if (state[i] <= maxEdits) return true;
+        }
+        return false;
+    }
+
+    public int distance(int[] state) {
+        return state[width - 1];
+    }
+}
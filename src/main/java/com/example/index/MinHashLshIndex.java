@@ -0,0 +1,150 @@
+package com.example.index;
+
+import java.util.*;
+
+/**
+ * MinHash签名 + LSH分桶索引，用于近似Jaccard相似度的近重复检索
+ * <p>
+ * 签名由numHashes个独立哈希函数在shingle集合上的最小值组成，两个集合签名分量相等的比例是其Jaccard相似度的无偏估计。
+ * 签名切分为bands段、每段rows个分量，任一段完全相同的文档进入同一个桶；查询只检查同桶候选，
+ * 与库中文档总数无关。相似度为s的两个文档至少在一段上碰撞的概率为 1 - (1 - s^rows)^bands，
+ * 阈值约为 (1/bands)^(1/rows)。
+ */
+public class MinHashLshIndex {
+
+    private final int numHashes;
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] increments;
+
+    private final List<Map<Long, Set<String>>> buckets;
+    private final Map<String, int[]> signatures = new HashMap<>();
+
+    public MinHashLshIndex(int numHashes, int bands) {
+        if (numHashes <= 0 || bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("MinHash参数无效: num-hashes=" + numHashes + "须为bands=" + bands + "的正整数倍");
+        }
+        this.numHashes = numHashes;
+        this.bands = bands;
+        this.rows = numHashes / bands;
+
+        // 固定种子，签名在重启前后保持一致
+        Random random = new Random(0x5DEECE66DL);
+        this.multipliers = new long[numHashes];
+        this.increments = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1L;
+            increments[i] = random.nextLong();
+        }
+
+        this.buckets = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * shingle哈希集合的MinHash签名；空集合返回null
+     */
+    public int[] signature(long[] shingleHashes) {
+        if (shingleHashes.length == 0) return null;
+
+        int[] signature = new int[numHashes];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long shingle : shingleHashes) {
+            for (int i = 0; i < numHashes; i++) {
+                int value = (int) (mix(shingle * multipliers[i] + increments[i]) >>> 33);
+                if (value < signature[i]) signature[i] = value;
+            }
+        }
+        return signature;
+    }
+
+    public void add(String id, int[] signature) {
+        remove(id);
+        signatures.put(id, signature);
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    public void remove(String id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) return;
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<String>> bandBuckets = buckets.get(band);
+            long key = bandKey(signature, band);
+            Set<String> ids = bandBuckets.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) bandBuckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 同桶候选及其签名估计的相似度，按相似度降序
+     */
+    public List<Candidate> query(int[] signature) {
+        Set<String> candidateIds = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Set<String> ids = buckets.get(band).get(bandKey(signature, band));
+            if (ids != null) candidateIds.addAll(ids);
+        }
+
+        List<Candidate> candidates = new ArrayList<>(candidateIds.size());
+        for (String id : candidateIds) {
+            candidates.add(new Candidate(id, estimateSimilarity(signature, signatures.get(id))));
+        }
+        candidates.sort((a, b) -> Double.compare(b.similarity(), a.similarity()));
+        return candidates;
+    }
+
+    public double estimateSimilarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < numHashes; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / numHashes;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * 碰撞概率为50%时的相似度，近似于LSH的召回阈值
+     */
+    public double approximateThreshold() {
+        return Math.pow(1.0 / bands, 1.0 / rows);
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[i];
+        }
+        return mix(key);
+    }
+
+    /**
+     * SplitMix64终结函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public record Candidate(String id, double similarity) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.index;
+
+import java.util.*;
+
+/**
+ * 编译后的层级技能分类体系(只读)：领域 -> 类别 -> 子类别 -> 技能
+ * <p>
+ * 所有分类节点编号为稠密id，每个技能预先计算祖先闭包位图(技能所属的全部子类别、类别和领域，
+ * 技能可属于多个分类，闭包取并集)。一组技能的闭包为各技能位图按位或，任一层级的分类重叠
+ * 只需与该层级的掩码按位与后计数，与分类数量无关。
+ */
+public class SkillTaxonomy {
+
+    public static final int DOMAIN = 0;
+    public static final int CATEGORY = 1;
+    public static final int SUBCATEGORY = 2;
+    public static final List<String> LEVEL_NAMES = List.of("domain", "category", "subcategory");
+
+    private final long version;
+    private final long[][] levelMasks;
+    private final Map<String, long[]> skillClosures;
+    private final List<List<String>> nodeSkills;
+    private final int words;
+
+    private SkillTaxonomy(long version, List<Integer> nodeLevels,
+                          Map<String, BitSet> skillAncestors, List<List<String>> nodeSkills) {
+        this.version = version;
+        this.words = Math.max(1, (nodeLevels.size() + 63) / 64);
+
+        this.levelMasks = new long[LEVEL_NAMES.size()][];
+        for (int level = 0; level < levelMasks.length; level++) {
+            BitSet mask = new BitSet();
+            for (int node = 0; node < nodeLevels.size(); node++) {
+                if (nodeLevels.get(node) == level) mask.set(node);
+            }
+            levelMasks[level] = words(mask);
+        }
+
+        Map<String, long[]> closures = new HashMap<>(skillAncestors.size() * 2);
+        skillAncestors.forEach((skill, ancestors) -> closures.put(skill, words(ancestors)));
+        this.skillClosures = closures;
+        this.nodeSkills = nodeSkills;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 一组技能(比较键)的祖先闭包；不在分类体系中的技能不贡献任何分类
+     */
+    public long[] closure(Collection<String> skillKeys) {
+        long[] closure = new long[words];
+        for (String key : skillKeys) {
+            long[] ancestors = skillClosures.get(key);
+            if (ancestors == null) continue;
+            for (int i = 0; i < words; i++) closure[i] |= ancestors[i];
+        }
+        return closure;
+    }
+
+    /**
+     * 指定层级上岗位分类被简历覆盖的比例；岗位在该层级没有分类时为0
+     */
+    public double overlap(long[] resumeClosure, long[] jobClosure, int level) {
+        long[] mask = levelMasks[level];
+        int jobCount = 0;
+        int shared = 0;
+        for (int i = 0; i < words; i++) {
+            long job = jobClosure[i] & mask[i];
+            jobCount += Long.bitCount(job);
+            shared += Long.bitCount(job & resumeClosure[i]);
+        }
+        return jobCount == 0 ? 0.0 : (double) shared / jobCount;
+    }
+
+    /**
+     * 与给定闭包在指定层级上共享分类的全部技能(比较键)
+     */
+    public Set<String> skillsSharing(long[] closure, int level) {
+        Set<String> skills = new HashSet<>();
+        long[] mask = levelMasks[level];
+        for (int i = 0; i < words; i++) {
+            long bits = closure[i] & mask[i];
+            while (bits != 0) {
+                int node = i * 64 + Long.numberOfTrailingZeros(bits);
+                skills.addAll(nodeSkills.get(node));
+                bits &= bits - 1;
+            }
+        }
+        return skills;
+    }
+
+    public boolean contains(String skillKey) {
+        return skillClosures.containsKey(skillKey);
+    }
+
+    public int skillCount() {
+        return skillClosures.size();
+    }
+
+    public int nodeCount(int level) {
+        int count = 0;
+        for (long word : levelMasks[level]) count += Long.bitCount(word);
+        return count;
+    }
+
+    public static int parseLevel(String name) {
+        int level = LEVEL_NAMES.indexOf(name == null ? "" : name.trim().toLowerCase(Locale.ROOT));
+        if (level < 0) throw new IllegalArgumentException("未知的分类层级: " + name + "，可选: " + LEVEL_NAMES);
+        return level;
+    }
+
+    private long[] words(BitSet bits) {
+        return Arrays.copyOf(bits.toLongArray(), words);
+    }
+
+    /**
+     * 分类体系构建器：按路径(领域、类别、子类别)登记技能，build时编译为稠密id和闭包位图
+     */
+    public static class Builder {
+
+        private final Map<String, Integer> nodeIds = new LinkedHashMap<>();
+        private final List<Integer> nodeLevels = new ArrayList<>();
+        private final List<List<String>> nodeSkills = new ArrayList<>();
+        private final Map<String, BitSet> skillAncestors = new LinkedHashMap<>();
+
+        /**
+         * @param path     从领域开始的分类路径，最多三级
+         * @param skillKey 技能比较键
+         */
+        public Builder add(List<String> path, String skillKey) {
+            if (path.isEmpty() || path.size() > LEVEL_NAMES.size()) {
+                throw new IllegalArgumentException("分类路径须为1到" + LEVEL_NAMES.size() + "级: " + path);
+            }
+            BitSet ancestors = skillAncestors.computeIfAbsent(skillKey, key -> new BitSet());
+            StringBuilder qualified = new StringBuilder();
+            for (int level = 0; level < path.size(); level++) {
+                if (level > 0) qualified.append(" > ");
+                qualified.append(path.get(level));
+                int node = nodeIds.computeIfAbsent(qualified.toString(), name -> register());
+                nodeLevels.set(node, level);
+                if (!ancestors.get(node)) {
+                    ancestors.set(node);
+                    nodeSkills.get(node).add(skillKey);
+                }
+            }
+            return this;
+        }
+
+        public SkillTaxonomy build(long version) {
+            return new SkillTaxonomy(version, nodeLevels, skillAncestors, nodeSkills);
+        }
+
+        private int register() {
+            nodeLevels.add(-1);
+            nodeSkills.add(new ArrayList<>());
+            return nodeLevels.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.index;
+
+import java.util.*;
+
+/**
+ * 技能字典trie(构建后压缩为扁平数组，只读)
+ * <p>
+ * 每个节点的子节点按字符排序连续存放；精确查找逐字符二分，模糊查找与LevenshteinAutomaton同步深度优先遍历，
+ * 自动机无法再匹配的子树直接剪枝，代价与字典中和查询词相近的前缀数成正比，而不是与词条总数成正比。
+ */
+public class SkillTrie {
+
+    private final int[] childStart;
+    private final int[] childCount;
+    private final char[] childLabels;
+    private final int[] childTargets;
+    private final int[] values;
+
+    /**
+     * @param entries 词条 -> 值(非负)
+     */
+    public SkillTrie(Map<String, Integer> entries) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> nodeValues = new ArrayList<>();
+        children.add(new TreeMap<>());
+        nodeValues.add(-1);
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            int node = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                Integer child = children.get(node).get(c);
+                if (child == null) {
+                    child = children.size();
+                    children.add(new TreeMap<>());
+                    nodeValues.add(-1);
+                    children.get(node).put(c, child);
+                }
+                node = child;
+            }
+            nodeValues.set(node, entry.getValue());
+        }
+
+        int nodes = children.size();
+        this.childStart = new int[nodes];
+        this.childCount = new int[nodes];
+        this.childLabels = new char[nodes - 1];
+        this.childTargets = new int[nodes - 1];
+        this.values = new int[nodes];
+        int next = 0;
+        for (int node = 0; node < nodes; node++) {
+            values[node] = nodeValues.get(node);
+            childStart[node] = next;
+            childCount[node] = children.get(node).size();
+            for (Map.Entry<Character, Integer> child : children.get(node).entrySet()) {
+                childLabels[next] = child.getKey();
+                childTargets[next] = child.getValue();
+                next++;
+            }
+        }
+    }
+
+    /**
+     * 精确查找，不存在时返回-1
+     */
+    public int get(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node < 0 ? -1 : values[node];
+    }
+
+    /**
+     * 编辑距离不超过maxEdits的最近词条；距离相同时取字典序靠前的词条，不存在时返回null
+     */
+    public Match nearest(String key, int maxEdits) {
+        LevenshteinAutomaton automaton = new LevenshteinAutomaton(key, maxEdits);
+        Match[] best = new Match[1];
+        search(automaton, 0, automaton.start(), new StringBuilder(), best);
+        return best[0];
+    }
+
+    public int nodeCount() {
+        return values.length;
+    }
+
+    private void search(LevenshteinAutomaton automaton, int node, int[] state, StringBuilder prefix, Match[] best) {
+        if (values[node] >= 0 && automaton.isMatch(state)) {
+            int distance = automaton.distance(state);
+            if (best[0] == null || distance < best[0].distance()) {
+                best[0] = new Match(values[node], prefix.toString(), distance);
+            }
+        }
+        for (int i = childStart[node]; i < childStart[node] + childCount[node]; i++) {
+            int[] next = automaton.step(state, childLabels[i]);
+            if (!automaton.canMatch(next)) continue;
+            prefix.append(childLabels[i]);
+            search(automaton, childTargets[i], next, prefix, best);
+            prefix.setLength(prefix.length() - 1);
+            if (best[0] != null && best[0].distance() == 0) return;
+        }
+    }
+
+    private int child(int node, char c) {
+        int low = childStart[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = childLabels[mid];
+            if (label == c) return childTargets[mid];
+            if (label < c) low = mid + 1;
+            else high = mid - 1;
+        }
+        return -1;
+    }
+
+    public record Match(int value, String key, int distance) {
+    }
+}
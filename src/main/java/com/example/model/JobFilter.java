@@ -0,0 +1,67 @@
+package com.example.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 岗位过滤条件 - 同一条件内多个取值为OR，不同条件之间按mode组合(AND/OR)
+ */
+@Data
+public class JobFilter {
+    private List<String> industry = new ArrayList<>();
+    private List<String> company = new ArrayList<>();
+    private List<String> education = new ArrayList<>();
+    private Integer experienceMin;   // 岗位最低经验要求下限
+    private Integer experienceMax;   // 岗位最低经验要求上限
+    private Double salaryMin;
+    private Double salaryMax;
+    private String filterMode = "AND";
+
+    public static JobFilter ofIndustry(String industry) {
+        JobFilter filter = new JobFilter();
+        if (industry != null) {
+            filter.getIndustry().add(industry);
+        }
+        return filter;
+    }
+
+    public boolean isOrMode() {
+        return "OR".equalsIgnoreCase(filterMode);
+    }
+
+    public boolean isEmpty() {
+        return isBlank(industry) && isBlank(company) && isBlank(education)
+                && experienceMin == null && experienceMax == null
+                && salaryMin == null && salaryMax == null;
+    }
+
+    /**
+     * 规范化的过滤条件描述，用作缓存键的一部分
+     */
+    public String cacheKey() {
+        if (isEmpty()) return "";
+        return String.join("|",
+                "mode=" + (isOrMode() ? "OR" : "AND"),
+                "industry=" + normalize(industry),
+                "company=" + normalize(company),
+                "education=" + normalize(education),
+                "exp=" + experienceMin + ".." + experienceMax,
+                "salary=" + salaryMin + ".." + salaryMax);
+    }
+
+    private static boolean isBlank(List<String> values) {
+        return values == null || values.stream().allMatch(v -> v == null || v.isBlank());
+    }
+
+    private static String normalize(List<String> values) {
+        if (values == null) return "";
+        return values.stream()
+                .filter(v -> v != null && !v.isBlank())
+                .map(v -> v.trim().toLowerCase())
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+}
@@ -17,6 +17,7 @@ public class JobMatch {
         private double tfidfScore;
         private double jaccardScore;
         private double semanticScore;
+        private Double embeddingScore; // 词向量语义得分，未配置词向量时为空
         private double weightedScore;
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.model;
+
+import lombok.Data;
+
+/**
+ * 高级匹配选项 - mode为exhaustive(全量打分)或cascade(先粗筛再精排)
+ */
+@Data
+public class MatchOptions {
+    public static final String MODE_EXHAUSTIVE = "exhaustive";
+    public static final String MODE_CASCADE = "cascade";
+
+    private String mode = MODE_EXHAUSTIVE;
+    private Integer shortlist;      // 级联模式下进入精排的岗位数，为空时使用配置默认值
+    private Boolean recallCheck;    // 强制(true)或禁止(false)本次请求做召回率诊断，为空时按采样率
+
+    public static MatchOptions exhaustive() {
+        return new MatchOptions();
+    }
+
+    public boolean isCascade() {
+        return MODE_CASCADE.equalsIgnoreCase(mode);
+    }
+
+    public void validate() {
+        if (mode != null && !MODE_EXHAUSTIVE.equalsIgnoreCase(mode) && !MODE_CASCADE.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("不支持的匹配模式: " + mode + "，可选值: exhaustive, cascade");
+        }
+        if (shortlist != null && shortlist <= 0) {
+            throw new IllegalArgumentException("shortlist必须为正整数");
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.model;
 
 import lombok.Data;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class MatchResult {
@@ -10,4 +12,38 @@ public class MatchResult {
     private String analysis;
     private String algorithmUsed;
     private long processingTimeMs;
-}
\ No newline at end of file
+    private boolean cached;
+    private CascadeDiagnostics cascadeDiagnostics;
+    private ClusterDiagnostics clusterDiagnostics;
+    private Map<String, Double> timings;    // 请求参数timings=true时本次请求各阶段耗时(毫秒)，不随缓存复用
+
+    @Data
+    public static class CascadeDiagnostics {
+        private int candidateCount;     // 过滤后的候选岗位数
+        private int shortlistSize;      // 进入精排的岗位数
+        private boolean recallSampled;  // 本次是否同时执行了全量打分对照
+        private Integer recallK;
+        private Double recallAtK;       // 级联前K与全量前K的重合比例
+        private Long exhaustiveTimeMs;  // 全量对照耗时
+    }
+
+    @Data
+    public static class ClusterDiagnostics {
+        private boolean partial;        // 存在超时或失败的分片，结果只覆盖部分岗位库
+        private int shardCount;
+        private int respondedShards;
+        private List<ShardStatus> shards = new ArrayList<>();
+    }
+
+    @Data
+    public static class ShardStatus {
+        private String shard;           // 分片地址
+        private String status;          // ok / timeout / error
+        private Integer shardIndex;
+        private Long catalogVersion;
+        private Integer catalogSize;
+        private int matchCount;
+        private long latencyMs;
+        private String error;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 图片简历的OCR选项 - binarization为完整流程的二值化方式：global(全局阈值)、sauvola、bradley(局部自适应阈值)
+ * 或auto(按光照不均匀程度在全局和局部之间选择)，为空时使用配置默认值
+ */
+@Data
+public class OcrOptions {
+    public static final String BINARIZATION_GLOBAL = "global";
+    public static final String BINARIZATION_SAUVOLA = "sauvola";
+    public static final String BINARIZATION_BRADLEY = "bradley";
+    public static final String BINARIZATION_AUTO = "auto";
+    public static final List<String> BINARIZATIONS =
+            List.of(BINARIZATION_GLOBAL, BINARIZATION_SAUVOLA, BINARIZATION_BRADLEY, BINARIZATION_AUTO);
+
+    private String binarization;
+
+    public static OcrOptions defaults() {
+        return new OcrOptions();
+    }
+
+    public void validate() {
+        if (binarization != null && !BINARIZATIONS.contains(binarization.toLowerCase())) {
+            throw new IllegalArgumentException("不支持的二值化方式: " + binarization + "，可选值: " + String.join(", ", BINARIZATIONS));
+        }
+    }
+}
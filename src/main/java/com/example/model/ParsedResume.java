@@ -13,6 +13,8 @@ public class ParsedResume {
     private List<String> certifications = new ArrayList<>();
     private String rawText;
     private String fileName;
+    private NearDuplicate nearDuplicate; // 与已入库简历近重复时复用其解析结果，记录来源
+    private ExtractionResult ocrResult;  // 图片简历的OCR置信度，value为采用的识别流程(fast/full)
 
     @Data
     public static class PersonalInfo {
@@ -23,6 +25,13 @@ public class ParsedResume {
         private Integer yearsOfExperience;
     }
 
+    @Data
+    public static class NearDuplicate {
+        private String resumeId;
+        private String fileName;        // 被复用解析结果的原始文件
+        private double similarity;      // MinHash估计的shingle Jaccard相似度
+    }
+
     @Data
     public static class WorkExperience {
         private String company;
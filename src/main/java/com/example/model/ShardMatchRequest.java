@@ -0,0 +1,26 @@
+package com.example.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 分片匹配请求 - 协调节点向各分片扇出的简历特征和匹配参数
+ */
+@Data
+public class ShardMatchRequest {
+    public static final String ALGORITHM_BASIC = "basic";
+    public static final String ALGORITHM_ADVANCED = "advanced";
+
+    private String algorithm = ALGORITHM_ADVANCED;
+    private ParsedResume resume;    // 仅包含技能、工作年限和文件名，不含正文和联系方式
+    /**
+     * 高级匹配的正文特征，由协调节点计算：词项向量(联系方式相关的词项以占位键代替)和词向量；
+     * 为null时分片由resume.rawText计算(兼容发送正文的旧协调节点)
+     */
+    private Map<String, Double> resumeTerms;
+    private float[] resumeVector;
+    private JobFilter filter = new JobFilter();
+    private MatchOptions options = MatchOptions.exhaustive();
+    private int topK;               // 分片返回的本地前K个结果
+}
@@ -0,0 +1,20 @@
+package com.example.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片匹配响应 - 分片本地岗位库上的前K个匹配结果(按得分降序)
+ */
+@Data
+public class ShardMatchResponse {
+    private int shardIndex;
+    private int shardCount;
+    private long catalogVersion;
+    private int catalogSize;
+    private String algorithmUsed;
+    private long processingTimeMs;
+    private List<JobMatch> matches = new ArrayList<>();
+}
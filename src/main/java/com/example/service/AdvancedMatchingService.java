@@ -1,20 +1,32 @@
 package com.example.service;
 
 
+import com.example.model.JobFilter;
 import com.example.model.JobMatch;
 import com.example.model.JobPosition;
+import com.example.model.MatchOptions;
 import com.example.model.MatchResult;
 import com.example.model.ParsedResume;
+import com.example.vector.TermVectors;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class AdvancedMatchingService {
 
+    private static final String ALGORITHM = "advanced";
+    private static final String CASCADE_ALGORITHM = "cascade";
+
     // 技能权重配置
     private static final Map<String, Double> SKILL_WEIGHTS = Map.ofEntries(
             Map.entry("Java", 1.0), Map.entry("Spring", 0.9), Map.entry("Spring Boot", 0.9),
@@ -23,46 +35,256 @@ public class AdvancedMatchingService {
             Map.entry("Docker", 0.6), Map.entry("Kubernetes", 0.6), Map.entry("Linux", 0.5)
     );
 
-    // 技能分类树
-    private static final Map<String, List<String>> SKILL_CATEGORIES = Map.of(
-            "后端开发", Arrays.asList("Java", "Spring", "MySQL", "Redis", "Python"),
-            "前端开发", Arrays.asList("JavaScript", "Vue", "React", "HTML", "CSS"),
-            "运维开发", Arrays.asList("Docker", "Kubernetes", "Linux", "AWS")
-    );
+    private final JobCatalogService jobCatalogService;
+    private final MatchResultCache matchResultCache;
+    private final SkillNormalizer skillNormalizer;
+    private final SkillTaxonomyService skillTaxonomyService;
+    private final JobMatchingService jobMatchingService;
+    private final EmbeddingService embeddingService;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${app.semantic.embedding-weight:0.2}")
+    private double embeddingWeight;
+
+    @Value("${app.match.cascade.shortlist-size:50}")
+    private int defaultShortlistSize;
+
+    @Value("${app.match.cascade.recall-sample-rate:0.05}")
+    private double recallSampleRate;
+
+    @Value("${app.match.cascade.recall-k:10}")
+    private int recallK;
+
+    private final LongAdder recallSamples = new LongAdder();
+    private final DoubleAdder recallSum = new DoubleAdder();
 
     public MatchResult advancedMatch(ParsedResume resume, String industry) {
-        long startTime = System.currentTimeMillis();
+        return advancedMatch(resume, JobFilter.ofIndustry(industry));
+    }
 
-        List<JobPosition> relevantJobs = getJobDatabase().stream()
-                .filter(job -> industry == null || industry.equalsIgnoreCase(job.getIndustry()))
-                .collect(Collectors.toList());
+    public MatchResult advancedMatch(ParsedResume resume, JobFilter filter) {
+        return advancedMatch(resume, filter, MatchOptions.exhaustive());
+    }
 
-        List<JobMatch> matches = relevantJobs.stream()
-                .map(job -> createAdvancedJobMatch(resume, job))
-                .sorted((a, b) -> Double.compare(b.getMatchScore(), a.getMatchScore()))
-                .collect(Collectors.toList());
+    public MatchResult advancedMatch(ParsedResume resume, JobFilter filter, MatchOptions options) {
+        return advancedMatch(resume, null, filter, options);
+    }
+
+    /**
+     * features为预先计算的简历正文特征(分片节点从协调节点接收，不接收简历正文)，为null时由简历正文计算
+     */
+    public MatchResult advancedMatch(ParsedResume resume, ResumeFeatures features, JobFilter filter, MatchOptions options) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        options.validate();
+
+        JobCatalogSnapshot catalog = jobCatalogService.getSnapshot();
+        // 列式岗位库不物化全部岗位，始终走级联：粗筛只读列数据，精排时才物化短名单
+        boolean cascade = options.isCascade() || catalog.isOffHeap();
+        int shortlistSize = options.getShortlist() != null ? options.getShortlist() : defaultShortlistSize;
+        String algorithm = cascade ? ALGORITHM + "-cascade-" + shortlistSize : ALGORITHM;
+        String metricsAlgorithm = cascade ? CASCADE_ALGORITHM : ALGORITHM;
+
+        String resumeHash = features == null
+                ? ResumeFingerprint.contentHash(resume) : ResumeFingerprint.featureHash(resume, features.terms());
+        MatchResultCache.Key cacheKey = MatchResultCache.key(resumeHash, algorithm, filter.cacheKey(), catalog.getVersion());
+
+        // 显式要求召回诊断时跳过缓存
+        Optional<MatchResult> cached = Boolean.TRUE.equals(options.getRecallCheck())
+                ? Optional.empty() : matchResultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            pipelineMetrics.recordMatch(metricsAlgorithm, "cache-hit", startNanos);
+            MatchResult result = copyForResume(cached.get(), resume, System.currentTimeMillis() - startTime);
+            log.info("高级匹配命中缓存，处理时间: {}ms", result.getProcessingTimeMs());
+            return result;
+        }
+
+        long stageStart = System.nanoTime();
+        BitSet relevantRows = catalog.selectRows(filter);
+        pipelineMetrics.recordMatch(metricsAlgorithm, "filter", stageStart);
+
+        List<JobMatch> matches;
+        MatchResult.CascadeDiagnostics diagnostics = null;
+        if (cascade) {
+            // 第一阶段：基础技能/经验得分粗筛；第二阶段：仅对候选短名单做多算法精排
+            stageStart = System.nanoTime();
+            int[] shortlist = jobMatchingService.shortlistRows(resume, catalog, relevantRows, shortlistSize);
+            pipelineMetrics.recordMatch(metricsAlgorithm, "shortlist", stageStart);
+            matches = scoreAndRank(resume, features, catalog, shortlist, metricsAlgorithm);
+
+            diagnostics = new MatchResult.CascadeDiagnostics();
+            diagnostics.setCandidateCount(relevantRows.cardinality());
+            diagnostics.setShortlistSize(shortlist.length);
+            if (shouldSampleRecall(options, catalog)) {
+                measureRecall(resume, features, catalog, relevantRows, matches, diagnostics);
+            }
+        } else {
+            matches = scoreAndRank(resume, features, catalog, relevantRows.stream().toArray(), metricsAlgorithm);
+        }
 
         MatchResult result = new MatchResult();
         result.setResume(resume);
         result.setJobMatches(matches);
-        result.setAlgorithmUsed("多算法集成(TF-IDF + Jaccard + 语义匹配)");
+        result.setAlgorithmUsed(cascade
+                ? "级联匹配(基础粗筛 + TF-IDF + Jaccard + 语义精排)"
+                : "多算法集成(TF-IDF + Jaccard + 语义匹配)");
         result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
         result.setAnalysis(generateAnalysis(matches));
+        result.setCascadeDiagnostics(diagnostics);
+        matchResultCache.put(cacheKey, result);
+        pipelineMetrics.recordMatch(metricsAlgorithm, "total", startNanos);
 
-        log.info("高级匹配完成，处理时间: {}ms, 匹配岗位数: {}",
+        log.info("高级匹配完成，模式: {}, 处理时间: {}ms, 匹配岗位数: {}",
+                cascade ? MatchOptions.MODE_CASCADE : MatchOptions.MODE_EXHAUSTIVE,
                 result.getProcessingTimeMs(), matches.size());
 
         return result;
     }
 
-    private JobMatch createAdvancedJobMatch(ParsedResume resume, JobPosition job) {
+    /**
+     * 级联召回率统计(仅统计采样请求)
+     */
+    public Map<String, Object> getCascadeRecallStats() {
+        long samples = recallSamples.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("samples", samples);
+        stats.put("meanRecallAtK", samples > 0 ? recallSum.sum() / samples : null);
+        stats.put("recallK", recallK);
+        stats.put("sampleRate", recallSampleRate);
+        return stats;
+    }
+
+    /**
+     * 对给定行精排：简历词项向量和词向量每次请求只计算一次(或由features给出)，岗位词项向量取存储中预先计算的结果。
+     * 逐行的TF-IDF、加权Jaccard、语义和词向量得分交错计算，按整体记为score阶段，不逐行逐算法计时
+     */
+    private List<JobMatch> scoreAndRank(ParsedResume resume, ResumeFeatures features, JobCatalogSnapshot catalog,
+                                        int[] rows, String metricsAlgorithm) {
+        float[] resumeVector;
+        Map<String, Double> resumeTerms;
+        if (features != null) {
+            resumeVector = features.vector();
+            resumeTerms = features.terms();
+        } else {
+            long stageStart = System.nanoTime();
+            resumeVector = embeddingService.embedResume(resume);
+            pipelineMetrics.recordMatch(metricsAlgorithm, "resume-embedding", stageStart);
+            stageStart = System.nanoTime();
+            resumeTerms = resumeTerms(resume);
+            pipelineMetrics.recordMatch(metricsAlgorithm, "resume-terms", stageStart);
+        }
+
+        long stageStart = System.nanoTime();
+        List<JobMatch> matches = Arrays.stream(rows)
+                .mapToObj(row -> scoreRow(resume, resumeTerms, resumeVector, catalog, row))
+                .sorted((a, b) -> Double.compare(b.getMatchScore(), a.getMatchScore()))
+                .collect(Collectors.toList());
+        pipelineMetrics.recordMatch(metricsAlgorithm, "score", stageStart);
+        return matches;
+    }
+
+    /**
+     * 单个岗位行的多算法打分，供增量重算对受影响的(简历, 岗位)对单独计算
+     */
+    public JobMatch scoreRow(ParsedResume resume, Map<String, Double> resumeTerms, float[] resumeVector,
+                             JobCatalogSnapshot catalog, int row) {
+        return createAdvancedJobMatch(resume, catalog.job(row),
+                TermVectors.cosine(resumeTerms, catalog.termVector(row)), resumeVector);
+    }
+
+    public Map<String, Double> resumeTerms(ParsedResume resume) {
+        String resumeText = resume.getRawText() == null ? "" : resume.getRawText().toLowerCase();
+        return TermVectors.compute(resumeText);
+    }
+
+    /**
+     * 简历正文参与匹配的全部特征：词项向量和词向量(词向量未启用时为null)
+     */
+    public ResumeFeatures features(ParsedResume resume) {
+        return new ResumeFeatures(resumeTerms(resume), embeddingService.embedResume(resume));
+    }
+
+    /**
+     * 与岗位没有共同词项、共同技能或同类技能时的得分上界：只剩经验匹配(语义得分的30%)和词向量得分
+     */
+    public double maxScoreWithoutOverlap() {
+        double bound = integrateScores(0.0, 0.0, 0.3, null);
+        return embeddingService.isEnabled() ? integrateScores(0.0, 0.0, 0.3, 1.0) : bound;
+    }
+
+    /**
+     * 技能及其同类技能(分类重叠层级上同一分类下的其他技能)的比较键；分类匹配可能使这些技能产生得分
+     */
+    public Set<String> relatedSkills(Collection<String> skills) {
+        return skillTaxonomyService.relatedSkills(skills);
+    }
+
+    /**
+     * 列式岗位库的全量对照需要物化全部岗位，只在请求显式要求时执行，不参与随机采样
+     */
+    private boolean shouldSampleRecall(MatchOptions options, JobCatalogSnapshot catalog) {
+        if (options.getRecallCheck() != null) return options.getRecallCheck();
+        if (catalog.isOffHeap()) return false;
+        return recallSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < recallSampleRate;
+    }
+
+    /**
+     * 对照全量打分计算recall@K：级联前K中有多少出现在全量前K中
+     */
+    private void measureRecall(ParsedResume resume, ResumeFeatures features, JobCatalogSnapshot catalog,
+                               BitSet relevantRows, List<JobMatch> cascadeMatches,
+                               MatchResult.CascadeDiagnostics diagnostics) {
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        List<JobMatch> exhaustiveMatches = scoreAndRank(resume, features, catalog,
+                relevantRows.stream().toArray(), "recall-check");
+
+        int k = Math.min(recallK, Math.min(cascadeMatches.size(), exhaustiveMatches.size()));
+        double recall = 1.0;
+        if (k > 0) {
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < k; i++) {
+                expected.add(exhaustiveMatches.get(i).getJob().getId());
+            }
+            long hit = cascadeMatches.stream()
+                    .limit(k)
+                    .filter(match -> expected.contains(match.getJob().getId()))
+                    .count();
+            recall = (double) hit / k;
+        }
+
+        diagnostics.setRecallSampled(true);
+        diagnostics.setRecallK(k);
+        diagnostics.setRecallAtK(recall);
+        diagnostics.setExhaustiveTimeMs(System.currentTimeMillis() - start);
+        pipelineMetrics.recordMatch(CASCADE_ALGORITHM, "recall-check", startNanos);
+
+        recallSamples.increment();
+        recallSum.add(recall);
+        log.info("级联召回诊断: recall@{}={}, 候选数: {}, 短名单: {}",
+                k, String.format("%.3f", recall), diagnostics.getCandidateCount(), diagnostics.getShortlistSize());
+    }
+
+    private MatchResult copyForResume(MatchResult cached, ParsedResume resume, long processingTimeMs) {
+        MatchResult result = new MatchResult();
+        result.setResume(resume);
+        result.setJobMatches(cached.getJobMatches());
+        result.setAlgorithmUsed(cached.getAlgorithmUsed());
+        result.setAnalysis(cached.getAnalysis());
+        result.setProcessingTimeMs(processingTimeMs);
+        result.setCached(true);
+        result.setCascadeDiagnostics(cached.getCascadeDiagnostics());
+        return result;
+    }
+
+    private JobMatch createAdvancedJobMatch(ParsedResume resume, JobPosition job, double tfidfScore, float[] resumeVector) {
         // 多算法计算
-        double tfidfScore = calculateTFIDFSimilarity(resume, job);
         double jaccardScore = calculateWeightedJaccard(resume, job);
         double semanticScore = calculateSemanticSimilarity(resume, job);
+        Double embeddingScore = embeddingService.similarity(resumeVector, job);
 
         // 算法集成
-        double finalScore = integrateScores(tfidfScore, jaccardScore, semanticScore);
+        double finalScore = integrateScores(tfidfScore, jaccardScore, semanticScore, embeddingScore);
 
         List<String> matchedSkills = findMatchedSkills(resume.getSkills(), job.getRequiredSkills());
         List<String> missingSkills = findMissingSkills(resume.getSkills(), job.getRequiredSkills());
@@ -79,65 +301,14 @@ public class AdvancedMatchingService {
         algorithmScores.setTfidfScore(tfidfScore);
         algorithmScores.setJaccardScore(jaccardScore);
         algorithmScores.setSemanticScore(semanticScore);
+        algorithmScores.setEmbeddingScore(embeddingScore);
         algorithmScores.setWeightedScore(finalScore);
         match.setAlgorithmScores(algorithmScores);
 
         return match;
     }
 
-    private double calculateTFIDFSimilarity(ParsedResume resume, JobPosition job) {
-        // 简化的TF-IDF实现
-        String resumeText = resume.getRawText().toLowerCase();
-        String jobText = job.getDescription().toLowerCase() + " " + String.join(" ", job.getRequiredSkills()).toLowerCase();
-
-        Map<String, Double> resumeVector = computeSimpleTFIDF(resumeText);
-        Map<String, Double> jobVector = computeSimpleTFIDF(jobText);
-
-        return computeCosineSimilarity(resumeVector, jobVector);
-    }
-
-    private Map<String, Double> computeSimpleTFIDF(String text) {
-        Map<String, Double> tfidf = new HashMap<>();
-        String[] words = text.split("\\s+");
-
-        for (String word : words) {
-            if (word.length() > 2) { // 过滤短词
-                tfidf.put(word, tfidf.getOrDefault(word, 0.0) + 1.0);
-            }
-        }
-
-        // 归一化
-        double norm = Math.sqrt(tfidf.values().stream().mapToDouble(v -> v * v).sum());
-        if (norm > 0) {
-            for (String key : tfidf.keySet()) {
-                tfidf.put(key, tfidf.get(key) / norm);
-            }
-        }
-
-        return tfidf;
-    }
-
-    private double computeCosineSimilarity(Map<String, Double> vectorA, Map<String, Double> vectorB) {
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (String term : vectorA.keySet()) {
-            if (vectorB.containsKey(term)) {
-                dotProduct += vectorA.get(term) * vectorB.get(term);
-            }
-            normA += Math.pow(vectorA.get(term), 2);
-        }
-
-        for (Double value : vectorB.values()) {
-            normB += Math.pow(value, 2);
-        }
-
-        if (normA == 0 || normB == 0) return 0.0;
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
-    }
-
-    private double calculateWeightedJaccard(ParsedResume resume, JobPosition job) {
+    static double calculateWeightedJaccard(ParsedResume resume, JobPosition job) {
         List<String> resumeSkills = resume.getSkills();
         List<String> jobSkills = job.getRequiredSkills();
 
@@ -161,42 +332,13 @@ public class AdvancedMatchingService {
     }
 
     private double calculateSemanticSimilarity(ParsedResume resume, JobPosition job) {
-        // 基于技能分类树的语义匹配
-        double categoryOverlap = calculateCategoryOverlap(resume.getSkills(), job.getRequiredSkills());
+        // 基于层级技能分类体系的语义匹配
+        double categoryOverlap = skillTaxonomyService.categoryOverlap(resume.getSkills(), job.getRequiredSkills());
         double experienceMatch = calculateExperienceMatch(resume, job);
 
         return (categoryOverlap * 0.7 + experienceMatch * 0.3);
     }
 
-    private double calculateCategoryOverlap(List<String> resumeSkills, List<String> jobSkills) {
-        Set<String> resumeCategories = new HashSet<>();
-        Set<String> jobCategories = new HashSet<>();
-
-        // 将技能映射到分类
-        for (String skill : resumeSkills) {
-            SKILL_CATEGORIES.forEach((category, skills) -> {
-                if (skills.contains(skill)) {
-                    resumeCategories.add(category);
-                }
-            });
-        }
-
-        for (String skill : jobSkills) {
-            SKILL_CATEGORIES.forEach((category, skills) -> {
-                if (skills.contains(skill)) {
-                    jobCategories.add(category);
-                }
-            });
-        }
-
-        if (jobCategories.isEmpty()) return 0.0;
-
-        Set<String> intersection = new HashSet<>(resumeCategories);
-        intersection.retainAll(jobCategories);
-
-        return (double) intersection.size() / jobCategories.size();
-    }
-
     private double calculateExperienceMatch(ParsedResume resume, JobPosition job) {
         Integer resumeExp = resume.getPersonalInfo().getYearsOfExperience();
         if (resumeExp == null) return 0.3;
@@ -206,22 +348,27 @@ public class AdvancedMatchingService {
         return (double) resumeExp / job.getMinExperience();
     }
 
-    private double integrateScores(double tfidf, double jaccard, double semantic) {
+    private double integrateScores(double tfidf, double jaccard, double semantic, Double embedding) {
         // 动态权重调整
-        return tfidf * 0.4 + jaccard * 0.35 + semantic * 0.25;
+        double score = tfidf * 0.4 + jaccard * 0.35 + semantic * 0.25;
+        // 启用词向量时按配置权重并入，其余算法权重等比缩放
+        if (embedding != null) {
+            score = score * (1 - embeddingWeight) + embedding * embeddingWeight;
+        }
+        return score;
     }
 
     private List<String> findMatchedSkills(List<String> resumeSkills, List<String> jobSkills) {
+        Set<String> jobKeys = skillNormalizer.canonicalKeys(jobSkills);
         return resumeSkills.stream()
-                .filter(resumeSkill -> jobSkills.stream()
-                        .anyMatch(jobSkill -> jobSkill.equalsIgnoreCase(resumeSkill)))
+                .filter(resumeSkill -> jobKeys.contains(skillNormalizer.canonicalKey(resumeSkill)))
                 .collect(Collectors.toList());
     }
 
     private List<String> findMissingSkills(List<String> resumeSkills, List<String> jobSkills) {
+        Set<String> resumeKeys = skillNormalizer.canonicalKeys(resumeSkills);
         return jobSkills.stream()
-                .filter(jobSkill -> resumeSkills.stream()
-                        .noneMatch(resumeSkill -> resumeSkill.equalsIgnoreCase(jobSkill)))
+                .filter(jobSkill -> !resumeKeys.contains(skillNormalizer.canonicalKey(jobSkill)))
                 .collect(Collectors.toList());
     }
 
@@ -244,33 +391,9 @@ public class AdvancedMatchingService {
                 bestMatch.getAlgorithmScores().getSemanticScore() * 100);
     }
 
-    private List<JobPosition> getJobDatabase() {
-        return Arrays.asList(
-                createJob("Java开发工程师", "互联网",
-                        Arrays.asList("Java", "Spring", "MySQL", "Redis"), 2, 15000.0),
-                createJob("高级Java开发工程师", "互联网",
-                        Arrays.asList("Java", "Spring Boot", "MySQL", "Redis", "Docker"), 3, 20000.0),
-                createJob("前端开发工程师", "互联网",
-                        Arrays.asList("JavaScript", "Vue", "React", "HTML"), 1, 12000.0),
-                createJob("全栈开发工程师", "互联网",
-                        Arrays.asList("Java", "Spring", "Vue", "MySQL"), 2, 18000.0),
-                createJob("后端开发工程师", "互联网",
-                        Arrays.asList("Java", "Spring Boot", "MySQL", "Redis"), 2, 16000.0)
-        );
-    }
-
-    private JobPosition createJob(String title, String industry,
-                                  List<String> skills, int exp, double salary) {
-        JobPosition job = new JobPosition();
-        job.setId(UUID.randomUUID().toString());
-        job.setTitle(title);
-        job.setCompany("示例科技公司");
-        job.setIndustry(industry);
-        job.setRequiredSkills(skills);
-        job.setMinExperience(exp);
-        job.setRequiredEducation("本科");
-        job.setBaseSalary(salary);
-        job.setDescription("招聘" + title + "，需要掌握" + String.join("、", skills) + "等技术，具有" + exp + "年以上相关经验");
-        return job;
+    /**
+     * 简历正文的匹配特征：terms为词项向量，vector为L2归一化的词向量(可为null)
+     */
+    public record ResumeFeatures(Map<String, Double> terms, float[] vector) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,287 @@
+package com.example.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * DOCX流式文本提取 - 顺序读取ZIP条目，用StAX解析正文、页眉和页脚部件，不构建XWPF对象模型
+ * <p>
+ * 图片等媒体部件只顺序跳过，不解压到内存；内存占用只与提取出的文本长度有关，与嵌入媒体的大小无关。
+ * 文本框正文(w:txbxContent)随正文一起输出，mc:Fallback中的重复内容跳过。
+ * 输出顺序与XWPFWordExtractor一致：页眉、正文、页脚；段落换行，表格单元格以制表符分隔、每行一行。
+ * 与XWPFWordExtractor不同，修订中已删除的文字(w:delText)不输出。
+ * 找不到正文部件或包含altChunk等需要对象模型处理的内容时抛出UnsupportedDocumentException，由调用方回退到XWPF。
+ * <p>
+ * 全部条目(包括只跳过的媒体)按Limits计入解压预算：条目数、解压总量和解压量与已读压缩字节之比任一超限时
+ * 立即抛出UploadLimitExceededException，不回退到XWPF。altChunk在读完全部条目后才报告，回退前整个包已通过预算检查。
+ */
+public class DocxStreamExtractor {
+
+    private static final String DOCUMENT_PART = "word/document.xml";
+    private static final Pattern HEADER_PART = Pattern.compile("word/header\\d*\\.xml");
+    private static final Pattern FOOTER_PART = Pattern.compile("word/footer\\d*\\.xml");
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, false);
+    }
+
+    private DocxStreamExtractor() {
+    }
+
+    public static String extract(InputStream inputStream, Limits limits) throws IOException {
+        StringBuilder headers = new StringBuilder();
+        StringBuilder body = null;
+        StringBuilder footers = new StringBuilder();
+        boolean requiresObjectModel = false;
+
+        CountingInputStream compressed = new CountingInputStream(inputStream);
+        Budget budget = new Budget(limits, compressed);
+        try (ZipInputStream zip = new ZipInputStream(compressed)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                budget.onEntry();
+                String name = entry.getName();
+                InputStream part = new BudgetedPartStream(zip, budget);
+                if (DOCUMENT_PART.equals(name)) {
+                    body = new StringBuilder();
+                    requiresObjectModel |= readPart(part, body);
+                } else if (HEADER_PART.matcher(name).matches()) {
+                    requiresObjectModel |= readPart(part, headers);
+                } else if (FOOTER_PART.matcher(name).matches()) {
+                    requiresObjectModel |= readPart(part, footers);
+                }
+                // 其余部件(媒体、样式、关系等)只顺序读过并计入解压预算，不保留内容
+                part.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (XMLStreamException e) {
+            // StAX会把读取时抛出的异常包装为XMLStreamException，超出预算时仍按超限报告
+            if (budget.exceeded != null) throw budget.exceeded;
+            throw new UnsupportedDocumentException("DOCX部件XML解析失败: " + e.getMessage());
+        }
+
+        if (body == null) {
+            throw new UnsupportedDocumentException("未找到正文部件 " + DOCUMENT_PART);
+        }
+        if (requiresObjectModel) {
+            throw new UnsupportedDocumentException("包含altChunk嵌入内容");
+        }
+        return headers.append(body).append(footers).toString();
+    }
+
+    /**
+     * @return 部件中是否包含需要对象模型处理的altChunk
+     */
+    private static boolean readPart(InputStream part, StringBuilder out) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(part, "UTF-8");
+        boolean requiresObjectModel = false;
+        try {
+            boolean inText = false;
+            int runDepth = 0;       // w:tab、w:br只在文本run内表示字符
+            int cellDepth = 0;
+            boolean pendingCellBreak = false;   // 单元格内段落之间换行，最后一个段落之后不换行
+            int skipDepth = 0;      // 位于mc:Fallback、w:delText、制表位定义w:tabs等不输出的元素内部时大于0
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String local = reader.getLocalName();
+                    if (skipDepth > 0 || "Fallback".equals(local)
+                            || (isWordElement(reader) && ("delText".equals(local) || "instrText".equals(local)
+                            || "tabs".equals(local)))) {
+                        skipDepth++;
+                        continue;
+                    }
+                    if (!isWordElement(reader)) continue;
+                    switch (local) {
+                        case "altChunk" -> requiresObjectModel = true;
+                        case "r" -> runDepth++;
+                        case "tc" -> cellDepth++;
+                        case "t" -> {
+                            inText = true;
+                            if (pendingCellBreak) out.append('\n');
+                            pendingCellBreak = false;
+                        }
+                        case "tab" -> {
+                            if (runDepth > 0) out.append('\t');
+                        }
+                        case "br", "cr" -> {
+                            if (runDepth > 0) out.append('\n');
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (skipDepth > 0) {
+                        skipDepth--;
+                        continue;
+                    }
+                    if (!isWordElement(reader)) continue;
+                    switch (reader.getLocalName()) {
+                        case "r" -> runDepth--;
+                        case "t" -> inText = false;
+                        case "p" -> {
+                            if (cellDepth > 0) pendingCellBreak = true;
+                            else out.append('\n');
+                        }
+                        case "tc" -> {
+                            cellDepth--;
+                            pendingCellBreak = false;
+                            out.append('\t');
+                        }
+                        case "tr" -> {
+                            if (out.length() > 0 && out.charAt(out.length() - 1) == '\t') out.setLength(out.length() - 1);
+                            out.append('\n');
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    out.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return requiresObjectModel;
+    }
+
+    /**
+     * WordprocessingML命名空间(含严格模式的purl.oclc.org命名空间)
+     */
+    private static boolean isWordElement(XMLStreamReader reader) {
+        String namespace = reader.getNamespaceURI();
+        return namespace != null && namespace.contains("wordprocessingml");
+    }
+
+    /**
+     * 解压预算：条目数上限、全部条目解压后的总字节数上限，以及解压量与已读压缩字节之比的上限
+     * (解压量未超过ratioGraceBytes时不检查比例，避免小文件中高度可压缩的XML误判)
+     */
+    public record Limits(int maxEntries, long maxInflatedBytes, double maxInflateRatio, long ratioGraceBytes) {
+    }
+
+    private static class Budget {
+
+        private final Limits limits;
+        private final CountingInputStream compressed;
+        private int entries;
+        private long inflated;
+        private UploadLimitExceededException exceeded;
+
+        Budget(Limits limits, CountingInputStream compressed) {
+            this.limits = limits;
+            this.compressed = compressed;
+        }
+
+        void onEntry() {
+            if (++entries > limits.maxEntries()) {
+                reject("DOCX条目数超过上限 " + limits.maxEntries());
+            }
+        }
+
+        void onInflated(long bytes) {
+            inflated += bytes;
+            if (inflated > limits.maxInflatedBytes()) {
+                reject("DOCX解压后大小超过上限 " + limits.maxInflatedBytes() + " 字节");
+            }
+            if (inflated > limits.ratioGraceBytes()
+                    && inflated > limits.maxInflateRatio() * Math.max(1, compressed.count)) {
+                reject(String.format("DOCX压缩比异常(解压 %d 字节 / 压缩 %d 字节)，超过上限 %.0f:1",
+                        inflated, compressed.count, limits.maxInflateRatio()));
+            }
+        }
+
+        private void reject(String message) {
+            exceeded = new UploadLimitExceededException(message);
+            throw exceeded;
+        }
+    }
+
+    /**
+     * 统计从上传流中读取的压缩字节数
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    /**
+     * 当前ZIP条目的解压数据，读出的字节计入预算；JDK的StAX实现读到文档结束时会关闭输入流，屏蔽close以免关闭ZIP流
+     */
+    private static class BudgetedPartStream extends FilterInputStream {
+
+        private final Budget budget;
+
+        BudgetedPartStream(InputStream in, Budget budget) {
+            super(in);
+            this.budget = budget;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) budget.onInflated(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) budget.onInflated(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过也须解压，按读取计入预算
+            if (n <= 0) return 0;
+            int len = (int) Math.min(n, 8192);
+            return Math.max(0, read(new byte[len], 0, len));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 流式提取无法处理的文档，调用方应回退到XWPF对象模型
+     */
+    public static class UnsupportedDocumentException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public UnsupportedDocumentException(String message) {
+            super(message);
+        }
+    }
+}
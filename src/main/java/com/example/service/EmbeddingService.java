@@ -0,0 +1,574 @@
+package com.example.service;
+
+import com.example.index.HnswIndex;
+import com.example.model.JobPosition;
+import com.example.model.ParsedResume;
+import com.example.vector.VectorMath;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于本地预训练词向量的语义层
+ * <p>
+ * 从本地文件(word2vec文本格式: 词 v1 v2 ...)加载词/技能向量，不访问网络。
+ * 简历和岗位的向量为所含词向量的均值池化并做L2归一化；岗位向量建入HNSW索引，
+ * 索引可序列化到磁盘，岗位库和词向量文件未变化时启动直接加载。
+ * <p>
+ * 岗位库整体重新加载时全量重建；增量修改只计算新增/修改岗位的向量并加入现有索引，旧版本和删除的岗位在索引中标记删除。
+ * 标记删除的节点超过app.semantic.hnsw.rebuild-deleted-ratio时在后台线程按当时的岗位库全量重建并写入索引文件。
+ */
+@Slf4j
+@Service
+public class EmbeddingService {
+
+    // 索引文件格式：2起在HNSW图之前保存标签对应的岗位行号
+    private static final int INDEX_FILE_VERSION = 2;
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[\\p{L}\\p{N}+#.]+");
+    private static final double SKILL_TOKEN_WEIGHT = 2.0;
+
+    private final JobCatalogService jobCatalogService;
+    private final String vectorsPath;
+    private final String indexPath;
+    private final int hnswM;
+    private final int hnswEfConstruction;
+    private final int hnswEfSearch;
+    private final double rebuildDeletedRatio;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hnsw-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private volatile Map<String, float[]> wordVectors = Collections.emptyMap();
+    private volatile int dimension;
+    private String vectorsFingerprint = "";
+
+    private final AtomicReference<JobEmbeddings> jobEmbeddings = new AtomicReference<>();
+
+    public EmbeddingService(JobCatalogService jobCatalogService,
+                            @Value("${app.semantic.vectors-path:}") String vectorsPath,
+                            @Value("${app.semantic.index-path:}") String indexPath,
+                            @Value("${app.semantic.hnsw.m:16}") int hnswM,
+                            @Value("${app.semantic.hnsw.ef-construction:200}") int hnswEfConstruction,
+                            @Value("${app.semantic.hnsw.ef-search:64}") int hnswEfSearch,
+                            @Value("${app.semantic.hnsw.rebuild-deleted-ratio:0.2}") double rebuildDeletedRatio) {
+        this.jobCatalogService = jobCatalogService;
+        this.vectorsPath = vectorsPath;
+        this.indexPath = indexPath;
+        this.hnswM = hnswM;
+        this.hnswEfConstruction = hnswEfConstruction;
+        this.hnswEfSearch = hnswEfSearch;
+        this.rebuildDeletedRatio = rebuildDeletedRatio;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (vectorsPath == null || vectorsPath.isBlank()) {
+            log.info("未配置词向量文件(app.semantic.vectors-path)，向量语义匹配未启用");
+            return;
+        }
+        File file = new File(vectorsPath);
+        if (!file.exists()) {
+            log.warn("词向量文件不存在: {}, 向量语义匹配未启用", vectorsPath);
+            return;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            loadWordVectors(file);
+            vectorsFingerprint = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+            log.info("词向量加载完成: {}, 词数: {}, 维度: {}, 耗时: {}ms",
+                    vectorsPath, wordVectors.size(), dimension, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.error("词向量加载失败，向量语义匹配未启用: {}", vectorsPath, e);
+            wordVectors = Collections.emptyMap();
+            return;
+        }
+
+        rebuildJobIndex(jobCatalogService.getSnapshot());
+    }
+
+    public boolean isEnabled() {
+        return !wordVectors.isEmpty() && jobEmbeddings.get() != null;
+    }
+
+    @EventListener
+    public void onCatalogReloaded(JobCatalogReloadedEvent event) {
+        if (!wordVectors.isEmpty()) {
+            rebuildJobIndex(event.getSnapshot());
+        }
+    }
+
+    // 先于增量重算执行，保证新岗位的向量已可用
+    @EventListener
+    @Order(0)
+    public void onCatalogChanged(JobCatalogChangedEvent event) {
+        if (!wordVectors.isEmpty()) {
+            applyChanges(event);
+        }
+    }
+
+    /**
+     * 简历向量：技能词加权，正文词按出现次数累加后均值池化；无可用词时返回null
+     */
+    public float[] embedResume(ParsedResume resume) {
+        if (wordVectors.isEmpty()) return null;
+
+        Map<String, Double> weights = new HashMap<>();
+        addSkillTokens(weights, resume.getSkills());
+        addTextTokens(weights, resume.getRawText());
+        return pool(weights);
+    }
+
+    public float[] embedJob(JobPosition job) {
+        if (wordVectors.isEmpty()) return null;
+
+        Map<String, Double> weights = new HashMap<>();
+        addSkillTokens(weights, job.getRequiredSkills());
+        addTextTokens(weights, job.getTitle());
+        addTextTokens(weights, job.getDescription());
+        return pool(weights);
+    }
+
+    /**
+     * 简历向量与岗位向量的余弦相似度，映射到[0, 1]；未启用或缺少向量时返回null
+     */
+    public Double similarity(float[] resumeVector, JobPosition job) {
+        JobEmbeddings embeddings = jobEmbeddings.get();
+        // 分片请求中的简历向量由协调节点计算，词向量配置不同时维度可能不一致
+        if (resumeVector == null || embeddings == null || resumeVector.length != dimension) return null;
+
+        int label = embeddings.label(job.getId());
+        if (label < 0) return null;
+        double dot = label < embeddings.rows.length
+                ? VectorMath.dotRow(resumeVector, embeddings.matrix, label)
+                : VectorMath.dot(resumeVector, embeddings.appended.get(label - embeddings.rows.length).vector());
+        return Math.max(0.0, dot);
+    }
+
+    /**
+     * 从HNSW索引中查询与简历最相近的岗位
+     */
+    public List<ScoredJob> nearestJobs(ParsedResume resume, int k, Integer ef) {
+        JobEmbeddings embeddings = jobEmbeddings.get();
+        float[] resumeVector = embedResume(resume);
+        if (embeddings == null || resumeVector == null) return Collections.emptyList();
+
+        int effectiveEf = ef != null ? ef : embeddings.index.getEfSearch();
+        List<ScoredJob> result = new ArrayList<>();
+        for (HnswIndex.Neighbor neighbor : embeddings.index.search(resumeVector, k, effectiveEf)) {
+            // 查询期间并发加入的节点不属于本版本
+            JobPosition job = embeddings.job(neighbor.label());
+            if (job != null) result.add(new ScoredJob(job, neighbor.similarity()));
+        }
+        return result;
+    }
+
+    /**
+     * 暴力精确检索：对岗位向量矩阵整体做SIMD点积后取Top-K，可用于评估HNSW召回率
+     */
+    public List<ScoredJob> exactNearestJobs(ParsedResume resume, int k) {
+        JobEmbeddings embeddings = jobEmbeddings.get();
+        float[] resumeVector = embedResume(resume);
+        if (embeddings == null || resumeVector == null || embeddings.size() == 0) return Collections.emptyList();
+
+        float[] scores = Arrays.copyOf(VectorMath.dotRows(resumeVector, embeddings.matrix, dimension), embeddings.size());
+        for (int i = 0; i < embeddings.appended.size(); i++) {
+            scores[embeddings.rows.length + i] = (float) VectorMath.dot(resumeVector, embeddings.appended.get(i).vector());
+        }
+        for (int label = 0; label < scores.length; label++) {
+            if (embeddings.index.isDeleted(label)) scores[label] = Float.NEGATIVE_INFINITY;
+        }
+
+        List<ScoredJob> result = new ArrayList<>();
+        for (VectorMath.ScoredRow row : VectorMath.topK(scores, k)) {
+            if (row.score() == Float.NEGATIVE_INFINITY) break;
+            result.add(new ScoredJob(embeddings.job(row.row()), row.score()));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStatus() {
+        JobEmbeddings embeddings = jobEmbeddings.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", isEnabled());
+        status.put("vocabularySize", wordVectors.size());
+        status.put("dimension", dimension);
+        status.put("indexedJobs", embeddings != null ? embeddings.index.size() - embeddings.index.deletedCount() : 0);
+        status.put("deletedNodes", embeddings != null ? embeddings.index.deletedCount() : 0);
+        status.put("catalogVersion", embeddings != null ? embeddings.catalogVersion() : null);
+        status.put("efSearch", embeddings != null ? embeddings.index.getEfSearch() : hnswEfSearch);
+        status.put("vectorImplementation", VectorMath.implementation());
+        return status;
+    }
+
+    private void rebuildJobIndex(JobCatalogSnapshot catalog) {
+        publish(buildJobIndex(catalog));
+    }
+
+    /**
+     * 发布全量构建结果；构建期间岗位库已有更新的版本(增量修改已应用到当前索引)时丢弃
+     */
+    private synchronized boolean publish(JobEmbeddings built) {
+        JobEmbeddings current = jobEmbeddings.get();
+        if (current != null && current.catalogVersion() > built.catalogVersion()) {
+            log.info("岗位向量索引构建期间岗位库已更新({} -> {})，丢弃构建结果", built.catalogVersion(), current.catalogVersion());
+            return false;
+        }
+        jobEmbeddings.set(built);
+        return true;
+    }
+
+    /**
+     * 岗位库提供内容标识(列式文件的构建标识)时以它作为索引指纹，匹配时从索引文件恢复行号和向量矩阵，不物化、不计算任何岗位；
+     * 否则逐行物化岗位计算向量并按内容摘要匹配。向量按索引标签顺序写入堆外矩阵，堆内只保留行号，
+     * 堆内的向量只有HNSW图中的一份(建图和查询需要)，暴力检索和单个岗位打分读取堆外矩阵
+     */
+    private JobEmbeddings buildJobIndex(JobCatalogSnapshot catalog) {
+        long start = System.currentTimeMillis();
+        String contentId = catalog.getStore().contentId();
+        if (contentId != null) {
+            PersistedIndex persisted = loadPersistedIndex(catalogFingerprint(contentId));
+            if (persisted != null) {
+                FloatBuffer matrix = allocateMatrix(persisted.rows().length);
+                HnswIndex index = persisted.index();
+                for (int node = 0; node < index.size(); node++) {
+                    matrix.put(index.label(node) * dimension, index.vector(node));
+                }
+                return completed(catalog, persisted.rows(), matrix, index, true, start);
+            }
+        }
+
+        MessageDigest digest = newFingerprintDigest();
+        int[] rows = new int[catalog.size()];
+        int count = 0;
+        FloatBuffer matrix = allocateMatrix(catalog.size());
+        for (int row = 0; row < catalog.size(); row++) {
+            JobPosition job = catalog.job(row);
+            float[] vector = embedJob(job);
+            if (vector == null) continue;
+            matrix.put(vector);
+            rows[count++] = row;
+            if (contentId == null) updateFingerprint(digest, job);
+        }
+        matrix.flip();
+        rows = Arrays.copyOf(rows, count);
+
+        String fingerprint = contentId != null ? catalogFingerprint(contentId) : HexFormat.of().formatHex(digest.digest());
+        PersistedIndex persisted = contentId == null ? loadPersistedIndex(fingerprint) : null;
+        if (persisted != null && Arrays.equals(persisted.rows(), rows)) {
+            return completed(catalog, rows, matrix, persisted.index(), true, start);
+        }
+        HnswIndex index = new HnswIndex(dimension, hnswM, hnswEfConstruction, hnswEfSearch);
+        for (int label = 0; label < count; label++) {
+            float[] vector = new float[dimension];
+            matrix.get(label * dimension, vector);
+            index.add(label, vector);
+        }
+        persistIndex(index, rows, fingerprint);
+        return completed(catalog, rows, matrix, index, false, start);
+    }
+
+    private JobEmbeddings completed(JobCatalogSnapshot catalog, int[] rows, FloatBuffer matrix, HnswIndex index,
+                                    boolean loaded, long start) {
+        index.setEfSearch(hnswEfSearch);
+        log.info("岗位向量索引{}完成，岗位库版本: {}, 岗位数: {}, 耗时: {}ms",
+                loaded ? "加载" : "构建", catalog.getVersion(), rows.length, System.currentTimeMillis() - start);
+        return new JobEmbeddings(catalog, catalog, rows, matrix, List.of(), Map.of(), index);
+    }
+
+    private FloatBuffer allocateMatrix(int count) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(count, dimension * Float.BYTES))
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * 增量修改：旧版本和删除的岗位在索引中标记删除，新增/修改的岗位计算向量后追加到索引和追加区，
+     * 不重算未变化的岗位，也不写索引文件
+     */
+    private synchronized void applyChanges(JobCatalogChangedEvent event) {
+        JobEmbeddings current = jobEmbeddings.get();
+        if (current == null) {
+            jobEmbeddings.set(buildJobIndex(event.getSnapshot()));
+            return;
+        }
+        // 后台重建可能已经读取并发布了本次修改之后的快照
+        if (current.catalogVersion() >= event.getSnapshot().getVersion()) return;
+
+        long start = System.currentTimeMillis();
+        List<AppendedJob> appended = new ArrayList<>(current.appended);
+        Map<String, Integer> appendedLabels = new HashMap<>(current.appendedLabels);
+        List<String> changedIds = new ArrayList<>(event.getRemovedIds());
+        event.getPreviousJobs().forEach(job -> changedIds.add(job.getId()));
+        for (String jobId : changedIds) {
+            int label = current.label(jobId);
+            if (label >= 0) current.index.markDeleted(label);
+            appendedLabels.remove(jobId);
+        }
+        for (JobPosition job : event.getUpsertedJobs()) {
+            float[] vector = embedJob(job);
+            if (vector == null) continue;
+            int label = current.rows.length + appended.size();
+            current.index.add(label, vector);
+            appended.add(new AppendedJob(job, vector));
+            appendedLabels.put(job.getId(), label);
+        }
+
+        JobEmbeddings next = new JobEmbeddings(event.getSnapshot(), current.base, current.rows, current.matrix,
+                appended, appendedLabels, current.index);
+        jobEmbeddings.set(next);
+        log.info("岗位向量索引增量更新完成，岗位库版本: {}, 新增/修改: {}, 删除: {}, 标记删除节点: {}/{}, 耗时: {}ms",
+                event.getSnapshot().getVersion(), event.getUpsertedJobs().size(), event.getRemovedIds().size(),
+                next.index.deletedCount(), next.index.size(), System.currentTimeMillis() - start);
+
+        if (next.index.deletedCount() > rebuildDeletedRatio * next.index.size()) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * 在后台按最新的岗位库全量重建，不持有锁，重建期间的增量修改照常应用到当前索引；
+     * 重建完成时若岗位库已有更新的版本则丢弃结果，等待下一次标记删除超过阈值时再重建
+     */
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) return;
+        rebuildExecutor.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuildJobIndex(jobCatalogService.getSnapshot());
+            } catch (RuntimeException e) {
+                log.warn("岗位向量索引后台重建失败", e);
+            }
+        });
+    }
+
+    /**
+     * 索引文件：指纹、行号数组(标签 -> 岗位行号)、HNSW图；行号数组与图的节点数不一致时视为损坏
+     */
+    private PersistedIndex loadPersistedIndex(String fingerprint) {
+        if (indexPath == null || indexPath.isBlank()) return null;
+        File file = new File(indexPath);
+        if (!file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!fingerprint.equals(in.readUTF())) {
+                log.info("HNSW索引文件与当前岗位库或词向量不一致，重新构建: {}", indexPath);
+                return null;
+            }
+            int[] rows = new int[in.readInt()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = in.readInt();
+            }
+            HnswIndex index = HnswIndex.readFrom(in);
+            if (index.size() != rows.length || index.deletedCount() > 0 || index.getDimension() != dimension) {
+                throw new IOException("索引节点数与行号数组不一致");
+            }
+            for (int node = 0; node < rows.length; node++) {
+                if (index.label(node) < 0 || index.label(node) >= rows.length) {
+                    throw new IOException("索引标签越界: " + index.label(node));
+                }
+            }
+            return new PersistedIndex(rows, index);
+        } catch (IOException | RuntimeException e) {
+            log.warn("HNSW索引文件读取失败，重新构建: {}", indexPath, e);
+            return null;
+        }
+    }
+
+    private void persistIndex(HnswIndex index, int[] rows, String fingerprint) {
+        if (indexPath == null || indexPath.isBlank()) return;
+
+        try {
+            Path target = Path.of(indexPath).toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "hnsw_", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeUTF(fingerprint);
+                out.writeInt(rows.length);
+                for (int row : rows) {
+                    out.writeInt(row);
+                }
+                index.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("HNSW索引已写入: {}", target);
+        } catch (IOException e) {
+            log.warn("HNSW索引写入失败: {}", indexPath, e);
+        }
+    }
+
+    /**
+     * 索引指纹：索引文件格式 + 词向量文件标识 + 建图参数，之后是岗位库内容标识或岗位id/向量来源字段摘要
+     */
+    private MessageDigest newFingerprintDigest() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((INDEX_FILE_VERSION + "|" + vectorsFingerprint + "|" + hnswM + "|" + hnswEfConstruction)
+                    .getBytes(StandardCharsets.UTF_8));
+            return digest;
+        } catch (Exception e) {
+            throw new IllegalStateException("索引指纹计算失败", e);
+        }
+    }
+
+    private String catalogFingerprint(String contentId) {
+        MessageDigest digest = newFingerprintDigest();
+        digest.update(("catalog|" + contentId).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void updateFingerprint(MessageDigest digest, JobPosition job) {
+        String source = job.getId() + "|" + job.getTitle() + "|" + job.getRequiredSkills() + "|" + job.getDescription();
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private void loadWordVectors(File file) throws IOException {
+        Map<String, float[]> vectors = new HashMap<>();
+        int dim = -1;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                // word2vec文本格式首行可能为"词数 维度"
+                if (first && parts.length == 2) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (parts.length < 2) continue;
+
+                if (dim < 0) dim = parts.length - 1;
+                if (parts.length - 1 != dim) continue;
+
+                float[] vector = new float[dim];
+                for (int i = 0; i < dim; i++) {
+                    vector[i] = Float.parseFloat(parts[i + 1]);
+                }
+                vectors.put(parts[0].toLowerCase(), vector);
+            }
+        }
+        if (dim <= 0) throw new IOException("词向量文件为空: " + file);
+        this.dimension = dim;
+        this.wordVectors = vectors;
+    }
+
+    private void addSkillTokens(Map<String, Double> weights, List<String> skills) {
+        if (skills == null) return;
+        for (String skill : skills) {
+            String normalized = skill.toLowerCase().trim();
+            // 多词技能优先整体查找("spring boot"/"spring_boot")，否则拆分为单词
+            if (wordVectors.containsKey(normalized)) {
+                weights.merge(normalized, SKILL_TOKEN_WEIGHT, Double::sum);
+            } else if (wordVectors.containsKey(normalized.replace(' ', '_'))) {
+                weights.merge(normalized.replace(' ', '_'), SKILL_TOKEN_WEIGHT, Double::sum);
+            } else {
+                addTextTokens(weights, normalized, SKILL_TOKEN_WEIGHT);
+            }
+        }
+    }
+
+    private void addTextTokens(Map<String, Double> weights, String text) {
+        addTextTokens(weights, text, 1.0);
+    }
+
+    private void addTextTokens(Map<String, Double> weights, String text, double weight) {
+        if (text == null) return;
+        Matcher matcher = TOKEN_PATTERN.matcher(text.toLowerCase());
+        while (matcher.find()) {
+            String token = matcher.group();
+            if (wordVectors.containsKey(token)) {
+                weights.merge(token, weight, Double::sum);
+            }
+        }
+    }
+
+    private float[] pool(Map<String, Double> weights) {
+        if (weights.isEmpty()) return null;
+
+        float[] pooled = new float[dimension];
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            float[] vector = wordVectors.get(entry.getKey());
+            float weight = entry.getValue().floatValue();
+            for (int i = 0; i < dimension; i++) {
+                pooled[i] += vector[i] * weight;
+            }
+        }
+
+        return VectorMath.normalize(pooled) ? pooled : null;
+    }
+
+    public record ScoredJob(JobPosition job, double similarity) {
+    }
+
+    private record PersistedIndex(int[] rows, HnswIndex index) {
+    }
+
+    private record AppendedJob(JobPosition job, float[] vector) {
+    }
+
+    /**
+     * 全量构建的部分：rows[i]为索引标签i对应的base快照行号(升序)，matrix的第i行为其向量，结果岗位按需从base物化。
+     * 增量修改追加的岗位标签从rows.length开始，依次对应appended中的元素；被修改或删除的标签在索引中标记删除。
+     * catalog为当前岗位库版本
+     */
+    private record JobEmbeddings(JobCatalogSnapshot catalog, JobCatalogSnapshot base, int[] rows, FloatBuffer matrix,
+                                 List<AppendedJob> appended, Map<String, Integer> appendedLabels, HnswIndex index) {
+        long catalogVersion() {
+            return catalog.getVersion();
+        }
+
+        int size() {
+            return rows.length + appended.size();
+        }
+
+        /**
+         * 标签对应的岗位；标签在本版本之后才加入时返回null
+         */
+        JobPosition job(int label) {
+            if (label < rows.length) return base.job(rows[label]);
+            int offset = label - rows.length;
+            return offset < appended.size() ? appended.get(offset).job() : null;
+        }
+
+        /**
+         * 岗位id对应的索引标签，岗位不在本版本中、没有向量或已被标记删除时返回-1
+         */
+        int label(String jobId) {
+            Integer appendedLabel = appendedLabels.get(jobId);
+            if (appendedLabel != null) return appendedLabel;
+            int row = base.getStore().findRow(jobId);
+            int label = row < 0 ? -1 : Arrays.binarySearch(rows, row);
+            return label < 0 || index.isDeleted(label) ? -1 : label;
+        }
+    }
+}
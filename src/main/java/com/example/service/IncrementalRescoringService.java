@@ -0,0 +1,329 @@
+package com.example.service;
+
+import com.example.model.JobMatch;
+import com.example.model.JobPosition;
+import com.example.model.MatchResult;
+import com.example.model.ParsedResume;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 增量重算服务 - 维护已注册简历在全量岗位库上的高级匹配排名，岗位增删改时只重算受影响的(简历, 岗位)对
+ * <p>
+ * 每份简历保存前(K + 缓冲)个结果以及floor：列表之外任一岗位得分的上界。岗位变更时，
+ * 先从持有该岗位的排名中移除旧结果；再通过技能倒排(含同类技能)和词项倒排找出可能产生技能/文本得分的简历，
+ * 对这些简历精确打分。其余简历对该岗位的得分不超过"无重叠上界"(只剩经验和词向量部分)，
+ * 只有当该上界高于排名的floor时才需要打分，否则该岗位必然落在列表之外。
+ * <p>
+ * 时效保证：列表中的结果始终与当前岗位库版本一致(得分不依赖岗位库整体统计，没有IDF类的全局项需要刷新)。
+ * 删除或降分会使精确深度减少；当精确结果不足K个时排名标记为过期，在下一次读取时对该简历整体重算。
+ * 整库重新加载(非增量修改)同样将所有排名标记为过期，按需重算。
+ */
+@Slf4j
+@Service
+public class IncrementalRescoringService {
+
+    private final JobCatalogService jobCatalogService;
+    private final AdvancedMatchingService advancedMatchingService;
+    private final EmbeddingService embeddingService;
+    private final SkillNormalizer skillNormalizer;
+    private final int topK;
+    private final int depth;
+    private final int maxResumes;
+
+    private final LinkedHashMap<String, StoredRanking> rankings = new LinkedHashMap<>();
+    private final Map<String, Set<String>> skillIndex = new HashMap<>();
+    private final Map<String, Set<String>> termIndex = new HashMap<>();
+    private final Map<String, Set<String>> holders = new HashMap<>();
+
+    private long deltaEvents;
+    private long pairsScored;
+    private long pairsSkipped;
+    private long lazyRefreshes;
+
+    public IncrementalRescoringService(JobCatalogService jobCatalogService,
+                                       AdvancedMatchingService advancedMatchingService,
+                                       EmbeddingService embeddingService,
+                                       SkillNormalizer skillNormalizer,
+                                       @Value("${app.rescoring.top-k:20}") int topK,
+                                       @Value("${app.rescoring.depth-slack:20}") int depthSlack,
+                                       @Value("${app.rescoring.max-resumes:10000}") int maxResumes) {
+        this.jobCatalogService = jobCatalogService;
+        this.advancedMatchingService = advancedMatchingService;
+        this.embeddingService = embeddingService;
+        this.skillNormalizer = skillNormalizer;
+        this.topK = topK;
+        this.depth = topK + Math.max(0, depthSlack);
+        this.maxResumes = maxResumes;
+    }
+
+    /**
+     * 注册简历并计算其全量排名；已注册的简历直接返回当前排名
+     */
+    public synchronized MatchResult register(ParsedResume resume) {
+        long startTime = System.currentTimeMillis();
+        String hash = ResumeFingerprint.contentHash(resume);
+        StoredRanking ranking = rankings.get(hash);
+        if (ranking == null) {
+            ranking = new StoredRanking(hash, resume, advancedMatchingService.resumeTerms(resume),
+                    embeddingService.embedResume(resume), skillNormalizer.canonicalKeys(resume.getSkills()));
+            rankings.put(hash, ranking);
+            index(ranking);
+            rebuild(ranking, jobCatalogService.getSnapshot());
+            evictIfNeeded();
+        }
+        return toResult(refreshIfStale(ranking), startTime);
+    }
+
+    /**
+     * 读取已注册简历的当前排名，过期时在此处整体重算；未注册时返回null
+     */
+    public synchronized MatchResult getRanking(String resumeHash) {
+        long startTime = System.currentTimeMillis();
+        StoredRanking ranking = rankings.get(resumeHash);
+        return ranking == null ? null : toResult(refreshIfStale(ranking), startTime);
+    }
+
+    public synchronized boolean unregister(String resumeHash) {
+        StoredRanking ranking = rankings.remove(resumeHash);
+        if (ranking == null) return false;
+        unindex(ranking);
+        return true;
+    }
+
+    /**
+     * 整库重新加载将所有排名标记为过期，读取时重算
+     */
+    @EventListener
+    public synchronized void onCatalogReloaded(JobCatalogReloadedEvent event) {
+        if (rankings.isEmpty()) return;
+        rankings.values().forEach(ranking -> ranking.stale = true);
+        log.info("岗位库整体重新加载，{}份简历排名标记为过期，读取时重算", rankings.size());
+    }
+
+    /**
+     * 增量修改事件做增量重算。需在词向量索引更新之后执行，新岗位的向量得分才可用
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public synchronized void onCatalogChanged(JobCatalogChangedEvent event) {
+        if (rankings.isEmpty()) return;
+        applyDelta(event);
+    }
+
+    /**
+     * 技能分类体系变更影响所有分类重叠得分，全部排名标记为过期
+     */
+    @EventListener
+    public synchronized void onTaxonomyReloaded(SkillTaxonomyReloadedEvent event) {
+        if (rankings.isEmpty()) return;
+        rankings.values().forEach(ranking -> ranking.stale = true);
+        log.info("技能分类体系重新加载，{}份简历排名标记为过期，读取时重算", rankings.size());
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rankings", rankings.size());
+        stats.put("staleRankings", rankings.values().stream().filter(ranking -> ranking.stale).count());
+        stats.put("topK", topK);
+        stats.put("depth", depth);
+        stats.put("maxResumes", maxResumes);
+        stats.put("deltaEvents", deltaEvents);
+        stats.put("pairsScored", pairsScored);
+        stats.put("pairsSkipped", pairsSkipped);
+        stats.put("lazyRefreshes", lazyRefreshes);
+        stats.put("indexedSkills", skillIndex.size());
+        stats.put("indexedTerms", termIndex.size());
+        return stats;
+    }
+
+    private void applyDelta(JobCatalogChangedEvent event) {
+        long start = System.currentTimeMillis();
+        JobCatalogSnapshot catalog = event.getSnapshot();
+        long scoredBefore = pairsScored;
+        long skippedBefore = pairsSkipped;
+
+        // 修改和删除的岗位先从持有它的排名中移除，列表外岗位的上界floor不受影响
+        Set<String> changedIds = new HashSet<>(event.getRemovedIds());
+        event.getPreviousJobs().forEach(job -> changedIds.add(job.getId()));
+        event.getUpsertedJobs().forEach(job -> changedIds.add(job.getId()));
+        for (String jobId : changedIds) {
+            Set<String> holding = holders.remove(jobId);
+            if (holding == null) continue;
+            for (String hash : holding) {
+                StoredRanking ranking = rankings.get(hash);
+                if (ranking != null) ranking.entries.removeIf(match -> jobId.equals(match.getJob().getId()));
+            }
+        }
+
+        double noOverlapBound = advancedMatchingService.maxScoreWithoutOverlap();
+        for (JobPosition job : event.getUpsertedJobs()) {
+            int row = catalog.getStore().findRow(job.getId());
+            if (row < 0) continue;
+
+            Set<String> candidates = new HashSet<>();
+            collect(candidates, skillIndex, advancedMatchingService.relatedSkills(job.getRequiredSkills()));
+            collect(candidates, termIndex, catalog.termVector(row).keySet());
+
+            for (StoredRanking ranking : rankings.values()) {
+                if (ranking.stale) continue;
+                // 无任何重叠的简历得分不超过noOverlapBound，低于floor时必然落在列表之外
+                if (!candidates.contains(ranking.hash) && noOverlapBound <= ranking.floor) {
+                    pairsSkipped++;
+                    continue;
+                }
+                JobMatch match = advancedMatchingService.scoreRow(ranking.resume, ranking.terms, ranking.vector, catalog, row);
+                pairsScored++;
+                insert(ranking, match);
+            }
+        }
+
+        int stale = 0;
+        for (StoredRanking ranking : rankings.values()) {
+            if (ranking.stale) continue;
+            ranking.catalogVersion = catalog.getVersion();
+            if (ranking.entries.size() < topK && ranking.floor != Double.NEGATIVE_INFINITY) {
+                ranking.stale = true;
+                stale++;
+            }
+        }
+
+        deltaEvents++;
+        log.info("增量重算完成，岗位库版本: {}, 新增/修改: {}, 删除: {}, 打分对数: {}, 跳过对数: {}, 新过期排名: {}, 耗时: {}ms",
+                catalog.getVersion(), event.getUpsertedJobs().size(), event.getRemovedIds().size(),
+                pairsScored - scoredBefore, pairsSkipped - skippedBefore, stale, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 按得分插入排名；超出深度时淘汰末尾结果并抬高floor
+     */
+    private void insert(StoredRanking ranking, JobMatch match) {
+        if (match.getMatchScore() < ranking.floor) return;
+
+        List<JobMatch> entries = ranking.entries;
+        int position = 0;
+        while (position < entries.size() && entries.get(position).getMatchScore() >= match.getMatchScore()) {
+            position++;
+        }
+        entries.add(position, match);
+        holders.computeIfAbsent(match.getJob().getId(), key -> new HashSet<>()).add(ranking.hash);
+
+        if (entries.size() > depth) {
+            JobMatch evicted = entries.remove(entries.size() - 1);
+            ranking.floor = Math.max(ranking.floor, evicted.getMatchScore());
+            removeHolder(evicted.getJob().getId(), ranking.hash);
+        }
+    }
+
+    private StoredRanking refreshIfStale(StoredRanking ranking) {
+        JobCatalogSnapshot catalog = jobCatalogService.getSnapshot();
+        if (ranking.stale || ranking.catalogVersion != catalog.getVersion()) {
+            rebuild(ranking, catalog);
+            lazyRefreshes++;
+        }
+        return ranking;
+    }
+
+    /**
+     * 对单份简历整体重算：小顶堆保留前(depth + 1)个，第depth + 1个的得分作为floor
+     */
+    private void rebuild(StoredRanking ranking, JobCatalogSnapshot catalog) {
+        ranking.entries.forEach(match -> removeHolder(match.getJob().getId(), ranking.hash));
+
+        PriorityQueue<JobMatch> heap = new PriorityQueue<>(depth + 2, Comparator.comparingDouble(JobMatch::getMatchScore));
+        for (int row = 0; row < catalog.size(); row++) {
+            heap.offer(advancedMatchingService.scoreRow(ranking.resume, ranking.terms, ranking.vector, catalog, row));
+            if (heap.size() > depth + 1) heap.poll();
+        }
+
+        ranking.floor = heap.size() > depth ? heap.poll().getMatchScore() : Double.NEGATIVE_INFINITY;
+        List<JobMatch> entries = new ArrayList<>(heap);
+        entries.sort(Comparator.comparingDouble(JobMatch::getMatchScore).reversed());
+        ranking.entries = entries;
+        ranking.catalogVersion = catalog.getVersion();
+        ranking.stale = false;
+        entries.forEach(match -> holders.computeIfAbsent(match.getJob().getId(), key -> new HashSet<>()).add(ranking.hash));
+    }
+
+    private MatchResult toResult(StoredRanking ranking, long startTime) {
+        List<JobMatch> matches = new ArrayList<>(ranking.entries.subList(0, Math.min(topK, ranking.entries.size())));
+
+        MatchResult result = new MatchResult();
+        result.setResume(ranking.resume);
+        result.setJobMatches(matches);
+        result.setAlgorithmUsed("多算法集成(TF-IDF + Jaccard + 语义匹配) - 增量维护排名");
+        result.setAnalysis(matches.isEmpty() ? "暂无匹配的岗位" : String.format("推荐岗位: %s, 综合匹配度: %.1f%%, 岗位库版本: %d",
+                matches.get(0).getJob().getTitle(), matches.get(0).getMatchScore() * 100, ranking.catalogVersion));
+        result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private void index(StoredRanking ranking) {
+        for (String skill : ranking.skills) {
+            skillIndex.computeIfAbsent(skill, key -> new HashSet<>()).add(ranking.hash);
+        }
+        for (String term : ranking.terms.keySet()) {
+            termIndex.computeIfAbsent(term, key -> new HashSet<>()).add(ranking.hash);
+        }
+    }
+
+    private void unindex(StoredRanking ranking) {
+        ranking.skills.forEach(skill -> removeFrom(skillIndex, skill, ranking.hash));
+        ranking.terms.keySet().forEach(term -> removeFrom(termIndex, term, ranking.hash));
+        ranking.entries.forEach(match -> removeHolder(match.getJob().getId(), ranking.hash));
+    }
+
+    private void evictIfNeeded() {
+        Iterator<StoredRanking> iterator = rankings.values().iterator();
+        while (rankings.size() > maxResumes && iterator.hasNext()) {
+            StoredRanking eldest = iterator.next();
+            iterator.remove();
+            unindex(eldest);
+        }
+    }
+
+    private void removeHolder(String jobId, String hash) {
+        removeFrom(holders, jobId, hash);
+    }
+
+    private static void removeFrom(Map<String, Set<String>> index, String key, String hash) {
+        Set<String> hashes = index.get(key);
+        if (hashes == null) return;
+        hashes.remove(hash);
+        if (hashes.isEmpty()) index.remove(key);
+    }
+
+    private static void collect(Set<String> target, Map<String, Set<String>> index, Collection<String> keys) {
+        for (String key : keys) {
+            Set<String> hashes = index.get(key);
+            if (hashes != null) target.addAll(hashes);
+        }
+    }
+
+    private static final class StoredRanking {
+        final String hash;
+        final ParsedResume resume;
+        final Map<String, Double> terms;
+        final float[] vector;
+        final Set<String> skills;
+
+        List<JobMatch> entries = new ArrayList<>();     // 按得分降序
+        double floor = Double.NEGATIVE_INFINITY;        // 列表外岗位得分上界；负无穷表示列表包含全部岗位
+        long catalogVersion;
+        boolean stale;
+
+        StoredRanking(String hash, ParsedResume resume, Map<String, Double> terms, float[] vector, Set<String> skills) {
+            this.hash = hash;
+            this.resume = resume;
+            this.terms = terms;
+            this.vector = vector;
+            this.skills = skills;
+        }
+    }
+}
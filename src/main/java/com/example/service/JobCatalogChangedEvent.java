@@ -0,0 +1,23 @@
+package com.example.service;
+
+import com.example.model.JobPosition;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 岗位库增量修改事件 - 携带变更明细，供增量重算和向量索引只处理受影响的岗位
+ * <p>
+ * 与JobCatalogReloadedEvent是两个独立事件：整库重新加载的监听器(全量重建)不会因单个岗位的修改而触发。
+ * previousJobs为被修改或删除岗位的旧版本，upsertedJobs为新增或修改后的岗位，removedIds为删除的岗位id。
+ */
+@Getter
+@RequiredArgsConstructor
+public class JobCatalogChangedEvent {
+    private final long previousVersion;
+    private final JobCatalogSnapshot snapshot;
+    private final List<JobPosition> previousJobs;
+    private final List<JobPosition> upsertedJobs;
+    private final List<String> removedIds;
+}
@@ -0,0 +1,14 @@
+package com.example.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 岗位库重新加载事件 - 依赖岗位库版本的缓存和索引据此失效
+ */
+@Getter
+@RequiredArgsConstructor
+public class JobCatalogReloadedEvent {
+    private final long previousVersion;
+    private final JobCatalogSnapshot snapshot;
+}
@@ -0,0 +1,242 @@
+package com.example.service;
+
+import com.example.model.JobPosition;
+import com.example.store.ColumnarCatalog;
+import com.example.store.HeapJobStore;
+import com.example.store.JobStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 岗位库服务 - 统一持有岗位数据，供基础匹配和高级匹配共用
+ * <p>
+ * 配置了列式岗位库文件(app.catalog.columnar-path)时以内存映射方式打开，岗位数据不进入堆；
+ * 否则从JSON文件或内置示例加载到堆内。列式文件由ColumnarCatalogWriter离线构建。
+ * <p>
+ * 分片部署时(app.cluster.shard-count大于1)本节点只持有按岗位id哈希取模归属于自己的岗位；
+ * 列式岗位库按分片离线构建，打开时不再过滤。
+ * <p>
+ * 岗位技能在加载和增量修改时经SkillNormalizer统一为标准技能名；列式岗位库在打开时归一化其技能字典。
+ */
+@Slf4j
+@Service
+public class JobCatalogService {
+
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SkillNormalizer skillNormalizer;
+    private final String catalogPath;
+    private final String columnarPath;
+    @Getter
+    private final int shardIndex;
+    @Getter
+    private final int shardCount;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicReference<JobCatalogSnapshot> snapshot = new AtomicReference<>();
+
+    public JobCatalogService(ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             SkillNormalizer skillNormalizer,
+                             @Value("${app.catalog.path:}") String catalogPath,
+                             @Value("${app.catalog.columnar-path:}") String columnarPath,
+                             @Value("${app.cluster.shard-index:0}") int shardIndex,
+                             @Value("${app.cluster.shard-count:1}") int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("分片配置无效: shard-index=" + shardIndex + ", shard-count=" + shardCount);
+        }
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.skillNormalizer = skillNormalizer;
+        this.catalogPath = catalogPath;
+        this.columnarPath = columnarPath;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.snapshot.set(new JobCatalogSnapshot(versionSequence.incrementAndGet(), loadStore()));
+    }
+
+    public JobCatalogSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * 重新加载岗位库，生成新版本快照并发布重新加载事件
+     */
+    public synchronized JobCatalogSnapshot reload() {
+        JobCatalogSnapshot previous = snapshot.get();
+        JobCatalogSnapshot reloaded = new JobCatalogSnapshot(versionSequence.incrementAndGet(), loadStore());
+        snapshot.set(reloaded);
+
+        log.info("岗位库重新加载完成，版本: {} -> {}, 岗位数: {}",
+                previous.getVersion(), reloaded.getVersion(), reloaded.size());
+        eventPublisher.publishEvent(new JobCatalogReloadedEvent(previous.getVersion(), reloaded));
+        return reloaded;
+    }
+
+    /**
+     * 增量修改岗位库：新增/覆盖(按id)和删除岗位，生成新版本快照并发布增量修改事件
+     * <p>
+     * 只支持堆内岗位库；列式岗位库为只读文件，需离线重建后重新加载。分片部署时忽略不归属本分片的岗位。
+     */
+    public synchronized JobCatalogSnapshot applyChanges(List<JobPosition> upserts, List<String> removals) {
+        JobCatalogSnapshot previous = snapshot.get();
+        if (!(previous.getStore() instanceof HeapJobStore heapStore)) {
+            throw new IllegalStateException("列式岗位库为只读，请离线重建后重新加载");
+        }
+
+        Map<String, JobPosition> jobs = new LinkedHashMap<>();
+        for (JobPosition job : heapStore.getJobs()) {
+            jobs.put(job.getId(), job);
+        }
+
+        List<JobPosition> previousJobs = new ArrayList<>();
+        List<JobPosition> upserted = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (String id : removals != null ? removals : List.<String>of()) {
+            JobPosition old = jobs.remove(id);
+            if (old != null) {
+                previousJobs.add(old);
+                removed.add(id);
+            }
+        }
+        for (JobPosition job : upserts != null ? upserts : List.<JobPosition>of()) {
+            normalize(job);
+            if (shardCount > 1 && !inShard(job.getId(), shardIndex, shardCount)) continue;
+            JobPosition old = jobs.put(job.getId(), job);
+            if (old != null) previousJobs.add(old);
+            upserted.add(job);
+        }
+
+        JobCatalogSnapshot changed = new JobCatalogSnapshot(versionSequence.incrementAndGet(),
+                HeapJobStore.derive(heapStore, new ArrayList<>(jobs.values())));
+        snapshot.set(changed);
+
+        log.info("岗位库增量修改完成，版本: {} -> {}, 新增/修改: {}, 删除: {}, 岗位数: {}",
+                previous.getVersion(), changed.getVersion(), upserted.size(), removed.size(), changed.size());
+        eventPublisher.publishEvent(new JobCatalogChangedEvent(previous.getVersion(), changed,
+                previousJobs, upserted, removed));
+        return changed;
+    }
+
+    private JobStore loadStore() {
+        if (columnarPath != null && !columnarPath.isBlank()) {
+            File file = new File(columnarPath);
+            if (file.exists()) {
+                try {
+                    long start = System.currentTimeMillis();
+                    ColumnarCatalog catalog = ColumnarCatalog.open(Path.of(columnarPath), skillNormalizer::canonicalize);
+                    log.info("打开列式岗位库: {}, 岗位数: {}, 耗时: {}ms",
+                            columnarPath, catalog.size(), System.currentTimeMillis() - start);
+                    return catalog;
+                } catch (IOException e) {
+                    throw new RuntimeException("列式岗位库打开失败: " + e.getMessage(), e);
+                }
+            }
+            log.warn("列式岗位库文件不存在: {}, 回退到堆内岗位库", columnarPath);
+        }
+        return new HeapJobStore(ownedJobs(loadJobs()));
+    }
+
+    private List<JobPosition> ownedJobs(List<JobPosition> jobs) {
+        if (shardCount == 1) return jobs;
+
+        List<JobPosition> owned = new ArrayList<>();
+        for (JobPosition job : jobs) {
+            if (inShard(job.getId(), shardIndex, shardCount)) owned.add(job);
+        }
+        log.info("分片 {}/{} 持有岗位数: {} (岗位库总数: {})", shardIndex, shardCount, owned.size(), jobs.size());
+        return owned;
+    }
+
+    private List<JobPosition> loadJobs() {
+        if (catalogPath == null || catalogPath.isBlank()) {
+            return getSampleJobs();
+        }
+
+        File file = new File(catalogPath);
+        if (!file.exists()) {
+            log.warn("岗位库文件不存在: {}, 使用内置示例岗位", catalogPath);
+            return getSampleJobs();
+        }
+
+        try {
+            List<JobPosition> jobs = objectMapper.readValue(file, new TypeReference<List<JobPosition>>() {});
+            for (JobPosition job : jobs) {
+                normalize(job);
+            }
+            log.info("从文件加载岗位库: {}, 岗位数: {}", catalogPath, jobs.size());
+            return jobs;
+        } catch (IOException e) {
+            throw new RuntimeException("岗位库加载失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void normalize(JobPosition job) {
+        if (job.getId() == null || job.getId().isBlank()) {
+            job.setId(stableId(job.getCompany(), job.getTitle()));
+        }
+        // 岗位技能统一为标准技能名，与简历解析出的技能直接比较
+        job.setRequiredSkills(skillNormalizer.canonicalize(job.getRequiredSkills()));
+        if (job.getDescription() == null) {
+            job.setDescription("");
+        }
+    }
+
+    private List<JobPosition> getSampleJobs() {
+        return Arrays.asList(
+                createJob("Java开发工程师", "互联网",
+                        Arrays.asList("Java", "Spring", "MySQL", "Redis"), 2, 15000.0),
+                createJob("高级Java开发工程师", "互联网",
+                        Arrays.asList("Java", "Spring Boot", "MySQL", "Redis", "Docker"), 3, 20000.0),
+                createJob("前端开发工程师", "互联网",
+                        Arrays.asList("JavaScript", "Vue", "React", "HTML"), 1, 12000.0),
+                createJob("全栈开发工程师", "互联网",
+                        Arrays.asList("Java", "Spring", "Vue", "MySQL"), 2, 18000.0),
+                createJob("后端开发工程师", "互联网",
+                        Arrays.asList("Java", "Spring Boot", "MySQL", "Redis"), 2, 16000.0)
+        );
+    }
+
+    private JobPosition createJob(String title, String industry,
+                                  List<String> skills, int exp, double salary) {
+        JobPosition job = new JobPosition();
+        job.setTitle(title);
+        job.setCompany("示例科技公司");
+        // 基于公司+岗位名生成稳定id，便于响应中按id引用岗位
+        job.setId(stableId(job.getCompany(), title));
+        job.setIndustry(industry);
+        job.setRequiredSkills(skills);
+        job.setMinExperience(exp);
+        job.setRequiredEducation("本科");
+        job.setBaseSalary(salary);
+        job.setDescription("招聘" + title + "，需要掌握" + String.join("、", skills) + "等技术，具有" + exp + "年以上相关经验");
+        return job;
+    }
+
+    /**
+     * 岗位归属的分片：按岗位id哈希取模，所有节点和离线构建工具使用同一规则
+     */
+    public static boolean inShard(String jobId, int shardIndex, int shardCount) {
+        return Math.floorMod(String.valueOf(jobId).hashCode(), shardCount) == shardIndex;
+    }
+
+    /**
+     * 基于公司+岗位名的稳定id；离线构建列式岗位库时同样使用，保证两种加载方式id一致
+     */
+    public static String stableId(String company, String title) {
+        return UUID.nameUUIDFromBytes((company + ":" + title).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.service;
+
+import com.example.index.JobCatalogIndex;
+import com.example.model.JobFilter;
+import com.example.model.JobPosition;
+import com.example.store.HeapJobStore;
+import com.example.store.JobStore;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 岗位库快照 - 不可变，每次重新加载生成新版本
+ * <p>
+ * 岗位数据由JobStore按行号提供：堆内存储直接持有岗位对象，列式存储为内存映射文件，
+ * 岗位对象只在需要返回时按行物化。过滤索引在首次查询时构建，打开大规模岗位库时不做额外扫描。
+ */
+public class JobCatalogSnapshot {
+
+    @Getter
+    private final long version;
+    @Getter
+    private final JobStore store;
+
+    private volatile JobCatalogIndex index;
+
+    public JobCatalogSnapshot(long version, List<JobPosition> jobs) {
+        this(version, new HeapJobStore(jobs));
+    }
+
+    public JobCatalogSnapshot(long version, JobStore store) {
+        this.version = version;
+        this.store = store;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public boolean isOffHeap() {
+        return store.isOffHeap();
+    }
+
+    public JobCatalogIndex getIndex() {
+        JobCatalogIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new JobCatalogIndex(store);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 满足过滤条件的行号位图
+     */
+    public BitSet selectRows(JobFilter filter) {
+        return getIndex().evaluate(filter);
+    }
+
+    /**
+     * 按过滤条件检索候选岗位并物化；大规模列式岗位库应使用selectRows按行打分
+     */
+    public List<JobPosition> select(JobFilter filter) {
+        return jobs(selectRows(filter).stream().toArray());
+    }
+
+    public JobPosition job(int row) {
+        return store.get(row);
+    }
+
+    /**
+     * 按给定行号顺序物化岗位
+     */
+    public List<JobPosition> jobs(int[] rows) {
+        List<JobPosition> jobs = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            jobs.add(store.get(row));
+        }
+        return jobs;
+    }
+
+    public Map<String, Double> termVector(int row) {
+        return store.termVector(row);
+    }
+
+    public JobPosition findById(String id) {
+        int row = store.findRow(id);
+        return row < 0 ? null : store.get(row);
+    }
+}
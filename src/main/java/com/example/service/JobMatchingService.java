@@ -1,28 +1,61 @@
 package com.example.service;
 
+import com.example.model.JobFilter;
 import com.example.model.JobMatch;
 import com.example.model.JobPosition;
 import com.example.model.MatchResult;
 import com.example.model.ParsedResume;
+import com.example.store.JobStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 public class JobMatchingService {
 
+    private static final String ALGORITHM = "basic";
+
+    private final JobCatalogService jobCatalogService;
+    private final MatchResultCache matchResultCache;
+    private final SkillNormalizer skillNormalizer;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${app.catalog.columnar.max-results:200}")
+    private int offHeapMaxResults;
+
     public MatchResult basicMatch(ParsedResume resume, String industry) {
+        return basicMatch(resume, JobFilter.ofIndustry(industry));
+    }
+
+    public MatchResult basicMatch(ParsedResume resume, JobFilter filter) {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
-        List<JobPosition> relevantJobs = getJobDatabase().stream()
-                .filter(job -> industry == null || industry.equalsIgnoreCase(job.getIndustry()))
-                .collect(Collectors.toList());
+        JobCatalogSnapshot catalog = jobCatalogService.getSnapshot();
+        MatchResultCache.Key cacheKey = MatchResultCache.key(
+                ResumeFingerprint.contentHash(resume), ALGORITHM, filter.cacheKey(), catalog.getVersion());
+
+        Optional<MatchResult> cached = matchResultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            pipelineMetrics.recordMatch(ALGORITHM, "cache-hit", startNanos);
+            return copyForResume(cached.get(), resume, System.currentTimeMillis() - startTime);
+        }
+
+        long stageStart = System.nanoTime();
+        // 列式岗位库只物化基础得分最高的前N个岗位
+        List<JobPosition> relevantJobs = catalog.isOffHeap()
+                ? catalog.jobs(shortlistRows(resume, catalog, catalog.selectRows(filter), offHeapMaxResults))
+                : catalog.select(filter);
 
         List<JobMatch> matches = relevantJobs.stream()
                 .map(job -> createBasicJobMatch(resume, job))
                 .sorted((a, b) -> Double.compare(b.getMatchScore(), a.getMatchScore()))
                 .collect(Collectors.toList());
+        pipelineMetrics.recordMatch(ALGORITHM, "score", stageStart);
 
         MatchResult result = new MatchResult();
         result.setResume(resume);
@@ -30,7 +63,20 @@ public class JobMatchingService {
         result.setAlgorithmUsed("基础技能匹配");
         result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
         result.setAnalysis(generateBasicAnalysis(matches));
+        matchResultCache.put(cacheKey, result);
+        pipelineMetrics.recordMatch(ALGORITHM, "total", startNanos);
+
+        return result;
+    }
 
+    private MatchResult copyForResume(MatchResult cached, ParsedResume resume, long processingTimeMs) {
+        MatchResult result = new MatchResult();
+        result.setResume(resume);
+        result.setJobMatches(cached.getJobMatches());
+        result.setAlgorithmUsed(cached.getAlgorithmUsed());
+        result.setAnalysis(cached.getAnalysis());
+        result.setProcessingTimeMs(processingTimeMs);
+        result.setCached(true);
         return result;
     }
 
@@ -49,6 +95,63 @@ public class JobMatchingService {
         return match;
     }
 
+    /**
+     * 级联匹配的粗筛阶段：直接读取技能id列和经验列计算基础得分，按得分保留前limit行(小顶堆，O(n log limit))，
+     * 不物化岗位对象。结果按得分降序
+     * <p>
+     * 简历技能先经skillNormalizer归一化为标准名，再按名称(忽略大小写)查找岗位库的技能id；岗位技能在入库时已归一化去重，
+     * 分母与calculateBasicMatchScore相同。唯一的差别是未登记在别名表中的技能：calculateBasicMatchScore的比较键
+     * 还忽略空白和 - _ . 分隔符("Node JS"与"node-js"相同)，这里视为不同技能，得分可能略低
+     */
+    public int[] shortlistRows(ParsedResume resume, JobCatalogSnapshot catalog, BitSet rows, int limit) {
+        if (limit <= 0) return new int[0];
+        JobStore store = catalog.getStore();
+        int[] resumeSkillIds = new int[resume.getSkills().size()];
+        for (int i = 0; i < resumeSkillIds.length; i++) {
+            resumeSkillIds[i] = store.lookupSkill(skillNormalizer.canonicalize(resume.getSkills().get(i)));
+        }
+        Integer resumeExp = resume.getPersonalInfo().getYearsOfExperience();
+
+        PriorityQueue<ScoredRow> heap = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(ScoredRow::score));
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            double score = calculateBasicMatchScore(resumeSkillIds, resumeExp, store, row);
+            if (heap.size() < limit) {
+                heap.offer(new ScoredRow(row, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.offer(new ScoredRow(row, score));
+            }
+        }
+
+        int[] shortlisted = new int[heap.size()];
+        for (int i = shortlisted.length - 1; i >= 0; i--) {
+            shortlisted[i] = heap.poll().row();
+        }
+        return shortlisted;
+    }
+
+    private double calculateBasicMatchScore(int[] resumeSkillIds, Integer resumeExp, JobStore store, int row) {
+        int[] jobSkillIds = store.skillIds(row);
+        double skillsMatch = 0.0;
+        if (jobSkillIds.length > 0 && resumeSkillIds.length > 0) {
+            int matchedCount = 0;
+            for (int skillId : resumeSkillIds) {
+                if (skillId >= 0 && contains(jobSkillIds, skillId)) matchedCount++;
+            }
+            skillsMatch = (double) matchedCount / jobSkillIds.length;
+        }
+
+        double score = skillsMatch * 0.6 + calculateExperienceMatch(resumeExp, store.minExperience(row)) * 0.4;
+        return Math.min(score, 1.0);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) return true;
+        }
+        return false;
+    }
+
     private double calculateBasicMatchScore(ParsedResume resume, JobPosition job) {
         double score = 0.0;
 
@@ -65,34 +168,37 @@ public class JobMatchingService {
         if (jobSkills.isEmpty()) return 0.0;
         if (resumeSkills.isEmpty()) return 0.0;
 
+        Set<String> jobKeys = skillNormalizer.canonicalKeys(jobSkills);
         long matchedCount = resumeSkills.stream()
-                .filter(resumeSkill -> jobSkills.stream()
-                        .anyMatch(jobSkill -> jobSkill.equalsIgnoreCase(resumeSkill)))
+                .filter(resumeSkill -> jobKeys.contains(skillNormalizer.canonicalKey(resumeSkill)))
                 .count();
 
         return (double) matchedCount / jobSkills.size();
     }
 
     private double calculateExperienceMatch(ParsedResume resume, JobPosition job) {
-        Integer resumeExp = resume.getPersonalInfo().getYearsOfExperience();
+        return calculateExperienceMatch(resume.getPersonalInfo().getYearsOfExperience(), job.getMinExperience());
+    }
+
+    private double calculateExperienceMatch(Integer resumeExp, Integer minExperience) {
         if (resumeExp == null) return 0.3;
-        if (job.getMinExperience() == null) return 0.5;
+        if (minExperience == null) return 0.5;
 
-        if (resumeExp >= job.getMinExperience()) return 1.0;
-        return (double) resumeExp / job.getMinExperience();
+        if (resumeExp >= minExperience) return 1.0;
+        return (double) resumeExp / minExperience;
     }
 
     private List<String> findMatchedSkills(List<String> resumeSkills, List<String> jobSkills) {
+        Set<String> jobKeys = skillNormalizer.canonicalKeys(jobSkills);
         return resumeSkills.stream()
-                .filter(resumeSkill -> jobSkills.stream()
-                        .anyMatch(jobSkill -> jobSkill.equalsIgnoreCase(resumeSkill)))
+                .filter(resumeSkill -> jobKeys.contains(skillNormalizer.canonicalKey(resumeSkill)))
                 .collect(Collectors.toList());
     }
 
     private List<String> findMissingSkills(List<String> resumeSkills, List<String> jobSkills) {
+        Set<String> resumeKeys = skillNormalizer.canonicalKeys(resumeSkills);
         return jobSkills.stream()
-                .filter(jobSkill -> resumeSkills.stream()
-                        .noneMatch(resumeSkill -> resumeSkill.equalsIgnoreCase(jobSkill)))
+                .filter(jobSkill -> !resumeKeys.contains(skillNormalizer.canonicalKey(jobSkill)))
                 .collect(Collectors.toList());
     }
 
@@ -109,27 +215,6 @@ public class JobMatchingService {
                 bestMatch.getJob().getTitle(), bestMatch.getMatchScore() * 100);
     }
 
-    private List<JobPosition> getJobDatabase() {
-        // 复用AdvancedMatchingService中的岗位数据
-        return Arrays.asList(
-                createJob("Java开发工程师", "互联网",
-                        Arrays.asList("Java", "Spring", "MySQL", "Redis"), 2),
-                createJob("前端开发工程师", "互联网",
-                        Arrays.asList("JavaScript", "Vue", "React", "HTML"), 1)
-        );
-    }
-
-    private JobPosition createJob(String title, String industry,
-                                  List<String> skills, int exp) {
-        JobPosition job = new JobPosition();
-        job.setId(UUID.randomUUID().toString());
-        job.setTitle(title);
-        job.setCompany("示例公司");
-        job.setIndustry(industry);
-        job.setRequiredSkills(skills);
-        job.setMinExperience(exp);
-        job.setRequiredEducation("本科");
-        job.setDescription("招聘" + title);
-        return job;
-    }
-}
\ No newline at end of file
+    private record ScoredRow(int row, double score) {
+    }
+}
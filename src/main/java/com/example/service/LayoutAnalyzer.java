@@ -0,0 +1,317 @@
+package com.example.service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 版面分析：在二值化图像上找出文本块，按阅读顺序返回其像素矩形
+ * <p>
+ * 图像按cell×cell像素划分为网格，统计每格的黑色像素数。先去掉长而细的横线和竖线(分隔线、装饰边框)，
+ * 再做递归XY切分：在区域的行投影和列投影中寻找足够宽的空白带，沿最宽的一条把区域切成上下或左右两部分，
+ * 直到没有可切的空白带，叶子区域即文本块。切分顺序(上先于下、左先于右)就是阅读顺序，
+ * 双栏模板的正文按栏间空白切成左右两栏，左栏读完再读右栏。
+ * 空白带的最小宽度按估计的文字行高换算，行间距不会被切开；墨迹密集的叶子(照片、色块)和零星噪点不作为文本块。
+ * 表格行和"姓名    张三"这类标签-值行也有较宽的列空白，但两侧的文字行共享基线：
+ * 两侧的文字行大多一一对齐时不做左右切分，整行作为一个文本块按行读出
+ */
+final class LayoutAnalyzer {
+
+    /**
+     * 左右切分要求的列空白宽度、上下切分要求的行空白高度，以行高为单位
+     */
+    private static final double COLUMN_GAP_LINES = 3.0;
+    private static final double ROW_GAP_LINES = 1.0;
+    /**
+     * 左右两侧对齐的文字行数达到两侧行数较大者的该比例时视为表格或标签-值行，不切成两栏
+     */
+    private static final double SHARED_BASELINE_SHARE = 0.8;
+    /**
+     * 长度不小于该行高倍数、粗细不超过行高1/3的连续墨迹视为横线或竖线
+     */
+    private static final int RULE_LENGTH_LINES = 8;
+    /**
+     * 黑色像素占比和有墨迹网格占比同时超过阈值的区域视为照片或色块
+     */
+    private static final double PHOTO_PIXEL_DENSITY = 0.35;
+    private static final double PHOTO_CELL_OCCUPANCY = 0.85;
+    private static final int MIN_BLOCK_INK_PIXELS = 24;
+    private static final int DEFAULT_LINE_HEIGHT = 3;
+
+    private final int width;
+    private final int height;
+    private final int cell;
+    private final int columns;
+    private final int rows;
+    /**
+     * 每个网格的黑色像素数，以及去掉横竖线后的墨迹网格的二维前缀和
+     */
+    private final int[] inkPixels;
+    private final int[] prefix;
+    private final int lineHeight;
+
+    private LayoutAnalyzer(BufferedImage binary) {
+        width = binary.getWidth();
+        height = binary.getHeight();
+        // 网格约为短边的1/250，300dpi的A4扫描件每格8像素，一行文字约占5格
+        cell = Math.max(2, Math.min(8, Math.round(Math.min(width, height) / 250f)));
+        columns = (width + cell - 1) / cell;
+        rows = (height + cell - 1) / cell;
+        inkPixels = countInk(binary);
+
+        boolean[] mask = new boolean[columns * rows];
+        int minInk = Math.max(1, cell * cell / 16);
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = inkPixels[i] >= minInk;
+        }
+        lineHeight = estimateLineHeight(mask);
+        removeRules(mask);
+        prefix = prefixSums(mask);
+    }
+
+    /**
+     * 按阅读顺序返回文本块，坐标为原图像素并留出少量边距；页面没有文字时返回空列表
+     */
+    static List<Rectangle> findTextBlocks(BufferedImage binary) {
+        return new LayoutAnalyzer(binary).textBlocks();
+    }
+
+    private List<Rectangle> textBlocks() {
+        List<int[]> leaves = new ArrayList<>();
+        int minColumnGap = Math.max(2, (int) Math.ceil(lineHeight * COLUMN_GAP_LINES));
+        int minRowGap = Math.max(1, (int) Math.ceil(lineHeight * ROW_GAP_LINES));
+        cut(0, 0, columns, rows, minColumnGap, minRowGap, leaves);
+
+        List<Rectangle> blocks = new ArrayList<>(leaves.size());
+        int margin = Math.max(cell, lineHeight * cell / 4);
+        Rectangle page = new Rectangle(0, 0, width, height);
+        for (int[] leaf : leaves) {
+            int x0 = leaf[0], y0 = leaf[1], x1 = leaf[2], y1 = leaf[3];
+            Rectangle bounds = new Rectangle(x0 * cell, y0 * cell,
+                    Math.min(width, x1 * cell) - x0 * cell, Math.min(height, y1 * cell) - y0 * cell);
+
+            long pixels = 0;
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    pixels += inkPixels[y * columns + x];
+                }
+            }
+            if (pixels < MIN_BLOCK_INK_PIXELS) continue;
+            double pixelDensity = (double) pixels / ((long) bounds.width * bounds.height);
+            double occupancy = (double) ink(x0, y0, x1, y1) / ((x1 - x0) * (y1 - y0));
+            if (pixelDensity > PHOTO_PIXEL_DENSITY && occupancy > PHOTO_CELL_OCCUPANCY) continue;
+
+            bounds.grow(margin, margin);
+            blocks.add(bounds.intersection(page));
+        }
+        return blocks;
+    }
+
+    /**
+     * 递归XY切分，叶子区域按阅读顺序加入leaves，坐标为网格的[x0, x1) × [y0, y1)
+     */
+    private void cut(int x0, int y0, int x1, int y1, int minColumnGap, int minRowGap, List<int[]> leaves) {
+        // 收缩到区域内墨迹的外接矩形
+        while (x0 < x1 && ink(x0, y0, x0 + 1, y1) == 0) x0++;
+        while (x1 > x0 && ink(x1 - 1, y0, x1, y1) == 0) x1--;
+        if (x0 == x1) return;
+        while (ink(x0, y0, x1, y0 + 1) == 0) y0++;
+        while (ink(x0, y1 - 1, x1, y1) == 0) y1--;
+
+        int[] columnGap = widestGap(x0, y0, x1, y1, true);
+        int[] rowGap = widestGap(x0, y0, x1, y1, false);
+        boolean splitColumns = columnGap[1] >= minColumnGap
+                && !sharesBaselines(x0, columnGap[0], columnGap[0] + columnGap[1], x1, y0, y1);
+        boolean splitRows = rowGap[1] >= minRowGap;
+        if (splitColumns && splitRows) {
+            // 两个方向都可切时按各自阈值归一化，先切相对更宽的空白带
+            splitColumns = (double) columnGap[1] / minColumnGap >= (double) rowGap[1] / minRowGap;
+        }
+
+        if (splitColumns) {
+            cut(x0, y0, columnGap[0], y1, minColumnGap, minRowGap, leaves);
+            cut(columnGap[0] + columnGap[1], y0, x1, y1, minColumnGap, minRowGap, leaves);
+        } else if (splitRows) {
+            cut(x0, y0, x1, rowGap[0], minColumnGap, minRowGap, leaves);
+            cut(x0, rowGap[0] + rowGap[1], x1, y1, minColumnGap, minRowGap, leaves);
+        } else {
+            leaves.add(new int[]{x0, y0, x1, y1});
+        }
+    }
+
+    /**
+     * 列空白左侧[x0, gapStart)和右侧[gapEnd, x1)的文字行是否大多处在相同的纵向位置：
+     * 两行的纵向重叠不少于较矮一行的一半即视为对齐
+     */
+    private boolean sharesBaselines(int x0, int gapStart, int gapEnd, int x1, int y0, int y1) {
+        List<int[]> left = textLines(x0, gapStart, y0, y1);
+        List<int[]> right = textLines(gapEnd, x1, y0, y1);
+        int aligned = 0;
+        int j = 0;
+        for (int[] line : left) {
+            while (j < right.size() && right.get(j)[1] <= line[0]) j++;
+            if (j < right.size()) {
+                int[] other = right.get(j);
+                int overlap = Math.min(line[1], other[1]) - Math.max(line[0], other[0]);
+                int shorter = Math.min(line[1] - line[0], other[1] - other[0]);
+                if (overlap * 2 >= shorter) {
+                    aligned++;
+                    j++;
+                }
+            }
+        }
+        return aligned >= SHARED_BASELINE_SHARE * Math.max(left.size(), right.size());
+    }
+
+    /**
+     * 列范围[x0, x1)内的文字行，返回按纵向排列的{起始行, 结束行}；不超过1/3行高的空白行
+     * (汉字笔画之间的空隙)不把一行文字断开
+     */
+    private List<int[]> textLines(int x0, int x1, int y0, int y1) {
+        List<int[]> lines = new ArrayList<>();
+        int bridge = Math.max(1, lineHeight / 3);
+        int start = -1, end = -1;
+        for (int y = y0; y < y1; y++) {
+            if (ink(x0, y, x1, y + 1) == 0) continue;
+            if (start >= 0 && y - end > bridge) {
+                lines.add(new int[]{start, end});
+                start = -1;
+            }
+            if (start < 0) start = y;
+            end = y + 1;
+        }
+        if (start >= 0) lines.add(new int[]{start, end});
+        return lines;
+    }
+
+    /**
+     * 区域内最宽的空白列带(vertical)或空白行带，返回{起点, 宽度}；区域已收缩到墨迹外接矩形，空白带都在内部
+     */
+    private int[] widestGap(int x0, int y0, int x1, int y1, boolean vertical) {
+        int start = vertical ? x0 : y0;
+        int end = vertical ? x1 : y1;
+        int bestStart = start, bestLength = 0, runStart = -1;
+        for (int i = start; i < end; i++) {
+            boolean empty = vertical ? ink(i, y0, i + 1, y1) == 0 : ink(x0, i, x1, i + 1) == 0;
+            if (empty) {
+                if (runStart < 0) runStart = i;
+            } else if (runStart >= 0) {
+                if (i - runStart > bestLength) {
+                    bestStart = runStart;
+                    bestLength = i - runStart;
+                }
+                runStart = -1;
+            }
+        }
+        return new int[]{bestStart, bestLength};
+    }
+
+    /**
+     * 网格区域[x0, x1) × [y0, y1)内的墨迹网格数
+     */
+    private int ink(int x0, int y0, int x1, int y1) {
+        int stride = columns + 1;
+        return prefix[y1 * stride + x1] - prefix[y0 * stride + x1] - prefix[y1 * stride + x0] + prefix[y0 * stride + x0];
+    }
+
+    /**
+     * 逐行读取采样值统计每个网格的黑色像素数；二值图中0为黑色，灰度图中低于一半取值范围为黑色
+     */
+    private int[] countInk(BufferedImage binary) {
+        Raster raster = binary.getRaster();
+        int inkBelow = 1 << (raster.getSampleModel().getSampleSize(0) - 1);
+        int[] counts = new int[columns * rows];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            int base = (y / cell) * columns;
+            for (int x = 0; x < width; x++) {
+                if (row[x] < inkBelow) counts[base + x / cell]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 以墨迹网格纵向连续长度的中位数估计文字行高(网格数)
+     */
+    private int estimateLineHeight(boolean[] mask) {
+        int[] histogram = new int[rows + 1];
+        for (int x = 0; x < columns; x++) {
+            int run = 0;
+            for (int y = 0; y <= rows; y++) {
+                if (y < rows && mask[y * columns + x]) {
+                    run++;
+                } else {
+                    // 单格的连续墨迹多为噪点或笔画边缘，不参与估计
+                    if (run >= 2) histogram[run]++;
+                    run = 0;
+                }
+            }
+        }
+        long total = 0;
+        for (int count : histogram) total += count;
+        if (total == 0) return DEFAULT_LINE_HEIGHT;
+        long seen = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            seen += histogram[length];
+            if (seen * 2 >= total) return length;
+        }
+        return DEFAULT_LINE_HEIGHT;
+    }
+
+    /**
+     * 去掉长而细的横线和竖线：页面边框和分隔线会贯穿整个区域的投影，使XY切分找不到空白带
+     */
+    private void removeRules(boolean[] mask) {
+        int[] horizontal = runLengths(mask, true);
+        int[] vertical = runLengths(mask, false);
+        int ruleLength = Math.max(8, RULE_LENGTH_LINES * lineHeight);
+        int thin = Math.max(2, lineHeight / 3);
+        for (int i = 0; i < mask.length; i++) {
+            if ((horizontal[i] >= ruleLength && vertical[i] <= thin)
+                    || (vertical[i] >= ruleLength && horizontal[i] <= thin)) {
+                mask[i] = false;
+            }
+        }
+    }
+
+    /**
+     * 每个墨迹网格所在的横向(horizontal)或纵向连续墨迹长度
+     */
+    private int[] runLengths(boolean[] mask, boolean horizontal) {
+        int[] lengths = new int[mask.length];
+        int lines = horizontal ? rows : columns;
+        int span = horizontal ? columns : rows;
+        for (int line = 0; line < lines; line++) {
+            int runStart = -1;
+            for (int i = 0; i <= span; i++) {
+                int index = i < span ? (horizontal ? line * columns + i : i * columns + line) : -1;
+                if (index >= 0 && mask[index]) {
+                    if (runStart < 0) runStart = i;
+                } else if (runStart >= 0) {
+                    for (int j = runStart; j < i; j++) {
+                        lengths[horizontal ? line * columns + j : j * columns + line] = i - runStart;
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+        return lengths;
+    }
+
+    private int[] prefixSums(boolean[] mask) {
+        int stride = columns + 1;
+        int[] sums = new int[stride * (rows + 1)];
+        for (int y = 0; y < rows; y++) {
+            int rowSum = 0;
+            for (int x = 0; x < columns; x++) {
+                if (mask[y * columns + x]) rowSum++;
+                sums[(y + 1) * stride + x + 1] = sums[y * stride + x + 1] + rowSum;
+            }
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.service;
+
+/**
+ * 局部自适应二值化：每个像素以其window×window邻域的灰度均值(Bradley-Roth)或均值和标准差(Sauvola)确定阈值，
+ * 光照不均的手机拍照中暗处和亮处的文字都能保留
+ * <p>
+ * 邻域和与平方和取自积分图：积分图按行滚动计算，只保留当前窗口覆盖的行带(各列的纵向和，再对列求前缀和)，
+ * 每个像素的窗口和为前缀和之差，耗时与窗口大小无关，内存只与图像宽度成正比。
+ * 像素值先经levels换算(与全局阈值使用同一灰度标度)，结果为8位灰度(墨迹为0，背景为255)
+ */
+final class LocalBinarizer {
+
+    /**
+     * Sauvola公式中标准差的动态范围
+     */
+    private static final double SAUVOLA_RANGE = 128;
+    /**
+     * 列的纵向平方和以int累加，窗口不超过该值时不会溢出(255² × 255)
+     */
+    static final int MAX_WINDOW = 255;
+    private static final int ILLUMINATION_GRID = 8;
+    private static final double BACKGROUND_PERCENTILE = 0.9;
+
+    private LocalBinarizer() {
+    }
+
+    /**
+     * 未配置窗口时取短边的1/20(300dpi的A4扫描件约125像素，覆盖三四行正文)，不小于15，取奇数。
+     * 窗口小于行距时行间空白处的阈值只由背景决定，笔画会变细断开
+     */
+    static int defaultWindow(int width, int height) {
+        return Math.min(MAX_WINDOW, Math.max(15, Math.min(width, height) / 20) | 1);
+    }
+
+    /**
+     * Sauvola：阈值 = 均值 × (1 + k × (标准差 / 128 - 1))，对比度低的背景区域阈值低于均值，不会产生噪点
+     */
+    static void sauvola(byte[] src, byte[] dst, int width, int height, int[] levels, int window, double k) {
+        binarize(src, dst, width, height, levels, window, k, true);
+    }
+
+    /**
+     * Bradley-Roth：像素低于邻域均值的(1 - t)倍时为墨迹
+     */
+    static void bradley(byte[] src, byte[] dst, int width, int height, int[] levels, int window, double t) {
+        binarize(src, dst, width, height, levels, window, t, false);
+    }
+
+    private static void binarize(byte[] src, byte[] dst, int width, int height, int[] levels, int window,
+                                 double parameter, boolean sauvola) {
+        int radius = Math.min(MAX_WINDOW, Math.max(1, window)) / 2;
+        int[] columnSum = new int[width];
+        int[] columnSquares = new int[width];
+        long[] prefix = new long[width + 1];
+        long[] prefixSquares = new long[width + 1];
+        // 每列窗口的左右边界(图像边缘处窗口截断)
+        int[] left = new int[width];
+        int[] right = new int[width];
+        for (int x = 0; x < width; x++) {
+            left[x] = Math.max(0, x - radius);
+            right[x] = Math.min(width - 1, x + radius) + 1;
+        }
+
+        for (int y = 0; y < Math.min(radius, height); y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int value = levels[src[offset + x] & 0xFF];
+                columnSum[x] += value;
+                columnSquares[x] += value * value;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            // 窗口下移一行：各列加入y + radius行、去掉y - radius - 1行，同时求列方向的前缀和
+            int entering = y + radius < height ? (y + radius) * width : -1;
+            int leaving = y - radius - 1 >= 0 ? (y - radius - 1) * width : -1;
+            for (int x = 0; x < width; x++) {
+                int in = entering >= 0 ? levels[src[entering + x] & 0xFF] : 0;
+                int out = leaving >= 0 ? levels[src[leaving + x] & 0xFF] : 0;
+                columnSum[x] += in - out;
+                columnSquares[x] += in * in - out * out;
+                prefix[x + 1] = prefix[x] + columnSum[x];
+                prefixSquares[x + 1] = prefixSquares[x] + columnSquares[x];
+            }
+
+            int rows = Math.min(height - 1, y + radius) - Math.max(0, y - radius) + 1;
+            if (sauvola) {
+                sauvolaRow(src, dst, y * width, width, levels, rows, left, right, prefix, prefixSquares, parameter);
+            } else {
+                bradleyRow(src, dst, y * width, width, levels, rows, left, right, prefix, parameter);
+            }
+        }
+    }
+
+    /**
+     * 白色条件 value > mean × (1 - k) + mean × k × std / R：两边乘以窗口像素数后平方比较，避免逐像素开方和除法
+     */
+    private static void sauvolaRow(byte[] src, byte[] dst, int row, int width, int[] levels, int rows,
+                                   int[] left, int[] right, long[] prefix, long[] prefixSquares, double k) {
+        double scale = k / SAUVOLA_RANGE;
+        for (int x = 0; x < width; x++) {
+            double count = (double) rows * (right[x] - left[x]);
+            double sum = prefix[right[x]] - prefix[left[x]];
+            double margin = levels[src[row + x] & 0xFF] * count - (1 - k) * sum;
+            boolean background = false;
+            if (margin > 0) {
+                double spread = (prefixSquares[right[x]] - prefixSquares[left[x]]) * count - sum * sum;
+                double bound = sum * scale;
+                background = margin * margin * count * count > bound * bound * Math.max(0, spread);
+            }
+            dst[row + x] = background ? (byte) 255 : 0;
+        }
+    }
+
+    private static void bradleyRow(byte[] src, byte[] dst, int row, int width, int[] levels, int rows,
+                                   int[] left, int[] right, long[] prefix, double t) {
+        for (int x = 0; x < width; x++) {
+            double count = (double) rows * (right[x] - left[x]);
+            double sum = prefix[right[x]] - prefix[left[x]];
+            dst[row + x] = levels[src[row + x] & 0xFF] * count > sum * (1 - t) ? (byte) 255 : 0;
+        }
+    }
+
+    /**
+     * 光照不均匀程度：页面分为8×8格，每格取90%分位的灰度作为该处背景亮度，返回各格背景亮度的标准差。
+     * 平整扫描件的背景接近一致，手机拍照的阴影和渐暗使其明显增大。隔行隔列取样
+     */
+    static double illuminationSpread(byte[] src, int width, int height, int[] levels) {
+        int columns = Math.min(ILLUMINATION_GRID, width);
+        int rows = Math.min(ILLUMINATION_GRID, height);
+        int[][] histograms = new int[columns * rows][256];
+        int[] counts = new int[columns * rows];
+        for (int y = 0; y < height; y += 2) {
+            int tileRow = y * rows / height;
+            for (int x = 0; x < width; x += 2) {
+                int tile = tileRow * columns + x * columns / width;
+                histograms[tile][levels[src[y * width + x] & 0xFF]]++;
+                counts[tile]++;
+            }
+        }
+
+        double sum = 0;
+        double sumSquares = 0;
+        int tiles = 0;
+        for (int tile = 0; tile < histograms.length; tile++) {
+            if (counts[tile] == 0) continue;
+            int rank = (int) (counts[tile] * BACKGROUND_PERCENTILE);
+            int seen = 0;
+            int background = 255;
+            for (int value = 0; value < 256; value++) {
+                seen += histograms[tile][value];
+                if (seen > rank) {
+                    background = value;
+                    break;
+                }
+            }
+            sum += background;
+            sumSquares += (double) background * background;
+            tiles++;
+        }
+        if (tiles == 0) return 0;
+        double mean = sum / tiles;
+        return Math.sqrt(Math.max(0, sumSquares / tiles - mean * mean));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.service;
+
+import com.example.model.JobMatch;
+import com.example.model.MatchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 匹配结果缓存 - 按(简历内容哈希, 算法, 过滤条件, 岗位库版本)缓存，
+ * 以估算的内存占用而不是条目数作为容量上限，岗位库重新加载时整体失效
+ */
+@Slf4j
+@Component
+public class MatchResultCache {
+
+    // 单个匹配项的固定开销估算(对象头、引用、double字段等)
+    private static final long MATCH_BASE_WEIGHT = 160;
+    private static final long RESULT_BASE_WEIGHT = 256;
+
+    private final boolean enabled;
+    private final long maxWeightBytes;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MatchResultCache(@Value("${app.match.cache.enabled:true}") boolean enabled,
+                            @Value("${app.match.cache.max-weight-bytes:33554432}") long maxWeightBytes) {
+        this.enabled = enabled;
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public static Key key(String resumeHash, String algorithm, String filter, long catalogVersion) {
+        return new Key(resumeHash, algorithm, filter == null ? "" : filter.toLowerCase(), catalogVersion);
+    }
+
+    public Optional<MatchResult> get(Key key) {
+        if (!enabled) return Optional.empty();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            return Optional.of(entry.result);
+        }
+    }
+
+    public void put(Key key, MatchResult result) {
+        if (!enabled) return;
+
+        long weight = estimateWeight(key, result);
+        if (weight > maxWeightBytes) {
+            log.debug("匹配结果超过缓存容量上限，不缓存: {} bytes", weight);
+            return;
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(result, weight));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += weight;
+            evictIfNeeded();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    @EventListener
+    public void onCatalogReloaded(JobCatalogReloadedEvent event) {
+        onCatalogVersionChanged(event.getPreviousVersion(), event.getSnapshot().getVersion());
+    }
+
+    @EventListener
+    public void onCatalogChanged(JobCatalogChangedEvent event) {
+        onCatalogVersionChanged(event.getPreviousVersion(), event.getSnapshot().getVersion());
+    }
+
+    private void onCatalogVersionChanged(long previousVersion, long version) {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+            invalidateAll();
+        }
+        log.info("岗位库版本变更({} -> {})，清空匹配结果缓存 {} 项", previousVersion, version, size);
+    }
+
+    @EventListener
+    public void onTaxonomyReloaded(SkillTaxonomyReloadedEvent event) {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+            invalidateAll();
+        }
+        log.info("技能分类体系版本变更({} -> {})，清空匹配结果缓存 {} 项",
+                event.getPreviousVersion(), event.getTaxonomy().getVersion(), size);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("weightBytes", totalWeight);
+        stats.put("maxWeightBytes", maxWeightBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeightBytes && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            totalWeight -= eldest.getValue().weight;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 估算缓存项内存占用；岗位对象由岗位库共享，不计入
+     */
+    private long estimateWeight(Key key, MatchResult result) {
+        long weight = RESULT_BASE_WEIGHT + stringWeight(key.resumeHash) + stringWeight(key.filter)
+                + stringWeight(result.getAnalysis()) + stringWeight(result.getAlgorithmUsed());
+
+        if (result.getJobMatches() != null) {
+            for (JobMatch match : result.getJobMatches()) {
+                weight += MATCH_BASE_WEIGHT + stringWeight(match.getMatchReason())
+                        + listWeight(match.getMatchedSkills()) + listWeight(match.getMissingSkills());
+            }
+        }
+        return weight;
+    }
+
+    private long listWeight(List<String> values) {
+        if (values == null) return 0;
+        long weight = 16L + 8L * values.size();
+        for (String value : values) {
+            weight += stringWeight(value);
+        }
+        return weight;
+    }
+
+    private long stringWeight(String value) {
+        return value == null ? 0 : 40L + 2L * value.length();
+    }
+
+    public record Key(String resumeHash, String algorithm, String filter, long catalogVersion) {
+    }
+
+    private record Entry(MatchResult result, long weight) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.service;
+
+import com.example.model.JobMatch;
+import com.example.model.JobPosition;
+import com.example.model.MatchResult;
+import com.example.model.ParsedResume;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 匹配结果投影 - 按视图(full/summary)和字段列表裁剪响应体
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchResultProjector {
+
+    public static final String VIEW_FULL = "full";
+    public static final String VIEW_SUMMARY = "summary";
+
+    // 岗位匹配项允许投影的字段
+    private static final Set<String> MATCH_FIELDS = Set.of(
+            "jobId", "job", "matchScore", "matchReason",
+            "matchedSkills", "missingSkills", "algorithmScores"
+    );
+
+    // summary视图下默认保留的字段
+    private static final List<String> SUMMARY_MATCH_FIELDS = Arrays.asList(
+            "jobId", "matchScore", "matchReason", "matchedSkills", "missingSkills"
+    );
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 单个匹配结果的投影；full视图且未指定字段时原样返回
+     */
+    public Object project(MatchResult result, String view, String fields) {
+        String normalizedView = normalizeView(view);
+        List<String> matchFields = parseFields(fields);
+
+        if (VIEW_FULL.equals(normalizedView) && matchFields.isEmpty()) {
+            return result;
+        }
+        return projectResult(result, normalizedView, matchFields, true);
+    }
+
+    /**
+     * 对比匹配的投影；summary视图下简历只在顶层返回一次
+     */
+    public Map<String, Object> projectComparison(ParsedResume resume, MatchResult basicResult,
+                                                 MatchResult advancedResult, String view, String fields) {
+        String normalizedView = normalizeView(view);
+        List<String> matchFields = parseFields(fields);
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        if (VIEW_FULL.equals(normalizedView) && matchFields.isEmpty()) {
+            comparison.put("basicMatch", basicResult);
+            comparison.put("advancedMatch", advancedResult);
+            comparison.put("resume", resume);
+            return comparison;
+        }
+
+        boolean summary = VIEW_SUMMARY.equals(normalizedView);
+        comparison.put("basicMatch", projectResult(basicResult, normalizedView, matchFields, !summary));
+        comparison.put("advancedMatch", projectResult(advancedResult, normalizedView, matchFields, !summary));
+        comparison.put("resume", summary ? summarizeResume(resume) : resume);
+        return comparison;
+    }
+
+    private Map<String, Object> projectResult(MatchResult result, String view,
+                                              List<String> matchFields, boolean includeResume) {
+        boolean summary = VIEW_SUMMARY.equals(view);
+        List<String> fields = !matchFields.isEmpty() ? matchFields
+                : summary ? SUMMARY_MATCH_FIELDS : new ArrayList<>(MATCH_FIELDS);
+
+        Map<String, Object> projected = new LinkedHashMap<>();
+        projected.put("algorithmUsed", result.getAlgorithmUsed());
+        projected.put("analysis", result.getAnalysis());
+        projected.put("processingTimeMs", result.getProcessingTimeMs());
+        projected.put("cached", result.isCached());
+        if (result.getCascadeDiagnostics() != null) {
+            projected.put("cascadeDiagnostics", result.getCascadeDiagnostics());
+        }
+        if (result.getClusterDiagnostics() != null) {
+            projected.put("clusterDiagnostics", result.getClusterDiagnostics());
+        }
+        if (result.getTimings() != null) {
+            projected.put("timings", result.getTimings());
+        }
+        if (includeResume) {
+            projected.put("resume", summary ? summarizeResume(result.getResume()) : result.getResume());
+        }
+
+        List<Map<String, Object>> matches = new ArrayList<>();
+        Map<String, Object> jobs = new LinkedHashMap<>();
+        for (JobMatch match : result.getJobMatches()) {
+            matches.add(projectMatch(match, fields, summary));
+            // summary视图中岗位按id引用，岗位详情去重后集中返回(不含description)
+            if (summary && match.getJob() != null) {
+                jobs.putIfAbsent(match.getJob().getId(), summarizeJob(match.getJob()));
+            }
+        }
+        projected.put("jobMatches", matches);
+        if (summary) {
+            projected.put("jobs", jobs);
+        }
+        return projected;
+    }
+
+    private Map<String, Object> projectMatch(JobMatch match, List<String> fields, boolean summary) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        projected.put("jobId", match.getJob() != null ? match.getJob().getId() : null);
+
+        for (String field : fields) {
+            switch (field) {
+                case "jobId":
+                    break;
+                case "job":
+                    // summary视图下不内嵌岗位
+                    if (!summary) projected.put("job", match.getJob());
+                    break;
+                case "matchScore":
+                    projected.put("matchScore", match.getMatchScore());
+                    break;
+                case "matchReason":
+                    projected.put("matchReason", match.getMatchReason());
+                    break;
+                case "matchedSkills":
+                    projected.put("matchedSkills", match.getMatchedSkills());
+                    break;
+                case "missingSkills":
+                    projected.put("missingSkills", match.getMissingSkills());
+                    break;
+                case "algorithmScores":
+                    if (match.getAlgorithmScores() != null) {
+                        projected.put("algorithmScores", objectMapper.convertValue(match.getAlgorithmScores(), Map.class));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return projected;
+    }
+
+    private Map<String, Object> summarizeResume(ParsedResume resume) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (resume == null) return summary;
+        summary.put("fileName", resume.getFileName());
+        summary.put("personalInfo", resume.getPersonalInfo());
+        summary.put("skills", resume.getSkills());
+        if (resume.getNearDuplicate() != null) {
+            summary.put("nearDuplicate", resume.getNearDuplicate());
+        }
+        return summary;
+    }
+
+    private Map<String, Object> summarizeJob(JobPosition job) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("title", job.getTitle());
+        summary.put("company", job.getCompany());
+        summary.put("industry", job.getIndustry());
+        summary.put("requiredSkills", job.getRequiredSkills());
+        summary.put("minExperience", job.getMinExperience());
+        summary.put("requiredEducation", job.getRequiredEducation());
+        summary.put("baseSalary", job.getBaseSalary());
+        return summary;
+    }
+
+    private String normalizeView(String view) {
+        if (view == null || view.isBlank()) return VIEW_FULL;
+        String normalized = view.trim().toLowerCase();
+        if (!VIEW_FULL.equals(normalized) && !VIEW_SUMMARY.equals(normalized)) {
+            throw new IllegalArgumentException("不支持的视图: " + view + "，可选值: full, summary");
+        }
+        return normalized;
+    }
+
+    private List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return Collections.emptyList();
+
+        List<String> parsed = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) continue;
+            if (!MATCH_FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException("不支持的字段: " + trimmed + "，可选值: " + new TreeSet<>(MATCH_FIELDS));
+            }
+            parsed.add(trimmed);
+        }
+        return parsed;
+    }
+}
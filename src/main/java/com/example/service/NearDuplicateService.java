@@ -0,0 +1,178 @@
+package com.example.service;
+
+import com.example.index.MinHashLshIndex;
+import com.example.model.ParsedResume;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * 近重复简历检测 - 同一候选人的PDF、DOCX和手机拍照件只保留一份解析结果
+ * <p>
+ * rawText经NFKC归一化、转小写并去除空白和标点后切分为字符k-gram(shingle)，计算MinHash签名并写入LSH索引。
+ * 入库时若存在估计相似度不低于阈值的简历，返回其解析结果的副本：正文、技能和工作年限与原简历一致，
+ * 内容指纹相同，后续匹配直接命中匹配结果缓存和已注册的排名。
+ * 文本类文件(PDF/DOCX/TXT)的解析质量优于OCR，若已入库的是OCR结果而新上传的是文本文件，以新解析结果替换原记录。
+ */
+@Slf4j
+@Service
+public class NearDuplicateService {
+
+    private final boolean enabled;
+    private final double threshold;
+    private final int shingleSize;
+    private final int minTextLength;
+    private final int maxEntries;
+    private final MinHashLshIndex index;
+
+    private final LinkedHashMap<String, StoredResume> resumes = new LinkedHashMap<>();
+
+    private long lookups;
+    private long duplicates;
+    private long candidatesExamined;
+    private long upgrades;
+
+    public NearDuplicateService(@Value("${app.dedup.enabled:true}") boolean enabled,
+                                @Value("${app.dedup.threshold:0.8}") double threshold,
+                                @Value("${app.dedup.shingle-size:5}") int shingleSize,
+                                @Value("${app.dedup.min-text-length:100}") int minTextLength,
+                                @Value("${app.dedup.num-hashes:128}") int numHashes,
+                                @Value("${app.dedup.bands:16}") int bands,
+                                @Value("${app.dedup.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.shingleSize = shingleSize;
+        this.minTextLength = minTextLength;
+        this.maxEntries = maxEntries;
+        this.index = new MinHashLshIndex(numHashes, bands);
+        log.info("近重复检测{}，阈值: {}, LSH: {}段 x {}行(约{}以上的相似度可被召回)",
+                enabled ? "已启用" : "未启用", threshold, index.getBands(), index.getRows(),
+                String.format("%.2f", index.approximateThreshold()));
+    }
+
+    /**
+     * 入库：存在近重复简历时返回复用其解析结果的副本，否则登记本简历并原样返回
+     *
+     * @param fromOcr 解析结果是否来自OCR
+     */
+    public synchronized ParsedResume resolve(ParsedResume parsed, boolean fromOcr) {
+        if (!enabled) return parsed;
+
+        String normalized = normalize(parsed.getRawText());
+        if (normalized.length() < Math.max(minTextLength, shingleSize)) return parsed;
+
+        int[] signature = index.signature(shingles(normalized));
+        lookups++;
+
+        List<MinHashLshIndex.Candidate> candidates = index.query(signature);
+        candidatesExamined += candidates.size();
+        if (!candidates.isEmpty() && candidates.get(0).similarity() >= threshold) {
+            MinHashLshIndex.Candidate best = candidates.get(0);
+            StoredResume existing = resumes.get(best.id());
+            duplicates++;
+
+            if (existing.fromOcr && !fromOcr) {
+                // 文本文件的解析结果替换OCR结果，后续重复件复用质量更高的版本
+                resumes.put(existing.id, new StoredResume(existing.id, parsed, false));
+                index.add(existing.id, signature);
+                upgrades++;
+                log.info("近重复简历: {} 与 {} 相似度 {}，以文本解析结果替换OCR结果",
+                        parsed.getFileName(), existing.resume.getFileName(), String.format("%.3f", best.similarity()));
+                return parsed;
+            }
+
+            log.info("近重复简历: {} 与 {} 相似度 {}，复用已有解析结果",
+                    parsed.getFileName(), existing.resume.getFileName(), String.format("%.3f", best.similarity()));
+            return reuse(existing, parsed.getFileName(), best.similarity());
+        }
+
+        String id = UUID.randomUUID().toString();
+        resumes.put(id, new StoredResume(id, parsed, fromOcr));
+        index.add(id, signature);
+        evictIfNeeded();
+        return parsed;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", resumes.size());
+        stats.put("threshold", threshold);
+        stats.put("shingleSize", shingleSize);
+        stats.put("bands", index.getBands());
+        stats.put("rows", index.getRows());
+        stats.put("lshThreshold", index.approximateThreshold());
+        stats.put("lookups", lookups);
+        stats.put("duplicates", duplicates);
+        stats.put("ocrUpgrades", upgrades);
+        stats.put("meanCandidatesPerLookup", lookups > 0 ? (double) candidatesExamined / lookups : 0.0);
+        return stats;
+    }
+
+    /**
+     * NFKC归一化(全角转半角等)、小写，只保留字母和数字；OCR产生的空白和标点差异不影响shingle
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder builder = new StringBuilder(folded.length());
+        folded.codePoints()
+                .filter(Character::isLetterOrDigit)
+                .forEach(builder::appendCodePoint);
+        return builder.toString();
+    }
+
+    /**
+     * 字符k-gram的64位FNV-1a哈希，去重后返回
+     */
+    private long[] shingles(String normalized) {
+        long[] hashes = new long[normalized.length() - shingleSize + 1];
+        for (int start = 0; start < hashes.length; start++) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = start; i < start + shingleSize; i++) {
+                hash ^= normalized.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            hashes[start] = hash;
+        }
+        return Arrays.stream(hashes).distinct().toArray();
+    }
+
+    private ParsedResume reuse(StoredResume existing, String fileName, double similarity) {
+        ParsedResume source = existing.resume;
+        ParsedResume copy = new ParsedResume();
+        copy.getPersonalInfo().setName(source.getPersonalInfo().getName());
+        copy.getPersonalInfo().setEmail(source.getPersonalInfo().getEmail());
+        copy.getPersonalInfo().setPhone(source.getPersonalInfo().getPhone());
+        copy.getPersonalInfo().setLocation(source.getPersonalInfo().getLocation());
+        copy.getPersonalInfo().setYearsOfExperience(source.getPersonalInfo().getYearsOfExperience());
+        copy.setWorkExperiences(new ArrayList<>(source.getWorkExperiences()));
+        copy.setEducations(new ArrayList<>(source.getEducations()));
+        copy.setSkills(new ArrayList<>(source.getSkills()));
+        copy.setCertifications(new ArrayList<>(source.getCertifications()));
+        copy.setRawText(source.getRawText());
+        copy.setFileName(fileName);
+
+        ParsedResume.NearDuplicate nearDuplicate = new ParsedResume.NearDuplicate();
+        nearDuplicate.setResumeId(existing.id);
+        nearDuplicate.setFileName(source.getFileName());
+        nearDuplicate.setSimilarity(similarity);
+        copy.setNearDuplicate(nearDuplicate);
+        return copy;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<StoredResume> iterator = resumes.values().iterator();
+        while (resumes.size() > maxEntries && iterator.hasNext()) {
+            StoredResume eldest = iterator.next();
+            iterator.remove();
+            index.remove(eldest.id);
+        }
+    }
+
+    private record StoredResume(String id, ParsedResume resume, boolean fromOcr) {
+    }
+}
@@ -1,12 +1,11 @@
 package com.example.service;
 
+import com.example.model.ExtractionResult;
+import com.example.model.OcrOptions;
 import lombok.extern.slf4j.Slf4j;
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -14,67 +13,159 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.awt.image.ConvolveOp;
-import java.awt.image.Kernel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-
-
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * 图片简历OCR
+ * <p>
+ * 自适应模式(app.ocr.adaptive.enabled)下先做一次低成本识别：只转灰度，使用不做方向检测的页面分割模式；
+ * 平均词置信度达到阈值时直接采用，否则升级到完整流程(放大、降噪、二值化、锐化 + 自动分割)，
+ * 两次结果中取置信度较高的一个。关闭自适应模式时每张图片都走完整流程。
+ * 完整流程在二值化图像上做版面分析(app.ocr.layout.enabled)，只识别找到的文本块，各文本块由引擎池并行识别，
+ * 按阅读顺序拼接；照片、分隔线、边框和大片空白不再送入Tesseract。
+ * 识别前先检测文字类别(app.ocr.script.enabled)，英文简历只用eng模型、没有夹带英文单词的纯中文简历只用chi_sim模型，
+ * 其余使用chi_sim+eng；快速识别未通过时完整流程改用chi_sim+eng，避免类别误判造成的识别错误。
+ * 方向和倾斜在Java侧检测并校正(app.ocr.deskew.enabled)，转正后的图像以PSM 3识别，不再由Tesseract做OSD；
+ * 关闭时整页识别仍使用PSM 1(自动分割和方向检测)。
+ * 预处理各步骤的灰度栅格和送入Tesseract的图像缓冲从RasterBufferPool按请求租用，请求结束时归还。
+ * 完整流程的二值化可按请求选择(OcrOptions.binarization)：全局阈值，或以积分图计算的局部自适应阈值(Sauvola、Bradley)；
+ * auto模式下光照不均(各处背景亮度的标准差达到app.ocr.binarization.auto-spread)的图片使用局部阈值。
+ * 采用的流程和置信度以ExtractionResult随解析结果返回
+ */
 @Slf4j
 @Service
 public class OCRResumeParser {
 
-    private static final String TESSDATA_PATH = "./tessdata";
-    private ITesseract tesseract;
-
-    public OCRResumeParser() {
+    private static final String TESSDATA_PATH = OcrEngine.TESSDATA_PATH;
+    private static final String PASS_FAST = "fast";
+    private static final String PASS_FULL = "full";
+    /**
+     * 8位灰度值经getRGB换算后的红色通道值，二值化阈值按该值计算
+     */
+    private static final int[] GRAY_TO_RGB = grayToRgb();
+
+    private final UploadResourceGuard uploadResourceGuard;
+    private final PipelineMetrics pipelineMetrics;
+    private final OcrEnginePool ocrEnginePool;
+    private final RasterBufferPool rasterBufferPool;
+    private final boolean adaptiveEnabled;
+    private final double minConfidence;
+    private final int fastPageSegMode;
+    private final boolean layoutEnabled;
+    private final int regionPageSegMode;
+    private final int maxRegions;
+    private final boolean scriptDetectionEnabled;
+    private final double englishShare;
+    private final double chineseShare;
+    private final boolean deskewEnabled;
+    private final double maxSkewDegrees;
+    private final int fullPageSegMode;
+    private final String binarizationMode;
+    private final String localBinarization;
+    private final int binarizationWindow;
+    private final double sauvolaK;
+    private final double bradleyT;
+    private final double autoSpread;
+    private final AtomicInteger ocrInFlight = new AtomicInteger();
+
+    private final LongAdder fastAccepted = new LongAdder();
+    private final LongAdder escalations = new LongAdder();
+    private final LongAdder fullOnly = new LongAdder();
+    private final DoubleAdder confidenceSum = new DoubleAdder();
+    private final LongAdder regionPages = new LongAdder();
+    private final LongAdder wholePages = new LongAdder();
+    private final Map<String, LongAdder> routes = new LinkedHashMap<>();
+    private final LongAdder routeFallbacks = new LongAdder();
+    private final Map<Integer, LongAdder> orientations = new LinkedHashMap<>();
+    private final LongAdder deskewed = new LongAdder();
+    private final Map<String, LongAdder> binarizations = new LinkedHashMap<>();
+
+    public OCRResumeParser(UploadResourceGuard uploadResourceGuard,
+                           PipelineMetrics pipelineMetrics,
+                           OcrEnginePool ocrEnginePool,
+                           RasterBufferPool rasterBufferPool,
+                           OcrProperties properties) {
+        this.uploadResourceGuard = uploadResourceGuard;
+        this.pipelineMetrics = pipelineMetrics;
+        this.ocrEnginePool = ocrEnginePool;
+        this.rasterBufferPool = rasterBufferPool;
+        this.adaptiveEnabled = properties.getAdaptive().isEnabled();
+        this.minConfidence = properties.getAdaptive().getMinConfidence();
+        this.fastPageSegMode = properties.getAdaptive().getFastPsm();
+        this.layoutEnabled = properties.getLayout().isEnabled();
+        this.regionPageSegMode = properties.getLayout().getRegionPsm();
+        this.maxRegions = properties.getLayout().getMaxRegions();
+        this.scriptDetectionEnabled = properties.getScript().isEnabled();
+        this.englishShare = properties.getScript().getEnglishShare();
+        this.chineseShare = properties.getScript().getChineseShare();
+        this.deskewEnabled = properties.getDeskew().isEnabled();
+        this.maxSkewDegrees = properties.getDeskew().getMaxSkewDegrees();
+        // 已在Java侧转正时整页识别用PSM_AUTO(3)，否则用PSM_AUTO_OSD(1)由Tesseract检测方向
+        this.fullPageSegMode = deskewEnabled ? 3 : 1;
+        OcrProperties.Binarization binarization = properties.getBinarization();
+        this.binarizationMode = binarization.getMode().toLowerCase();
+        this.localBinarization = binarization.getLocalMethod().toLowerCase();
+        this.binarizationWindow = Math.min(LocalBinarizer.MAX_WINDOW, binarization.getWindow());
+        this.sauvolaK = binarization.getSauvolaK();
+        this.bradleyT = binarization.getBradleyT();
+        this.autoSpread = binarization.getAutoSpread();
+        if (!OcrOptions.BINARIZATIONS.contains(this.binarizationMode)) {
+            throw new IllegalArgumentException("不支持的二值化方式: " + binarization.getMode());
+        }
+        if (!OcrOptions.BINARIZATION_SAUVOLA.equals(this.localBinarization)
+                && !OcrOptions.BINARIZATION_BRADLEY.equals(this.localBinarization)) {
+            throw new IllegalArgumentException("局部二值化方式只能为sauvola或bradley: " + binarization.getLocalMethod());
+        }
+        for (String method : List.of(OcrOptions.BINARIZATION_GLOBAL, OcrOptions.BINARIZATION_SAUVOLA,
+                OcrOptions.BINARIZATION_BRADLEY)) {
+            binarizations.put(method, new LongAdder());
+        }
+        for (int orientation = 0; orientation < 360; orientation += 90) {
+            orientations.put(orientation, new LongAdder());
+        }
+        for (String language : OcrEngine.LANGUAGES) {
+            routes.put(language, new LongAdder());
+        }
         initializeTesseract();
     }
 
     private void initializeTesseract() {
-        try {
-            tesseract = new Tesseract();
-
-            // 设置语言包路径
-            File tessdataDir = new File(TESSDATA_PATH);
-            if (!tessdataDir.exists()) {
-                log.warn("Tessdata目录不存在: {}, 尝试创建", TESSDATA_PATH);
-                boolean created = tessdataDir.mkdirs();
-                log.info("Tessdata目录创建: {}", created ? "成功" : "失败");
-            }
-
-            tesseract.setDatapath(TESSDATA_PATH);
-            tesseract.setLanguage("chi_sim+eng");
-
-            // 使用优化OCR配置
-            tesseract.setPageSegMode(1);   // PSM_AUTO_OSD = 1
-            tesseract.setOcrEngineMode(1); // OEM_LSTM_ONLY = 1
+        // 设置语言包路径
+        File tessdataDir = new File(TESSDATA_PATH);
+        if (!tessdataDir.exists()) {
+            log.warn("Tessdata目录不存在: {}, 尝试创建", TESSDATA_PATH);
+            boolean created = tessdataDir.mkdirs();
+            log.info("Tessdata目录创建: {}", created ? "成功" : "失败");
+        }
 
-            // 可选：添加识别参数优化
-            try {
-                tesseract.setTessVariable("textord_min_linesize", "2.0");
-                tesseract.setTessVariable("tessedit_char_blacklist", "|\\~`");
-            } catch (Exception configError) {
-                log.warn("高级OCR参数设置失败，使用基础模式", configError);
-            }
+        log.info("Tesseract优化配置完成 - 完整流程 PSM: {}, Engine: LSTM_ONLY(1); 自适应: {}, 快速识别PSM: {}, 置信度阈值: {}; "
+                        + "版面分析: {}, 文本块PSM: {}, 文本块上限: {}; 文字类别检测: {}; 方向和倾斜校正: {}; 二值化: {}(局部: {})",
+                fullPageSegMode, adaptiveEnabled, fastPageSegMode, minConfidence, layoutEnabled, regionPageSegMode,
+                maxRegions, scriptDetectionEnabled, deskewEnabled, binarizationMode, localBinarization);
+    }
 
-            log.info("Tesseract优化配置完成 - PSM: AUTO_OSD(1), Engine: LSTM_ONLY(1)");
+    public String parseImageResume(MultipartFile imageFile) {
+        return recognize(imageFile).text();
+    }
 
-        } catch (Exception e) {
-            log.error("Tesseract OCR初始化失败", e);
-            // 降级到基础配置
-            tesseract = new Tesseract();
-            try {
-                tesseract.setDatapath(TESSDATA_PATH);
-                tesseract.setPageSegMode(6);  // 回退到基础模式 PSM_AUTO
-                tesseract.setOcrEngineMode(3); // 回退到 OEM_DEFAULT
-                log.info("Tesseract使用降级配置 - PSM: AUTO(6), Engine: DEFAULT(3)");
-            } catch (Exception ex) {
-                log.warn("简化版本Tesseract初始化也失败", ex);
-            }
-        }
+    /**
+     * 识别图片简历，返回清理后的文本和识别置信度
+     */
+    public OcrResult recognize(MultipartFile imageFile) {
+        return recognize(imageFile, OcrOptions.defaults());
     }
 
-    public String parseImageResume(MultipartFile imageFile) {
+    /**
+     * 按请求的OCR选项识别图片简历，选项中未指定的使用配置默认值
+     */
+    public OcrResult recognize(MultipartFile imageFile, OcrOptions options) {
         if (imageFile == null || imageFile.isEmpty()) {
             throw new IllegalArgumentException("图片文件为空");
         }
@@ -82,27 +173,107 @@ public class OCRResumeParser {
         log.info("开始OCR解析: {}, 大小: {} bytes",
                 imageFile.getOriginalFilename(), imageFile.getSize());
 
+        String format = PipelineMetrics.formatOf(imageFile.getOriginalFilename());
         Path tempFile = null;
+        RasterBuffers buffers = rasterBufferPool.lease();
         try {
             // 创建临时文件
+            long stageStart = System.nanoTime();
             tempFile = Files.createTempFile("resume_ocr_", getFileExtension(imageFile.getOriginalFilename()));
             Files.copy(imageFile.getInputStream(), tempFile, StandardCopyOption.REPLACE_EXISTING);
+            pipelineMetrics.recordStage("upload.read", format, stageStart);
+
+            // 先读文件头检查尺寸，超大图片降采样解码
+            stageStart = System.nanoTime();
+            BufferedImage image = uploadResourceGuard.readImage(tempFile.toFile());
+            pipelineMetrics.recordStage("ocr.decode", format, stageStart);
+            log.info("原始图像尺寸: {}x{}, 类型: {}", image.getWidth(), image.getHeight(), image.getType());
+
+            stageStart = System.nanoTime();
+            BufferedImage gray = convertToGrayscale(image, buffers);
+            pipelineMetrics.recordStage("ocr.grayscale", format, stageStart);
+
+            // 方向和倾斜校正与文字类别检测共用同一个低分辨率二值副本，页面旋转后重新生成
+            BufferedImage sample = null;
+            if (deskewEnabled) {
+                stageStart = System.nanoTime();
+                sample = PageSample.of(gray, buffers);
+                PageOrientation.Correction correction = PageOrientation.detect(sample, maxSkewDegrees, buffers);
+                if (!correction.isNone()) {
+                    BufferedImage rotated = PageOrientation.apply(gray, correction, buffers);
+                    buffers.release(gray);
+                    gray = rotated;
+                    sample = null;
+                }
+                pipelineMetrics.recordStage("ocr.orientation", format, stageStart);
+                recordCorrection(correction);
+            }
+
+            String language = routeLanguage(gray, sample, format, buffers);
 
-            // 使用优化后的预处理
-            BufferedImage processedImage = preprocessImage(tempFile.toFile());
+            OcrEngine.Recognition fast = null;
+            if (adaptiveEnabled) {
+                fast = runPass(gray, language, fastPageSegMode, PASS_FAST, format, buffers);
+            }
 
-            String result = tesseract.doOCR(processedImage);
+            String pass;
+            String acceptedLanguage = language;
+            String binarization = null;
+            OcrEngine.Recognition accepted;
+            if (fast != null && fast.confidence() >= minConfidence && !fast.text().isBlank()) {
+                pass = PASS_FAST;
+                accepted = fast;
+                fastAccepted.increment();
+            } else {
+                // 快速识别置信度低也可能是文字类别判断错误，检测选择了单一语言模型时完整流程改用中英混合模型
+                String fullLanguage = language;
+                if (fast != null && !OcrEngine.DEFAULT_LANGUAGE.equals(language)
+                        && OcrEngine.isInstalled(OcrEngine.DEFAULT_LANGUAGE)) {
+                    fullLanguage = OcrEngine.DEFAULT_LANGUAGE;
+                    routeFallbacks.increment();
+                }
+                Preprocessed preprocessed = enhance(gray, format, options.getBinarization(), buffers);
+                binarizations.get(preprocessed.binarization()).increment();
+                OcrEngine.Recognition full = runFullPass(preprocessed, fullLanguage, format, buffers);
+                // 完整流程的置信度不一定更高(如二值化损失了浅色文字)，取两次中置信度较高的结果
+                boolean keepFast = fast != null && fast.confidence() > full.confidence();
+                pass = keepFast ? PASS_FAST : PASS_FULL;
+                accepted = keepFast ? fast : full;
+                acceptedLanguage = keepFast ? language : fullLanguage;
+                binarization = keepFast ? null : preprocessed.binarization();
+                if (fast != null) {
+                    escalations.increment();
+                    log.info("快速识别置信度 {} 低于阈值 {}，升级到完整流程，置信度: {}",
+                            percent(fast.confidence()), percent(minConfidence), percent(full.confidence()));
+                } else {
+                    fullOnly.increment();
+                }
+            }
+            confidenceSum.add(accepted.confidence());
 
             // 文本后处理
+            stageStart = System.nanoTime();
+            String result = accepted.text();
             String cleanedResult = cleanOCRText(result);
+            pipelineMetrics.recordStage("text.cleanup", format, stageStart);
 
-            log.info("OCR解析成功，原始字符数: {}, 清理后: {}", result.length(), cleanedResult.length());
-            return cleanedResult;
+            PipelineMetrics.annotate("ocrPass", pass);
+            PipelineMetrics.annotate("ocrConfidence", accepted.confidence());
+            PipelineMetrics.annotate("ocrLanguage", acceptedLanguage);
+            if (binarization != null) PipelineMetrics.annotate("ocrBinarization", binarization);
 
+            log.info("OCR解析成功，流程: {}, 语言: {}, 置信度: {}, 原始字符数: {}, 清理后: {}",
+                    pass, acceptedLanguage, percent(accepted.confidence()), result.length(), cleanedResult.length());
+            return new OcrResult(cleanedResult, confidenceResult(pass, acceptedLanguage, binarization, accepted, fast));
+
+        } catch (UploadLimitExceededException e) {
+            log.warn("图片超出上传资源预算，拒绝OCR: {}, 原因: {}", imageFile.getOriginalFilename(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("OCR解析失败", e);
             throw new RuntimeException("OCR解析失败: " + e.getMessage(), e);
         } finally {
+            buffers.close();
             // 清理临时文件
             if (tempFile != null) {
                 try {
@@ -114,10 +285,140 @@ public class OCRResumeParser {
         }
     }
 
+    /**
+     * 按文字类别选择语言模型；选中的模型未安装语言包时使用中英混合模型
+     */
+    private String routeLanguage(BufferedImage gray, BufferedImage sample, String format, RasterBuffers buffers) {
+        if (!scriptDetectionEnabled) return OcrEngine.DEFAULT_LANGUAGE;
+
+        long stageStart = System.nanoTime();
+        ScriptDetector.Detection detection = ScriptDetector.detect(sample != null ? sample : PageSample.of(gray, buffers),
+                englishShare, chineseShare);
+        pipelineMetrics.recordStage("ocr.script-detect", format, stageStart);
+
+        String language = OcrEngine.isInstalled(detection.language()) ? detection.language() : OcrEngine.DEFAULT_LANGUAGE;
+        routes.get(language).increment();
+        if (!Double.isNaN(detection.latinShare())) {
+            PipelineMetrics.annotate("latinShare", detection.latinShare());
+        }
+        log.info("文字类别检测: 拉丁字母行占比 {}, 文本行数: {}, 拉丁字母单词: {}, 选择语言: {}",
+                Double.isNaN(detection.latinShare()) ? "-" : percent(detection.latinShare()), detection.lines(),
+                detection.latinWords(), language);
+        return language;
+    }
+
+    private void recordCorrection(PageOrientation.Correction correction) {
+        orientations.get(correction.orientation()).increment();
+        if (correction.skewDegrees() != 0) deskewed.increment();
+        PipelineMetrics.annotate("ocrOrientation", correction.orientation());
+        PipelineMetrics.annotate("ocrSkew", Math.round(correction.skewDegrees() * 10) / 10.0);
+        if (!correction.isNone()) {
+            log.info("页面方向校正: 旋转 {}°, 倾斜校正 {}°", correction.orientation(),
+                    String.format("%.1f", correction.skewDegrees()));
+        }
+    }
+
+    private OcrEngine.Recognition runPass(BufferedImage image, String language, int pageSegMode, String pass,
+                                          String format, RasterBuffers buffers) throws InterruptedException {
+        long stageStart = System.nanoTime();
+        ocrInFlight.incrementAndGet();
+        OcrEngine.Page page = OcrEngine.Page.of(image, buffers);
+        try {
+            return ocrEnginePool.recognize(language, page, null, pageSegMode);
+        } finally {
+            buffers.release(page.data());
+            ocrInFlight.decrementAndGet();
+            pipelineMetrics.recordStage("ocr.tesseract." + pass, format, stageStart);
+        }
+    }
+
+    /**
+     * 完整流程的识别：版面分析找到至少2个文本块时只并行识别文本块，否则(单一文本块、空白页、
+     * 文本块过多的噪声图片)整页识别，由Tesseract自行分割
+     */
+    private OcrEngine.Recognition runFullPass(Preprocessed preprocessed, String language, String format,
+                                              RasterBuffers buffers) throws InterruptedException {
+        List<Rectangle> blocks = List.of();
+        if (layoutEnabled) {
+            long stageStart = System.nanoTime();
+            blocks = LayoutAnalyzer.findTextBlocks(preprocessed.binary());
+            pipelineMetrics.recordStage("ocr.layout", format, stageStart);
+            log.info("版面分析找到文本块: {}", blocks.size());
+        }
+        if (blocks.size() < 2 || blocks.size() > maxRegions) {
+            wholePages.increment();
+            return runPass(preprocessed.image(), language, fullPageSegMode, PASS_FULL, format, buffers);
+        }
+
+        regionPages.increment();
+        PipelineMetrics.annotate("ocrRegions", blocks.size());
+        long stageStart = System.nanoTime();
+        ocrInFlight.incrementAndGet();
+        OcrEngine.Page page = OcrEngine.Page.of(preprocessed.image(), buffers);
+        try {
+            return merge(ocrEnginePool.recognizeRegions(language, page, blocks, regionPageSegMode));
+        } finally {
+            buffers.release(page.data());
+            ocrInFlight.decrementAndGet();
+            pipelineMetrics.recordStage("ocr.tesseract." + PASS_FULL, format, stageStart);
+        }
+    }
+
+    /**
+     * 按阅读顺序拼接各文本块的文本；整页置信度为各文本块置信度按字符数加权的平均，
+     * 没有识别出文字的文本块(漏判的图形)不参与平均
+     */
+    static OcrEngine.Recognition merge(List<OcrEngine.Recognition> regions) {
+        StringBuilder text = new StringBuilder();
+        double weightedConfidence = 0;
+        long characters = 0;
+        for (OcrEngine.Recognition region : regions) {
+            String regionText = region.text() != null ? region.text().strip() : "";
+            if (regionText.isEmpty()) continue;
+            if (!text.isEmpty()) text.append('\n');
+            text.append(regionText);
+            weightedConfidence += region.confidence() * regionText.length();
+            characters += regionText.length();
+        }
+        return new OcrEngine.Recognition(text.toString(), characters > 0 ? weightedConfidence / characters : 0);
+    }
+
+    /**
+     * value为采用的识别流程(fast/full)，confidence为该次识别的平均词置信度，说明中附带使用的语言模型，
+     * 采用完整流程结果时还附带二值化方式
+     */
+    private ExtractionResult confidenceResult(String pass, String language, String binarization,
+                                              OcrEngine.Recognition accepted, OcrEngine.Recognition fast) {
+        String explanation;
+        if (PASS_FAST.equals(pass) && accepted.confidence() >= minConfidence) {
+            explanation = String.format("快速识别(仅灰度)平均词置信度 %s，达到阈值 %s", percent(accepted.confidence()), percent(minConfidence));
+        } else if (fast == null) {
+            explanation = String.format("完整预处理识别平均词置信度 %s", percent(accepted.confidence()));
+        } else {
+            explanation = String.format("快速识别置信度 %s 低于阈值 %s，升级到完整预处理，采用%s识别结果(置信度 %s)",
+                    percent(fast.confidence()), percent(minConfidence),
+                    PASS_FAST.equals(pass) ? "快速" : "完整预处理", percent(accepted.confidence()));
+        }
+        explanation += "，语言模型: " + language;
+        if (binarization != null) explanation += "，二值化: " + binarization;
+        return new ExtractionResult(pass, accepted.confidence(), "ocr", explanation);
+    }
+
+    private static String percent(double value) {
+        return String.format("%.1f%%", value * 100);
+    }
+
+    /**
+     * @param text       清理后的识别文本
+     * @param confidence 采用的识别流程和置信度
+     */
+    public record OcrResult(String text, ExtractionResult confidence) {
+    }
+
     /**
      * 文本后处理清理
      */
-    private String cleanOCRText(String text) {
+    String cleanOCRText(String text) {
         if (text == null) return "";
 
         // 1. 合并断行和多余空格
@@ -147,47 +448,68 @@ public class OCRResumeParser {
         return text;
     }
 
-    /**
-     * 图像预处理 - 提高OCR识别率（优化版本，兼容File参数）
-     */
-    private BufferedImage preprocessImage(File imageFile) throws IOException {
-        BufferedImage image = ImageIO.read(imageFile);
-
-        if (image == null) {
-            throw new IOException("无法读取图像文件: " + imageFile.getName());
-        }
+    BufferedImage preprocessImage(BufferedImage image, String format, RasterBuffers buffers) {
+        // 多步骤图像预处理流水线，每一步分别计时
 
-        log.info("原始图像尺寸: {}x{}, 类型: {}",
-                image.getWidth(), image.getHeight(), image.getType());
+        // 1. 转换为灰度图
+        long stageStart = System.nanoTime();
+        BufferedImage processed = convertToGrayscale(image, buffers);
+        pipelineMetrics.recordStage("ocr.grayscale", format, stageStart);
 
-        // 多步骤图像预处理流水线
-        BufferedImage processed = image;
+        return enhance(processed, format, null, buffers).image();
+    }
 
-        // 1. 转换为灰度图
-        processed = convertToGrayscale(processed);
+    /**
+     * @param binary       二值化结果，用于版面分析
+     * @param image        送入Tesseract的最终图像，与binary尺寸相同
+     * @param binarization 实际使用的二值化方式(global、sauvola或bradley)
+     */
+    record Preprocessed(BufferedImage binary, BufferedImage image, String binarization) {
+    }
 
+    /**
+     * 完整流程中灰度化之后的预处理步骤。各步骤的输出从buffers租用，
+     * 中间结果在下一步读完后即归还，下一步的输出复用它的缓冲(两个缓冲交替)，gray由调用方归还
+     */
+    Preprocessed enhance(BufferedImage gray, String format, String binarization, RasterBuffers buffers) {
         // 2. 图像缩放（如果分辨率过低）
-        processed = scaleImageIfNeeded(processed);
+        long stageStart = System.nanoTime();
+        BufferedImage scaled = scaleImageIfNeeded(gray, buffers);
+        pipelineMetrics.recordStage("ocr.scale", format, stageStart);
 
         // 3. 高斯模糊降噪
-        processed = applyGaussianBlur(processed, 0.8f);
-
-        // 4. 自适应二值化
-        processed = applyAdaptiveThreshold(processed);
+        stageStart = System.nanoTime();
+        BufferedImage blurred = applyGaussianBlur(scaled, 0.8f, buffers);
+        if (scaled != gray && scaled != blurred) buffers.release(scaled);
+        pipelineMetrics.recordStage("ocr.blur", format, stageStart);
+
+        // 4. 二值化(全局或局部自适应阈值)
+        stageStart = System.nanoTime();
+        String method = resolveBinarization(blurred, binarization, buffers);
+        BufferedImage binary = OcrOptions.BINARIZATION_GLOBAL.equals(method)
+                ? applyAdaptiveThreshold(blurred, buffers)
+                : applyLocalThreshold(blurred, method, buffers);
+        if (blurred != gray && blurred != binary) buffers.release(blurred);
+        pipelineMetrics.recordStage("ocr.threshold", format, stageStart);
 
         // 5. 锐化处理
-        processed = applySharpen(processed);
+        stageStart = System.nanoTime();
+        BufferedImage processed = applySharpen(binary, buffers);
+        pipelineMetrics.recordStage("ocr.sharpen", format, stageStart);
 
         log.info("预处理完成，最终尺寸: {}x{}", processed.getWidth(), processed.getHeight());
-        return processed;
+        return new Preprocessed(binary, processed, method);
     }
 
     /**
      * 转换为灰度图（优化版）
      */
-    private BufferedImage convertToGrayscale(BufferedImage image) {
-        BufferedImage grayImage = new BufferedImage(
-                image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+    BufferedImage convertToGrayscale(BufferedImage image, RasterBuffers buffers) {
+        BufferedImage grayImage = buffers.gray(image.getWidth(), image.getHeight());
+        if (image.getColorModel().hasAlpha()) {
+            // 租用的缓冲保留着上次的内容，透明区域与新建图像一样为黑色
+            Arrays.fill(RasterBuffers.pixels(grayImage), 0, image.getWidth() * image.getHeight(), (byte) 0);
+        }
 
         Graphics2D g2d = grayImage.createGraphics();
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
@@ -201,7 +523,7 @@ public class OCRResumeParser {
     /**
      * 图像缩放（如果分辨率过低）
      */
-    private BufferedImage scaleImageIfNeeded(BufferedImage image) {
+    BufferedImage scaleImageIfNeeded(BufferedImage image, RasterBuffers buffers) {
         int minWidth = 800;
         int minHeight = 1000;
 
@@ -212,6 +534,9 @@ public class OCRResumeParser {
         double scaleX = (double) minWidth / image.getWidth();
         double scaleY = (double) minHeight / image.getHeight();
         double scale = Math.max(scaleX, scaleY);
+        // 放大后的像素数不超过解码像素上限(极端长宽比的图片按短边放大会得到超大图像)
+        long maxPixels = uploadResourceGuard.getMaxImageDecodePixels();
+        scale = Math.min(scale, Math.sqrt((double) maxPixels / ((long) image.getWidth() * image.getHeight())));
 
         // 如果图片已经足够大，不要过度放大
         if (scale < 1.2) {
@@ -221,7 +546,9 @@ public class OCRResumeParser {
         int newWidth = (int) (image.getWidth() * scale);
         int newHeight = (int) (image.getHeight() * scale);
 
-        BufferedImage scaledImage = new BufferedImage(newWidth, newHeight, image.getType());
+        BufferedImage scaledImage = RasterBuffers.isPlainGray(image)
+                ? buffers.gray(newWidth, newHeight)
+                : new BufferedImage(newWidth, newHeight, image.getType());
         Graphics2D g2d = scaledImage.createGraphics();
 
         // 设置高质量缩放参数
@@ -244,78 +571,198 @@ public class OCRResumeParser {
     /**
      * 高斯模糊降噪（简化版本）
      */
-    private BufferedImage applyGaussianBlur(BufferedImage image, float radius) {
+    BufferedImage applyGaussianBlur(BufferedImage image, float radius, RasterBuffers buffers) {
         // 简化的高斯模糊实现
         if (radius < 0.5f) {
             return image; // 半径太小，不处理
         }
 
-        // 简单的3x3模糊核
-        float[] kernelData = {
-                1/16f, 2/16f, 1/16f,
-                2/16f, 4/16f, 2/16f,
-                1/16f, 2/16f, 1/16f
+        // 简单的3x3模糊核，系数/16
+        int[] kernel = {
+                1, 2, 1,
+                2, 4, 2,
+                1, 2, 1
         };
-
-        Kernel kernel = new Kernel(3, 3, kernelData);
-        ConvolveOp convolve = new ConvolveOp(kernel, ConvolveOp.EDGE_NO_OP, null);
-        return convolve.filter(image, null);
+        return convolve(grayOf(image, buffers), kernel, 16, buffers);
     }
 
     /**
-     * 自适应二值化
+     * 全局阈值二值化(平均灰度作为阈值)，结果为8位灰度图(墨迹为0，背景为255)
      */
-    private BufferedImage applyAdaptiveThreshold(BufferedImage image) {
-        BufferedImage binaryImage = new BufferedImage(
-                image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+    BufferedImage applyAdaptiveThreshold(BufferedImage image, RasterBuffers buffers) {
+        int pixelCount = image.getWidth() * image.getHeight();
+        if (pixelCount == 0) return image;
 
-        // 计算平均灰度
+        BufferedImage gray = grayOf(image, buffers);
+        byte[] pixels = RasterBuffers.pixels(gray);
+
+        // 计算平均灰度：按getRGB的红色通道取值(线性灰度换算到sRGB)
         long totalGray = 0;
-        int pixelCount = 0;
-
-        for (int y = 0; y < image.getHeight(); y++) {
-            for (int x = 0; x < image.getWidth(); x++) {
-                int rgb = image.getRGB(x, y);
-                int gray = (rgb >> 16) & 0xFF; // 取红色通道作为灰度值
-                totalGray += gray;
-                pixelCount++;
-            }
+        for (int i = 0; i < pixelCount; i++) {
+            totalGray += GRAY_TO_RGB[pixels[i] & 0xFF];
         }
 
-        if (pixelCount == 0) return image;
-
         int averageGray = (int) (totalGray / pixelCount);
         int threshold = Math.max(100, Math.min(200, averageGray)); // 限制阈值范围
 
         log.info("自适应二值化，平均灰度: {}, 阈值: {}", averageGray, threshold);
 
         // 应用二值化
-        for (int y = 0; y < image.getHeight(); y++) {
-            for (int x = 0; x < image.getWidth(); x++) {
-                int rgb = image.getRGB(x, y);
-                int gray = (rgb >> 16) & 0xFF;
-                int newRGB = (gray > threshold) ? 0xFFFFFF : 0x000000;
-                binaryImage.setRGB(x, y, newRGB);
-            }
+        BufferedImage binaryImage = buffers.gray(image.getWidth(), image.getHeight());
+        byte[] binary = RasterBuffers.pixels(binaryImage);
+        for (int i = 0; i < pixelCount; i++) {
+            binary[i] = GRAY_TO_RGB[pixels[i] & 0xFF] > threshold ? (byte) 255 : 0;
         }
 
         return binaryImage;
     }
 
+    /**
+     * 请求未指定时使用配置的方式；auto按光照不均匀程度在全局阈值和配置的局部方式之间选择
+     */
+    String resolveBinarization(BufferedImage image, String requested, RasterBuffers buffers) {
+        String mode = requested != null ? requested.toLowerCase() : binarizationMode;
+        if (!OcrOptions.BINARIZATION_AUTO.equals(mode)) return mode;
+
+        BufferedImage gray = grayOf(image, buffers);
+        double spread = LocalBinarizer.illuminationSpread(RasterBuffers.pixels(gray), gray.getWidth(), gray.getHeight(),
+                GRAY_TO_RGB);
+        PipelineMetrics.annotate("illuminationSpread", Math.round(spread * 10) / 10.0);
+        String method = spread >= autoSpread ? localBinarization : OcrOptions.BINARIZATION_GLOBAL;
+        log.info("光照不均匀程度(背景亮度标准差): {}, 二值化方式: {}", String.format("%.1f", spread), method);
+        return method;
+    }
+
+    /**
+     * 局部自适应二值化(sauvola或bradley)，结果为8位灰度图(墨迹为0，背景为255)
+     */
+    BufferedImage applyLocalThreshold(BufferedImage image, String method, RasterBuffers buffers) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width == 0 || height == 0) return image;
+
+        BufferedImage gray = grayOf(image, buffers);
+        int window = binarizationWindow > 0 ? binarizationWindow : LocalBinarizer.defaultWindow(width, height);
+        BufferedImage binaryImage = buffers.gray(width, height);
+        if (OcrOptions.BINARIZATION_BRADLEY.equals(method)) {
+            LocalBinarizer.bradley(RasterBuffers.pixels(gray), RasterBuffers.pixels(binaryImage), width, height,
+                    GRAY_TO_RGB, window, bradleyT);
+        } else {
+            LocalBinarizer.sauvola(RasterBuffers.pixels(gray), RasterBuffers.pixels(binaryImage), width, height,
+                    GRAY_TO_RGB, window, sauvolaK);
+        }
+        log.info("局部自适应二值化: {}, 窗口: {}px", method, window);
+        return binaryImage;
+    }
+
     /**
      * 锐化处理
      */
-    private BufferedImage applySharpen(BufferedImage image) {
-        // 简单的锐化核
-        float[] sharpenMatrix = {
-                0, -0.5f, 0,
-                -0.5f, 3, -0.5f,
-                0, -0.5f, 0
+    BufferedImage applySharpen(BufferedImage image, RasterBuffers buffers) {
+        // 简单的锐化核，系数/2
+        int[] sharpenMatrix = {
+                0, -1, 0,
+                -1, 6, -1,
+                0, -1, 0
         };
+        return convolve(grayOf(image, buffers), sharpenMatrix, 2, buffers);
+    }
+
+    /**
+     * 预处理各步骤按8位灰度像素数组处理，其他类型的输入先转换为灰度
+     */
+    private BufferedImage grayOf(BufferedImage image, RasterBuffers buffers) {
+        return RasterBuffers.isPlainGray(image) ? image : convertToGrayscale(image, buffers);
+    }
+
+    /**
+     * 3x3卷积，结果为kernel加权和除以divisor后向下取整并截断到0 - 255，与ConvolveOp对8位图像的结果相同；
+     * 与ConvolveOp.EDGE_NO_OP一样，最外一圈像素保持原值
+     */
+    private static BufferedImage convolve(BufferedImage image, int[] kernel, int divisor, RasterBuffers buffers) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] src = RasterBuffers.pixels(image);
+        BufferedImage result = buffers.gray(width, height);
+        byte[] dst = RasterBuffers.pixels(result);
+        if (width < 3 || height < 3) {
+            System.arraycopy(src, 0, dst, 0, width * height);
+            return result;
+        }
+
+        int k0 = kernel[0], k1 = kernel[1], k2 = kernel[2];
+        int k3 = kernel[3], k4 = kernel[4], k5 = kernel[5];
+        int k6 = kernel[6], k7 = kernel[7], k8 = kernel[8];
+        System.arraycopy(src, 0, dst, 0, width);
+        for (int y = 1; y < height - 1; y++) {
+            int row = y * width;
+            dst[row] = src[row];
+            for (int x = 1; x < width - 1; x++) {
+                int up = row - width + x;
+                int at = row + x;
+                int down = row + width + x;
+                int sum = k0 * (src[up - 1] & 0xFF) + k1 * (src[up] & 0xFF) + k2 * (src[up + 1] & 0xFF)
+                        + k3 * (src[at - 1] & 0xFF) + k4 * (src[at] & 0xFF) + k5 * (src[at + 1] & 0xFF)
+                        + k6 * (src[down - 1] & 0xFF) + k7 * (src[down] & 0xFF) + k8 * (src[down + 1] & 0xFF);
+                int value = Math.floorDiv(sum, divisor);
+                dst[at] = (byte) Math.max(0, Math.min(255, value));
+            }
+            dst[row + width - 1] = src[row + width - 1];
+        }
+        System.arraycopy(src, (height - 1) * width, dst, (height - 1) * width, width);
+        return result;
+    }
+
+    private static int[] grayToRgb() {
+        BufferedImage pixel = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY);
+        int[] table = new int[256];
+        for (int value = 0; value < table.length; value++) {
+            pixel.getRaster().setSample(0, 0, 0, value);
+            table[value] = (pixel.getRGB(0, 0) >> 16) & 0xFF;
+        }
+        return table;
+    }
+
+    /**
+     * 正在执行tesseract识别的请求数
+     */
+    public int getOcrInFlight() {
+        return ocrInFlight.get();
+    }
 
-        Kernel kernel = new Kernel(3, 3, sharpenMatrix);
-        ConvolveOp convolve = new ConvolveOp(kernel, ConvolveOp.EDGE_NO_OP, null);
-        return convolve.filter(image, null);
+    public Map<String, Object> getStats() {
+        long recognitions = fastAccepted.sum() + escalations.sum() + fullOnly.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("adaptiveEnabled", adaptiveEnabled);
+        stats.put("minConfidence", minConfidence);
+        stats.put("fastPageSegMode", fastPageSegMode);
+        stats.put("recognitions", recognitions);
+        stats.put("fastAccepted", fastAccepted.sum());
+        stats.put("escalations", escalations.sum());
+        stats.put("fullOnly", fullOnly.sum());
+        stats.put("meanConfidence", recognitions > 0 ? confidenceSum.sum() / recognitions : null);
+        stats.put("layoutEnabled", layoutEnabled);
+        stats.put("regionPages", regionPages.sum());
+        stats.put("wholePages", wholePages.sum());
+        stats.put("scriptDetectionEnabled", scriptDetectionEnabled);
+        Map<String, Long> routed = new LinkedHashMap<>();
+        routes.forEach((language, count) -> routed.put(language, count.sum()));
+        stats.put("routes", routed);
+        stats.put("routeFallbacks", routeFallbacks.sum());
+        stats.put("deskewEnabled", deskewEnabled);
+        stats.put("fullPageSegMode", fullPageSegMode);
+        Map<String, Long> corrected = new LinkedHashMap<>();
+        orientations.forEach((orientation, count) -> corrected.put(String.valueOf(orientation), count.sum()));
+        stats.put("orientations", corrected);
+        stats.put("deskewed", deskewed.sum());
+        stats.put("binarizationMode", binarizationMode);
+        stats.put("localBinarization", localBinarization);
+        Map<String, Long> binarized = new LinkedHashMap<>();
+        binarizations.forEach((method, count) -> binarized.put(method, count.sum()));
+        stats.put("binarizations", binarized);
+        stats.put("enginePool", ocrEnginePool.getStats());
+        stats.put("rasterBuffers", rasterBufferPool.getStats());
+        return stats;
     }
 
     /**
@@ -392,7 +839,7 @@ public class OCRResumeParser {
         try {
             // 创建一个简单的测试图像
             BufferedImage testImage = createTestImage();
-            return tesseract.doOCR(testImage);
+            return new OcrEngine(OcrEngine.DEFAULT_LANGUAGE, 1).doOCR(testImage);
         } catch (Exception e) {
             return "OCR测试失败: " + e.getMessage();
         }
@@ -0,0 +1,113 @@
+package com.example.service;
+
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.util.ImageIOHelper;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * 可复用的Tesseract引擎，识别时同时取得文本和平均词置信度
+ * <p>
+ * doOCR每次调用都初始化和释放引擎，加载chi_sim模型的开销往往比识别一个文本块还大；这里open时初始化一次，
+ * 之后每次识别只设置页面分割模式、图像和识别矩形(SetRectangle)，识别后清除结果，close时释放。
+ * 置信度在清除前调用TessBaseAPIMeanTextConf读取，是刚完成的这次识别的结果。实例不可并发使用，由OcrEnginePool分配
+ */
+class OcrEngine extends Tesseract {
+
+    static final String TESSDATA_PATH = "./tessdata";
+    static final String ENGLISH = "eng";
+    static final String CHINESE = "chi_sim";
+    /**
+     * 中英混合模型最慢，但对任何简历都适用，作为检测不确定或回退时的语言
+     */
+    static final String DEFAULT_LANGUAGE = "chi_sim+eng";
+    static final List<String> LANGUAGES = List.of(ENGLISH, CHINESE, DEFAULT_LANGUAGE);
+
+    /**
+     * @param text       识别文本
+     * @param confidence 全部词的平均置信度，0.0 - 1.0
+     */
+    record Recognition(String text, double confidence) {
+    }
+
+    /**
+     * 转换为Tesseract输入格式的整页图像：同一页的多个文本块只转换一次，各引擎只读共享
+     */
+    record Page(ByteBuffer data, int width, int height, int bitsPerPixel) {
+
+        static Page of(BufferedImage image) {
+            // 与Tesseract.setImage(RenderedImage, Rectangle)相同的转换和位深判断
+            boolean byteData = image.getRaster().getDataBuffer() instanceof DataBufferByte;
+            int bitsPerPixel = byteData ? image.getColorModel().getPixelSize() : 8;
+            return new Page(ImageIOHelper.getImageByteBuffer(image), image.getWidth(), image.getHeight(), bitsPerPixel);
+        }
+
+        /**
+         * 8位灰度图像的像素直接复制到租用的直接内存缓冲(用完后以release(page.data())归还)；
+         * ImageIOHelper的转换会先复制两次栅格再分配新的直接内存。其他类型的图像按of(image)转换
+         */
+        static Page of(BufferedImage image, RasterBuffers buffers) {
+            if (!RasterBuffers.isPlainGray(image)) return of(image);
+            int size = image.getWidth() * image.getHeight();
+            ByteBuffer data = buffers.direct(size);
+            data.put(RasterBuffers.pixels(image), 0, size).flip();
+            return new Page(data, image.getWidth(), image.getHeight(), 8);
+        }
+    }
+
+    /**
+     * 语言组合中每个语言的traineddata都存在于tessdata目录
+     */
+    static boolean isInstalled(String language) {
+        for (String part : language.split("\\+")) {
+            if (!new File(TESSDATA_PATH, part + ".traineddata").isFile()) return false;
+        }
+        return true;
+    }
+
+    OcrEngine(String language, int pageSegMode) {
+        setDatapath(TESSDATA_PATH);
+        setLanguage(language);
+        setPageSegMode(pageSegMode);
+        setOcrEngineMode(1); // OEM_LSTM_ONLY = 1
+        setVariable("textord_min_linesize", "2.0");
+        setVariable("tessedit_char_blacklist", "|\\~`");
+    }
+
+    /**
+     * 加载语言模型并应用识别参数；init忽略了TessBaseAPIInit的返回值，这里以已加载的语言判断是否成功
+     */
+    void open() {
+        init();
+        String loaded = getAPI().TessBaseAPIGetInitLanguagesAsString(getHandle());
+        if (loaded == null || loaded.isBlank()) {
+            dispose();
+            throw new IllegalStateException("Tesseract语言模型加载失败: " + TESSDATA_PATH);
+        }
+        setVariables();
+    }
+
+    /**
+     * 识别页面中的一个矩形区域，region为null时识别整页
+     */
+    Recognition recognize(Page page, Rectangle region, int pageSegMode) {
+        getAPI().TessBaseAPISetPageSegMode(getHandle(), pageSegMode);
+        setImage(page.width(), page.height(), page.data(), region, page.bitsPerPixel());
+        try {
+            String text = getOCRText(null, 0);
+            int meanConfidence = getAPI().TessBaseAPIMeanTextConf(getHandle());
+            return new Recognition(text, Math.max(0, meanConfidence) / 100.0);
+        } finally {
+            getAPI().TessBaseAPIClear(getHandle());
+        }
+    }
+
+    void close() {
+        dispose();
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tesseract引擎池 - 每个语言组合(eng、chi_sim、chi_sim+eng)各自一组引擎，按需初始化，每组最多size个，识别完成后归还复用
+ * <p>
+ * 启动时为app.ocr.pool.languages中已安装语言包的语言组合各预先初始化prewarm个引擎，首个请求不承担模型加载耗时。
+ * 文本块识别线程池与每组引擎同样大小：同一页的多个文本块并行识别，多个请求的文本块在线程池中排队。
+ * 识别出错的引擎不再归还，释放后由后续请求重新初始化
+ */
+@Slf4j
+@Service
+public class OcrEnginePool {
+
+    private static final long WAIT_SLICE_MS = 100;
+
+    private final int size;
+    private final List<String> prewarmLanguages;
+    private final int prewarm;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ExecutorService regionExecutor;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder regions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * 一个语言组合的空闲引擎和已创建的引擎数
+     */
+    private static final class Slot {
+        private final LinkedBlockingQueue<OcrEngine> idle = new LinkedBlockingQueue<>();
+        private final AtomicInteger created = new AtomicInteger();
+    }
+
+    public OcrEnginePool(@Value("${app.ocr.pool.size:0}") int size,
+                         @Value("${app.ocr.pool.languages:eng,chi_sim,chi_sim+eng}") List<String> prewarmLanguages,
+                         @Value("${app.ocr.pool.prewarm:1}") int prewarm) {
+        this.size = size > 0 ? size : Runtime.getRuntime().availableProcessors();
+        this.prewarmLanguages = prewarmLanguages;
+        this.prewarm = Math.min(Math.max(0, prewarm), this.size);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.regionExecutor = Executors.newFixedThreadPool(this.size, runnable -> {
+            Thread thread = new Thread(runnable, "ocr-region-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("OCR引擎池大小: 每个语言组合{}个", this.size);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        for (String language : prewarmLanguages) {
+            if (!OcrEngine.isInstalled(language)) {
+                log.info("语言包未安装，跳过引擎预热: {}", language);
+                continue;
+            }
+            Slot slot = slot(language);
+            try {
+                for (int i = 0; i < prewarm; i++) {
+                    slot.created.incrementAndGet();
+                    slot.idle.offer(open(language, slot));
+                }
+            } catch (RuntimeException | LinkageError e) {
+                log.warn("OCR引擎预热失败，改为首次使用时初始化: {}, 原因: {}", language, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 文本块识别线程池，供指标绑定线程数和队列长度
+     */
+    ExecutorService getRegionExecutor() {
+        return regionExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        regionExecutor.shutdownNow();
+        for (Slot slot : slots.values()) {
+            OcrEngine engine;
+            while ((engine = slot.idle.poll()) != null) {
+                engine.close();
+            }
+        }
+    }
+
+    /**
+     * 在调用线程上以指定语言识别整页(region为null)或页面中的一个矩形区域
+     */
+    OcrEngine.Recognition recognize(String language, OcrEngine.Page page, Rectangle region, int pageSegMode)
+            throws InterruptedException {
+        Slot slot = slot(language);
+        OcrEngine engine = borrow(language, slot);
+        boolean healthy = false;
+        try {
+            OcrEngine.Recognition recognition = engine.recognize(page, region, pageSegMode);
+            healthy = true;
+            return recognition;
+        } finally {
+            if (healthy) {
+                slot.idle.offer(engine);
+            } else {
+                discard(engine, slot);
+            }
+        }
+    }
+
+    /**
+     * 并行识别同一页的多个文本块，结果与regions顺序一致；任一文本块失败时取消其余文本块并抛出
+     */
+    List<OcrEngine.Recognition> recognizeRegions(String language, OcrEngine.Page page, List<Rectangle> regions,
+                                                 int pageSegMode) throws InterruptedException {
+        List<Future<OcrEngine.Recognition>> futures = new ArrayList<>(regions.size());
+        for (Rectangle region : regions) {
+            futures.add(regionExecutor.submit(() -> recognize(language, page, region, pageSegMode)));
+        }
+        this.regions.add(regions.size());
+
+        List<OcrEngine.Recognition> results = new ArrayList<>(regions.size());
+        try {
+            for (Future<OcrEngine.Recognition> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException("文本块识别失败: " + cause.getMessage(), cause);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Slot slot(String language) {
+        return slots.computeIfAbsent(language, key -> new Slot());
+    }
+
+    /**
+     * 优先取空闲引擎；引擎数未达上限时初始化新引擎，否则等待归还。分段等待，出错的引擎被释放后可补充新引擎
+     */
+    private OcrEngine borrow(String language, Slot slot) throws InterruptedException {
+        borrows.increment();
+        boolean waited = false;
+        while (true) {
+            OcrEngine engine = slot.idle.poll();
+            if (engine != null) return engine;
+
+            if (slot.created.incrementAndGet() <= size) {
+                return open(language, slot);
+            }
+            slot.created.decrementAndGet();
+
+            if (!waited) {
+                waits.increment();
+                waited = true;
+            }
+            engine = slot.idle.poll(WAIT_SLICE_MS, TimeUnit.MILLISECONDS);
+            if (engine != null) return engine;
+        }
+    }
+
+    /**
+     * 调用前已为新引擎占用slot中的一个名额，初始化失败时归还
+     */
+    private OcrEngine open(String language, Slot slot) {
+        boolean opened = false;
+        try {
+            long start = System.currentTimeMillis();
+            OcrEngine engine = new OcrEngine(language, 3);
+            engine.open();
+            opened = true;
+            log.info("OCR引擎初始化完成，语言: {}, 耗时: {}ms, 已创建: {}/{}",
+                    language, System.currentTimeMillis() - start, slot.created.get(), size);
+            return engine;
+        } finally {
+            if (!opened) slot.created.decrementAndGet();
+        }
+    }
+
+    private void discard(OcrEngine engine, Slot slot) {
+        failures.increment();
+        slot.created.decrementAndGet();
+        try {
+            engine.close();
+        } catch (RuntimeException e) {
+            log.warn("释放OCR引擎失败", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int created = 0;
+        int idle = 0;
+        Map<String, Object> languages = new LinkedHashMap<>();
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            created += slot.created.get();
+            idle += slot.idle.size();
+            languages.put(entry.getKey(), Map.of("created", slot.created.get(), "idle", slot.idle.size()));
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("created", created);
+        stats.put("idle", idle);
+        stats.put("languages", languages);
+        stats.put("borrows", borrows.sum());
+        stats.put("waits", waits.sum());
+        stats.put("regions", regions.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 图片简历OCR配置(app.ocr.*)，各项含义见application.properties，字段初始值即未配置时的默认值。
+ * 引擎池(app.ocr.pool.*)和栅格缓冲池(app.ocr.buffers.*)的配置仍由OcrEnginePool、RasterBufferPool各自读取
+ */
+@Data
+@ConfigurationProperties("app.ocr")
+public class OcrProperties {
+
+    private Adaptive adaptive = new Adaptive();
+    private Layout layout = new Layout();
+    private Script script = new Script();
+    private Deskew deskew = new Deskew();
+    private Binarization binarization = new Binarization();
+
+    /**
+     * 快速识别：仅灰度 + 不做方向检测的页面分割模式
+     */
+    @Data
+    public static class Adaptive {
+        private boolean enabled = true;
+        private double minConfidence = 0.8;
+        private int fastPsm = 3;
+    }
+
+    /**
+     * 版面分析：只识别找到的文本块
+     */
+    @Data
+    public static class Layout {
+        private boolean enabled = true;
+        private int regionPsm = 6;
+        private int maxRegions = 64;
+    }
+
+    /**
+     * 文字类别检测：按英文/中文占比选择语言模型
+     */
+    @Data
+    public static class Script {
+        private boolean enabled = true;
+        private double englishShare = 0.85;
+        private double chineseShare = 0.05;
+    }
+
+    /**
+     * Java侧方向和倾斜校正
+     */
+    @Data
+    public static class Deskew {
+        private boolean enabled = true;
+        private double maxSkewDegrees = 15;
+    }
+
+    /**
+     * 完整流程的二值化
+     */
+    @Data
+    public static class Binarization {
+        private String mode = "auto";
+        private String localMethod = "sauvola";
+        private int window = 0;
+        private double sauvolaK = 0.2;
+        private double bradleyT = 0.15;
+        private double autoSpread = 12;
+    }
+}
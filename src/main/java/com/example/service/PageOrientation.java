@@ -0,0 +1,439 @@
+package com.example.service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 页面方向和倾斜检测，代替Tesseract的方向与文字检测(OSD)
+ * <p>
+ * 倾斜：把墨迹点沿候选角度投影到行坐标，文本行与投影方向平行时行投影最尖锐(相邻行差的平方和最大)，
+ * 先按0.5°粗搜再在最优角度附近按0.1°细搜；行坐标和列坐标各搜索一次，取投影更尖锐的方向的估计。
+ * 横竖：汉字按字格对齐，列投影同样尖锐，不能据此区分方向；改为在校正倾斜后统计连通域最近邻连线的方向，
+ * 字间距小于行间距，最近邻连线多为竖直说明文本行是竖直的，页面需转90°。上下颠倒：转正后检查文本行的对齐和升降部，
+ * 简历正文左对齐、右端参差，拉丁字母升部多于降部；两者都指向颠倒时再转180°。
+ * 检测在PageSample生成的低分辨率二值副本上进行，旋转应用到原灰度图
+ */
+final class PageOrientation {
+
+    private static final double COARSE_STEP = 0.5;
+    private static final double FINE_STEP = 0.1;
+    /**
+     * 小于该角度的倾斜不校正，避免插值带来的模糊
+     */
+    private static final double MIN_SKEW_DEGREES = 0.2;
+    /**
+     * 竖直的最近邻连线超过水平连线的该倍数时判定文本行为竖直
+     */
+    private static final double VERTICAL_LINES_RATIO = 1.5;
+    private static final double TAN_30 = Math.tan(Math.toRadians(30));
+    private static final int MIN_COMPONENTS = 20;
+    /**
+     * 对齐和升降部两项合计低于该值时判定为上下颠倒，取值-2.0 - 2.0
+     */
+    private static final double UPSIDE_DOWN_SCORE = -0.4;
+    private static final int MIN_INK_POINTS = 500;
+    private static final int MAX_INK_POINTS = 60_000;
+
+    /**
+     * @param quarterTurns  顺时针旋转的90°次数，0 - 3
+     * @param skewDegrees   倾斜校正角度，顺时针为正；与quarterTurns的旋转可交换
+     */
+    record Correction(int quarterTurns, double skewDegrees) {
+
+        static final Correction NONE = new Correction(0, 0);
+
+        boolean isNone() {
+            return quarterTurns == 0 && skewDegrees == 0;
+        }
+
+        /**
+         * 页面方向，0、90、180、270
+         */
+        int orientation() {
+            return quarterTurns * 90;
+        }
+
+        double totalDegrees() {
+            return quarterTurns * 90 + skewDegrees;
+        }
+    }
+
+    private PageOrientation() {
+    }
+
+    /**
+     * @param sample          PageSample生成的二值副本
+     * @param maxSkewDegrees  倾斜角度的搜索范围(±)
+     * @param buffers         检测过程中旋转的副本从中租用
+     */
+    static Correction detect(BufferedImage sample, double maxSkewDegrees, RasterBuffers buffers) {
+        int[][] points = inkPoints(sample);
+        if (points[0].length < MIN_INK_POINTS) return Correction.NONE;
+
+        double[] horizontal = bestAngle(points[0], points[1], sample.getHeight(), maxSkewDegrees);
+        double[] vertical = bestAngle(points[1], points[0], sample.getWidth(), maxSkewDegrees);
+        // 行坐标的倾斜角θ和列坐标的倾斜角φ是同一页面旋转的两种表示(φ = -θ)
+        double skew = skewCorrection(horizontal[1] >= vertical[1] ? horizontal[0] : -vertical[0]);
+
+        BufferedImage deskewed = skew == 0 ? sample : rotate(sample, skew, false, buffers);
+        int quarterTurns = verticalLines(deskewed) ? 1 : 0;
+        BufferedImage upright = quarterTurns == 0 ? deskewed : rotate(deskewed, 90, false, buffers);
+        if (uprightScore(upright) < UPSIDE_DOWN_SCORE) {
+            quarterTurns += 2;
+        }
+        return new Correction(quarterTurns, skew);
+    }
+
+    /**
+     * 水平文本行沿行坐标投影的倾斜角为θ(向右下倾斜为正)，需逆时针转θ
+     */
+    private static double skewCorrection(double angle) {
+        return Math.abs(angle) < MIN_SKEW_DEGREES ? 0 : -angle;
+    }
+
+    /**
+     * 按校正旋转灰度图：画布扩大到容纳旋转后的整页，空白处填白色；quarterTurns以外有倾斜校正时双线性插值。
+     * 旋转结果从buffers租用，原图由调用方归还
+     */
+    static BufferedImage apply(BufferedImage gray, Correction correction, RasterBuffers buffers) {
+        if (correction.isNone()) return gray;
+        return rotate(gray, correction.totalDegrees(), correction.skewDegrees() != 0, buffers);
+    }
+
+    private static BufferedImage rotate(BufferedImage image, double degrees, boolean bilinear, RasterBuffers buffers) {
+        double radians = Math.toRadians(degrees);
+        double sin = Math.abs(Math.sin(radians));
+        double cos = Math.abs(Math.cos(radians));
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int rotatedWidth = (int) Math.round(width * cos + height * sin);
+        int rotatedHeight = (int) Math.round(height * cos + width * sin);
+
+        BufferedImage rotated = buffers.gray(rotatedWidth, rotatedHeight);
+        Graphics2D g2d = rotated.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, rotatedWidth, rotatedHeight);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, bilinear
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.translate(rotatedWidth / 2.0, rotatedHeight / 2.0);
+        g2d.rotate(radians);
+        g2d.translate(-width / 2.0, -height / 2.0);
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return rotated;
+    }
+
+    /**
+     * 墨迹点的x、y坐标；点数过多时等间隔抽取
+     */
+    private static int[][] inkPoints(BufferedImage sample) {
+        Raster raster = sample.getRaster();
+        int width = sample.getWidth();
+        int[] row = new int[width];
+        int count = 0;
+        for (int y = 0; y < sample.getHeight(); y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                if (row[x] == 0) count++;
+            }
+        }
+
+        int stride = Math.max(1, count / MAX_INK_POINTS);
+        int[] xs = new int[count / stride + 1];
+        int[] ys = new int[xs.length];
+        int seen = 0;
+        int kept = 0;
+        for (int y = 0; y < sample.getHeight(); y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                if (row[x] == 0 && seen++ % stride == 0 && kept < xs.length) {
+                    xs[kept] = x;
+                    ys[kept] = y;
+                    kept++;
+                }
+            }
+        }
+        return new int[][]{Arrays.copyOf(xs, kept), Arrays.copyOf(ys, kept)};
+    }
+
+    /**
+     * 使along - across·tanθ的投影最尖锐的角度θ，返回{θ, 尖锐度}
+     */
+    private static double[] bestAngle(int[] across, int[] along, int extent, double maxDegrees) {
+        double bestAngle = 0;
+        double bestScore = sharpness(across, along, extent, 0);
+        for (double angle = -maxDegrees; angle <= maxDegrees + 1e-9; angle += COARSE_STEP) {
+            double score = sharpness(across, along, extent, angle);
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        double coarse = bestAngle;
+        for (double angle = coarse - COARSE_STEP; angle <= coarse + COARSE_STEP + 1e-9; angle += FINE_STEP) {
+            double score = sharpness(across, along, extent, angle);
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        return new double[]{bestAngle, bestScore};
+    }
+
+    private static double sharpness(int[] across, int[] along, int extent, double degrees) {
+        double tan = Math.tan(Math.toRadians(degrees));
+        int maxAcross = 0;
+        for (int value : across) maxAcross = Math.max(maxAcross, value);
+        int offset = (int) Math.ceil(Math.abs(tan) * maxAcross) + 1;
+        int[] bins = new int[extent + 2 * offset + 1];
+        for (int i = 0; i < across.length; i++) {
+            bins[(int) Math.round(along[i] - across[i] * tan) + offset]++;
+        }
+        double score = 0;
+        for (int i = 1; i < bins.length; i++) {
+            double difference = bins[i] - bins[i - 1];
+            score += difference * difference;
+        }
+        return score;
+    }
+
+    /**
+     * 连通域最近邻的方向：同一行内的字符(字母)之间的距离小于行间距，最近邻连线大多沿文本行方向。
+     * 竖直方向(与竖直夹角30°以内)的连线明显多于水平方向时判定文本行为竖直
+     */
+    private static boolean verticalLines(BufferedImage deskewed) {
+        List<int[]> components = components(deskewed);
+        if (components.size() < MIN_COMPONENTS) return false;
+
+        int[] sizes = new int[components.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            int[] box = components.get(i);
+            sizes[i] = Math.max(box[2] - box[0], box[3] - box[1]) + 1;
+        }
+        Arrays.sort(sizes);
+        int bucket = Math.max(4, 2 * sizes[sizes.length / 2]);
+
+        // 按连通域中心分桶，只在相邻的3×3个桶中找最近邻
+        int columns = deskewed.getWidth() / bucket + 1;
+        int rows = deskewed.getHeight() / bucket + 1;
+        List<List<int[]>> buckets = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) buckets.add(new ArrayList<>());
+        for (int[] box : components) {
+            buckets.get(centerY(box) / bucket * columns + centerX(box) / bucket).add(box);
+        }
+
+        int horizontalLinks = 0;
+        int verticalLinks = 0;
+        for (int[] box : components) {
+            int cx = centerX(box);
+            int cy = centerY(box);
+            int bx = cx / bucket;
+            int by = cy / bucket;
+            long bestDistance = Long.MAX_VALUE;
+            int dx = 0;
+            int dy = 0;
+            for (int y = Math.max(0, by - 1); y <= Math.min(rows - 1, by + 1); y++) {
+                for (int x = Math.max(0, bx - 1); x <= Math.min(columns - 1, bx + 1); x++) {
+                    for (int[] other : buckets.get(y * columns + x)) {
+                        if (other == box) continue;
+                        long ox = centerX(other) - cx;
+                        long oy = centerY(other) - cy;
+                        long distance = ox * ox + oy * oy;
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            dx = (int) Math.abs(ox);
+                            dy = (int) Math.abs(oy);
+                        }
+                    }
+                }
+            }
+            if (bestDistance == Long.MAX_VALUE) continue;
+            if (dy < dx * TAN_30) horizontalLinks++;
+            else if (dx < dy * TAN_30) verticalLinks++;
+        }
+        return verticalLinks > horizontalLinks * VERTICAL_LINES_RATIO;
+    }
+
+    private static int centerX(int[] box) {
+        return (box[0] + box[2]) / 2;
+    }
+
+    private static int centerY(int[] box) {
+        return (box[1] + box[3]) / 2;
+    }
+
+    /**
+     * 8连通的墨迹连通域外接矩形{minX, minY, maxX, maxY}，两遍扫描加并查集；
+     * 跳过单像素噪点和超过页面1/10的连通域(分隔线、边框、照片)
+     */
+    private static List<int[]> components(BufferedImage sample) {
+        int width = sample.getWidth();
+        int height = sample.getHeight();
+        Raster raster = sample.getRaster();
+        int[] labels = new int[width * height];
+        int[] parent = new int[1024];
+        int next = 1;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                if (row[x] != 0) continue;
+                int label = 0;
+                // 左、左上、上、右上四个已扫描的邻居
+                int[] neighbors = {
+                        x > 0 ? labels[y * width + x - 1] : 0,
+                        x > 0 && y > 0 ? labels[(y - 1) * width + x - 1] : 0,
+                        y > 0 ? labels[(y - 1) * width + x] : 0,
+                        x < width - 1 && y > 0 ? labels[(y - 1) * width + x + 1] : 0};
+                for (int neighbor : neighbors) {
+                    if (neighbor == 0) continue;
+                    if (label == 0) {
+                        label = find(parent, neighbor);
+                    } else {
+                        int root = find(parent, neighbor);
+                        if (root != label) {
+                            parent[Math.max(root, label)] = Math.min(root, label);
+                            label = Math.min(root, label);
+                        }
+                    }
+                }
+                if (label == 0) {
+                    if (next == parent.length) parent = Arrays.copyOf(parent, parent.length * 2);
+                    parent[next] = next;
+                    label = next++;
+                }
+                labels[y * width + x] = label;
+            }
+        }
+
+        int[][] boxes = new int[next][];
+        int[] pixels = new int[next];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int label = labels[y * width + x];
+                if (label == 0) continue;
+                int root = find(parent, label);
+                int[] box = boxes[root];
+                if (box == null) {
+                    boxes[root] = new int[]{x, y, x, y};
+                } else {
+                    box[0] = Math.min(box[0], x);
+                    box[1] = Math.min(box[1], y);
+                    box[2] = Math.max(box[2], x);
+                    box[3] = Math.max(box[3], y);
+                }
+                pixels[root]++;
+            }
+        }
+
+        List<int[]> components = new ArrayList<>();
+        for (int label = 1; label < next; label++) {
+            int[] box = boxes[label];
+            if (box == null || pixels[label] < 3) continue;
+            if (box[2] - box[0] > width / 10 || box[3] - box[1] > height / 10) continue;
+            components.add(box);
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    /**
+     * 转正后页面的正向得分：文本块内各行左端比右端整齐时对齐项为正，拉丁字母升部墨迹多于降部时升降部项为正，
+     * 两项各为-1.0 - 1.0；无法判断时为0
+     */
+    private static double uprightScore(BufferedImage upright) {
+        Raster raster = upright.getRaster();
+        int[] row = new int[upright.getWidth()];
+        double alignment = 0;
+        int alignedLines = 0;
+        long ascenderInk = 0;
+        long descenderInk = 0;
+
+        for (Rectangle block : LayoutAnalyzer.findTextBlocks(upright)) {
+            int[] profile = new int[block.height];
+            int[] left = new int[block.height];
+            int[] right = new int[block.height];
+            for (int y = 0; y < block.height; y++) {
+                raster.getSamples(block.x, block.y + y, block.width, 1, 0, row);
+                left[y] = -1;
+                for (int x = 0; x < block.width; x++) {
+                    if (row[x] != 0) continue;
+                    profile[y]++;
+                    if (left[y] < 0) left[y] = x;
+                    right[y] = x;
+                }
+            }
+
+            List<int[]> lineEnds = new ArrayList<>();
+            int lineStart = -1;
+            for (int y = 0; y <= block.height; y++) {
+                boolean ink = y < block.height && profile[y] > 0;
+                if (ink && lineStart < 0) {
+                    lineStart = y;
+                } else if (!ink && lineStart >= 0) {
+                    int height = y - lineStart;
+                    if (height >= 4) {
+                        int lineLeft = Integer.MAX_VALUE;
+                        int lineRight = 0;
+                        int peak = 0;
+                        for (int r = lineStart; r < y; r++) {
+                            if (left[r] >= 0) lineLeft = Math.min(lineLeft, left[r]);
+                            lineRight = Math.max(lineRight, right[r]);
+                            peak = Math.max(peak, profile[r]);
+                        }
+                        if (lineRight - lineLeft >= 2 * height) {
+                            lineEnds.add(new int[]{lineLeft, lineRight});
+                            // 核心带(投影不低于峰值一半的行)以上为升部，以下为降部
+                            int coreTop = lineStart;
+                            while (profile[coreTop] * 2 < peak) coreTop++;
+                            int coreBottom = y - 1;
+                            while (profile[coreBottom] * 2 < peak) coreBottom--;
+                            for (int r = lineStart; r < coreTop; r++) ascenderInk += profile[r];
+                            for (int r = coreBottom + 1; r < y; r++) descenderInk += profile[r];
+                        }
+                    }
+                    lineStart = -1;
+                }
+            }
+
+            if (lineEnds.size() >= 3) {
+                double leftSpread = spread(lineEnds, 0);
+                double rightSpread = spread(lineEnds, 1);
+                alignment += (rightSpread - leftSpread) / (rightSpread + leftSpread + 1) * lineEnds.size();
+                alignedLines += lineEnds.size();
+            }
+        }
+
+        double alignmentScore = alignedLines > 0 ? alignment / alignedLines : 0;
+        double ascenderScore = (double) (ascenderInk - descenderInk) / (ascenderInk + descenderInk + 1);
+        return alignmentScore + ascenderScore;
+    }
+
+    /**
+     * 行端位置与中位数的平均绝对偏差
+     */
+    private static double spread(List<int[]> lineEnds, int side) {
+        int[] values = new int[lineEnds.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = lineEnds.get(i)[side];
+        }
+        Arrays.sort(values);
+        int median = values[values.length / 2];
+        double deviation = 0;
+        for (int value : values) {
+            deviation += Math.abs(value - median);
+        }
+        return deviation / values.length;
+    }
+}
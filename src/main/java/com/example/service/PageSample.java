@@ -0,0 +1,75 @@
+package com.example.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+/**
+ * 页面分析用的低分辨率二值副本：按整数步长取样降采样，以Otsu阈值二值化为灰度图(墨迹为0，背景为255)
+ * <p>
+ * 方向和倾斜检测、文字类别检测只需要文本行的形状，在短边约1000像素的副本上运行，
+ * 300dpi的A4扫描件正文字高仍有约20像素。副本的像素数组从请求的RasterBuffers租用
+ */
+final class PageSample {
+
+    private static final int TARGET_SHORT_SIDE = 1000;
+
+    private PageSample() {
+    }
+
+    static BufferedImage of(BufferedImage gray, RasterBuffers buffers) {
+        int step = Math.max(1, Math.min(gray.getWidth(), gray.getHeight()) / TARGET_SHORT_SIDE);
+        int width = (gray.getWidth() + step - 1) / step;
+        int height = (gray.getHeight() + step - 1) / step;
+        Raster source = gray.getRaster();
+        int shift = Math.max(0, source.getSampleModel().getSampleSize(0) - 8);
+
+        BufferedImage sample = buffers.gray(width, height);
+        byte[] values = RasterBuffers.pixels(sample);
+        int[] histogram = new int[256];
+        int[] row = new int[gray.getWidth()];
+        for (int y = 0; y < height; y++) {
+            source.getSamples(0, y * step, gray.getWidth(), 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                int value = Math.min(255, row[x * step] >> shift);
+                values[y * width + x] = (byte) value;
+                histogram[value]++;
+            }
+        }
+
+        int size = width * height;
+        int threshold = otsuThreshold(histogram, size);
+        for (int i = 0; i < size; i++) {
+            values[i] = (values[i] & 0xFF) <= threshold ? 0 : (byte) 255;
+        }
+        return sample;
+    }
+
+    /**
+     * 类间方差最大的阈值，不高于该值的像素为墨迹
+     */
+    static int otsuThreshold(int[] histogram, long total) {
+        long weightedSum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            weightedSum += (long) i * histogram[i];
+        }
+        long darkWeight = 0;
+        long darkSum = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int i = 0; i < histogram.length; i++) {
+            darkWeight += histogram[i];
+            if (darkWeight == 0) continue;
+            long lightWeight = total - darkWeight;
+            if (lightWeight == 0) break;
+            darkSum += (long) i * histogram[i];
+            double darkMean = (double) darkSum / darkWeight;
+            double lightMean = (double) (weightedSum - darkSum) / lightWeight;
+            double variance = (double) darkWeight * lightWeight * (darkMean - lightMean) * (darkMean - lightMean);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = i;
+            }
+        }
+        return threshold;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 缓存、线程池和队列状态的指标：抓取时读取各服务的getStats()，服务本身不依赖指标注册表。
+ * 计数类统计(命中、淘汰、拒绝等)注册为FunctionCounter，当前状态(条目数、占用、并发数)注册为Gauge；
+ * Micrometer对状态对象只持有弱引用，因此以单例服务本身作为状态对象
+ */
+@Component
+@RequiredArgsConstructor
+public class PipelineGauges implements MeterBinder {
+
+    private final MatchResultCache matchResultCache;
+    private final NearDuplicateService nearDuplicateService;
+    private final SkillNormalizer skillNormalizer;
+    private final IncrementalRescoringService incrementalRescoringService;
+    private final JobCatalogService jobCatalogService;
+    private final UploadResourceGuard uploadResourceGuard;
+    private final OCRResumeParser ocrResumeParser;
+    private final OcrEnginePool ocrEnginePool;
+    private final RasterBufferPool rasterBufferPool;
+    private final ShardedMatchingService shardedMatchingService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "resume.match.cache.entries", matchResultCache, MatchResultCache::getStats, "entries");
+        gauge(registry, "resume.match.cache.weight.bytes", matchResultCache, MatchResultCache::getStats, "weightBytes");
+        counter(registry, "resume.match.cache.requests", Tags.of("result", "hit"),
+                matchResultCache, MatchResultCache::getStats, "hits");
+        counter(registry, "resume.match.cache.requests", Tags.of("result", "miss"),
+                matchResultCache, MatchResultCache::getStats, "misses");
+        counter(registry, "resume.match.cache.evictions", Tags.empty(),
+                matchResultCache, MatchResultCache::getStats, "evictions");
+
+        gauge(registry, "resume.dedup.entries", nearDuplicateService, NearDuplicateService::getStats, "entries");
+        counter(registry, "resume.dedup.lookups", Tags.empty(),
+                nearDuplicateService, NearDuplicateService::getStats, "lookups");
+        counter(registry, "resume.dedup.duplicates", Tags.empty(),
+                nearDuplicateService, NearDuplicateService::getStats, "duplicates");
+
+        gauge(registry, "resume.skills.cache.entries", skillNormalizer, SkillNormalizer::getStats, "cachedSkills");
+
+        gauge(registry, "resume.rescoring.rankings",
+                incrementalRescoringService, IncrementalRescoringService::getStats, "rankings");
+        gauge(registry, "resume.rescoring.stale.rankings",
+                incrementalRescoringService, IncrementalRescoringService::getStats, "staleRankings");
+
+        Gauge.builder("resume.catalog.jobs", jobCatalogService, service -> service.getSnapshot().size())
+                .register(registry);
+        Gauge.builder("resume.catalog.version", jobCatalogService, service -> service.getSnapshot().getVersion())
+                .register(registry);
+
+        for (String kind : new String[]{"image", "docx", "pdf"}) {
+            counter(registry, "resume.upload.rejections", Tags.of("kind", kind),
+                    uploadResourceGuard, UploadResourceGuard::getStats, kind + "Rejections");
+        }
+        counter(registry, "resume.upload.images.subsampled", Tags.empty(),
+                uploadResourceGuard, UploadResourceGuard::getStats, "imagesSubsampled");
+
+        for (String outcome : new String[]{"fastAccepted", "escalations", "fullOnly"}) {
+            counter(registry, "resume.ocr.recognitions", Tags.of("outcome", outcome),
+                    ocrResumeParser, OCRResumeParser::getStats, outcome);
+        }
+        Gauge.builder("resume.ocr.in.flight", ocrResumeParser, OCRResumeParser::getOcrInFlight)
+                .description("正在执行tesseract识别的请求数")
+                .register(registry);
+        counter(registry, "resume.ocr.pages", Tags.of("mode", "regions"),
+                ocrResumeParser, OCRResumeParser::getStats, "regionPages");
+        counter(registry, "resume.ocr.pages", Tags.of("mode", "wholePage"),
+                ocrResumeParser, OCRResumeParser::getStats, "wholePages");
+        for (String language : OcrEngine.LANGUAGES) {
+            FunctionCounter.builder("resume.ocr.script.routes", ocrResumeParser,
+                            parser -> number(nested(parser, "routes"), language))
+                    .tags("language", language)
+                    .register(registry);
+        }
+        counter(registry, "resume.ocr.script.fallbacks", Tags.empty(),
+                ocrResumeParser, OCRResumeParser::getStats, "routeFallbacks");
+        for (String orientation : new String[]{"0", "90", "180", "270"}) {
+            FunctionCounter.builder("resume.ocr.orientation", ocrResumeParser,
+                            parser -> number(nested(parser, "orientations"), orientation))
+                    .tags("orientation", orientation)
+                    .register(registry);
+        }
+        counter(registry, "resume.ocr.deskewed", Tags.empty(), ocrResumeParser, OCRResumeParser::getStats, "deskewed");
+        for (String method : new String[]{"global", "sauvola", "bradley"}) {
+            FunctionCounter.builder("resume.ocr.binarization", ocrResumeParser,
+                            parser -> number(nested(parser, "binarizations"), method))
+                    .tags("method", method)
+                    .register(registry);
+        }
+        gauge(registry, "resume.ocr.engines", ocrEnginePool, OcrEnginePool::getStats, "created");
+        gauge(registry, "resume.ocr.engines.idle", ocrEnginePool, OcrEnginePool::getStats, "idle");
+        counter(registry, "resume.ocr.engine.waits", Tags.empty(), ocrEnginePool, OcrEnginePool::getStats, "waits");
+        counter(registry, "resume.ocr.regions", Tags.empty(), ocrEnginePool, OcrEnginePool::getStats, "regions");
+        counter(registry, "resume.ocr.engine.failures", Tags.empty(),
+                ocrEnginePool, OcrEnginePool::getStats, "failures");
+        gauge(registry, "resume.ocr.buffers.pooled.bytes", rasterBufferPool, RasterBufferPool::getStats, "pooledBytes");
+        counter(registry, "resume.ocr.buffers.acquires", Tags.of("result", "hit"),
+                rasterBufferPool, RasterBufferPool::getStats, "hits");
+        counter(registry, "resume.ocr.buffers.acquires", Tags.of("result", "miss"),
+                rasterBufferPool, RasterBufferPool::getStats, "misses");
+        counter(registry, "resume.ocr.buffers.allocated.bytes", Tags.empty(),
+                rasterBufferPool, RasterBufferPool::getStats, "allocatedBytes");
+        counter(registry, "resume.ocr.buffers.discards", Tags.empty(),
+                rasterBufferPool, RasterBufferPool::getStats, "discards");
+
+        // 分片扇出线程池的活动线程数、队列长度和已完成任务数
+        new ExecutorServiceMetrics(shardedMatchingService.getFanOutExecutor(), "shard-fanout", Tags.empty())
+                .bindTo(registry);
+        // 文本块识别线程池
+        new ExecutorServiceMetrics(ocrEnginePool.getRegionExecutor(), "ocr-region", Tags.empty())
+                .bindTo(registry);
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, T service,
+                                  Function<T, Map<String, Object>> stats, String key) {
+        Gauge.builder(name, service, state -> number(stats.apply(state), key)).register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, Tags tags, T service,
+                                    Function<T, Map<String, Object>> stats, String key) {
+        FunctionCounter.builder(name, service, state -> number(stats.apply(state), key)).tags(tags).register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nested(OCRResumeParser parser, String key) {
+        return (Map<String, Object>) parser.getStats().get(key);
+    }
+
+    private static double number(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流水线各阶段计时 - 解析阶段记录到resume.pipeline.stage(标签stage、format、endpoint)，
+ * 匹配阶段记录到resume.match.stage(标签algorithm、stage、endpoint)
+ * <p>
+ * 调用方在阶段开始时取System.nanoTime()，结束时调用record；异常路径不记录，失败请求由http.server.requests统计。
+ * endpoint标签取当前请求映射的路径模式，由EndpointMetricsInterceptor绑定到请求线程；
+ * 非请求线程(岗位库增量事件、基准测试等)记为internal。直方图桶和分位数由management.metrics.distribution.*配置。
+ * 请求线程上同时把耗时累计到该请求的RequestTimings(匹配阶段记为"算法.阶段")，供响应中的耗时明细和慢请求记录使用。
+ */
+@Service
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "resume.pipeline.stage";
+    public static final String MATCH_TIMER = "resume.match.stage";
+
+    public static final String INTERNAL_ENDPOINT = "internal";
+
+    // 文件格式标签只取已知扩展名(jpeg归为jpg、tif归为tiff)，其余记为other，避免标签基数随上传文件名增长
+    private static final Set<String> KNOWN_FORMATS = Set.of("pdf", "docx", "txt", "jpg", "png", "bmp", "tiff");
+
+    private static final ThreadLocal<RequestTimings> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 记录解析阶段耗时
+     */
+    public void recordStage(String stage, String format, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timer(STAGE_TIMER, "stage", stage, "format", format).record(elapsed, TimeUnit.NANOSECONDS);
+        RequestTimings request = CURRENT_REQUEST.get();
+        if (request != null) request.addStage(stage, elapsed);
+    }
+
+    /**
+     * 记录匹配阶段耗时
+     */
+    public void recordMatch(String algorithm, String stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timer(MATCH_TIMER, "algorithm", algorithm, "stage", stage).record(elapsed, TimeUnit.NANOSECONDS);
+        RequestTimings request = CURRENT_REQUEST.get();
+        if (request != null) request.addStage(algorithm + "." + stage, elapsed);
+    }
+
+    public static String formatOf(String filename) {
+        if (filename == null) return "other";
+        int lastDot = filename.lastIndexOf('.');
+        if (lastDot == -1) return "other";
+        String extension = filename.substring(lastDot + 1).toLowerCase(Locale.ROOT);
+        if ("jpeg".equals(extension)) extension = "jpg";
+        if ("tif".equals(extension)) extension = "tiff";
+        return KNOWN_FORMATS.contains(extension) ? extension : "other";
+    }
+
+    /**
+     * 开始记录当前线程上的请求
+     */
+    public static RequestTimings beginRequest(String endpoint) {
+        RequestTimings request = new RequestTimings(endpoint);
+        CURRENT_REQUEST.set(request);
+        return request;
+    }
+
+    public static void endRequest() {
+        CURRENT_REQUEST.remove();
+    }
+
+    /**
+     * 当前线程上正在处理的请求，非请求线程返回null
+     */
+    public static RequestTimings currentRequest() {
+        return CURRENT_REQUEST.get();
+    }
+
+    /**
+     * 为当前请求附加文件元数据(不得包含简历内容)，非请求线程忽略
+     */
+    public static void annotate(String key, Object value) {
+        RequestTimings request = CURRENT_REQUEST.get();
+        if (request != null) request.putMetadata(key, value);
+    }
+
+    public static String currentEndpoint() {
+        RequestTimings request = CURRENT_REQUEST.get();
+        return request != null ? request.getEndpoint() : INTERNAL_ENDPOINT;
+    }
+
+    /**
+     * 同一组标签的计时器只向注册表查找一次
+     */
+    private Timer timer(String name, String key1, String value1, String key2, String value2) {
+        String endpoint = currentEndpoint();
+        return timers.computeIfAbsent(List.of(name, value1, value2, endpoint), key -> Timer.builder(name)
+                .tag(key1, value1)
+                .tag(key2, value2)
+                .tag("endpoint", endpoint)
+                .register(registry));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OCR预处理的栅格缓冲池 - 按大小分级复用灰度图像的像素数组和送入Tesseract的直接内存缓冲
+ * <p>
+ * 300dpi的A4扫描件每个灰度栅格约8.7MB，每张图片的灰度化、缩放、降噪、二值化、锐化各分配一个，
+ * 在G1下都是直接进入老年代的巨型对象。缓冲按大小分级(每个2的幂区间分4级，浪费不超过25%)，
+ * 同一级的缓冲可互换；归还时池中总字节数超过上限的缓冲直接丢弃，由GC回收。
+ * 请求通过lease()取得RasterBuffers，请求结束时关闭归还
+ */
+@Slf4j
+@Service
+public class RasterBufferPool {
+
+    private static final int MIN_CLASS_BYTES = 1 << 16;
+
+    private final long maxPooledBytes;
+    private final Map<Integer, ConcurrentLinkedDeque<byte[]>> arrays = new ConcurrentHashMap<>();
+    private final Map<Integer, ConcurrentLinkedDeque<ByteBuffer>> directBuffers = new ConcurrentHashMap<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    public RasterBufferPool(@Value("${app.ocr.buffers.max-pooled-mb:256}") long maxPooledMb) {
+        this.maxPooledBytes = Math.max(0, maxPooledMb) * 1024 * 1024;
+        log.info("OCR栅格缓冲池上限: {}MB", maxPooledMb);
+    }
+
+    /**
+     * 一次请求的缓冲租约，不可并发使用
+     */
+    RasterBuffers lease() {
+        return new RasterBuffers(this);
+    }
+
+    /**
+     * 不小于size的所在级别大小：MIN_CLASS_BYTES以上按2的幂区间的1/4取整
+     */
+    static int sizeClass(int size) {
+        if (size <= MIN_CLASS_BYTES) return MIN_CLASS_BYTES;
+        int step = Integer.highestOneBit(size - 1) / 4;
+        return (size + step - 1) / step * step;
+    }
+
+    byte[] acquireArray(int size) {
+        int sizeClass = sizeClass(size);
+        acquires.increment();
+        ConcurrentLinkedDeque<byte[]> idle = arrays.get(sizeClass);
+        byte[] array = idle != null ? idle.pollFirst() : null;
+        if (array != null) {
+            hits.increment();
+            pooledBytes.addAndGet(-array.length);
+            return array;
+        }
+        allocatedBytes.add(sizeClass);
+        return new byte[sizeClass];
+    }
+
+    void releaseArray(byte[] array) {
+        if (!admit(array.length)) return;
+        arrays.computeIfAbsent(array.length, key -> new ConcurrentLinkedDeque<>()).offerFirst(array);
+    }
+
+    /**
+     * 本机字节序的直接内存缓冲，position为0、limit为size
+     */
+    ByteBuffer acquireDirect(int size) {
+        int sizeClass = sizeClass(size);
+        acquires.increment();
+        ConcurrentLinkedDeque<ByteBuffer> idle = directBuffers.get(sizeClass);
+        ByteBuffer buffer = idle != null ? idle.pollFirst() : null;
+        if (buffer != null) {
+            hits.increment();
+            pooledBytes.addAndGet(-buffer.capacity());
+        } else {
+            allocatedBytes.add(sizeClass);
+            buffer = ByteBuffer.allocateDirect(sizeClass).order(ByteOrder.nativeOrder());
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    void releaseDirect(ByteBuffer buffer) {
+        if (!admit(buffer.capacity())) return;
+        directBuffers.computeIfAbsent(buffer.capacity(), key -> new ConcurrentLinkedDeque<>()).offerFirst(buffer);
+    }
+
+    /**
+     * 为归还的缓冲占用池容量，超出上限时丢弃
+     */
+    private boolean admit(int bytes) {
+        if (pooledBytes.addAndGet(bytes) > maxPooledBytes) {
+            pooledBytes.addAndGet(-bytes);
+            discards.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        long acquired = acquires.sum();
+        long hit = hits.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxPooledBytes", maxPooledBytes);
+        stats.put("pooledBytes", pooledBytes.get());
+        stats.put("acquires", acquired);
+        stats.put("hits", hit);
+        stats.put("misses", acquired - hit);
+        stats.put("hitRate", acquired > 0 ? (double) hit / acquired : null);
+        stats.put("allocatedBytes", allocatedBytes.sum());
+        stats.put("discards", discards.sum());
+        return stats;
+    }
+}
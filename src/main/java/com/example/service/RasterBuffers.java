@@ -0,0 +1,102 @@
+package com.example.service;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次OCR请求从RasterBufferPool租用的缓冲，关闭时全部归还
+ * <p>
+ * gray()返回的图像与new BufferedImage(w, h, TYPE_BYTE_GRAY)类型相同，像素数组来自池中，
+ * 行跨度等于宽度，内容为上一次使用留下的数据，由调用方整幅写入。
+ * 流水线的相邻阶段交替使用两个缓冲：某一阶段的输出被下一阶段读完后即release，供再下一阶段复用
+ */
+final class RasterBuffers implements AutoCloseable {
+
+    private static final ColorModel GRAY = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_GRAY),
+            new int[]{8}, false, true, ColorModel.OPAQUE, DataBuffer.TYPE_BYTE);
+
+    private final RasterBufferPool pool;
+    private final List<byte[]> arrays = new ArrayList<>();
+    private final List<ByteBuffer> directBuffers = new ArrayList<>();
+
+    RasterBuffers(RasterBufferPool pool) {
+        this.pool = pool;
+    }
+
+    BufferedImage gray(int width, int height) {
+        int size = Math.multiplyExact(width, height);
+        byte[] data = pool.acquireArray(size);
+        arrays.add(data);
+        WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(data, size),
+                width, height, width, 1, new int[]{0}, null);
+        return new BufferedImage(GRAY, raster, false, null);
+    }
+
+    /**
+     * 提前归还gray()取得的图像；不是本租约的图像(如解码结果)忽略
+     */
+    void release(BufferedImage image) {
+        if (!(image.getRaster().getDataBuffer() instanceof DataBufferByte buffer)) return;
+        byte[] data = buffer.getData();
+        for (int i = arrays.size() - 1; i >= 0; i--) {
+            if (arrays.get(i) == data) {
+                arrays.remove(i);
+                pool.releaseArray(data);
+                return;
+            }
+        }
+    }
+
+    ByteBuffer direct(int size) {
+        ByteBuffer buffer = pool.acquireDirect(size);
+        directBuffers.add(buffer);
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        for (int i = directBuffers.size() - 1; i >= 0; i--) {
+            if (directBuffers.get(i) == buffer) {
+                directBuffers.remove(i);
+                pool.releaseDirect(buffer);
+                return;
+            }
+        }
+    }
+
+    /**
+     * image是行跨度等于宽度的8位灰度图像(gray()的结果或TYPE_BYTE_GRAY)
+     */
+    static boolean isPlainGray(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_BYTE_GRAY
+                && image.getRaster().getDataBuffer() instanceof DataBufferByte
+                && image.getRaster().getDataBuffer().getOffset() == 0
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0
+                && ((ComponentSampleModel) image.getSampleModel()).getScanlineStride() == image.getWidth();
+    }
+
+    /**
+     * 8位灰度图像的像素数组，下标y * width + x
+     */
+    static byte[] pixels(BufferedImage image) {
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    @Override
+    public void close() {
+        arrays.forEach(pool::releaseArray);
+        arrays.clear();
+        directBuffers.forEach(pool::releaseDirect);
+        directBuffers.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.service;
+
+import com.example.model.ParsedResume;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个请求的阶段耗时和文件元数据，由EndpointMetricsInterceptor在请求开始时绑定到请求线程
+ * <p>
+ * 阶段耗时按System.nanoTime累计，同一阶段多次执行时相加；元数据只保存文件名、大小、图片尺寸等描述信息，
+ * 解析出的简历只用于在需要时计算内容哈希，不随耗时记录保存。只在请求线程上读写，不做同步
+ */
+public class RequestTimings {
+
+    private final String endpoint;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final Map<String, Object> metadata = new LinkedHashMap<>();
+    private ParsedResume resume;
+
+    public RequestTimings(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    void addStage(String stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    public void putMetadata(String key, Object value) {
+        metadata.put(key, value);
+    }
+
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+
+    public void setResume(ParsedResume resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * 解析出的简历内容哈希，请求未解析简历时为null
+     */
+    public String contentHash() {
+        return resume != null ? ResumeFingerprint.contentHash(resume) : null;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 各阶段耗时(毫秒，保留3位小数)，按首次记录的顺序，最后是到目前为止的请求总耗时total
+     */
+    public Map<String, Double> toMillis() {
+        Map<String, Double> timings = new LinkedHashMap<>();
+        stageNanos.forEach((stage, nanos) -> timings.put(stage, millis(nanos)));
+        timings.put("total", millis(elapsedNanos()));
+        return timings;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.service;
+
+import com.example.model.ParsedResume;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 简历内容指纹 - 对影响匹配得分的字段做SHA-256摘要
+ */
+public final class ResumeFingerprint {
+
+    private ResumeFingerprint() {
+    }
+
+    public static String contentHash(ParsedResume resume) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, resume.getRawText());
+            update(digest, String.join("\u0001", resume.getSkills()));
+            update(digest, String.valueOf(resume.getPersonalInfo().getYearsOfExperience()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 分片节点的内容指纹：分片不接收简历正文，以协调节点计算的词项向量代替正文
+     */
+    public static String featureHash(ParsedResume resume, Map<String, Double> terms) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, Double> term : new TreeMap<>(terms).entrySet()) {
+                update(digest, term.getKey() + "=" + term.getValue());
+            }
+            update(digest, String.join("\u0001", resume.getSkills()));
+            update(digest, String.valueOf(resume.getPersonalInfo().getYearsOfExperience()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+}
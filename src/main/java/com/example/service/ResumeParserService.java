@@ -2,8 +2,8 @@ package com.example.service;
 
 
 import com.example.model.ParsedResume;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
@@ -11,66 +11,109 @@ import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ResumeParserService {
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
     private static final Pattern PHONE_PATTERN = Pattern.compile("(\\+?86)?1[3-9]\\d{9}|(\\d{3,4}-)?\\d{7,8}");
     private static final Pattern NAME_PATTERN = Pattern.compile("姓名[：:]\\s*([\\u4e00-\\u9fa5a-zA-Z]{2,10})");
 
+    private final SkillNormalizer skillNormalizer;
+    private final ResumeSegmenter resumeSegmenter;
+    private final UploadResourceGuard uploadResourceGuard;
+    private final PipelineMetrics pipelineMetrics;
+
     public ParsedResume parseResume(MultipartFile file) {
         long startTime = System.currentTimeMillis();
         try {
             String filename = file.getOriginalFilename();
+            String format = PipelineMetrics.formatOf(filename);
             String content;
 
-            if (filename.toLowerCase().endsWith(".pdf")) {
-                content = parsePdf(file.getInputStream());
-            } else if (filename.toLowerCase().endsWith(".docx")) {
-                content = parseDocx(file.getInputStream());
-            } else if (filename.toLowerCase().endsWith(".txt")) {
-                content = new String(file.getBytes(), "UTF-8");
+            long stageStart = System.nanoTime();
+            String lowerName = filename.toLowerCase();
+            boolean pdf = lowerName.endsWith(".pdf");
+            boolean docx = lowerName.endsWith(".docx");
+            boolean txt = lowerName.endsWith(".txt");
+            pipelineMetrics.recordStage("format.detect", format, stageStart);
+
+            if (pdf) {
+                content = parsePdf(readUpload(file, format), format);
+            } else if (docx) {
+                content = parseDocx(file, format);
+            } else if (txt) {
+                content = new String(readUpload(file, format), "UTF-8");
             } else {
                 throw new UnsupportedOperationException("不支持的文件格式: " + filename);
             }
 
+            stageStart = System.nanoTime();
             ParsedResume resume = extractResumeInfo(content);
             resume.setFileName(filename);
+            pipelineMetrics.recordStage("field.extract", format, stageStart);
 
             long endTime = System.currentTimeMillis();
             log.info("简历解析完成: {}, 耗时: {}ms", filename, endTime - startTime);
 
             return resume;
+        } catch (UploadLimitExceededException e) {
+            log.warn("简历超出上传资源预算，拒绝解析: {}, 原因: {}", file.getOriginalFilename(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("解析简历失败: {}", file.getOriginalFilename(), e);
             throw new RuntimeException("解析失败: " + e.getMessage());
         }
     }
 
-    private String parsePdf(InputStream inputStream) throws Exception {
-        // 替换原来的 PDDocument.load(inputStream)
-        try (PDDocument document = Loader.loadPDF(inputStream.readAllBytes())) {
+    private byte[] readUpload(MultipartFile file, String format) throws IOException {
+        long stageStart = System.nanoTime();
+        byte[] bytes = file.getBytes();
+        pipelineMetrics.recordStage("upload.read", format, stageStart);
+        return bytes;
+    }
+
+    private String parsePdf(byte[] bytes, String format) throws Exception {
+        long stageStart = System.nanoTime();
+        // 加载后先检查页数和对象数，通过后再解码内容流提取文本
+        try (PDDocument document = uploadResourceGuard.loadPdf(bytes)) {
             PDFTextStripper stripper = new PDFTextStripper();
             stripper.setSortByPosition(true);
-            return stripper.getText(document);
+            String text = stripper.getText(document);
+            pipelineMetrics.recordStage("pdf.extract", format, stageStart);
+            return text;
         }
     }
 
-    private String parseDocx(InputStream inputStream) throws Exception {
-        try (XWPFDocument document = new XWPFDocument(inputStream);
+    /**
+     * 优先流式提取正文文本(不构建对象模型、不加载嵌入媒体)，无法处理的文档回退到XWPF；
+     * 超出解压预算的文档直接拒绝，不回退。流式提取边读上传流边解压，读取耗时计入docx.extract
+     */
+    private String parseDocx(MultipartFile file, String format) throws Exception {
+        long stageStart = System.nanoTime();
+        try (InputStream inputStream = file.getInputStream()) {
+            String text = uploadResourceGuard.extractDocx(inputStream);
+            pipelineMetrics.recordStage("docx.extract", format, stageStart);
+            return text;
+        } catch (IOException e) {
+            log.info("DOCX流式提取失败，回退到XWPF解析: {}, 原因: {}", file.getOriginalFilename(), e.getMessage());
+        }
+        stageStart = System.nanoTime();
+        try (XWPFDocument document = new XWPFDocument(file.getInputStream());
              XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
-            return extractor.getText();
+            String text = extractor.getText();
+            pipelineMetrics.recordStage("docx.xwpf-fallback", format, stageStart);
+            return text;
         }
     }
 
-    private ParsedResume extractResumeInfo(String content) {
+    ParsedResume extractResumeInfo(String content) {
         ParsedResume resume = new ParsedResume();
         resume.setRawText(content);
 
@@ -95,44 +138,27 @@ public class ResumeParserService {
         // 提取技能
         resume.setSkills(extractSkills(content));
 
-        // 估算工作经验
-        resume.getPersonalInfo().setYearsOfExperience(estimateExperience(content));
+        // 分段解析工作经历、教育经历和证书，工作年限按工作日期区间计算
+        resumeSegmenter.segment(content, resume);
 
         return resume;
     }
 
+    /**
+     * 提取标准技能名：别名(SpringBoot、k8s、JS等)和OCR识别错误的个别字符由SkillNormalizer统一归一化
+     */
     public List<String> extractSkills(String content) {
-        List<String> skillKeywords = Arrays.asList(
-                "Java", "Spring", "Spring Boot", "MySQL", "Redis", "Python", "JavaScript",
-                "Vue", "React", "HTML", "CSS", "Docker", "Kubernetes", "Git", "Maven",
-                "Gradle", "Linux", "AWS", "微服务", "分布式", "多线程", "RESTful", "API"
-        );
-
-        List<String> foundSkills = new ArrayList<>();
-        String lowerContent = content.toLowerCase();
-
-        for (String skill : skillKeywords) {
-            if (lowerContent.contains(skill.toLowerCase())) {
-                foundSkills.add(skill);
-            }
-        }
-        return foundSkills;
-    }
-
-    private Integer estimateExperience(String content) {
-        // 简化的经验估算逻辑
-        if (content.contains("5年") || content.contains("五年") || content.contains("5+")) return 5;
-        if (content.contains("3年") || content.contains("三年") || content.contains("3+")) return 3;
-        if (content.contains("1年") || content.contains("一年") || content.contains("1+")) return 1;
-        return 0;
+        return skillNormalizer.extractSkills(content);
     }
 
     // 在 ResumeParserService.java 中添加这个方法
     public ParsedResume parseImageResume(MultipartFile file, String ocrText) {
         long startTime = System.currentTimeMillis();
         try {
+            long stageStart = System.nanoTime();
             ParsedResume resume = extractResumeInfo(ocrText);
             resume.setFileName(file.getOriginalFilename());
+            pipelineMetrics.recordStage("field.extract", PipelineMetrics.formatOf(file.getOriginalFilename()), stageStart);
 
             long endTime = System.currentTimeMillis();
             log.info("图片简历解析完成: {}, 耗时: {}ms", file.getOriginalFilename(), endTime - startTime);
@@ -0,0 +1,363 @@
+package com.example.service;
+
+import com.example.model.ParsedResume;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 简历分段解析 - 单遍扫描正文，按中英文段落标题切分并填充工作经历、教育经历和证书
+ * <p>
+ * 每行只做一次标题查表(去除编号和装饰符后查哈希表)和一次日期区间匹配，总代价与正文长度成正比。
+ * 工作经历以带日期区间的行开始一条记录，后续行作为描述直到下一个日期区间或标题；
+ * 工作年限取各段工作日期区间的并集(重叠部分只计一次)，没有可用的日期区间时取"5年开发经验"一类的自述年限。
+ * 没有段落标题的简历中，带日期区间且含公司/学校特征词的行也会被识别为工作/教育记录。
+ */
+@Service
+@RequiredArgsConstructor
+public class ResumeSegmenter {
+
+    private enum Section {HEADER, WORK, PROJECT, EDUCATION, CERTIFICATIONS, OTHER}
+
+    private static final Map<String, Section> HEADINGS = new HashMap<>();
+
+    static {
+        heading(Section.WORK, "工作经历", "工作经验", "职业经历", "实习经历", "实习经验", "任职经历", "工作履历",
+                "workexperience", "professionalexperience", "employmenthistory", "workhistory", "experience",
+                "internship", "internships", "internshipexperience");
+        heading(Section.PROJECT, "项目经历", "项目经验", "主要项目", "项目", "projects", "projectexperience");
+        heading(Section.EDUCATION, "教育背景", "教育经历", "学历", "学历背景", "教育", "education",
+                "educationbackground", "academicbackground");
+        heading(Section.CERTIFICATIONS, "证书", "资格证书", "获得证书", "证书与奖项", "荣誉证书", "资质证书", "技能证书",
+                "certifications", "certificates", "certification", "licensesandcertifications");
+        heading(Section.OTHER, "个人信息", "基本信息", "自我评价", "个人简介", "个人评价", "求职意向", "专业技能", "技能", "技能特长",
+                "技术栈", "荣誉奖项", "获奖情况", "兴趣爱好", "summary", "profile", "objective", "skills",
+                "technicalskills", "awards", "interests", "personalinformation");
+    }
+
+    private static final String MONTHS = "jan|feb|mar|apr|may|jun|jul|aug|sep|oct|nov|dec";
+    private static final Pattern DATE_RANGE = Pattern.compile(
+            "(?:(?<sm>" + MONTHS + ")[a-z]*\\.?\\s*)?(?<sy>(?:19|20)\\d{2})(?:\\s*[./\\-年]\\s*(?<sn>\\d{1,2})\\s*月?)?\\s*年?"
+                    + "\\s*(?:-|–|—|~|～|至|到|to)\\s*"
+                    + "(?:(?<present>至今|现在|今|present|now|current|today)"
+                    + "|(?:(?<em>" + MONTHS + ")[a-z]*\\.?\\s*)?(?<ey>(?:19|20)\\d{2})(?:\\s*[./\\-年]\\s*(?<en>\\d{1,2})\\s*月?)?\\s*年?)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern STATED_YEARS = Pattern.compile(
+            "(?<!\\d)(?<n>\\d{1,2}|[一二两三四五六七八九十]{1,2})\\s*\\+?\\s*年(?:以上)?的?[\\p{IsHan}A-Za-z+#]{0,8}?经[验历]"
+                    + "|(?<!\\d)(?<e>\\d{1,2})\\+?\\s*(?:years?|yrs?)(?:\\s+of)?(?:\\s+[a-z]+){0,2}?\\s+experience",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INLINE_CERTIFICATIONS = Pattern.compile(
+            "^(?:证书|资格证书|获得证书|认证|certifications?|certificates?)\\s*[:：]\\s*(.+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile("\\s*[|｜\\t,，、/]\\s*|\\s{2,}");
+    private static final Pattern COMPANY_HINT = Pattern.compile(
+            "公司|集团|科技|银行|研究院|工作室|事务所|\\b(?:inc|ltd|llc|co|corp|corporation|company|group|technologies)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern POSITION_HINT = Pattern.compile(
+            "工程师|开发|经理|总监|架构师|主管|专员|实习|组长|负责人|顾问|分析师|设计师|测试|运维"
+                    + "|engineer|developer|manager|architect|lead|intern|analyst|consultant|designer|director",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern SCHOOL_HINT = Pattern.compile(
+            "大学|学院|学校|中学|university|college|institute|school|academy", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DEGREE = Pattern.compile(
+            "博士|硕士|研究生|本科|学士|大专|专科|高中|中专|ph\\.?d|doctor(?:ate)?|master(?:'s)?|mba|bachelor(?:'s)?|associate"
+                    + "|\\b[bm]\\.(?:s|a|sc|eng)\\.?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern LIST_BULLET = Pattern.compile("^(?:[•·●■◆★*\\-]|\\d{1,2}[.、)）])\\s*");
+
+    private final SkillNormalizer skillNormalizer;
+
+    /**
+     * 分段解析正文，填充工作经历、教育经历、证书和工作年限
+     */
+    public void segment(String content, ParsedResume resume) {
+        State state = new State();
+        if (content != null) {
+            for (String rawLine : content.split("\\R")) {
+                String line = rawLine.strip();
+                if (!line.isEmpty()) state.accept(line);
+            }
+        }
+        state.finish();
+
+        resume.setWorkExperiences(state.works);
+        resume.setEducations(state.educations);
+        resume.setCertifications(new ArrayList<>(state.certifications));
+        resume.getPersonalInfo().setYearsOfExperience(state.yearsOfExperience());
+    }
+
+    private class State {
+        Section section = Section.HEADER;
+        final List<ParsedResume.WorkExperience> works = new ArrayList<>();
+        final List<ParsedResume.Education> educations = new ArrayList<>();
+        final Set<String> certifications = new LinkedHashSet<>();
+        final List<int[]> workSpans = new ArrayList<>();     // [起始月序号, 结束月序号)
+        Integer statedYears;
+
+        ParsedResume.WorkExperience work;
+        StringBuilder workText;
+        ParsedResume.Education education;
+        String previousLine;            // 本段上一条未开始新记录的行，可能是下一条工作经历的公司名
+
+        void accept(String line) {
+            Section heading = headingOf(line);
+            if (heading != null) {
+                closeWork();
+                education = null;
+                section = heading;
+                previousLine = null;
+                return;
+            }
+
+            if (statedYears == null) statedYears = statedYears(line);
+
+            Matcher inline = INLINE_CERTIFICATIONS.matcher(line);
+            if (inline.matches()) {
+                addCertifications(inline.group(1));
+                return;
+            }
+
+            Matcher range = DATE_RANGE.matcher(line);
+            int[] span = range.find() ? span(range) : null;
+            String remainder = span != null ? (line.substring(0, range.start()) + " " + line.substring(range.end())).strip() : line;
+            String period = span != null ? range.group().strip() : null;
+
+            switch (section) {
+                case WORK -> acceptWork(line, remainder, period, span);
+                case EDUCATION -> acceptEducation(line, remainder, period);
+                case CERTIFICATIONS -> addCertifications(LIST_BULLET.matcher(remainder).replaceFirst(""));
+                case HEADER, OTHER -> {
+                    // 无标题简历：日期区间行按公司/学校特征词归类
+                    if (span != null && SCHOOL_HINT.matcher(remainder).find()) {
+                        acceptEducation(line, remainder, period);
+                    } else if (span != null && COMPANY_HINT.matcher(remainder).find()) {
+                        acceptWork(line, remainder, period, span);
+                    } else if (work != null) {
+                        appendWork(line);
+                    }
+                }
+                case PROJECT -> {
+                    // 项目时间与工作时间重叠，不计入工作年限
+                }
+            }
+        }
+
+        void acceptWork(String line, String remainder, String period, int[] span) {
+            if (span == null) {
+                if (work != null) appendWork(line);
+                previousLine = line;
+                return;
+            }
+
+            String candidateCompany = previousLine;
+            closeWork();
+            work = new ParsedResume.WorkExperience();
+            work.setDuration(period);
+            workText = new StringBuilder(remainder);
+            if (span[1] > span[0]) workSpans.add(span);
+
+            List<String> fields = fields(remainder);
+            String company = first(fields, COMPANY_HINT, null);
+            String position = first(fields, POSITION_HINT, company);
+            if (company == null && position != null && candidateCompany != null && candidateCompany.length() <= 40
+                    && COMPANY_HINT.matcher(candidateCompany).find()) {
+                // 公司名单独占一行、日期和职位在下一行
+                company = candidateCompany;
+                removeTrailingDescription(candidateCompany);
+            }
+            if (company == null) company = firstOther(fields, position);
+            if (position == null) position = firstOther(fields, company);
+            work.setCompany(company);
+            work.setPosition(position);
+            previousLine = null;
+        }
+
+        void acceptEducation(String line, String remainder, String period) {
+            List<String> fields = fields(remainder);
+            String institution = first(fields, SCHOOL_HINT, null);
+            boolean startsEntry = education == null || period != null
+                    || (institution != null && education.getInstitution() != null);
+            if (startsEntry) {
+                education = new ParsedResume.Education();
+                educations.add(education);
+            }
+
+            if (period != null && education.getPeriod() == null) education.setPeriod(period);
+            if (institution != null && education.getInstitution() == null) education.setInstitution(institution);
+            Matcher degree = DEGREE.matcher(line);
+            if (degree.find() && education.getDegree() == null) education.setDegree(degree.group());
+
+            for (String field : fields) {
+                if (education.getMajor() != null) break;
+                if (field.equals(institution)) continue;
+                // "B.S. Computer Science"一类学位和专业写在一起时去掉学位部分
+                String rest = DEGREE.matcher(field).replaceFirst("").strip();
+                if (rest.isEmpty()) continue;
+                if (rest.contains("专业") || rest.toLowerCase(Locale.ROOT).startsWith("major")) {
+                    education.setMajor(rest.replaceFirst("^(?i)(?:专业|major)\\s*[:：]?\\s*", "").replace("专业", "").strip());
+                } else if (startsEntry && institution != null) {
+                    education.setMajor(rest);
+                }
+            }
+        }
+
+        void appendWork(String line) {
+            if (workText.length() > 0) workText.append('\n');
+            workText.append(line);
+            String description = work.getDescription();
+            work.setDescription(description == null ? line : description + "\n" + line);
+        }
+
+        void removeTrailingDescription(String line) {
+            if (works.isEmpty()) return;
+            ParsedResume.WorkExperience last = works.get(works.size() - 1);
+            String description = last.getDescription();
+            if (description == null || !description.endsWith(line)) return;
+            String trimmed = description.substring(0, description.length() - line.length()).stripTrailing();
+            last.setDescription(trimmed.isEmpty() ? null : trimmed);
+        }
+
+        void closeWork() {
+            if (work == null) return;
+            work.setTechnologies(skillNormalizer.extractSkills(workText.toString()));
+            works.add(work);
+            work = null;
+            workText = null;
+        }
+
+        void addCertifications(String text) {
+            for (String item : text.split("[，,；;、]")) {
+                String name = LIST_BULLET.matcher(item.strip()).replaceFirst("").strip();
+                if (name.length() >= 2) certifications.add(name);
+            }
+        }
+
+        void finish() {
+            closeWork();
+        }
+
+        /**
+         * 工作日期区间并集的总月数换算为年；没有日期区间时取自述年限
+         */
+        Integer yearsOfExperience() {
+            workSpans.sort(Comparator.comparingInt(span -> span[0]));
+            int months = 0;
+            int coveredUntil = Integer.MIN_VALUE;
+            for (int[] span : workSpans) {
+                int from = Math.max(span[0], coveredUntil);
+                if (span[1] > from) months += span[1] - from;
+                coveredUntil = Math.max(coveredUntil, span[1]);
+            }
+            if (months == 0) return statedYears != null ? statedYears : 0;
+            return months / 12;
+        }
+    }
+
+    private static void heading(Section section, String... names) {
+        for (String name : names) HEADINGS.put(name, section);
+    }
+
+    /**
+     * 去除编号、装饰符和空白后查标题表；中英文并列的标题(如"工作经历 Work Experience")分别查找
+     */
+    private static Section headingOf(String line) {
+        if (line.length() > 40) return null;
+        int colon = Math.max(line.indexOf(':'), line.indexOf('：'));
+        if (colon >= 0 && !line.substring(colon + 1).isBlank()) return null;
+        StringBuilder han = new StringBuilder();
+        StringBuilder latin = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (Character.isIdeographic(c)) {
+                if ("一二三四五六七八九十".indexOf(c) < 0 || han.length() > 0) han.append(c);
+            } else if (Character.isLetter(c)) {
+                latin.append(Character.toLowerCase(c));
+            } else if (Character.isDigit(c) && (han.length() > 0 || latin.length() > 0)) {
+                return null;
+            }
+        }
+        Section section = HEADINGS.get(han.toString() + latin);
+        if (section == null && han.length() > 0) section = HEADINGS.get(han.toString());
+        if (section == null && latin.length() > 0 && han.length() == 0) section = HEADINGS.get(latin.toString());
+        return section;
+    }
+
+    /**
+     * 日期区间换算为[起始月序号, 结束月序号)；"至今"截止到当前月，只有年份时按整年计
+     */
+    private static int[] span(Matcher range) {
+        YearMonth now = YearMonth.now();
+        int startYear = Integer.parseInt(range.group("sy"));
+        int startMonth = month(range.group("sn"), range.group("sm"));
+        int from = startYear * 12 + Math.max(startMonth, 1) - 1;
+
+        int to;
+        if (range.group("present") != null) {
+            to = now.getYear() * 12 + now.getMonthValue();
+        } else {
+            int endYear = Integer.parseInt(range.group("ey"));
+            int endMonth = month(range.group("en"), range.group("em"));
+            // 精确到月的区间含结束月；只有年份时按起止年份之差计
+            to = endMonth > 0 ? endYear * 12 + endMonth : endYear * 12 + Math.max(startMonth, 1) - 1;
+        }
+        if (startMonth > 12 || to - from > 50 * 12) return new int[]{from, from};
+        return new int[]{from, Math.min(to, now.getYear() * 12 + now.getMonthValue())};
+    }
+
+    /**
+     * 数字月份或英文月份缩写；缺失时返回0
+     */
+    private static int month(String number, String name) {
+        if (number != null) {
+            int month = Integer.parseInt(number);
+            return month >= 1 && month <= 12 ? month : 13;
+        }
+        if (name != null) return MONTHS.indexOf(name.toLowerCase(Locale.ROOT).substring(0, 3)) / 4 + 1;
+        return 0;
+    }
+
+    private static Integer statedYears(String line) {
+        Matcher matcher = STATED_YEARS.matcher(line);
+        if (!matcher.find()) return null;
+        String value = matcher.group("n") != null ? matcher.group("n") : matcher.group("e");
+        return Character.isDigit(value.charAt(0)) ? Integer.parseInt(value) : chineseNumber(value);
+    }
+
+    private static int chineseNumber(String value) {
+        String digits = "零一二三四五六七八九";
+        if (value.equals("十")) return 10;
+        if (value.startsWith("十")) return 10 + digits.indexOf(value.charAt(1));
+        if (value.endsWith("十")) return digits.indexOf(value.charAt(0)) * 10;
+        return value.charAt(0) == '两' ? 2 : digits.indexOf(value.charAt(0));
+    }
+
+    private static List<String> fields(String text) {
+        List<String> fields = new ArrayList<>();
+        String[] parts = FIELD_SEPARATOR.split(text);
+        if (parts.length == 1 && text.indexOf(' ') > 0 && text.codePoints().anyMatch(Character::isIdeographic)) {
+            parts = text.split("\\s+");
+        }
+        for (String part : parts) {
+            String field = part.strip();
+            if (!field.isEmpty() && !field.matches("[\\p{Punct}\\s]+")) fields.add(field);
+        }
+        return fields;
+    }
+
+    private static String first(List<String> fields, Pattern hint, String exclude) {
+        for (String field : fields) {
+            if (!field.equals(exclude) && hint.matcher(field).find()) return field;
+        }
+        return null;
+    }
+
+    private static String firstOther(List<String> fields, String exclude) {
+        for (String field : fields) {
+            if (!field.equals(exclude)) return field;
+        }
+        return null;
+    }
+}
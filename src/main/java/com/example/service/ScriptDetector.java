@@ -0,0 +1,208 @@
+package com.example.service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文字类别检测：区分拉丁字母文本行和汉字文本行，为图片选择最便宜的Tesseract语言模型
+ * <p>
+ * 拉丁字母行的墨迹集中在x高度带(小写字母主体)，只有少数字母有升部和降部，行投影在中部形成窄而高的平台；
+ * 汉字占满整个字框，同一行内各字的笔画位置各异，行投影在整个行高上较平。
+ * 以投影不低于峰值一半的行数占行高的比例(核心占比)区分两类行，按墨迹量加权统计拉丁字母行的占比(latinShare)。
+ * "熟悉Java/Spring Boot/MySQL"这类夹带英文的中文行整体仍是汉字行的投影，因此选择chi_sim前还按连通域逐个检查：
+ * 小写字母是落在x高度带内、坐在基线上、上方没有笔画的连通域，相邻两个这样的连通域(或粘连成两个字母宽的一个)
+ * 即视为一个拉丁字母单词，页面上出现任一单词时改用chi_sim+eng。全大写的缩写(SQL、PMP)与汉字部件难以区分，不参与判断。
+ * 在页面的低分辨率二值副本(PageSample)上运行，文本行取自该副本上版面分析得到的文本块，不调用Tesseract
+ */
+final class ScriptDetector {
+
+    /**
+     * 核心占比低于该值的行视为拉丁字母行
+     */
+    private static final double LATIN_CORE_RATIO = 0.6;
+    private static final int MIN_LINE_HEIGHT = 6;
+    private static final int MIN_LINES = 3;
+    /**
+     * 小写字母连通域相对行高的尺寸和位置(行顶为0、行底为1)：高度在[0.4, 0.75]之间，顶部不小于0.2，底部不小于0.75
+     */
+    private static final double X_HEIGHT_MIN = 0.4;
+    private static final double X_HEIGHT_MAX = 0.75;
+    private static final double X_TOP_MIN = 0.2;
+    private static final double BASELINE_MIN = 0.75;
+    /**
+     * 同一单词内相邻字母的最大间距和底部高度差，以及粘连字母视为单词的最小宽度，以行高为单位
+     */
+    private static final double LETTER_GAP = 0.5;
+    private static final double BASELINE_TOLERANCE = 0.15;
+    private static final double MERGED_WORD_WIDTH = 0.9;
+
+    /**
+     * @param language   选择的语言组合
+     * @param latinShare 拉丁字母行墨迹占比，0.0 - 1.0；可测文本行不足时为NaN
+     * @param lines      参与统计的文本行数
+     * @param latinWords 按连通域找到的拉丁字母单词数
+     */
+    record Detection(String language, double latinShare, int lines, int latinWords) {
+    }
+
+    private ScriptDetector() {
+    }
+
+    /**
+     * @param sample       PageSample生成的二值副本
+     * @param englishShare latinShare不低于该值时选择eng
+     * @param chineseShare latinShare不高于该值且没有拉丁字母单词时选择chi_sim，其余情况或可测文本行不足时选择chi_sim+eng
+     */
+    static Detection detect(BufferedImage sample, double englishShare, double chineseShare) {
+        Raster raster = sample.getRaster();
+
+        double latinInk = 0;
+        double totalInk = 0;
+        int lines = 0;
+        int latinWords = 0;
+        int[] row = new int[sample.getWidth()];
+        for (Rectangle block : LayoutAnalyzer.findTextBlocks(sample)) {
+            boolean[] ink = new boolean[block.width * block.height];
+            int[] profile = new int[block.height];
+            for (int y = 0; y < block.height; y++) {
+                raster.getSamples(block.x, block.y + y, block.width, 1, 0, row);
+                for (int x = 0; x < block.width; x++) {
+                    if (row[x] == 0) {
+                        ink[y * block.width + x] = true;
+                        profile[y]++;
+                    }
+                }
+            }
+
+            // 文本块内以空白行分隔文本行
+            int lineStart = -1;
+            for (int y = 0; y <= block.height; y++) {
+                boolean inkRow = y < block.height && profile[y] > 0;
+                if (inkRow && lineStart < 0) {
+                    lineStart = y;
+                } else if (!inkRow && lineStart >= 0) {
+                    LineShape shape = lineShape(profile, lineStart, y, block.width);
+                    if (shape != null) {
+                        lines++;
+                        totalInk += shape.ink();
+                        if (shape.coreRatio() < LATIN_CORE_RATIO) latinInk += shape.ink();
+                    }
+                    if (y - lineStart >= MIN_LINE_HEIGHT) {
+                        latinWords += latinWords(ink, block.width, lineStart, y);
+                    }
+                    lineStart = -1;
+                }
+            }
+        }
+
+        if (lines < MIN_LINES || totalInk == 0) {
+            return new Detection(OcrEngine.DEFAULT_LANGUAGE, Double.NaN, lines, latinWords);
+        }
+        double latinShare = latinInk / totalInk;
+        String language = latinShare >= englishShare ? OcrEngine.ENGLISH
+                : latinShare <= chineseShare && latinWords == 0 ? OcrEngine.CHINESE
+                : OcrEngine.DEFAULT_LANGUAGE;
+        return new Detection(language, latinShare, lines, latinWords);
+    }
+
+    private record LineShape(double coreRatio, long ink) {
+    }
+
+    /**
+     * 行投影profile[start, end)的核心占比和墨迹量；过矮(分辨率不足)或过短(单个字符、项目符号)的行返回null
+     */
+    private static LineShape lineShape(int[] profile, int start, int end, int blockWidth) {
+        int height = end - start;
+        if (height < MIN_LINE_HEIGHT) return null;
+        int peak = 0;
+        long ink = 0;
+        for (int y = start; y < end; y++) {
+            peak = Math.max(peak, profile[y]);
+            ink += profile[y];
+        }
+        // 墨迹量不足约两个字时行内字符太少，投影受个别字形影响大
+        if (ink < (long) height * height / 2 || blockWidth < 2 * height) return null;
+        int core = 0;
+        for (int y = start; y < end; y++) {
+            if (profile[y] * 2 >= peak) core++;
+        }
+        return new LineShape((double) core / height, ink);
+    }
+
+    /**
+     * 文本行[start, end)内的拉丁字母单词数：按8邻域标记连通域，取形状和位置符合小写字母的连通域，
+     * 从左到右把间距和底部高度相近的相邻字母连成单词
+     */
+    private static int latinWords(boolean[] ink, int width, int start, int end) {
+        int height = end - start;
+        int[] labels = new int[width * height];
+        int[] stack = new int[width * height];
+        List<int[]> letters = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] != 0 || !ink[start * width + i]) continue;
+            // 连通域外接矩形{左, 上, 右, 下}，右、下不含
+            int[] box = {width, height, 0, 0};
+            int label = ++next;
+            int size = 0;
+            labels[i] = label;
+            stack[size++] = i;
+            while (size > 0) {
+                int index = stack[--size];
+                int x = index % width, y = index / width;
+                box[0] = Math.min(box[0], x);
+                box[1] = Math.min(box[1], y);
+                box[2] = Math.max(box[2], x + 1);
+                box[3] = Math.max(box[3], y + 1);
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int nx = x + dx, ny = y + dy;
+                        if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+                        int neighbor = ny * width + nx;
+                        if (labels[neighbor] == 0 && ink[start * width + neighbor]) {
+                            labels[neighbor] = label;
+                            stack[size++] = neighbor;
+                        }
+                    }
+                }
+            }
+            if (isLowercase(box, ink, width, start, height)) letters.add(box);
+        }
+
+        letters.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < letters.size(); i++) {
+            int[] letter = letters.get(i);
+            boolean joined = i > 0 && letter[0] - letters.get(i - 1)[2] <= LETTER_GAP * height
+                    && Math.abs(letter[3] - letters.get(i - 1)[3]) <= BASELINE_TOLERANCE * height;
+            if (joined && !inWord) {
+                words++;
+                inWord = true;
+            } else if (!joined) {
+                inWord = letter[2] - letter[0] >= MERGED_WORD_WIDTH * height;
+                if (inWord) words++;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 连通域是否像小写字母：位于x高度带并坐在基线上，且所在列从行顶到其顶部之间没有墨迹
+     * (汉字下部的部件上方总有笔画，i、j等带点的字母不计入)
+     */
+    private static boolean isLowercase(int[] box, boolean[] ink, int width, int start, int height) {
+        int boxHeight = box[3] - box[1];
+        if (boxHeight < X_HEIGHT_MIN * height || boxHeight > X_HEIGHT_MAX * height) return false;
+        if (box[1] < X_TOP_MIN * height || box[3] < BASELINE_MIN * height) return false;
+        for (int y = 0; y < box[1]; y++) {
+            for (int x = box[0]; x < box[2]; x++) {
+                if (ink[(start + y) * width + x]) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.service;
+
+import com.example.model.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import jakarta.annotation.PreDestroy;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分片匹配服务 - 岗位库按岗位id哈希分布在多个节点上，协调节点扇出简历特征并合并各分片的本地前K
+ * <p>
+ * 分片节点：使用本地岗位库分片执行基础/高级匹配，返回前K个结果。各算法的得分只依赖简历和单个岗位，
+ * 不依赖岗位库整体统计，因此不同分片的得分可以直接比较，合并后的前K与单机全量结果一致。
+ * <p>
+ * 协调节点：配置app.cluster.shards后，匹配请求并行发往所有分片，每个分片有独立超时；
+ * 超时或失败的分片不阻塞结果返回，结果标记为部分结果(clusterDiagnostics.partial)。
+ * <p>
+ * 单机多进程示例(两个分片 + 一个协调节点)：
+ * <pre>
+ * java -jar resume-parser.jar --server.port=8101 --app.cluster.shard-index=0 --app.cluster.shard-count=2
+ * java -jar resume-parser.jar --server.port=8102 --app.cluster.shard-index=1 --app.cluster.shard-count=2
+ * java -jar resume-parser.jar --server.port=8080 --app.cluster.shards=http://localhost:8101,http://localhost:8102
+ * </pre>
+ */
+@Slf4j
+@Service
+public class ShardedMatchingService {
+
+    private static final String STATUS_OK = "ok";
+    private static final String STATUS_TIMEOUT = "timeout";
+    private static final String STATUS_ERROR = "error";
+    /**
+     * 占位键以NUL字符开头，岗位描述和技能中不会出现
+     */
+    private static final String CONTACT_TERM_PREFIX = "\u0000contact-";
+
+    private final JobCatalogService jobCatalogService;
+    private final JobMatchingService jobMatchingService;
+    private final AdvancedMatchingService advancedMatchingService;
+    private final PipelineMetrics pipelineMetrics;
+    private final List<String> shardUrls;
+    private final long shardTimeoutMs;
+    private final int topK;
+
+    private final RestClient restClient;
+    private final ExecutorService fanOutExecutor;
+    private final Map<String, Map<String, LongAdder>> shardStats = new ConcurrentHashMap<>();
+
+    public ShardedMatchingService(JobCatalogService jobCatalogService,
+                                  JobMatchingService jobMatchingService,
+                                  AdvancedMatchingService advancedMatchingService,
+                                  PipelineMetrics pipelineMetrics,
+                                  RestClient.Builder restClientBuilder,
+                                  @Value("${app.cluster.shards:}") String shards,
+                                  @Value("${app.cluster.shard-timeout-ms:2000}") long shardTimeoutMs,
+                                  @Value("${app.cluster.top-k:20}") int topK) {
+        this.jobCatalogService = jobCatalogService;
+        this.jobMatchingService = jobMatchingService;
+        this.advancedMatchingService = advancedMatchingService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.shardTimeoutMs = shardTimeoutMs;
+        this.topK = topK;
+
+        List<String> urls = new ArrayList<>();
+        for (String url : shards.split(",")) {
+            if (!url.isBlank()) urls.add(url.trim().replaceAll("/+$", ""));
+        }
+        this.shardUrls = Collections.unmodifiableList(urls);
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(shardTimeoutMs))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(shardTimeoutMs));
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fanOutExecutor = Executors.newFixedThreadPool(Math.max(4, urls.size() * 4), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (!urls.isEmpty()) {
+            log.info("分片协调模式已启用，分片: {}, 单分片超时: {}ms, Top-K: {}", urls, shardTimeoutMs, topK);
+        }
+    }
+
+    /**
+     * 分片扇出线程池，供指标绑定线程数和队列长度
+     */
+    ExecutorService getFanOutExecutor() {
+        return fanOutExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    /**
+     * 是否作为协调节点运行(配置了分片地址)
+     */
+    public boolean isCoordinator() {
+        return !shardUrls.isEmpty();
+    }
+
+    /**
+     * 分片节点：在本地岗位库分片上匹配并截取前K个结果
+     */
+    public ShardMatchResponse matchLocal(ShardMatchRequest request) {
+        if (request.getResume() == null) {
+            throw new IllegalArgumentException("分片匹配请求缺少简历特征");
+        }
+        JobFilter filter = request.getFilter() != null ? request.getFilter() : new JobFilter();
+        MatchOptions options = request.getOptions() != null ? request.getOptions() : MatchOptions.exhaustive();
+        int k = request.getTopK() > 0 ? request.getTopK() : topK;
+
+        MatchResult result;
+        if (ShardMatchRequest.ALGORITHM_BASIC.equalsIgnoreCase(request.getAlgorithm())) {
+            result = jobMatchingService.basicMatch(request.getResume(), filter);
+        } else if (ShardMatchRequest.ALGORITHM_ADVANCED.equalsIgnoreCase(request.getAlgorithm())) {
+            AdvancedMatchingService.ResumeFeatures features = request.getResumeTerms() == null ? null
+                    : new AdvancedMatchingService.ResumeFeatures(request.getResumeTerms(), request.getResumeVector());
+            result = advancedMatchingService.advancedMatch(request.getResume(), features, filter, options);
+        } else {
+            throw new IllegalArgumentException("不支持的匹配算法: " + request.getAlgorithm() + "，可选值: basic, advanced");
+        }
+
+        JobCatalogSnapshot catalog = jobCatalogService.getSnapshot();
+        ShardMatchResponse response = new ShardMatchResponse();
+        response.setShardIndex(jobCatalogService.getShardIndex());
+        response.setShardCount(jobCatalogService.getShardCount());
+        response.setCatalogVersion(catalog.getVersion());
+        response.setCatalogSize(catalog.size());
+        response.setAlgorithmUsed(result.getAlgorithmUsed());
+        response.setProcessingTimeMs(result.getProcessingTimeMs());
+        response.setMatches(new ArrayList<>(result.getJobMatches().subList(0, Math.min(k, result.getJobMatches().size()))));
+        return response;
+    }
+
+    /**
+     * 协调节点：扇出到所有分片，在截止时间内收集响应并按得分合并前K
+     */
+    public MatchResult match(String algorithm, ParsedResume resume, JobFilter filter, MatchOptions options) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        String metricsAlgorithm = "sharded-" + algorithm;
+        options.validate();
+
+        ShardMatchRequest request = new ShardMatchRequest();
+        request.setAlgorithm(algorithm);
+        request.setResume(features(resume));
+        if (ShardMatchRequest.ALGORITHM_ADVANCED.equalsIgnoreCase(algorithm)) {
+            AdvancedMatchingService.ResumeFeatures features = advancedMatchingService.features(resume);
+            request.setResumeTerms(withoutContactTerms(features.terms(), resume.getPersonalInfo()));
+            request.setResumeVector(features.vector());
+        }
+        request.setFilter(filter);
+        request.setOptions(options);
+        request.setTopK(topK);
+
+        List<CompletableFuture<ShardCall>> calls = new ArrayList<>(shardUrls.size());
+        for (String url : shardUrls) {
+            calls.add(CompletableFuture.supplyAsync(() -> callShard(url, request), fanOutExecutor));
+        }
+
+        // 所有分片共享同一截止时间，慢分片不会累加等待
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shardTimeoutMs);
+        MatchResult.ClusterDiagnostics diagnostics = new MatchResult.ClusterDiagnostics();
+        diagnostics.setShardCount(shardUrls.size());
+        List<JobMatch> merged = new ArrayList<>();
+        String algorithmUsed = null;
+
+        for (int i = 0; i < shardUrls.size(); i++) {
+            MatchResult.ShardStatus status = new MatchResult.ShardStatus();
+            status.setShard(shardUrls.get(i));
+            try {
+                ShardCall call = calls.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                ShardMatchResponse response = call.response();
+                status.setStatus(STATUS_OK);
+                status.setShardIndex(response.getShardIndex());
+                status.setCatalogVersion(response.getCatalogVersion());
+                status.setCatalogSize(response.getCatalogSize());
+                status.setMatchCount(response.getMatches().size());
+                status.setLatencyMs(call.latencyMs());
+                merged.addAll(response.getMatches());
+                if (algorithmUsed == null) algorithmUsed = response.getAlgorithmUsed();
+            } catch (TimeoutException e) {
+                calls.get(i).cancel(true);
+                status.setStatus(STATUS_TIMEOUT);
+                status.setLatencyMs(shardTimeoutMs);
+                status.setError("分片响应超时(" + shardTimeoutMs + "ms)");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                status.setStatus(STATUS_ERROR);
+                status.setLatencyMs(System.currentTimeMillis() - startTime);
+                status.setError(cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status.setStatus(STATUS_ERROR);
+                status.setError("等待分片响应时被中断");
+            }
+            if (!STATUS_OK.equals(status.getStatus())) {
+                log.warn("分片{}未返回结果: {}", status.getShard(), status.getError());
+            }
+            record(status);
+            diagnostics.getShards().add(status);
+        }
+
+        pipelineMetrics.recordMatch(metricsAlgorithm, "fanout", startNanos);
+
+        long responded = diagnostics.getShards().stream().filter(s -> STATUS_OK.equals(s.getStatus())).count();
+        diagnostics.setRespondedShards((int) responded);
+        diagnostics.setPartial(responded < shardUrls.size());
+
+        // 各分片结果已按得分降序，合并后取全局前K；得分相同时按岗位id排序保证结果稳定
+        merged.sort(Comparator.comparingDouble(JobMatch::getMatchScore).reversed()
+                .thenComparing(match -> match.getJob() != null ? String.valueOf(match.getJob().getId()) : ""));
+        List<JobMatch> matches = new ArrayList<>(merged.subList(0, Math.min(topK, merged.size())));
+
+        MatchResult result = new MatchResult();
+        result.setResume(resume);
+        result.setJobMatches(matches);
+        result.setAlgorithmUsed((algorithmUsed != null ? algorithmUsed : algorithm) + " - 分片合并");
+        result.setAnalysis(generateAnalysis(matches, diagnostics));
+        result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+        result.setClusterDiagnostics(diagnostics);
+        pipelineMetrics.recordMatch(metricsAlgorithm, "total", startNanos);
+
+        log.info("分片匹配完成，算法: {}, 响应分片: {}/{}, 合并结果数: {}, 处理时间: {}ms",
+                algorithm, responded, shardUrls.size(), matches.size(), result.getProcessingTimeMs());
+        return result;
+    }
+
+    /**
+     * 各分片的累计调用统计
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("coordinator", isCoordinator());
+        status.put("shardIndex", jobCatalogService.getShardIndex());
+        status.put("shardCount", jobCatalogService.getShardCount());
+        status.put("localCatalogSize", jobCatalogService.getSnapshot().size());
+        status.put("shards", shardUrls);
+        status.put("shardTimeoutMs", shardTimeoutMs);
+        status.put("topK", topK);
+
+        Map<String, Map<String, Long>> calls = new LinkedHashMap<>();
+        for (String url : shardUrls) {
+            Map<String, Long> counters = new LinkedHashMap<>();
+            shardStats.getOrDefault(url, Map.of()).forEach((key, adder) -> counters.put(key, adder.sum()));
+            calls.put(url, counters);
+        }
+        status.put("calls", calls);
+        return status;
+    }
+
+    private ShardCall callShard(String url, ShardMatchRequest request) {
+        long start = System.currentTimeMillis();
+        ShardMatchResponse response = restClient.post()
+                .uri(url + "/api/shard/match")
+                .body(request)
+                .retrieve()
+                .body(ShardMatchResponse.class);
+        if (response == null) {
+            throw new IllegalStateException("分片返回空响应: " + url);
+        }
+        return new ShardCall(response, System.currentTimeMillis() - start);
+    }
+
+    private void record(MatchResult.ShardStatus status) {
+        shardStats.computeIfAbsent(status.getShard(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status.getStatus(), key -> new LongAdder())
+                .increment();
+    }
+
+    /**
+     * 扇出的简历只含技能、工作年限和文件名；正文不发送，高级匹配所需的正文特征以词项向量和词向量代替
+     */
+    private static ParsedResume features(ParsedResume resume) {
+        ParsedResume features = new ParsedResume();
+        features.setFileName(resume.getFileName());
+        features.setSkills(resume.getSkills());
+        features.getPersonalInfo().setYearsOfExperience(resume.getPersonalInfo().getYearsOfExperience());
+        return features;
+    }
+
+    /**
+     * 含姓名、邮箱或电话的词项改为不可能出现在岗位词项中的占位键，权重不变：
+     * 余弦相似度的简历侧范数不变，各分片的TF-IDF得分与单机匹配一致，联系方式不离开协调节点
+     */
+    private static Map<String, Double> withoutContactTerms(Map<String, Double> terms, ParsedResume.PersonalInfo info) {
+        List<String> contacts = new ArrayList<>();
+        for (String value : new String[]{info.getName(), info.getEmail(), info.getPhone()}) {
+            if (value != null && !value.isBlank()) contacts.add(value.strip().toLowerCase());
+        }
+        if (contacts.isEmpty()) return terms;
+
+        Map<String, Double> result = new HashMap<>(terms.size() * 2);
+        int placeholders = 0;
+        for (Map.Entry<String, Double> term : terms.entrySet()) {
+            boolean contact = contacts.stream().anyMatch(term.getKey()::contains);
+            result.put(contact ? CONTACT_TERM_PREFIX + placeholders++ : term.getKey(), term.getValue());
+        }
+        return result;
+    }
+
+    private String generateAnalysis(List<JobMatch> matches, MatchResult.ClusterDiagnostics diagnostics) {
+        String coverage = String.format("分片响应 %d/%d%s", diagnostics.getRespondedShards(),
+                diagnostics.getShardCount(), diagnostics.isPartial() ? "(部分结果)" : "");
+        if (matches.isEmpty()) return "暂无匹配的岗位, " + coverage;
+
+        JobMatch bestMatch = matches.get(0);
+        return String.format("最匹配岗位: %s, 匹配度: %.1f%%, %s",
+                bestMatch.getJob().getTitle(), bestMatch.getMatchScore() * 100, coverage);
+    }
+
+    private record ShardCall(ShardMatchResponse response, long latencyMs) {
+    }
+}
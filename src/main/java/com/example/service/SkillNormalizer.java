@@ -0,0 +1,315 @@
+package com.example.service;
+
+import com.example.index.SkillTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 技能归一化 - 把简历和岗位中的技能写法统一为标准技能名
+ * <p>
+ * 别名表(内置skills/skill-aliases.txt，可用app.skills.alias-path指定本地文件追加或覆盖)编译为trie；
+ * 键忽略大小写、空白和 - _ . 分隔符，"SpringBoot"、"k8s"、"JS"按别名精确命中。
+ * 精确查找失败时用有界编辑距离的Levenshtein自动机在trie上查找最近词条，纠正OCR造成的个别字符错误：
+ * 长度不足fuzzy.min-length的词不做模糊匹配，达到two-edit-length的词允许2处编辑，其余允许1处。
+ * 常见英文单词(内置skills/common-words.txt和别名表中以!开头的行)不做模糊匹配：
+ * 简历正文的每个词都会经过这里，"string"、"redact"这类普通单词与技能名只差一两个字符，不能纠正为技能。
+ * <p>
+ * 简历在解析时归一化一次，岗位在入库时归一化，匹配阶段两侧都是标准技能名。
+ */
+@Slf4j
+@Service
+public class SkillNormalizer {
+
+    private static final String BUILTIN_ALIASES = "skills/skill-aliases.txt";
+    private static final String BUILTIN_WORDS = "skills/common-words.txt";
+
+    private final String aliasPath;
+    private final boolean fuzzyEnabled;
+    private final int fuzzyMinLength;
+    private final int twoEditLength;
+    private final int cacheSize;
+
+    private final List<String> canonicalSkills = new ArrayList<>();
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Set<String> fuzzyExclusions = new HashSet<>();
+    private final Map<String, Integer> ideographicKeys = new LinkedHashMap<>();
+    private final SkillTrie trie;
+    private final int maxPhraseTokens;
+
+    private final Map<String, String> canonicalCache = new ConcurrentHashMap<>();
+
+    private final LongAdder extractions = new LongAdder();
+    private final LongAdder fuzzyLookups = new LongAdder();
+    private final LongAdder fuzzyHits = new LongAdder();
+
+    public SkillNormalizer(@Value("${app.skills.alias-path:}") String aliasPath,
+                           @Value("${app.skills.fuzzy.enabled:true}") boolean fuzzyEnabled,
+                           @Value("${app.skills.fuzzy.min-length:7}") int fuzzyMinLength,
+                           @Value("${app.skills.fuzzy.two-edit-length:9}") int twoEditLength,
+                           @Value("${app.skills.cache-size:10000}") int cacheSize) {
+        this.aliasPath = aliasPath;
+        this.fuzzyEnabled = fuzzyEnabled;
+        this.fuzzyMinLength = fuzzyMinLength;
+        this.twoEditLength = twoEditLength;
+        this.cacheSize = cacheSize;
+
+        int phraseTokens = 1;
+        try (InputStream in = SkillNormalizer.class.getClassLoader().getResourceAsStream(BUILTIN_ALIASES)) {
+            if (in == null) throw new IllegalStateException("缺少内置技能别名表: " + BUILTIN_ALIASES);
+            phraseTokens = Math.max(phraseTokens, load(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("内置技能别名表加载失败: " + e.getMessage(), e);
+        }
+        if (aliasPath != null && !aliasPath.isBlank()) {
+            File file = new File(aliasPath);
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    phraseTokens = Math.max(phraseTokens, load(in));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("技能别名表加载失败: " + e.getMessage(), e);
+                }
+            } else {
+                log.warn("技能别名表文件不存在: {}, 只使用内置别名", aliasPath);
+            }
+        }
+        try (InputStream in = SkillNormalizer.class.getClassLoader().getResourceAsStream(BUILTIN_WORDS)) {
+            if (in == null) throw new IllegalStateException("缺少内置常见词表: " + BUILTIN_WORDS);
+            loadWords(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("内置常见词表加载失败: " + e.getMessage(), e);
+        }
+        this.maxPhraseTokens = phraseTokens;
+        this.trie = new SkillTrie(keys);
+
+        keys.forEach((key, index) -> {
+            if (hasIdeograph(key)) ideographicKeys.put(key, index);
+        });
+        log.info("技能字典加载完成，标准技能: {}, 别名键: {}, trie节点: {}, 模糊匹配{}",
+                canonicalSkills.size(), keys.size(), trie.nodeCount(), fuzzyEnabled ? "已启用" : "未启用");
+    }
+
+    /**
+     * 从简历正文中提取标准技能名，按字典顺序返回
+     * <p>
+     * 中文技能名没有分词边界，在去除空白后的全文上做子串匹配；其余按词切分后，
+     * 对连续1到maxPhraseTokens个词拼接成的短语依次做别名精确查找和模糊查找。
+     */
+    public List<String> extractSkills(String text) {
+        extractions.increment();
+        if (text == null || text.isBlank()) return new ArrayList<>();
+
+        String folded = fold(text);
+        boolean[] found = new boolean[canonicalSkills.size()];
+
+        String compact = key(folded);
+        ideographicKeys.forEach((key, index) -> {
+            if (compact.contains(key)) found[index] = true;
+        });
+
+        List<String> tokens = tokenize(folded);
+        Map<String, Integer> resolved = new HashMap<>();
+        StringBuilder phrase = new StringBuilder();
+        for (int start = 0; start < tokens.size(); start++) {
+            phrase.setLength(0);
+            for (int end = start; end < Math.min(tokens.size(), start + maxPhraseTokens); end++) {
+                phrase.append(tokens.get(end));
+                int index = resolved.computeIfAbsent(phrase.toString(), this::resolve);
+                if (index >= 0) found[index] = true;
+            }
+        }
+
+        List<String> skills = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i]) skills.add(canonicalSkills.get(i));
+        }
+        return skills;
+    }
+
+    /**
+     * 单个技能的标准名；字典中没有相近词条时原样返回(去除首尾空白)
+     */
+    public String canonicalize(String skill) {
+        if (skill == null) return null;
+        String cached = canonicalCache.get(skill);
+        if (cached != null) return cached;
+
+        int index = resolve(key(fold(skill)));
+        String canonical = index >= 0 ? canonicalSkills.get(index) : skill.trim();
+        if (canonicalCache.size() >= cacheSize) canonicalCache.clear();
+        canonicalCache.put(skill, canonical);
+        return canonical;
+    }
+
+    /**
+     * 技能列表归一化，去除归一化后重复的技能并保持原顺序
+     */
+    public List<String> canonicalize(List<String> skills) {
+        if (skills == null) return new ArrayList<>();
+        LinkedHashMap<String, String> distinct = new LinkedHashMap<>();
+        for (String skill : skills) {
+            if (skill == null || skill.isBlank()) continue;
+            String canonical = canonicalize(skill);
+            distinct.putIfAbsent(key(canonical), canonical);
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    /**
+     * 技能比较键：标准名去除大小写和分隔符差异，同一技能的不同写法得到相同的键
+     */
+    public String canonicalKey(String skill) {
+        return key(canonicalize(skill));
+    }
+
+    public Set<String> canonicalKeys(Collection<String> skills) {
+        Set<String> result = new HashSet<>();
+        if (skills == null) return result;
+        for (String skill : skills) {
+            if (skill != null) result.add(canonicalKey(skill));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("aliasPath", aliasPath == null || aliasPath.isBlank() ? null : aliasPath);
+        stats.put("canonicalSkills", canonicalSkills.size());
+        stats.put("aliasKeys", keys.size());
+        stats.put("trieNodes", trie.nodeCount());
+        stats.put("maxPhraseTokens", maxPhraseTokens);
+        stats.put("fuzzyEnabled", fuzzyEnabled);
+        stats.put("fuzzyMinLength", fuzzyMinLength);
+        stats.put("twoEditLength", twoEditLength);
+        stats.put("fuzzyExclusions", fuzzyExclusions.size());
+        stats.put("extractions", extractions.sum());
+        stats.put("fuzzyLookups", fuzzyLookups.sum());
+        stats.put("fuzzyHits", fuzzyHits.sum());
+        stats.put("cachedSkills", canonicalCache.size());
+        return stats;
+    }
+
+    /**
+     * 精确查找别名键，失败时在编辑距离预算内查找最近的词条；返回标准技能下标，未命中返回-1
+     */
+    private int resolve(String key) {
+        if (key.isEmpty()) return -1;
+        int index = trie.get(key);
+        if (index >= 0 || !fuzzyEnabled) return index;
+        if (key.length() < fuzzyMinLength || !Character.isLetter(key.charAt(0)) || fuzzyExclusions.contains(key)) {
+            return -1;
+        }
+
+        fuzzyLookups.increment();
+        SkillTrie.Match match = trie.nearest(key, key.length() >= twoEditLength ? 2 : 1);
+        if (match == null) return -1;
+        fuzzyHits.increment();
+        log.debug("技能模糊匹配: {} -> {} (编辑距离 {})", key, canonicalSkills.get(match.value()), match.distance());
+        return match.value();
+    }
+
+    /**
+     * 解析别名表，返回其中最长短语的词数
+     */
+    private int load(InputStream in) throws IOException {
+        int phraseTokens = 1;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            if (line.startsWith("!")) {
+                for (String word : line.substring(1).split("[,，]")) {
+                    if (!word.isBlank()) fuzzyExclusions.add(key(fold(word)));
+                }
+                continue;
+            }
+
+            int separator = line.indexOf(':') >= 0 ? line.indexOf(':') : line.indexOf('：');
+            String canonical = (separator >= 0 ? line.substring(0, separator) : line).strip();
+            if (canonical.isEmpty()) continue;
+
+            Integer index = keys.get(key(fold(canonical)));
+            if (index == null) {
+                index = canonicalSkills.size();
+                canonicalSkills.add(canonical);
+            }
+            keys.put(key(fold(canonical)), index);
+            phraseTokens = Math.max(phraseTokens, tokenize(fold(canonical)).size());
+
+            if (separator < 0) continue;
+            for (String alias : line.substring(separator + 1).split("[,，]")) {
+                if (alias.isBlank()) continue;
+                keys.put(key(fold(alias)), index);
+                phraseTokens = Math.max(phraseTokens, tokenize(fold(alias)).size());
+            }
+        }
+        return phraseTokens;
+    }
+
+    /**
+     * 解析常见词表，词加入模糊匹配排除集合
+     */
+    private void loadWords(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            for (String word : line.split("\\s+")) {
+                fuzzyExclusions.add(key(fold(word)));
+            }
+        }
+    }
+
+    /**
+     * NFKC归一化(全角转半角)并转小写
+     */
+    private static String fold(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 比较键：小写并去除空白和 - _ . 分隔符
+     */
+    private static String key(String folded) {
+        StringBuilder builder = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (!Character.isWhitespace(c) && c != '-' && c != '_' && c != '.') builder.append(c);
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 按非技能字符切分：字母、数字、+ 和 # 组成词，汉字和标点都是分隔符
+     */
+    private static List<String> tokenize(String folded) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            boolean tokenChar = c == '+' || c == '#'
+                    || (Character.isLetterOrDigit(c) && !Character.isIdeographic(c));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean hasIdeograph(String text) {
+        return text.codePoints().anyMatch(Character::isIdeographic);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.service;
+
+import com.example.index.SkillTaxonomy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 技能分类体系重新加载事件 - 依赖分类得分的缓存和排名据此失效
+ */
+@Getter
+@RequiredArgsConstructor
+public class SkillTaxonomyReloadedEvent {
+    private final long previousVersion;
+    private final SkillTaxonomy taxonomy;
+}
@@ -0,0 +1,168 @@
+package com.example.service;
+
+import com.example.index.SkillTaxonomy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 技能分类体系服务 - 加载层级分类文件并编译为SkillTaxonomy，供高级匹配的分类重叠得分使用
+ * <p>
+ * 分类文件为本地文件(app.skills.taxonomy-path)，未配置时使用内置skills/skill-taxonomy.txt；技能名经SkillNormalizer
+ * 归一化为比较键。重新加载时先完整解析并编译新版本，成功后原子替换，正在进行的匹配继续使用旧版本；
+ * 文件有误时保留当前版本并报错。替换后发布重新加载事件，匹配结果缓存和已注册排名随之失效。
+ */
+@Slf4j
+@Service
+public class SkillTaxonomyService {
+
+    private static final String BUILTIN_TAXONOMY = "skills/skill-taxonomy.txt";
+
+    private final SkillNormalizer skillNormalizer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String taxonomyPath;
+    private final int overlapLevel;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicReference<SkillTaxonomy> taxonomy = new AtomicReference<>();
+
+    private volatile String source;
+    private volatile long loadedAt;
+    private long reloads;
+
+    public SkillTaxonomyService(SkillNormalizer skillNormalizer,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.skills.taxonomy-path:}") String taxonomyPath,
+                                @Value("${app.skills.taxonomy.overlap-level:category}") String overlapLevel) {
+        this.skillNormalizer = skillNormalizer;
+        this.eventPublisher = eventPublisher;
+        this.taxonomyPath = taxonomyPath;
+        this.overlapLevel = SkillTaxonomy.parseLevel(overlapLevel);
+        this.taxonomy.set(load());
+    }
+
+    /**
+     * 重新加载分类文件，编译成功后原子替换当前版本并发布重新加载事件
+     */
+    public synchronized SkillTaxonomy reload() {
+        SkillTaxonomy previous = taxonomy.get();
+        SkillTaxonomy reloaded = load();
+        taxonomy.set(reloaded);
+        reloads++;
+
+        log.info("技能分类体系重新加载完成，版本: {} -> {}, 技能数: {}",
+                previous.getVersion(), reloaded.getVersion(), reloaded.skillCount());
+        eventPublisher.publishEvent(new SkillTaxonomyReloadedEvent(previous.getVersion(), reloaded));
+        return reloaded;
+    }
+
+    /**
+     * 配置层级(默认类别)上岗位分类被简历覆盖的比例；两侧闭包取自同一版本的分类体系
+     */
+    public double categoryOverlap(Collection<String> resumeSkills, Collection<String> jobSkills) {
+        SkillTaxonomy current = taxonomy.get();
+        long[] resumeClosure = current.closure(skillNormalizer.canonicalKeys(resumeSkills));
+        long[] jobClosure = current.closure(skillNormalizer.canonicalKeys(jobSkills));
+        return current.overlap(resumeClosure, jobClosure, overlapLevel);
+    }
+
+    /**
+     * 技能本身及在配置层级上与其同类的全部技能(比较键)
+     */
+    public Set<String> relatedSkills(Collection<String> skills) {
+        Set<String> keys = skillNormalizer.canonicalKeys(skills);
+        SkillTaxonomy current = taxonomy.get();
+        Set<String> related = current.skillsSharing(current.closure(keys), overlapLevel);
+        related.addAll(keys);
+        return related;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        SkillTaxonomy current = taxonomy.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", current.getVersion());
+        stats.put("source", source);
+        stats.put("loadedAt", new Date(loadedAt));
+        stats.put("reloads", reloads);
+        stats.put("overlapLevel", SkillTaxonomy.LEVEL_NAMES.get(overlapLevel));
+        stats.put("domains", current.nodeCount(SkillTaxonomy.DOMAIN));
+        stats.put("categories", current.nodeCount(SkillTaxonomy.CATEGORY));
+        stats.put("subcategories", current.nodeCount(SkillTaxonomy.SUBCATEGORY));
+        stats.put("skills", current.skillCount());
+        return stats;
+    }
+
+    private SkillTaxonomy load() {
+        long start = System.currentTimeMillis();
+        SkillTaxonomy.Builder builder = new SkillTaxonomy.Builder();
+        String loadedFrom;
+
+        if (taxonomyPath != null && !taxonomyPath.isBlank() && new File(taxonomyPath).exists()) {
+            try (InputStream in = new FileInputStream(taxonomyPath)) {
+                parse(in, builder);
+            } catch (IOException e) {
+                throw new UncheckedIOException("技能分类文件加载失败: " + e.getMessage(), e);
+            }
+            loadedFrom = taxonomyPath;
+        } else {
+            if (taxonomyPath != null && !taxonomyPath.isBlank()) {
+                log.warn("技能分类文件不存在: {}, 使用内置分类体系", taxonomyPath);
+            }
+            try (InputStream in = SkillTaxonomyService.class.getClassLoader().getResourceAsStream(BUILTIN_TAXONOMY)) {
+                if (in == null) throw new IllegalStateException("缺少内置技能分类文件: " + BUILTIN_TAXONOMY);
+                parse(in, builder);
+            } catch (IOException e) {
+                throw new UncheckedIOException("内置技能分类文件加载失败: " + e.getMessage(), e);
+            }
+            loadedFrom = "classpath:" + BUILTIN_TAXONOMY;
+        }
+
+        SkillTaxonomy compiled = builder.build(versionSequence.incrementAndGet());
+        this.source = loadedFrom;
+        this.loadedAt = System.currentTimeMillis();
+        log.info("技能分类体系编译完成: {}, 领域: {}, 类别: {}, 子类别: {}, 技能: {}, 耗时: {}ms",
+                loadedFrom, compiled.nodeCount(SkillTaxonomy.DOMAIN), compiled.nodeCount(SkillTaxonomy.CATEGORY),
+                compiled.nodeCount(SkillTaxonomy.SUBCATEGORY), compiled.skillCount(), loadedAt - start);
+        return compiled;
+    }
+
+    /**
+     * 解析"领域 > 类别 > 子类别: 技能1, 技能2"格式的分类行
+     */
+    private void parse(InputStream in, SkillTaxonomy.Builder builder) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            int separator = line.indexOf(':') >= 0 ? line.indexOf(':') : line.indexOf('：');
+            if (separator < 0) {
+                throw new IllegalArgumentException("技能分类文件第" + lineNumber + "行缺少':'分隔的技能列表: " + line);
+            }
+            List<String> path = new ArrayList<>();
+            for (String segment : line.substring(0, separator).split(">")) {
+                if (segment.isBlank()) {
+                    throw new IllegalArgumentException("技能分类文件第" + lineNumber + "行分类路径有空层级: " + line);
+                }
+                path.add(segment.strip());
+            }
+            if (path.size() > SkillTaxonomy.LEVEL_NAMES.size()) {
+                throw new IllegalArgumentException("技能分类文件第" + lineNumber + "行分类路径超过"
+                        + SkillTaxonomy.LEVEL_NAMES.size() + "级: " + line);
+            }
+            for (String skill : line.substring(separator + 1).split("[,，]")) {
+                if (!skill.isBlank()) builder.add(path, skillNormalizer.canonicalKey(skill.strip()));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢请求记录 - 总耗时超过阈值的请求保留阶段耗时、文件元数据(文件名、大小、格式、图片尺寸)和简历内容哈希，
+ * 存入固定容量的环形缓冲区，最新的记录覆盖最早的记录。不保存简历原文或解析出的字段
+ */
+@Slf4j
+@Service
+public class SlowRequestRecorder {
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int capacity;
+
+    private final ArrayDeque<Map<String, Object>> records;
+    private final LongAdder observed = new LongAdder();
+    private final LongAdder captured = new LongAdder();
+
+    public SlowRequestRecorder(@Value("${app.diagnostics.slow-request.enabled:true}") boolean enabled,
+                               @Value("${app.diagnostics.slow-request.threshold-ms:3000}") long thresholdMs,
+                               @Value("${app.diagnostics.slow-request.capacity:100}") int capacity) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.capacity = Math.max(1, capacity);
+        this.records = new ArrayDeque<>(this.capacity);
+    }
+
+    /**
+     * 请求结束时调用：未超过阈值时只计数
+     */
+    public void complete(RequestTimings request, String method, int status) {
+        if (!enabled) return;
+        long elapsed = request.elapsedNanos();
+        observed.increment();
+        if (elapsed < thresholdNanos) return;
+
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("timestamp", Instant.now().toString());
+        record.put("method", method);
+        record.put("endpoint", request.getEndpoint());
+        record.put("status", status);
+        record.put("totalMs", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        record.put("timings", request.toMillis());
+        record.put("file", new LinkedHashMap<>(request.getMetadata()));
+        record.put("contentHash", request.contentHash());
+
+        captured.increment();
+        synchronized (this) {
+            if (records.size() == capacity) records.removeFirst();
+            records.addLast(record);
+        }
+        log.warn("慢请求: {} {}, 耗时: {}ms, 阶段耗时: {}",
+                method, request.getEndpoint(), record.get("totalMs"), record.get("timings"));
+    }
+
+    /**
+     * 最近的慢请求，最新的在前
+     */
+    public synchronized List<Map<String, Object>> getRecent() {
+        List<Map<String, Object>> recent = new ArrayList<>(records.size());
+        records.descendingIterator().forEachRemaining(recent::add);
+        return recent;
+    }
+
+    public synchronized void clear() {
+        records.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("thresholdMs", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        stats.put("capacity", capacity);
+        stats.put("observedRequests", observed.sum());
+        stats.put("capturedRequests", captured.sum());
+        stats.put("retained", records.size());
+        return stats;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.service;
+
+/**
+ * 上传文件超出资源预算(图片像素数、DOCX解压量或压缩比、PDF页数或对象数)，在完整解码之前拒绝
+ */
+public class UploadLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UploadLimitExceededException(String message) {
+        super(message);
+    }
+}
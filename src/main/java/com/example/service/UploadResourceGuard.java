@@ -0,0 +1,182 @@
+package com.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上传资源预算 - 在完整解码之前限制上传文件可展开的内存和计算量，防止单个恶意文件(解压炸弹、超大像素图片)拖垮节点
+ * <p>
+ * 图片先只读文件头取得尺寸，超过源像素上限直接拒绝，超过解码像素上限时按ImageReadParam降采样解码；
+ * DOCX流式提取按条目数、解压总量和压缩比计入预算，同一组上限也设置到POI的ZipSecureFile，约束XWPF回退路径；
+ * PDF加载后(只解析交叉引用表，不解码内容流)先检查对象数和页数，再提取文本，解码流使用有上限的内存缓存。
+ * 超出预算时抛出UploadLimitExceededException，由接口返回413。
+ */
+@Slf4j
+@Service
+public class UploadResourceGuard {
+
+    private final long maxImageSourcePixels;
+    private final long maxImageDecodePixels;
+    private final DocxStreamExtractor.Limits docxLimits;
+    private final int maxPdfPages;
+    private final int maxPdfObjects;
+    private final long maxPdfMemoryBytes;
+
+    private final AtomicLong imagesSubsampled = new AtomicLong();
+    private final AtomicLong imageRejections = new AtomicLong();
+    private final AtomicLong docxRejections = new AtomicLong();
+    private final AtomicLong pdfRejections = new AtomicLong();
+
+    public UploadResourceGuard(@Value("${app.upload.image.max-source-pixels:400000000}") long maxImageSourcePixels,
+                               @Value("${app.upload.image.max-decode-pixels:25000000}") long maxImageDecodePixels,
+                               @Value("${app.upload.docx.max-entries:2000}") int maxDocxEntries,
+                               @Value("${app.upload.docx.max-inflated-bytes:209715200}") long maxDocxInflatedBytes,
+                               @Value("${app.upload.docx.max-inflate-ratio:100}") double maxDocxInflateRatio,
+                               @Value("${app.upload.pdf.max-pages:50}") int maxPdfPages,
+                               @Value("${app.upload.pdf.max-objects:200000}") int maxPdfObjects,
+                               @Value("${app.upload.pdf.max-memory-bytes:134217728}") long maxPdfMemoryBytes) {
+        this.maxImageSourcePixels = maxImageSourcePixels;
+        this.maxImageDecodePixels = maxImageDecodePixels;
+        this.docxLimits = new DocxStreamExtractor.Limits(maxDocxEntries, maxDocxInflatedBytes, maxDocxInflateRatio,
+                ZipSecureFile.getGraceEntrySize());
+        this.maxPdfPages = maxPdfPages;
+        this.maxPdfObjects = maxPdfObjects;
+        this.maxPdfMemoryBytes = maxPdfMemoryBytes;
+
+        // ZipSecureFile的上限为进程级静态设置，按条目检查；流式提取另外按整个包累计检查
+        ZipSecureFile.setMinInflateRatio(1.0 / maxDocxInflateRatio);
+        ZipSecureFile.setMaxEntrySize(maxDocxInflatedBytes);
+        ZipSecureFile.setMaxFileCount(maxDocxEntries);
+
+        log.info("上传资源预算: 图片源像素上限 {}, 解码像素上限 {}, DOCX条目 {} / 解压 {} 字节 / 压缩比 {}:1, PDF页数 {} / 对象数 {}",
+                maxImageSourcePixels, maxImageDecodePixels, maxDocxEntries, maxDocxInflatedBytes,
+                maxDocxInflateRatio, maxPdfPages, maxPdfObjects);
+    }
+
+    /**
+     * 读取图片首帧：先从文件头取尺寸，超过解码像素上限时按整数步长降采样解码，解码结果不超过max-decode-pixels
+     */
+    public BufferedImage readImage(File file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("无法读取图像文件: " + file.getName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                long pixels = (long) width * height;
+                PipelineMetrics.annotate("imageWidth", width);
+                PipelineMetrics.annotate("imageHeight", height);
+                if (width <= 0 || height <= 0 || pixels > maxImageSourcePixels) {
+                    imageRejections.incrementAndGet();
+                    throw new UploadLimitExceededException(String.format(
+                            "图片尺寸 %dx%d 超过上限(最多 %d 像素)", width, height, maxImageSourcePixels));
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsamplingStep(width, height);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    PipelineMetrics.annotate("imageSubsampling", step);
+                    imagesSubsampled.incrementAndGet();
+                    log.info("图片尺寸 {}x{} 超过解码像素上限 {}，按 1/{} 降采样解码", width, height, maxImageDecodePixels, step);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 图片预处理(放大等)后允许的最大像素数
+     */
+    public long getMaxImageDecodePixels() {
+        return maxImageDecodePixels;
+    }
+
+    public DocxStreamExtractor.Limits getDocxLimits() {
+        return docxLimits;
+    }
+
+    /**
+     * 流式提取DOCX文本，超出解压预算时计数后抛出
+     */
+    public String extractDocx(InputStream inputStream) throws IOException {
+        try {
+            return DocxStreamExtractor.extract(inputStream, docxLimits);
+        } catch (UploadLimitExceededException e) {
+            docxRejections.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 加载PDF并检查对象数和页数；通过检查的文档由调用方关闭
+     */
+    public PDDocument loadPdf(byte[] bytes) throws IOException {
+        PDDocument document = Loader.loadPDF(bytes, null, null, null,
+                MemoryUsageSetting.setupMainMemoryOnly(maxPdfMemoryBytes).streamCache);
+        try {
+            int objects = document.getDocument().getXrefTable().size();
+            if (objects > maxPdfObjects) {
+                throw new UploadLimitExceededException("PDF对象数 " + objects + " 超过上限 " + maxPdfObjects);
+            }
+            int pages = document.getNumberOfPages();
+            if (pages > maxPdfPages) {
+                throw new UploadLimitExceededException("PDF页数 " + pages + " 超过上限 " + maxPdfPages);
+            }
+            return document;
+        } catch (UploadLimitExceededException e) {
+            pdfRejections.incrementAndGet();
+            document.close();
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxImageSourcePixels", maxImageSourcePixels);
+        stats.put("maxImageDecodePixels", maxImageDecodePixels);
+        stats.put("maxDocxEntries", docxLimits.maxEntries());
+        stats.put("maxDocxInflatedBytes", docxLimits.maxInflatedBytes());
+        stats.put("maxDocxInflateRatio", docxLimits.maxInflateRatio());
+        stats.put("maxPdfPages", maxPdfPages);
+        stats.put("maxPdfObjects", maxPdfObjects);
+        stats.put("imagesSubsampled", imagesSubsampled.get());
+        stats.put("imageRejections", imageRejections.get());
+        stats.put("docxRejections", docxRejections.get());
+        stats.put("pdfRejections", pdfRejections.get());
+        return stats;
+    }
+
+    /**
+     * 降采样后尺寸(向上取整)的像素数不超过解码像素上限的最小整数步长
+     */
+    private int subsamplingStep(int width, int height) {
+        int step = 1;
+        while ((long) ((width + step - 1) / step) * ((height + step - 1) / step) > maxImageDecodePixels) step++;
+        return step;
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.store;
+
+import com.example.model.JobPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+import static com.example.store.ColumnarCatalogWriter.*;
+
+/**
+ * 内存映射的列式岗位库(只读)
+ * <p>
+ * 打开时只解析分段表并映射各列，数据留在页缓存中不占用堆；仅字典(行业/学历/公司/技能/词项)
+ * 解码到堆内。岗位对象只在get(row)时按需物化，用于返回结果的前K个岗位。
+ * 映射在通道关闭后仍然有效，生命周期随对象被回收结束。
+ * <p>
+ * 打开时可指定技能名归一化函数：技能字典中归一化后相同的技能合并为同一个技能id，
+ * 离线构建时的技能写法不同也能与简历技能按id比较。
+ * <p>
+ * 内容标识由文件中的构建标识和归一化后的技能字典组成；没有构建标识分段的旧文件不提供内容标识。
+ */
+public class ColumnarCatalog implements JobStore {
+
+    private final Path path;
+    private final int rowCount;
+
+    private final ByteBuffer minExperience;
+    private final ByteBuffer baseSalary;
+    private final ByteBuffer industryCodes;
+    private final ByteBuffer educationCodes;
+    private final ByteBuffer companyCodes;
+    private final ByteBuffer skillOffsets;
+    private final ByteBuffer skillIdColumn;
+    private final ByteBuffer termOffsets;
+    private final ByteBuffer termIds;
+    private final ByteBuffer termWeights;
+    private final ByteBuffer stringOffsets;
+    private final ByteBuffer stringData;
+    private final ByteBuffer idSortedRows;
+
+    private final String[] industries;
+    private final String[] educations;
+    private final String[] companies;
+    private final String[] skills;
+    private final String[] terms;
+    private final Map<String, Integer> skillLookup;
+    private final int[] canonicalSkillIds;
+    private final boolean mergedSkills;
+    private final String contentId;
+
+    private ColumnarCatalog(Path path, int rowCount, Map<Integer, ByteBuffer> sections,
+                            UnaryOperator<String> skillCanonicalizer) throws IOException {
+        this.path = path;
+        this.rowCount = rowCount;
+        this.minExperience = section(sections, SECTION_MIN_EXPERIENCE);
+        this.baseSalary = section(sections, SECTION_BASE_SALARY);
+        this.industryCodes = section(sections, SECTION_INDUSTRY_CODES);
+        this.educationCodes = section(sections, SECTION_EDUCATION_CODES);
+        this.companyCodes = section(sections, SECTION_COMPANY_CODES);
+        this.skillOffsets = section(sections, SECTION_SKILL_OFFSETS);
+        this.skillIdColumn = section(sections, SECTION_SKILL_IDS);
+        this.termOffsets = section(sections, SECTION_TERM_OFFSETS);
+        this.termIds = section(sections, SECTION_TERM_IDS);
+        this.termWeights = section(sections, SECTION_TERM_WEIGHTS);
+        this.stringOffsets = section(sections, SECTION_STRING_OFFSETS);
+        this.stringData = section(sections, SECTION_STRING_DATA);
+        this.idSortedRows = section(sections, SECTION_ID_SORTED_ROWS);
+
+        this.industries = readDictionary(section(sections, SECTION_INDUSTRY_DICT));
+        this.educations = readDictionary(section(sections, SECTION_EDUCATION_DICT));
+        this.companies = readDictionary(section(sections, SECTION_COMPANY_DICT));
+        this.skills = readDictionary(section(sections, SECTION_SKILL_DICT));
+        this.terms = readDictionary(section(sections, SECTION_TERM_DICT));
+
+        Map<String, Integer> lookup = new HashMap<>(skills.length * 2);
+        this.canonicalSkillIds = new int[skills.length];
+        boolean merged = false;
+        for (int id = 0; id < skills.length; id++) {
+            skills[id] = skillCanonicalizer.apply(skills[id]);
+            Integer first = lookup.putIfAbsent(skills[id].toLowerCase(), id);
+            canonicalSkillIds[id] = first == null ? id : first;
+            merged |= first != null;
+        }
+        this.skillLookup = lookup;
+        this.mergedSkills = merged;
+        this.contentId = contentId(sections.get(SECTION_BUILD_ID), skills);
+    }
+
+    public static ColumnarCatalog open(Path path) throws IOException {
+        return open(path, UnaryOperator.identity());
+    }
+
+    public static ColumnarCatalog open(Path path, UnaryOperator<String> skillCanonicalizer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(16, channel.size()))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (head.remaining() < 16 || head.getInt() != MAGIC) {
+                throw new IOException("不是列式岗位库文件: " + path);
+            }
+            int formatVersion = head.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("不支持的列式岗位库版本: " + formatVersion);
+            }
+            int rowCount = head.getInt();
+            int sectionCount = head.getInt();
+
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 16, sectionCount * 20L)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            Map<Integer, ByteBuffer> sections = new HashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                int id = table.getInt();
+                long offset = table.getLong();
+                long length = table.getLong();
+                if (offset + length > channel.size()) {
+                    throw new IOException("列式岗位库文件已损坏(分段越界): " + path);
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                sections.put(id, mapped.order(ByteOrder.LITTLE_ENDIAN));
+            }
+            return new ColumnarCatalog(path, rowCount, sections, skillCanonicalizer);
+        }
+    }
+
+    private static String contentId(ByteBuffer buildId, String[] skills) {
+        if (buildId == null) return null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buildId.duplicate());
+            for (String skill : skills) {
+                digest.update(skill.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("内容标识计算失败", e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public JobPosition get(int row) {
+        checkRow(row);
+        JobPosition job = new JobPosition();
+        job.setId(string(row, 0));
+        job.setTitle(string(row, 1));
+        job.setDescription(string(row, 2));
+        job.setCompany(company(row));
+        job.setIndustry(industry(row));
+        job.setRequiredEducation(requiredEducation(row));
+        job.setMinExperience(minExperience(row));
+        job.setBaseSalary(baseSalary(row));
+
+        int[] ids = skillIds(row);
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) names.add(skills[id]);
+        job.setRequiredSkills(names);
+        return job;
+    }
+
+    @Override
+    public int findRow(String id) {
+        if (id == null) return -1;
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = idSortedRows.getInt(mid * 4);
+            int cmp = string(row, 0).compareTo(id);
+            if (cmp == 0) return row;
+            if (cmp < 0) low = mid + 1;
+            else high = mid - 1;
+        }
+        return -1;
+    }
+
+    @Override
+    public Integer minExperience(int row) {
+        int value = minExperience.getInt(row * 4);
+        return value < 0 ? null : value;
+    }
+
+    @Override
+    public Double baseSalary(int row) {
+        double value = baseSalary.getDouble(row * 8);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    @Override
+    public String industry(int row) {
+        return decode(industries, industryCodes.getInt(row * 4));
+    }
+
+    @Override
+    public String company(int row) {
+        return decode(companies, companyCodes.getInt(row * 4));
+    }
+
+    @Override
+    public String requiredEducation(int row) {
+        return decode(educations, educationCodes.getInt(row * 4));
+    }
+
+    @Override
+    public int[] skillIds(int row) {
+        int from = skillOffsets.getInt(row * 4);
+        int to = skillOffsets.getInt((row + 1) * 4);
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = canonicalSkillIds[skillIdColumn.getInt((from + i) * 4)];
+        }
+        // 同一岗位的多个写法归一化后可能重复
+        return mergedSkills ? Arrays.stream(ids).distinct().toArray() : ids;
+    }
+
+    @Override
+    public int lookupSkill(String skill) {
+        return skill == null ? -1 : skillLookup.getOrDefault(skill.toLowerCase(), -1);
+    }
+
+    @Override
+    public Map<String, Double> termVector(int row) {
+        int from = termOffsets.getInt(row * 4);
+        int to = termOffsets.getInt((row + 1) * 4);
+        Map<String, Double> vector = new HashMap<>((to - from) * 2);
+        for (int i = from; i < to; i++) {
+            vector.put(terms[termIds.getInt(i * 4)], (double) termWeights.getFloat(i * 4));
+        }
+        return vector;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return true;
+    }
+
+    @Override
+    public String contentId() {
+        return contentId;
+    }
+
+    private String string(int row, int field) {
+        int index = row * STRINGS_PER_ROW + field;
+        long from = stringOffsets.getLong(index * 8);
+        long to = stringOffsets.getLong((index + 1) * 8);
+        byte[] bytes = new byte[(int) (to - from)];
+        stringData.get((int) from, bytes);
+        return bytes.length == 0 && field == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row + ", 行数: " + rowCount);
+        }
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return code < 0 ? null : dictionary[code];
+    }
+
+    private static ByteBuffer section(Map<Integer, ByteBuffer> sections, int id) throws IOException {
+        ByteBuffer buffer = sections.get(id);
+        if (buffer == null) throw new IOException("列式岗位库缺少分段: " + id);
+        return buffer;
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer) {
+        int count = buffer.getInt(0);
+        int dataStart = 4 + 4 * (count + 1);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            int from = buffer.getInt(4 + 4 * i);
+            int to = buffer.getInt(4 + 4 * (i + 1));
+            byte[] bytes = new byte[to - from];
+            buffer.get(dataStart + from, bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+}
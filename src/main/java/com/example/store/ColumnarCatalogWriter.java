@@ -0,0 +1,273 @@
+package com.example.store;
+
+import com.example.model.JobPosition;
+import com.example.service.JobCatalogService;
+import com.example.vector.TermVectors;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * 列式岗位库文件离线构建工具
+ * <p>
+ * 文件格式(小端序)：头部为 魔数、格式版本、行数、分段数 及分段表(分段id, 偏移, 长度)，
+ * 之后依次为各列分段。数值列定长存放，空值以-1/NaN表示；行业/学历/公司/技能/词项做字典编码；
+ * 技能和词项向量以CSR(行偏移 + 值数组)存放；字符串列(id/标题/描述)存放于UTF-8字符串堆。
+ * 构建标识分段为其余各分段内容的SHA-256，内容相同的构建标识相同，供下游缓存(如向量索引)判断岗位库是否变化。
+ * <p>
+ * 命令行用法: ColumnarCatalogWriter &lt;岗位JSON文件&gt; &lt;输出文件&gt; [分片序号 分片总数]
+ * 指定分片时只写入归属该分片的岗位，用于分片部署。
+ */
+public final class ColumnarCatalogWriter {
+
+    static final int MAGIC = 0x4A434F4C; // "JCOL"
+    static final int FORMAT_VERSION = 1;
+
+    static final int SECTION_MIN_EXPERIENCE = 1;
+    static final int SECTION_BASE_SALARY = 2;
+    static final int SECTION_INDUSTRY_CODES = 3;
+    static final int SECTION_EDUCATION_CODES = 4;
+    static final int SECTION_COMPANY_CODES = 5;
+    static final int SECTION_SKILL_OFFSETS = 6;
+    static final int SECTION_SKILL_IDS = 7;
+    static final int SECTION_TERM_OFFSETS = 8;
+    static final int SECTION_TERM_IDS = 9;
+    static final int SECTION_TERM_WEIGHTS = 10;
+    static final int SECTION_STRING_OFFSETS = 11;
+    static final int SECTION_STRING_DATA = 12;
+    static final int SECTION_ID_SORTED_ROWS = 13;
+    static final int SECTION_INDUSTRY_DICT = 20;
+    static final int SECTION_EDUCATION_DICT = 21;
+    static final int SECTION_COMPANY_DICT = 22;
+    static final int SECTION_SKILL_DICT = 23;
+    static final int SECTION_TERM_DICT = 24;
+    static final int SECTION_BUILD_ID = 30;
+
+    // 每行在字符串堆中的字段数：id、标题、描述
+    static final int STRINGS_PER_ROW = 3;
+
+    private ColumnarCatalogWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 4) {
+            System.err.println("用法: ColumnarCatalogWriter <岗位JSON文件> <输出文件> [分片序号 分片总数]");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        List<JobPosition> jobs = new ObjectMapper().readValue(new File(args[0]), new TypeReference<List<JobPosition>>() {});
+        for (JobPosition job : jobs) {
+            if (job.getId() == null || job.getId().isBlank()) {
+                job.setId(JobCatalogService.stableId(job.getCompany(), job.getTitle()));
+            }
+        }
+        if (args.length == 4) {
+            int shardIndex = Integer.parseInt(args[2]);
+            int shardCount = Integer.parseInt(args[3]);
+            jobs.removeIf(job -> !JobCatalogService.inShard(job.getId(), shardIndex, shardCount));
+        }
+        write(jobs, Path.of(args[1]));
+        System.out.printf("列式岗位库构建完成: %s, 岗位数: %d, 耗时: %dms%n",
+                args[1], jobs.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 构建列式文件；先写临时文件再原子替换，避免读到半成品
+     */
+    public static void write(List<JobPosition> jobs, Path target) throws IOException {
+        int rows = jobs.size();
+
+        Dictionary industries = new Dictionary(false);
+        Dictionary educations = new Dictionary(false);
+        Dictionary companies = new Dictionary(false);
+        Dictionary skills = new Dictionary(true);
+        Dictionary terms = new Dictionary(false);
+
+        ByteBuffer minExperience = allocate(4L * rows);
+        ByteBuffer baseSalary = allocate(8L * rows);
+        ByteBuffer industryCodes = allocate(4L * rows);
+        ByteBuffer educationCodes = allocate(4L * rows);
+        ByteBuffer companyCodes = allocate(4L * rows);
+        ByteBuffer skillOffsets = allocate(4L * (rows + 1));
+        ByteBuffer termOffsets = allocate(4L * (rows + 1));
+        ByteBuffer stringOffsets = allocate(8L * (rows * STRINGS_PER_ROW + 1));
+        ByteArrayOutputStream skillIds = new ByteArrayOutputStream();
+        ByteArrayOutputStream termIds = new ByteArrayOutputStream();
+        ByteArrayOutputStream termWeights = new ByteArrayOutputStream();
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+
+        int skillCount = 0;
+        int termCount = 0;
+        for (int row = 0; row < rows; row++) {
+            JobPosition job = jobs.get(row);
+            List<String> jobSkills = job.getRequiredSkills() == null ? List.of() : job.getRequiredSkills();
+
+            minExperience.putInt(job.getMinExperience() == null ? -1 : job.getMinExperience());
+            baseSalary.putDouble(job.getBaseSalary() == null ? Double.NaN : job.getBaseSalary());
+            industryCodes.putInt(industries.encode(job.getIndustry()));
+            educationCodes.putInt(educations.encode(job.getRequiredEducation()));
+            companyCodes.putInt(companies.encode(job.getCompany()));
+
+            skillOffsets.putInt(skillCount);
+            for (String skill : jobSkills) {
+                writeInt(skillIds, skills.encode(skill));
+                skillCount++;
+            }
+
+            // 词项按id升序存放
+            termOffsets.putInt(termCount);
+            TreeMap<Integer, Double> vector = new TreeMap<>();
+            for (Map.Entry<String, Double> entry : TermVectors.forJob(job).entrySet()) {
+                vector.put(terms.encode(entry.getKey()), entry.getValue());
+            }
+            for (Map.Entry<Integer, Double> entry : vector.entrySet()) {
+                writeInt(termIds, entry.getKey());
+                writeInt(termWeights, Float.floatToIntBits(entry.getValue().floatValue()));
+                termCount++;
+            }
+
+            for (String value : new String[]{job.getId(), job.getTitle(), job.getDescription()}) {
+                stringOffsets.putLong(stringData.size());
+                if (value != null) stringData.write(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        skillOffsets.putInt(skillCount);
+        termOffsets.putInt(termCount);
+        stringOffsets.putLong(stringData.size());
+
+        // id排序后的行号，用于按id二分查找
+        Integer[] order = new Integer[rows];
+        for (int i = 0; i < rows; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(row -> String.valueOf(jobs.get(row).getId())));
+        ByteBuffer idSortedRows = allocate(4L * rows);
+        for (Integer row : order) idSortedRows.putInt(row);
+
+        Map<Integer, byte[]> sections = new LinkedHashMap<>();
+        sections.put(SECTION_MIN_EXPERIENCE, minExperience.array());
+        sections.put(SECTION_BASE_SALARY, baseSalary.array());
+        sections.put(SECTION_INDUSTRY_CODES, industryCodes.array());
+        sections.put(SECTION_EDUCATION_CODES, educationCodes.array());
+        sections.put(SECTION_COMPANY_CODES, companyCodes.array());
+        sections.put(SECTION_SKILL_OFFSETS, skillOffsets.array());
+        sections.put(SECTION_SKILL_IDS, skillIds.toByteArray());
+        sections.put(SECTION_TERM_OFFSETS, termOffsets.array());
+        sections.put(SECTION_TERM_IDS, termIds.toByteArray());
+        sections.put(SECTION_TERM_WEIGHTS, termWeights.toByteArray());
+        sections.put(SECTION_STRING_OFFSETS, stringOffsets.array());
+        sections.put(SECTION_STRING_DATA, stringData.toByteArray());
+        sections.put(SECTION_ID_SORTED_ROWS, idSortedRows.array());
+        sections.put(SECTION_INDUSTRY_DICT, industries.serialize());
+        sections.put(SECTION_EDUCATION_DICT, educations.serialize());
+        sections.put(SECTION_COMPANY_DICT, companies.serialize());
+        sections.put(SECTION_SKILL_DICT, skills.serialize());
+        sections.put(SECTION_TERM_DICT, terms.serialize());
+        sections.put(SECTION_BUILD_ID, buildId(sections));
+
+        Path absolute = target.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), "catalog_", ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            int headerSize = 16 + sections.size() * 20;
+            ByteBuffer header = allocate(headerSize);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(sections.size());
+            long offset = headerSize;
+            for (Map.Entry<Integer, byte[]> section : sections.entrySet()) {
+                header.putInt(section.getKey()).putLong(offset).putLong(section.getValue().length);
+                offset += section.getValue().length;
+            }
+            out.write(header.array());
+            for (byte[] data : sections.values()) {
+                out.write(data);
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] buildId(Map<Integer, byte[]> sections) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<Integer, byte[]> section : sections.entrySet()) {
+                digest.update(ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(section.getKey()).putLong(section.getValue().length).array());
+                digest.update(section.getValue());
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("构建标识计算失败", e);
+        }
+    }
+
+    private static ByteBuffer allocate(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("单个列分段超过2GB: " + size);
+        }
+        return ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    /**
+     * 字典编码：取值 -> 连续id；空值编码为-1。ignoreCase时按小写归并，保留首次出现的原始写法
+     */
+    private static final class Dictionary {
+        private final boolean ignoreCase;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary(boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+        }
+
+        int encode(String value) {
+            if (value == null) return -1;
+            String key = ignoreCase ? value.toLowerCase() : value;
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = values.size();
+                ids.put(key, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        /**
+         * 字典分段：条目数 + (条目数+1)个偏移 + UTF-8数据
+         */
+        byte[] serialize() {
+            List<byte[]> encoded = new ArrayList<>(values.size());
+            int total = 0;
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                total += bytes.length;
+            }
+            ByteBuffer buffer = allocate(4L + 4L * (values.size() + 1) + total);
+            buffer.putInt(values.size());
+            int offset = 0;
+            for (byte[] bytes : encoded) {
+                buffer.putInt(offset);
+                offset += bytes.length;
+            }
+            buffer.putInt(offset);
+            for (byte[] bytes : encoded) {
+                buffer.put(bytes);
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.store;
+
+import com.example.model.JobPosition;
+import com.example.vector.TermVectors;
+
+import java.util.*;
+
+/**
+ * 堆内岗位存储 - 直接持有岗位对象列表，技能字典和词项向量在构建时预先计算
+ */
+public class HeapJobStore implements JobStore {
+
+    private final List<JobPosition> jobs;
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private final Map<String, Integer> skillIds = new HashMap<>();
+    private final int[][] rowSkillIds;
+    private final List<Map<String, Double>> termVectors;
+
+    public HeapJobStore(List<JobPosition> jobs) {
+        this(jobs, null);
+    }
+
+    /**
+     * 基于上一版本构建：未变化的岗位对象(同一实例)复用已计算的词项向量，增量修改时不必重算全部岗位
+     */
+    public static HeapJobStore derive(HeapJobStore previous, List<JobPosition> jobs) {
+        return new HeapJobStore(jobs, previous);
+    }
+
+    private HeapJobStore(List<JobPosition> jobs, HeapJobStore previous) {
+        Map<JobPosition, Integer> previousRows = new IdentityHashMap<>();
+        if (previous != null) {
+            for (int row = 0; row < previous.jobs.size(); row++) {
+                previousRows.put(previous.jobs.get(row), row);
+            }
+        }
+
+        this.jobs = Collections.unmodifiableList(new ArrayList<>(jobs));
+        this.rowSkillIds = new int[this.jobs.size()][];
+        this.termVectors = new ArrayList<>(this.jobs.size());
+
+        for (int row = 0; row < this.jobs.size(); row++) {
+            JobPosition job = this.jobs.get(row);
+            rowsById.putIfAbsent(job.getId(), row);
+
+            List<String> skills = job.getRequiredSkills() == null ? List.of() : job.getRequiredSkills();
+            int[] ids = new int[skills.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = skillIds.computeIfAbsent(skills.get(i).toLowerCase(), k -> skillIds.size());
+            }
+            rowSkillIds[row] = ids;
+            Integer previousRow = previousRows.get(job);
+            termVectors.add(previousRow != null
+                    ? previous.termVectors.get(previousRow)
+                    : Collections.unmodifiableMap(TermVectors.forJob(job)));
+        }
+    }
+
+    public List<JobPosition> getJobs() {
+        return jobs;
+    }
+
+    @Override
+    public int size() {
+        return jobs.size();
+    }
+
+    @Override
+    public JobPosition get(int row) {
+        return jobs.get(row);
+    }
+
+    @Override
+    public int findRow(String id) {
+        return rowsById.getOrDefault(id, -1);
+    }
+
+    @Override
+    public Integer minExperience(int row) {
+        return jobs.get(row).getMinExperience();
+    }
+
+    @Override
+    public Double baseSalary(int row) {
+        return jobs.get(row).getBaseSalary();
+    }
+
+    @Override
+    public String industry(int row) {
+        return jobs.get(row).getIndustry();
+    }
+
+    @Override
+    public String company(int row) {
+        return jobs.get(row).getCompany();
+    }
+
+    @Override
+    public String requiredEducation(int row) {
+        return jobs.get(row).getRequiredEducation();
+    }
+
+    @Override
+    public int[] skillIds(int row) {
+        return rowSkillIds[row];
+    }
+
+    @Override
+    public int lookupSkill(String skill) {
+        return skill == null ? -1 : skillIds.getOrDefault(skill.toLowerCase(), -1);
+    }
+
+    @Override
+    public Map<String, Double> termVector(int row) {
+        return termVectors.get(row);
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+}
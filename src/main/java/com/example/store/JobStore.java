@@ -0,0 +1,60 @@
+package com.example.store;
+
+import com.example.model.JobPosition;
+
+import java.util.Map;
+
+/**
+ * 岗位存储 - 按行号访问岗位的各列，岗位对象仅在需要时物化
+ * <p>
+ * 技能以字典编码的技能id表示，lookupSkill对名称做忽略大小写的查找。
+ */
+public interface JobStore {
+
+    int size();
+
+    /**
+     * 物化第row行为岗位对象
+     */
+    JobPosition get(int row);
+
+    /**
+     * 按岗位id查找行号，不存在时返回-1
+     */
+    int findRow(String id);
+
+    Integer minExperience(int row);
+
+    Double baseSalary(int row);
+
+    String industry(int row);
+
+    String company(int row);
+
+    String requiredEducation(int row);
+
+    int[] skillIds(int row);
+
+    /**
+     * 技能名称对应的id，不在字典中时返回-1
+     */
+    int lookupSkill(String skill);
+
+    /**
+     * 预先计算的岗位词项向量(描述 + 技能要求)
+     */
+    Map<String, Double> termVector(int row);
+
+    /**
+     * 是否为堆外存储(大规模岗位库)；堆外存储时应避免物化全部岗位
+     */
+    boolean isOffHeap();
+
+    /**
+     * 物化岗位内容的标识：标识相同时各行物化出的岗位相同，下游缓存可据此判断岗位库是否变化而不必逐行读取。
+     * 无法低成本给出时返回null
+     */
+    default String contentId() {
+        return null;
+    }
+}
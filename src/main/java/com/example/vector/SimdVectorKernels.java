@@ -0,0 +1,52 @@
+package com.example.vector;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于jdk.incubator.vector的SIMD实现
+ * <p>
+ * 仅在运行时存在jdk.incubator.vector模块(--add-modules jdk.incubator.vector)时由VectorMath反射加载，
+ * 否则本类不会被初始化。
+ */
+final class SimdVectorKernels implements VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "simd-" + SPECIES.vectorBitSize() + "bit";
+    }
+
+    @Override
+    public double dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int lanes = SPECIES.length();
+        int i = 0;
+
+        // 两路累加器交替使用，减少FMA依赖链
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        int unrolledBound = length - (length % (2 * lanes));
+        for (; i < unrolledBound; i += 2 * lanes) {
+            FloatVector a0 = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector b0 = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            FloatVector a1 = FloatVector.fromArray(SPECIES, a, aOffset + i + lanes);
+            FloatVector b1 = FloatVector.fromArray(SPECIES, b, bOffset + i + lanes);
+            acc0 = a0.fma(b0, acc0);
+            acc1 = a1.fma(b1, acc1);
+        }
+        int loopBound = SPECIES.loopBound(length);
+        for (; i < loopBound; i += lanes) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            acc0 = va.fma(vb, acc0);
+        }
+
+        double sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+}
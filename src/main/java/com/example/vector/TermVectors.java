@@ -0,0 +1,66 @@
+package com.example.vector;
+
+import com.example.model.JobPosition;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 稀疏词项向量(简化TF-IDF)：按空白切词、过滤短词、词频L2归一化
+ */
+public final class TermVectors {
+
+    private TermVectors() {
+    }
+
+    public static Map<String, Double> compute(String text) {
+        Map<String, Double> tfidf = new HashMap<>();
+        String[] words = text.split("\\s+");
+
+        for (String word : words) {
+            if (word.length() > 2) { // 过滤短词
+                tfidf.put(word, tfidf.getOrDefault(word, 0.0) + 1.0);
+            }
+        }
+
+        // 归一化
+        double norm = Math.sqrt(tfidf.values().stream().mapToDouble(v -> v * v).sum());
+        if (norm > 0) {
+            for (String key : tfidf.keySet()) {
+                tfidf.put(key, tfidf.get(key) / norm);
+            }
+        }
+
+        return tfidf;
+    }
+
+    /**
+     * 岗位词项向量：描述 + 技能要求
+     */
+    public static Map<String, Double> forJob(JobPosition job) {
+        String description = job.getDescription() == null ? "" : job.getDescription();
+        String skills = job.getRequiredSkills() == null ? "" : String.join(" ", job.getRequiredSkills());
+        return compute(description.toLowerCase() + " " + skills.toLowerCase());
+    }
+
+    public static double cosine(Map<String, Double> vectorA, Map<String, Double> vectorB) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+
+        for (Map.Entry<String, Double> entry : vectorA.entrySet()) {
+            Double other = vectorB.get(entry.getKey());
+            if (other != null) {
+                dotProduct += entry.getValue() * other;
+            }
+            normA += entry.getValue() * entry.getValue();
+        }
+
+        for (Double value : vectorB.values()) {
+            normB += value * value;
+        }
+
+        if (normA == 0 || normB == 0) return 0.0;
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
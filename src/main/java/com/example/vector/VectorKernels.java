@@ -0,0 +1,23 @@
+package com.example.vector;
+
+/**
+ * 稠密向量计算内核 - 标量实现与SIMD实现共用的接口
+ */
+interface VectorKernels {
+
+    String name();
+
+    /**
+     * a[aOffset, aOffset+length) 与 b[bOffset, bOffset+length) 的点积
+     */
+    double dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * 查询向量与行主序矩阵每一行的点积，结果写入scores[0, rows)
+     */
+    default void dotRows(float[] query, float[] matrix, int rows, int dimension, float[] scores) {
+        for (int row = 0; row < rows; row++) {
+            scores[row] = (float) dot(query, 0, matrix, row * dimension, dimension);
+        }
+    }
+}
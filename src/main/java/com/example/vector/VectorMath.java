@@ -0,0 +1,195 @@
+package com.example.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 稠密向量运算入口：点积、余弦相似度、批量打分与Top-K
+ * <p>
+ * 运行时存在jdk.incubator.vector模块时使用SIMD内核，否则回退到标量实现；两者的一致性由VectorMathTest覆盖。
+ * 岗位矩阵按行主序连续存放在float[]或堆外FloatBuffer中(rows * dimension)，批量打分时顺序扫描。
+ */
+@Slf4j
+public final class VectorMath {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    /**
+     * 堆外矩阵每次复制到堆内的浮点数个数(64KB，留在L2缓存内)
+     */
+    private static final int BLOCK_FLOATS = 16 * 1024;
+
+    private static final VectorKernels KERNELS = selectKernels();
+
+    private static final Comparator<ScoredRow> WORST_FIRST = Comparator.comparingDouble(ScoredRow::score)
+            .thenComparing(Comparator.comparingInt(ScoredRow::row).reversed());
+
+    private VectorMath() {
+    }
+
+    public static String implementation() {
+        return KERNELS.name();
+    }
+
+    public static double dot(float[] a, float[] b) {
+        return dot(KERNELS, a, b);
+    }
+
+    static double dot(VectorKernels kernels, float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("向量维度不匹配: " + a.length + " != " + b.length);
+        }
+        return kernels.dot(a, 0, b, 0, a.length);
+    }
+
+    public static double norm(float[] a) {
+        return Math.sqrt(KERNELS.dot(a, 0, a, 0, a.length));
+    }
+
+    public static double cosine(float[] a, float[] b) {
+        return cosine(KERNELS, a, b);
+    }
+
+    static double cosine(VectorKernels kernels, float[] a, float[] b) {
+        double normA = Math.sqrt(kernels.dot(a, 0, a, 0, a.length));
+        double normB = Math.sqrt(kernels.dot(b, 0, b, 0, b.length));
+        if (normA == 0 || normB == 0) return 0.0;
+        return dot(kernels, a, b) / (normA * normB);
+    }
+
+    /**
+     * 原地L2归一化；零向量返回false
+     */
+    public static boolean normalize(float[] a) {
+        double norm = norm(a);
+        if (norm == 0) return false;
+        float inverse = (float) (1.0 / norm);
+        for (int i = 0; i < a.length; i++) {
+            a[i] *= inverse;
+        }
+        return true;
+    }
+
+    /**
+     * 查询向量与矩阵每一行的点积
+     */
+    public static float[] dotRows(float[] query, float[] matrix, int dimension) {
+        return dotRows(KERNELS, query, matrix, dimension);
+    }
+
+    static float[] dotRows(VectorKernels kernels, float[] query, float[] matrix, int dimension) {
+        int rows = checkMatrix(query, matrix, dimension);
+        float[] scores = new float[rows];
+        kernels.dotRows(query, matrix, rows, dimension, scores);
+        return scores;
+    }
+
+    /**
+     * 暴力扫描矩阵取点积最大的k行(向量已归一化时即余弦Top-K)，结果按得分降序，得分相同时行号小的在前
+     */
+    public static List<ScoredRow> topK(float[] query, float[] matrix, int dimension, int k) {
+        return topK(KERNELS, query, matrix, dimension, k);
+    }
+
+    static List<ScoredRow> topK(VectorKernels kernels, float[] query, float[] matrix, int dimension, int k) {
+        return topK(dotRows(kernels, query, matrix, dimension), k);
+    }
+
+    /**
+     * 查询向量与堆外矩阵(行主序，position为0)每一行的点积：按块复制到堆内暂存数组后批量计算，
+     * 复制是顺序内存拷贝，代价远小于点积本身
+     */
+    public static float[] dotRows(float[] query, FloatBuffer matrix, int dimension) {
+        return dotRows(KERNELS, query, matrix, dimension);
+    }
+
+    static float[] dotRows(VectorKernels kernels, float[] query, FloatBuffer matrix, int dimension) {
+        if (query.length != dimension || matrix.limit() % dimension != 0) {
+            throw new IllegalArgumentException("矩阵维度不匹配: query=" + query.length
+                    + ", matrix=" + matrix.limit() + ", dimension=" + dimension);
+        }
+        int rows = matrix.limit() / dimension;
+        float[] scores = new float[rows];
+        int blockRows = Math.max(1, BLOCK_FLOATS / dimension);
+        float[] block = new float[Math.min(rows, blockRows) * dimension];
+        float[] blockScores = new float[Math.min(rows, blockRows)];
+        for (int first = 0; first < rows; first += blockRows) {
+            int count = Math.min(blockRows, rows - first);
+            matrix.get(first * dimension, block, 0, count * dimension);
+            kernels.dotRows(query, block, count, dimension, blockScores);
+            System.arraycopy(blockScores, 0, scores, first, count);
+        }
+        return scores;
+    }
+
+    public static List<ScoredRow> topK(float[] query, FloatBuffer matrix, int dimension, int k) {
+        return topK(dotRows(KERNELS, query, matrix, dimension), k);
+    }
+
+    /**
+     * 查询向量与堆外矩阵第row行的点积
+     */
+    public static double dotRow(float[] query, FloatBuffer matrix, int row) {
+        int base = row * query.length;
+        double sum = 0.0;
+        for (int i = 0; i < query.length; i++) {
+            sum += (double) query[i] * matrix.get(base + i);
+        }
+        return sum;
+    }
+
+    /**
+     * 按得分取前k行，得分从高到低，同分时行号小的在前
+     */
+    public static List<ScoredRow> topK(float[] scores, int k) {
+        if (k <= 0) return new ArrayList<>();
+
+        // 堆顶为当前第k名：得分最低、同分时行号最大；按行号顺序扫描，同分的后来者不替换先到者
+        PriorityQueue<ScoredRow> heap = new PriorityQueue<>(k + 1, WORST_FIRST);
+        for (int row = 0; row < scores.length; row++) {
+            if (heap.size() < k) {
+                heap.offer(new ScoredRow(row, scores[row]));
+            } else if (scores[row] > heap.peek().score()) {
+                heap.poll();
+                heap.offer(new ScoredRow(row, scores[row]));
+            }
+        }
+
+        List<ScoredRow> result = new ArrayList<>(heap);
+        result.sort(WORST_FIRST.reversed());
+        return result;
+    }
+
+    private static int checkMatrix(float[] query, float[] matrix, int dimension) {
+        if (query.length != dimension || matrix.length % dimension != 0) {
+            throw new IllegalArgumentException("矩阵维度不匹配: query=" + query.length
+                    + ", matrix=" + matrix.length + ", dimension=" + dimension);
+        }
+        return matrix.length / dimension;
+    }
+
+    private static VectorKernels selectKernels() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("未加载{}模块，向量运算使用标量实现(启动参数 --add-modules {} 可启用SIMD)",
+                    VECTOR_MODULE, VECTOR_MODULE);
+            return ScalarVectorKernels.INSTANCE;
+        }
+
+        try {
+            VectorKernels simd = (VectorKernels) Class.forName("com.example.vector.SimdVectorKernels")
+                    .getDeclaredConstructor().newInstance();
+            log.info("向量运算使用SIMD实现: {}", simd.name());
+            return simd;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("SIMD向量内核加载失败，使用标量实现", e);
+            return ScalarVectorKernels.INSTANCE;
+        }
+    }
+
+    public record ScoredRow(int row, float score) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.index;
+
+import com.example.vector.VectorMath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+    private static final int SIZE = 2000;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+
+    private static float[] matrix;
+    private static float[][] queries;
+    private static HnswIndex index;
+
+    @BeforeAll
+    static void build() {
+        Random random = new Random(42);
+        matrix = new float[SIZE * DIMENSION];
+        index = new HnswIndex(DIMENSION, 16, 200, 64);
+        for (int row = 0; row < SIZE; row++) {
+            float[] vector = randomUnitVector(random);
+            System.arraycopy(vector, 0, matrix, row * DIMENSION, DIMENSION);
+            index.add(row, vector);
+        }
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) queries[i] = randomUnitVector(random);
+    }
+
+    @Test
+    void recallAgainstBruteForce() {
+        assertEquals(SIZE, index.size());
+        double recall = recall(index, 64);
+        assertTrue(recall >= 0.95, "recall@" + K + " = " + recall);
+        // efSearch越大召回越高
+        assertTrue(recall(index, 200) >= recall);
+    }
+
+    @Test
+    void searchReturnsSimilarityInDescendingOrder() {
+        List<HnswIndex.Neighbor> neighbors = index.search(queries[0], K);
+        assertEquals(K, neighbors.size());
+        for (int i = 1; i < neighbors.size(); i++) {
+            assertTrue(neighbors.get(i - 1).similarity() >= neighbors.get(i).similarity());
+        }
+        HnswIndex.Neighbor first = neighbors.get(0);
+        float[] row = new float[DIMENSION];
+        System.arraycopy(matrix, first.label() * DIMENSION, row, 0, DIMENSION);
+        assertEquals(VectorMath.dot(queries[0], row), first.similarity(), 1e-6);
+    }
+
+    @Test
+    void roundTripPreservesGraphAndParameters() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        HnswIndex restored = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.getDimension(), restored.getDimension());
+        assertEquals(index.getEfSearch(), restored.getEfSearch());
+        for (float[] query : queries) {
+            assertEquals(index.search(query, K), restored.search(query, K));
+        }
+    }
+
+    @Test
+    void deletedLabelsAreSkippedAndSurviveRoundTrip() throws IOException {
+        HnswIndex small = new HnswIndex(DIMENSION, 16, 200, 64);
+        for (int row = 0; row < 200; row++) {
+            float[] vector = new float[DIMENSION];
+            System.arraycopy(matrix, row * DIMENSION, vector, 0, DIMENSION);
+            small.add(row, vector);
+        }
+        int nearest = small.search(queries[0], 1).get(0).label();
+        small.markDeleted(nearest);
+        assertTrue(small.isDeleted(nearest));
+        assertEquals(1, small.deletedCount());
+        List<HnswIndex.Neighbor> neighbors = small.search(queries[0], K);
+        assertEquals(K, neighbors.size());
+        assertTrue(neighbors.stream().noneMatch(n -> n.label() == nearest));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        small.writeTo(new DataOutputStream(bytes));
+        HnswIndex restored = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertTrue(restored.isDeleted(nearest));
+        assertEquals(neighbors, restored.search(queries[0], K));
+    }
+
+    @Test
+    void readFromRejectsForeignData() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class,
+                () -> HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+
+    @Test
+    void emptyIndexAndDimensionMismatch() {
+        HnswIndex empty = new HnswIndex(DIMENSION, 16, 200, 64);
+        assertTrue(empty.search(queries[0], K).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.search(new float[DIMENSION + 1], K));
+        assertThrows(IllegalArgumentException.class, () -> empty.add(0, new float[DIMENSION - 1]));
+    }
+
+    private static double recall(HnswIndex index, int ef) {
+        int hits = 0;
+        for (float[] query : queries) {
+            Set<Integer> expected = new HashSet<>();
+            for (VectorMath.ScoredRow row : VectorMath.topK(query, matrix, DIMENSION, K)) expected.add(row.row());
+            for (HnswIndex.Neighbor neighbor : index.search(query, K, ef)) {
+                if (expected.contains(neighbor.label())) hits++;
+            }
+        }
+        return (double) hits / (QUERIES * K);
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) vector[i] = (float) random.nextGaussian();
+        VectorMath.normalize(vector);
+        return vector;
+    }
+}
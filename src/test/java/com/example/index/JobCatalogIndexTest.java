@@ -0,0 +1,92 @@
+package com.example.index;
+
+import com.example.model.JobFilter;
+import com.example.model.JobPosition;
+import com.example.store.HeapJobStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 3200个岗位：行业只有4个取值(位图)，公司有400个取值、每个8行(行号数组)，学历有2个取值
+ */
+class JobCatalogIndexTest {
+
+    private static final int SIZE = 3200;
+    private static final String[] INDUSTRIES = {"互联网", "金融", "制造", "教育"};
+
+    private static List<JobPosition> jobs;
+    private static JobCatalogIndex index;
+
+    @BeforeAll
+    static void build() {
+        jobs = new ArrayList<>();
+        for (int row = 0; row < SIZE; row++) {
+            JobPosition job = new JobPosition();
+            job.setId("job-" + row);
+            job.setIndustry(INDUSTRIES[row % INDUSTRIES.length]);
+            job.setCompany(row % 100 == 99 ? null : "Company " + row % 400);
+            job.setRequiredEducation(row % 3 == 0 ? "硕士" : "本科");
+            job.setMinExperience(row % 10);
+            job.setBaseSalary(10000.0 + row % 50 * 1000);
+            jobs.add(job);
+        }
+        index = new JobCatalogIndex(new HeapJobStore(jobs));
+    }
+
+    @Test
+    void sparseCompanyPostings() {
+        JobFilter filter = new JobFilter();
+        filter.setCompany(List.of("company 7", " Company 13 ", "不存在的公司"));
+        assertEquals(expected(job -> job.getCompany() != null
+                && (job.getCompany().equals("Company 7") || job.getCompany().equals("Company 13"))), index.evaluate(filter));
+    }
+
+    @Test
+    void denseAndSparsePostingsCombine() {
+        JobFilter filter = new JobFilter();
+        filter.setIndustry(List.of("金融"));
+        filter.setCompany(List.of("Company 5", "Company 9"));
+        filter.setEducation(List.of("本科"));
+        filter.setExperienceMin(3);
+        BitSet result = index.evaluate(filter);
+        assertEquals(expected(job -> job.getIndustry().equals("金融")
+                && job.getCompany() != null
+                && (job.getCompany().equals("Company 5") || job.getCompany().equals("Company 9"))
+                && job.getRequiredEducation().equals("本科")
+                && job.getMinExperience() >= 3), result);
+        assertFalse(result.isEmpty());
+    }
+
+    @Test
+    void orModeUnionsPostings() {
+        JobFilter filter = new JobFilter();
+        filter.setFilterMode("OR");
+        filter.setIndustry(List.of("教育"));
+        filter.setCompany(List.of("Company 1"));
+        filter.setSalaryMax(11000.0);
+        assertEquals(expected(job -> job.getIndustry().equals("教育")
+                || "Company 1".equals(job.getCompany())
+                || job.getBaseSalary() <= 11000.0), index.evaluate(filter));
+    }
+
+    @Test
+    void emptyFilterSelectsAllRows() {
+        assertEquals(SIZE, index.evaluate(new JobFilter()).cardinality());
+    }
+
+    private static BitSet expected(Predicate<JobPosition> predicate) {
+        BitSet rows = new BitSet(SIZE);
+        for (int row = 0; row < SIZE; row++) {
+            if (predicate.test(jobs.get(row))) rows.set(row);
+        }
+        return rows;
+    }
+}
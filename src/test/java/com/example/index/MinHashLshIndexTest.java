@@ -0,0 +1,86 @@
+package com.example.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 默认配置(128个哈希、16段 x 8行)的阈值约为0.71：Jaccard 0.9的文档应被召回，0.3的不应进入候选
+ */
+class MinHashLshIndexTest {
+
+    private static final int SET_SIZE = 100;
+    private static final int PAIRS = 20;
+
+    private final MinHashLshIndex index = new MinHashLshIndex(128, 16);
+
+    @Test
+    void thresholdFollowsBandsAndRows() {
+        assertEquals(8, index.getRows());
+        assertEquals(Math.pow(1.0 / 16, 1.0 / 8), index.approximateThreshold(), 1e-12);
+    }
+
+    @Test
+    void detectsPairsAboveThreshold() {
+        // 共享95个元素：Jaccard = 95 / 105 ≈ 0.90
+        for (int pair = 0; pair < PAIRS; pair++) {
+            MinHashLshIndex pairIndex = new MinHashLshIndex(128, 16);
+            pairIndex.add("doc", pairIndex.signature(shingles(pair, 0, SET_SIZE)));
+            int[] query = pairIndex.signature(shingles(pair, SET_SIZE - 95, SET_SIZE));
+
+            List<MinHashLshIndex.Candidate> candidates = pairIndex.query(query);
+            assertEquals(1, candidates.size(), "pair " + pair);
+            assertEquals(0.90, candidates.get(0).similarity(), 0.12, "pair " + pair);
+        }
+    }
+
+    @Test
+    void ignoresPairsBelowThreshold() {
+        // 共享46个元素：Jaccard = 46 / 154 ≈ 0.30，碰撞概率约0.1%
+        int collisions = 0;
+        for (int pair = 0; pair < PAIRS; pair++) {
+            MinHashLshIndex pairIndex = new MinHashLshIndex(128, 16);
+            pairIndex.add("doc", pairIndex.signature(shingles(pair, 0, SET_SIZE)));
+            int[] query = pairIndex.signature(shingles(pair, SET_SIZE - 46, SET_SIZE));
+            collisions += pairIndex.query(query).size();
+        }
+        assertEquals(0, collisions);
+    }
+
+    @Test
+    void estimateTracksJaccard() {
+        int[] a = index.signature(shingles(1, 0, SET_SIZE));
+        int[] b = index.signature(shingles(1, SET_SIZE - 67, SET_SIZE)); // Jaccard = 67 / 133 ≈ 0.50
+        assertEquals(0.50, index.estimateSimilarity(a, b), 0.12);
+        assertEquals(1.0, index.estimateSimilarity(a, a));
+    }
+
+    @Test
+    void removeAndReplace() {
+        int[] signature = index.signature(shingles(2, 0, SET_SIZE));
+        index.add("a", signature);
+        index.add("a", signature);
+        assertEquals(1, index.size());
+        assertEquals(1, index.query(signature).size());
+
+        index.remove("a");
+        assertEquals(0, index.size());
+        assertTrue(index.query(signature).isEmpty());
+        assertNull(index.signature(new long[0]));
+    }
+
+    /**
+     * 第set组中编号为[start, start + size)的shingle哈希：两个等大集合的start相差d时共享size - d个元素
+     */
+    private static long[] shingles(int set, int start, int size) {
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = (long) set * 1_000_003L + start + i;
+        }
+        return hashes;
+    }
+}
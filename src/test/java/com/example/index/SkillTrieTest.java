@@ -0,0 +1,85 @@
+package com.example.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * SkillTrie精确/模糊查找，以及LevenshteinAutomaton与动态规划的OSA编辑距离(相邻交换计1次)对照
+ */
+class SkillTrieTest {
+
+    private final SkillTrie trie = new SkillTrie(new LinkedHashMap<>(Map.of(
+            "java", 0, "javascript", 1, "python", 2, "abcd", 3, "abce", 4)));
+
+    @Test
+    void exactLookup() {
+        assertEquals(0, trie.get("java"));
+        assertEquals(1, trie.get("javascript"));
+        assertEquals(-1, trie.get("jav"));
+        assertEquals(-1, trie.get("javas"));
+        assertEquals(-1, trie.get("ruby"));
+    }
+
+    @Test
+    void nearestWithinBudget() {
+        assertEquals(2, trie.nearest("pyhton", 1).value());
+        assertEquals(1, trie.nearest("javscript", 1).distance());
+        assertNull(trie.nearest("pyhtno", 1));
+        assertEquals(2, trie.nearest("pyhtno", 2).distance());
+        assertEquals(0, trie.nearest("java", 2).distance());
+    }
+
+    @Test
+    void tiesGoToLexicographicallyFirstEntry() {
+        SkillTrie.Match match = trie.nearest("abcf", 1);
+        assertEquals("abcd", match.key());
+        assertEquals(3, match.value());
+    }
+
+    @Test
+    void automatonAgreesWithDynamicProgramming() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 2000; trial++) {
+            String word = randomWord(random, 1 + random.nextInt(7));
+            String candidate = randomWord(random, random.nextInt(9));
+            for (int maxEdits = 1; maxEdits <= 2; maxEdits++) {
+                LevenshteinAutomaton automaton = new LevenshteinAutomaton(word, maxEdits);
+                int[] state = automaton.start();
+                for (char c : candidate.toCharArray()) state = automaton.step(state, c);
+
+                int expected = osaDistance(word, candidate);
+                String context = word + " / " + candidate + " / " + maxEdits;
+                assertEquals(expected <= maxEdits, automaton.isMatch(state), context);
+                if (expected <= maxEdits) assertEquals(expected, automaton.distance(state), context);
+            }
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) builder.append((char) ('a' + random.nextInt(3)));
+        return builder.toString();
+    }
+
+    private static int osaDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1));
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 手工拼装的DOCX包：只含流式提取读取的部件，XML只写出被测的元素
+ */
+class DocxStreamExtractorTest {
+
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String MC = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
+    private static final DocxStreamExtractor.Limits LIMITS =
+            new DocxStreamExtractor.Limits(100, 8L << 20, 100, 64 << 10);
+
+    @Test
+    void headersBodyAndFootersInOrder() throws IOException {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        parts.put("word/footer1.xml", part("ftr", paragraph("页脚")));
+        parts.put("word/document.xml", document(paragraph("正文") + "<w:p><w:r><w:t>Java</w:t><w:tab/>"
+                + "<w:t>Spring</w:t><w:br/><w:t>Kafka</w:t></w:r></w:p>"));
+        parts.put("word/header1.xml", part("hdr", paragraph("页眉")));
+        assertEquals("页眉\n正文\nJava\tSpring\nKafka\n页脚\n", extract(parts));
+    }
+
+    @Test
+    void tableCellsAreTabSeparatedAndRowsEndLines() throws IOException {
+        String table = "<w:tbl>"
+                + "<w:tr><w:tc>" + paragraph("时间") + "</w:tc><w:tc>" + paragraph("公司") + paragraph("部门") + "</w:tc></w:tr>"
+                + "<w:tr><w:tc>" + paragraph("2021-2023") + "</w:tc><w:tc>" + paragraph("某某科技") + "</w:tc></w:tr>"
+                + "</w:tbl>";
+        String text = extract(Map.of("word/document.xml", document(table + paragraph("之后"))));
+        assertEquals("时间\t公司\n部门\n2021-2023\t某某科技\n之后\n", text);
+    }
+
+    @Test
+    void fallbackDeletedTextAndTabStopsAreSkipped() throws IOException {
+        String body = "<mc:AlternateContent>"
+                + "<mc:Choice Requires=\"wps\"><w:p><w:r><w:txbxContent>" + paragraph("文本框") + "</w:txbxContent></w:r></w:p></mc:Choice>"
+                + "<mc:Fallback><w:p><w:r><w:pict><w:txbxContent>" + paragraph("文本框") + "</w:txbxContent></w:pict></w:r></w:p></mc:Fallback>"
+                + "</mc:AlternateContent>"
+                + "<w:p><w:pPr><w:tabs><w:tab w:val=\"left\" w:pos=\"720\"/></w:tabs></w:pPr>"
+                + "<w:del><w:r><w:delText>删除的</w:delText></w:r></w:del>"
+                + "<w:ins><w:r><w:t>新增的</w:t></w:r></w:ins></w:p>";
+        assertEquals("文本框\n\n新增的\n", extract(Map.of("word/document.xml", document(body))));
+    }
+
+    @Test
+    void altChunkAndMissingBodyRequireObjectModel() {
+        Map<String, byte[]> altChunk = new LinkedHashMap<>();
+        altChunk.put("word/document.xml", document(paragraph("正文") + "<w:altChunk r:id=\"rId9\"/>"));
+        altChunk.put("word/afchunk.mht", "<html>嵌入内容</html>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(DocxStreamExtractor.UnsupportedDocumentException.class, () -> extract(altChunk));
+
+        assertThrows(DocxStreamExtractor.UnsupportedDocumentException.class,
+                () -> extract(Map.of("word/header1.xml", part("hdr", paragraph("页眉")))));
+    }
+
+    @Test
+    void highlyCompressibleEntryExceedsInflateRatio() {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        parts.put("word/document.xml", document(paragraph("正文")));
+        parts.put("word/media/image1.png", new byte[4 << 20]);
+        UploadLimitExceededException e = assertThrows(UploadLimitExceededException.class, () -> extract(parts));
+        assertTrue(e.getMessage().contains("压缩比"), e.getMessage());
+    }
+
+    @Test
+    void inflatedTotalCountsSkippedMedia() throws IOException {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        parts.put("word/document.xml", document(paragraph("正文")));
+        parts.put("word/media/image1.png", random(3 << 20));
+        // 不可压缩的媒体不触发压缩比，但解压总量计入上限
+        assertEquals("正文\n", extract(parts));
+        parts.put("word/media/image2.png", random(6 << 20));
+        UploadLimitExceededException e = assertThrows(UploadLimitExceededException.class, () -> extract(parts));
+        assertTrue(e.getMessage().contains("解压后大小"), e.getMessage());
+    }
+
+    @Test
+    void entryCountLimit() {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        parts.put("word/document.xml", document(paragraph("正文")));
+        for (int i = 0; i < LIMITS.maxEntries(); i++) {
+            parts.put("word/media/image" + i + ".png", new byte[16]);
+        }
+        UploadLimitExceededException e = assertThrows(UploadLimitExceededException.class, () -> extract(parts));
+        assertTrue(e.getMessage().contains("条目数"), e.getMessage());
+    }
+
+    @Test
+    void budgetIsCheckedBeforeAltChunkFallback() {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        parts.put("word/document.xml", document("<w:altChunk r:id=\"rId9\"/>"));
+        parts.put("word/media/image1.png", new byte[4 << 20]);
+        assertThrows(UploadLimitExceededException.class, () -> extract(parts));
+    }
+
+    static String extract(Map<String, byte[]> parts) throws IOException {
+        return DocxStreamExtractor.extract(new ByteArrayInputStream(zip(parts)), LIMITS);
+    }
+
+    static byte[] zip(Map<String, byte[]> parts) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> part : parts.entrySet()) {
+                zip.putNextEntry(new ZipEntry(part.getKey()));
+                zip.write(part.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] document(String body) {
+        return part("document", "<w:body>" + body + "</w:body>");
+    }
+
+    static String paragraph(String text) {
+        return "<w:p><w:r><w:t>" + text + "</w:t></w:r></w:p>";
+    }
+
+    private static byte[] part(String root, String content) {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<w:" + root + " xmlns:w=\"" + W + "\" xmlns:mc=\"" + MC + "\""
+                + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                + content + "</w:" + root + ">";
+        return xml.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+}
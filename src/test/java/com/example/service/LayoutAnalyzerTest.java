@@ -0,0 +1,129 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 合成的150dpi二值页面(1240x1754，网格5像素)：每个字画成"工"字形的笔画，汉字宽一个字号，其他字符和空格宽半个字号
+ */
+class LayoutAnalyzerTest {
+
+    private static final int WIDTH = 1240;
+    private static final int HEIGHT = 1754;
+    private static final int FONT = 24;
+    private static final int PITCH = 40;
+
+    @Test
+    void twoColumnPageReadsLeftColumnFirst() {
+        BufferedImage page = blankPage();
+        Graphics2D g = page.createGraphics();
+        String[] sidebar = {"张三", "Java工程师", "电话 13800000000", "邮箱 zs@example.com", "技能", "Spring Boot"};
+        for (int i = 0; i < sidebar.length; i++) {
+            draw(g, sidebar[i], 60, 100 + i * PITCH);
+        }
+        // 正文与侧栏从同一高度、以相同行距排版，前6行与侧栏对齐
+        for (int i = 0; i < 20; i++) {
+            draw(g, (i % 5 == 0 ? "工作经历 " : "负责订单系统开发 ") + i, 520, 100 + i * PITCH);
+        }
+        g.dispose();
+
+        List<Rectangle> blocks = LayoutAnalyzer.findTextBlocks(page);
+        int gutter = 470;
+        assertTrue(blocks.size() >= 2, blocks.toString());
+        boolean right = false;
+        for (Rectangle block : blocks) {
+            // 文本块不跨越栏间空白，左栏的块都排在右栏之前
+            assertTrue(block.x + block.width <= gutter || block.x >= gutter, block.toString());
+            if (block.x >= gutter) right = true;
+            else assertTrue(!right, "左栏文本块出现在右栏之后: " + blocks);
+        }
+        assertTrue(right, blocks.toString());
+    }
+
+    @Test
+    void tableRowsStayWhole() {
+        BufferedImage page = blankPage();
+        Graphics2D g = page.createGraphics();
+        String[][] rows = {
+                {"2019.03-2021.06", "某某科技公司", "Java工程师"},
+                {"2021.07-2022.12", "某某集团", "高级开发工程师"},
+                {"2023.01-至今", "某某银行", "架构师"}};
+        // 按制表位对齐，列间空白超过3个行高
+        int[] tabs = {80, 420, 760};
+        for (int row = 0; row < rows.length; row++) {
+            for (int column = 0; column < tabs.length; column++) {
+                draw(g, rows[row][column], tabs[column], 200 + row * PITCH);
+            }
+        }
+        g.dispose();
+
+        List<Rectangle> blocks = LayoutAnalyzer.findTextBlocks(page);
+        assertEquals(1, blocks.size(), blocks.toString());
+        assertTrue(blocks.get(0).contains(new Rectangle(80, 200 - FONT, 760 - 80, 2 * PITCH + FONT)), blocks.toString());
+    }
+
+    @Test
+    void labelValueAndSpacedRowsAreNotColumns() {
+        BufferedImage page = blankPage();
+        Graphics2D g = page.createGraphics();
+        String[] lines = {"姓名    张三", "2019.03-2021.06   某某科技公司   Java工程师"};
+        for (int i = 0; i < lines.length; i++) {
+            draw(g, lines[i], 80, 200 + i * 200);
+        }
+        g.dispose();
+
+        // 每行整行作为一个文本块
+        List<Rectangle> blocks = LayoutAnalyzer.findTextBlocks(page);
+        assertEquals(lines.length, blocks.size(), blocks.toString());
+        for (int i = 0; i < lines.length; i++) {
+            Rectangle line = new Rectangle(80, 200 + i * 200 - FONT, advance(lines[i]), FONT);
+            assertTrue(blocks.get(i).contains(line), blocks.toString());
+        }
+    }
+
+    @Test
+    void blankPageHasNoBlocks() {
+        assertTrue(LayoutAnalyzer.findTextBlocks(blankPage()).isEmpty());
+    }
+
+    private static BufferedImage blankPage() {
+        BufferedImage page = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D g = page.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.dispose();
+        return page;
+    }
+
+    /**
+     * 从(x, baseline - 字号)开始画一行字
+     */
+    private static void draw(Graphics2D g, String text, int x, int baseline) {
+        int stroke = FONT / 8;
+        int top = baseline - FONT;
+        g.setColor(Color.BLACK);
+        for (char c : text.toCharArray()) {
+            int width = advance(String.valueOf(c));
+            if (c != ' ') {
+                g.fillRect(x, top, width - stroke, stroke);
+                g.fillRect(x, baseline - stroke, width - stroke, stroke);
+                g.fillRect(x + (width - stroke) / 2 - stroke / 2, top, stroke, FONT);
+            }
+            x += width;
+        }
+    }
+
+    private static int advance(String text) {
+        int width = 0;
+        for (char c : text.toCharArray()) {
+            width += Character.isIdeographic(c) ? FONT : FONT / 2;
+        }
+        return width;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.service;
+
+import com.example.model.ParsedResume;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResumeSegmenterTest {
+
+    private final ResumeSegmenter segmenter = new ResumeSegmenter(new SkillNormalizer("", true, 7, 9, 10000));
+
+    @Test
+    void chineseHeadings() {
+        ParsedResume resume = segment("""
+                张三
+                工作经历
+                2019.03-2021.06 某某科技公司 Java工程师
+                负责订单系统开发，使用Spring Boot和MySQL
+                某某集团
+                2021年7月 - 2022年12月 高级开发工程师
+                教育背景
+                2015.09-2019.06 某某大学 计算机科学与技术 本科
+                证书
+                PMP、软考高级
+                """);
+
+        List<ParsedResume.WorkExperience> works = resume.getWorkExperiences();
+        assertEquals(2, works.size());
+        assertEquals("某某科技公司", works.get(0).getCompany());
+        assertEquals("Java工程师", works.get(0).getPosition());
+        assertEquals("2019.03-2021.06", works.get(0).getDuration());
+        assertEquals("负责订单系统开发，使用Spring Boot和MySQL", works.get(0).getDescription());
+        assertTrue(works.get(0).getTechnologies().containsAll(List.of("Java", "Spring Boot", "MySQL")));
+        // 公司名单独占一行时从上一条的描述中移到下一条记录
+        assertEquals("某某集团", works.get(1).getCompany());
+        assertEquals("高级开发工程师", works.get(1).getPosition());
+
+        ParsedResume.Education education = resume.getEducations().get(0);
+        assertEquals("某某大学", education.getInstitution());
+        assertEquals("本科", education.getDegree());
+        assertEquals("计算机科学与技术", education.getMajor());
+        assertEquals("2015.09-2019.06", education.getPeriod());
+
+        assertEquals(List.of("PMP", "软考高级"), resume.getCertifications());
+        // 2019.03-2021.06共28个月，2021.07-2022.12共18个月
+        assertEquals(3, years(resume));
+    }
+
+    @Test
+    void englishHeadings() {
+        ParsedResume resume = segment("""
+                John Smith
+                WORK EXPERIENCE
+                Jan 2018 - Dec 2020 | Acme Inc | Software Engineer
+                Built data pipelines with Python and Docker
+                EDUCATION
+                2012 - 2016  Stanford University  B.S. Computer Science
+                Certifications
+                AWS Certified Solutions Architect
+                """);
+
+        ParsedResume.WorkExperience work = resume.getWorkExperiences().get(0);
+        assertEquals("Acme Inc", work.getCompany());
+        assertEquals("Software Engineer", work.getPosition());
+        assertTrue(work.getTechnologies().containsAll(List.of("Python", "Docker")));
+
+        ParsedResume.Education education = resume.getEducations().get(0);
+        assertEquals("Stanford University", education.getInstitution());
+        assertEquals("B.S.", education.getDegree());
+        assertEquals("Computer Science", education.getMajor());
+
+        assertEquals(List.of("AWS Certified Solutions Architect"), resume.getCertifications());
+        assertEquals(3, years(resume));
+    }
+
+    @Test
+    void numberedAndBilingualHeadings() {
+        ParsedResume resume = segment("""
+                一、工作经历 Work Experience
+                2016.01-2018.12 某某科技公司 开发工程师
+                二、项目经历
+                2017.01-2017.06 订单系统重构
+                """);
+
+        assertEquals(1, resume.getWorkExperiences().size());
+        // 项目时间不计入工作年限
+        assertEquals(3, years(resume));
+    }
+
+    @Test
+    void overlappingSpansCountOnce() {
+        ParsedResume resume = segment("""
+                工作经历
+                2015.01-2018.12 某某科技公司 开发工程师
+                2017.01-2019.12 某某银行 兼职顾问
+                """);
+
+        assertEquals(2, resume.getWorkExperiences().size());
+        // 并集2015.01-2019.12共60个月，而不是48 + 36个月
+        assertEquals(5, years(resume));
+    }
+
+    @Test
+    void presentEndsAtCurrentMonth() {
+        ParsedResume chinese = segment("""
+                工作经历
+                2020.01-至今 某某科技公司 开发工程师
+                """);
+        ParsedResume english = segment("""
+                Experience
+                Mar 2020 - Present  Acme Corp  Developer
+                """);
+
+        YearMonth now = YearMonth.now();
+        int months = (now.getYear() - 2020) * 12 + now.getMonthValue();
+        assertEquals(months / 12, years(chinese));
+        assertEquals((months - 2) / 12, years(english));
+    }
+
+    @Test
+    void yearOnlyRangesCountWholeYears() {
+        ParsedResume resume = segment("""
+                工作经历
+                2016-2019 某某科技公司 开发工程师
+                2019年-2021年 某某集团 架构师
+                """);
+
+        assertEquals(2, resume.getWorkExperiences().size());
+        assertEquals(5, years(resume));
+    }
+
+    @Test
+    void headlessResumeUsesCompanyAndSchoolHints() {
+        ParsedResume resume = segment("""
+                李四 13800000000
+                2014.09-2018.06 某某大学 软件工程 本科
+                2018.07-2020.06 某某科技有限公司 后端工程师
+                """);
+
+        assertEquals("某某大学", resume.getEducations().get(0).getInstitution());
+        assertEquals("某某科技有限公司", resume.getWorkExperiences().get(0).getCompany());
+        assertEquals(2, years(resume));
+    }
+
+    @Test
+    void statedYearsWhenNoWorkSpans() {
+        assertEquals(5, years(segment("个人简介\n5年以上Java开发经验，熟悉分布式系统")));
+        assertEquals(3, years(segment("三年工作经验")));
+        assertEquals(10, years(segment("十年软件研发经历")));
+        assertEquals(8, years(segment("Summary\n8+ years of software engineering experience")));
+    }
+
+    @Test
+    void statedYearsIgnoreCalendarYears() {
+        // "2015年"的末两位不是年限
+        assertEquals(0, years(segment("2015年开始工作经历")));
+        assertEquals(0, years(segment("Since 2012 years experience in retail")));
+        assertEquals(4, years(segment("2015年毕业，4年后端开发经验")));
+    }
+
+    @Test
+    void workSpansTakePrecedenceOverStatedYears() {
+        ParsedResume resume = segment("""
+                自我评价
+                10年开发经验
+                工作经历
+                2018.01-2019.12 某某科技公司 开发工程师
+                """);
+        assertEquals(2, years(resume));
+    }
+
+    @Test
+    void inlineCertificationsAndEmptyContent() {
+        ParsedResume resume = segment("证书：CET-6，PMP；软考中级");
+        assertEquals(List.of("CET-6", "PMP", "软考中级"), resume.getCertifications());
+
+        ParsedResume empty = segment(null);
+        assertTrue(empty.getWorkExperiences().isEmpty());
+        assertTrue(empty.getEducations().isEmpty());
+        assertEquals(0, years(empty));
+    }
+
+    @Test
+    void dateLinesInsideProjectsAreNotWork() {
+        ParsedResume resume = segment("""
+                项目经历
+                2019.01-2019.06 某某科技公司订单系统
+                """);
+        assertTrue(resume.getWorkExperiences().isEmpty());
+        assertTrue(resume.getEducations().isEmpty());
+    }
+
+    private ParsedResume segment(String content) {
+        ParsedResume resume = new ParsedResume();
+        segmenter.segment(content, resume);
+        return resume;
+    }
+
+    private static int years(ParsedResume resume) {
+        return resume.getPersonalInfo().getYearsOfExperience();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 合成的页面副本(1000x1400，墨迹为0)：拉丁字母用DejaVu Sans绘制，环境中没有中文字体，
+ * 汉字画成占满字框的方块字形，各字的横画位置不同，部分字带有位于左侧中部的"口"字旁
+ */
+class ScriptDetectorTest {
+
+    private static final int SIZE = 20;
+    private static final int PITCH = 40;
+    private static final String HAN = "熟悉分布式系统设计负责订单平台的架构和开发工作";
+
+    @Test
+    void chineseOnlyPageUsesChiSim() {
+        ScriptDetector.Detection detection = detect(HAN, HAN, HAN, HAN, HAN);
+        assertEquals(OcrEngine.CHINESE, detection.language(), detection.toString());
+        assertEquals(0, detection.latinWords());
+    }
+
+    @Test
+    void inlineEnglishInChineseLineUsesCombinedModel() {
+        String[] lines = new String[20];
+        Arrays.fill(lines, HAN);
+        lines[7] = "熟悉Java/Spring Boot/MySQL" + HAN;
+        ScriptDetector.Detection detection = detect(lines);
+        // 夹带英文的一行按投影仍是汉字行，拉丁字母行占比不超过chinese-share
+        assertTrue(detection.latinShare() <= 0.05, detection.toString());
+        assertTrue(detection.latinWords() > 0, detection.toString());
+        assertEquals(OcrEngine.DEFAULT_LANGUAGE, detection.language(), detection.toString());
+    }
+
+    @Test
+    void englishPageUsesEng() {
+        String line = "Designed and operated payment services with Java and Kafka";
+        ScriptDetector.Detection detection = detect(line, line, line, line, line);
+        assertEquals(OcrEngine.ENGLISH, detection.language(), detection.toString());
+    }
+
+    @Test
+    void tooFewLinesFallBackToCombinedModel() {
+        ScriptDetector.Detection detection = detect(HAN);
+        assertEquals(OcrEngine.DEFAULT_LANGUAGE, detection.language());
+        assertTrue(Double.isNaN(detection.latinShare()));
+    }
+
+    private static ScriptDetector.Detection detect(String... lines) {
+        BufferedImage page = new BufferedImage(1000, 1400, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = page.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, page.getWidth(), page.getHeight());
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, SIZE));
+        for (int i = 0; i < lines.length; i++) {
+            drawLine(g, lines[i], 80, 120 + i * PITCH);
+        }
+        g.dispose();
+        return ScriptDetector.detect(page, 0.85, 0.05);
+    }
+
+    private static void drawLine(Graphics2D g, String text, int x, int baseline) {
+        FontMetrics metrics = g.getFontMetrics();
+        for (char c : text.toCharArray()) {
+            if (Character.isIdeographic(c)) {
+                drawHan(g, c, x, baseline);
+                x += SIZE + 2;
+            } else {
+                g.drawString(String.valueOf(c), x, baseline);
+                x += metrics.charWidth(c);
+            }
+        }
+    }
+
+    /**
+     * 字框从基线上方SIZE - 1像素到基线下方1像素，与拉丁字母的x高度之比约为0.55
+     */
+    private static void drawHan(Graphics2D g, char c, int x, int baseline) {
+        int top = baseline - SIZE + 1;
+        int stroke = 2;
+        g.fillRect(x + SIZE - 4, top, stroke, SIZE);
+        for (int bar = 0; bar < 4; bar++) {
+            int y = top + (c * 7 + bar * 5) % (SIZE - stroke);
+            g.fillRect(x + SIZE / 2 - 2, y, SIZE / 2, stroke);
+        }
+        if (c % 3 == 0) {
+            // 左侧中部的"口"字旁：上方没有笔画，但底部不在基线上
+            g.drawRect(x, top + SIZE * 3 / 10, SIZE / 3, SIZE * 2 / 5);
+            g.fillRect(x + SIZE / 2 - 2, top, stroke, SIZE);
+        } else {
+            g.fillRect(x, top, stroke, SIZE);
+            for (int bar = 0; bar < 3; bar++) {
+                g.fillRect(x, top + (c * 3 + bar * 7) % (SIZE - stroke), SIZE / 2, stroke);
+            }
+        }
+    }
+}
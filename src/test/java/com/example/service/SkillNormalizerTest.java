@@ -0,0 +1,109 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 使用内置别名表(skills/skill-aliases.txt)、常见词表和默认模糊匹配参数：7个字符以上才做模糊匹配，9个字符以上允许2处编辑
+ */
+class SkillNormalizerTest {
+
+    private final SkillNormalizer normalizer = new SkillNormalizer("", true, 7, 9, 10000);
+
+    @Test
+    void resolvesAliasesIgnoringCaseSeparatorsAndWidth() {
+        assertEquals("Kubernetes", normalizer.canonicalize("k8s"));
+        assertEquals("Spring Boot", normalizer.canonicalize("Spring-Boot"));
+        assertEquals("Spring Boot", normalizer.canonicalize("springboot"));
+        assertEquals("JavaScript", normalizer.canonicalize("ES6"));
+        assertEquals("Java", normalizer.canonicalize("ＪＡＶＡ"));
+        assertEquals("微服务", normalizer.canonicalize("Micro-Services"));
+    }
+
+    @Test
+    void unknownSkillsAreKeptAsWritten() {
+        assertEquals("Erlang", normalizer.canonicalize("  Erlang "));
+        assertEquals(normalizer.canonicalKey("Node JS"), normalizer.canonicalKey("node-js"));
+    }
+
+    @Test
+    void canonicalizeListDropsDuplicatesInOrder() {
+        assertEquals(List.of("JavaScript", "Docker"),
+                normalizer.canonicalize(List.of("js", "Docker", "JavaScript", "ES6", " ", "dockerfile")));
+    }
+
+    @Test
+    void fuzzyMatchStartsAtMinimumLength() {
+        assertEquals("Python", normalizer.canonicalize("pytthon"));  // 7个字符，1处插入
+        assertEquals("MySQL", normalizer.canonicalize("mariadv"));
+        assertEquals("pythn", normalizer.canonicalize("pythn"));      // 6个字符以下不做模糊匹配
+        assertEquals("dokcer", normalizer.canonicalize("dokcer"));
+    }
+
+    @Test
+    void transpositionCountsAsOneEdit() {
+        assertEquals("JavaScript", normalizer.canonicalize("javsacript"));
+        assertEquals("Kubernetes", normalizer.canonicalize("kubrenetes"));
+    }
+
+    @Test
+    void twoEditsOnlyFromTwoEditLength() {
+        // 9个字符：删除一个e并交换末尾两个字符，共2处编辑
+        assertEquals("Kubernetes", normalizer.canonicalize("kubrnetse"));
+        // 8个字符：删除两个e，只允许1处编辑
+        assertEquals("kbrnetes", normalizer.canonicalize("kbrnetes"));
+        // 7个字符：2处替换
+        assertEquals("pyxxhon", normalizer.canonicalize("pyxxhon"));
+    }
+
+    @Test
+    void ordinaryWordsAreNotSkills() {
+        assertEquals("string", normalizer.canonicalize("string"));
+        assertEquals("redact", normalizer.canonicalize("redact"));
+        assertEquals("MSSQL", normalizer.canonicalize("MSSQL"));
+        // 达到最小长度的常见词同样不做模糊匹配
+        assertEquals("springs", normalizer.canonicalize("springs"));
+        assertEquals("reacted", normalizer.canonicalize("reacted"));
+        assertEquals("distributor", normalizer.canonicalize("distributor"));
+        assertEquals(List.of(), normalizer.extractSkills("熟练 String 处理，熟悉 MSSQL, redact 敏感数据"));
+        assertEquals(List.of("Java"), normalizer.extractSkills("Java strings and streams"));
+    }
+
+    @Test
+    void exclusionsAreNeverFuzzyMatched() {
+        assertEquals("sprint", normalizer.canonicalize("sprint"));
+        assertEquals("reach", normalizer.canonicalize("reach"));
+        assertEquals("Grade", normalizer.canonicalize("Grade"));   // 不会被纠正为Gradle
+        // 排除只影响模糊匹配，不影响精确命中
+        assertEquals("Spring", normalizer.canonicalize("spring"));
+    }
+
+    @Test
+    void extractsIdeographicSkillsBySubstring() {
+        assertEquals(List.of("微服务", "分布式", "多线程"),
+                normalizer.extractSkills("熟悉微服务架构和分布 式系统，掌握多线程编程"));
+    }
+
+    @Test
+    void extractsInlineEnglishFromChineseText() {
+        assertEquals(List.of("Java", "Spring", "Spring Boot", "MySQL"),
+                normalizer.extractSkills("熟悉Java/Spring Boot/MySQL开发"));
+    }
+
+    @Test
+    void splitsTokensOnSeparators() {
+        // "Vue.js"切分为vue和js两个词：整体"vuejs"命中Vue，单独的js又是JavaScript的别名
+        assertEquals(List.of("JavaScript", "Vue"), normalizer.extractSkills("Vue.js"));
+        assertEquals(List.of("Docker", "Kubernetes"), normalizer.extractSkills("部署: docker compose + k8s"));
+    }
+
+    @Test
+    void fuzzyDisabledOnlyMatchesAliases() {
+        SkillNormalizer exact = new SkillNormalizer("", false, 7, 9, 10000);
+        assertEquals("pyhton", exact.canonicalize("pyhton"));
+        assertEquals("Kubernetes", exact.canonicalize("kube"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ZipSecureFile的上限是进程级设置，每个用例各自创建UploadResourceGuard
+ */
+class UploadResourceGuardTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void largeImageIsSubsampledBelowDecodeLimit() throws IOException {
+        UploadResourceGuard guard = guard(10_000_000, 100_000, 2000, 50, 200_000);
+        BufferedImage image = guard.readImage(png(1001, 999));
+        long pixels = (long) image.getWidth() * image.getHeight();
+        assertTrue(pixels <= 100_000, image.getWidth() + "x" + image.getHeight());
+        // 步长取满足上限的最小值：3得到334x333，超过上限
+        assertEquals(251, image.getWidth());
+        assertEquals(250, image.getHeight());
+        assertEquals(1L, guard.getStats().get("imagesSubsampled"));
+
+        BufferedImage small = guard.readImage(png(300, 200));
+        assertEquals(300, small.getWidth());
+        assertEquals(1L, guard.getStats().get("imagesSubsampled"));
+    }
+
+    @Test
+    void imageOverSourceLimitIsRejectedBeforeDecoding() throws IOException {
+        UploadResourceGuard guard = guard(500_000, 100_000, 2000, 50, 200_000);
+        File file = png(1000, 600);
+        assertThrows(UploadLimitExceededException.class, () -> guard.readImage(file));
+        assertEquals(1L, guard.getStats().get("imageRejections"));
+    }
+
+    @Test
+    void pdfPageAndObjectLimits() throws IOException {
+        byte[] pdf = pdf(3);
+        try (PDDocument document = guard(10_000_000, 100_000, 2000, 3, 200_000).loadPdf(pdf)) {
+            assertEquals(3, document.getNumberOfPages());
+        }
+
+        UploadResourceGuard pages = guard(10_000_000, 100_000, 2000, 2, 200_000);
+        UploadLimitExceededException e = assertThrows(UploadLimitExceededException.class, () -> pages.loadPdf(pdf));
+        assertTrue(e.getMessage().contains("页数"), e.getMessage());
+        assertEquals(1L, pages.getStats().get("pdfRejections"));
+
+        UploadResourceGuard objects = guard(10_000_000, 100_000, 2000, 50, 4);
+        e = assertThrows(UploadLimitExceededException.class, () -> objects.loadPdf(pdf));
+        assertTrue(e.getMessage().contains("对象数"), e.getMessage());
+    }
+
+    @Test
+    void rejectedDocxDoesNotFallBackToXwpf() throws IOException {
+        UploadResourceGuard guard = guard(10_000_000, 100_000, 5, 50, 200_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResumeParserService parser = parser(guard, registry);
+
+        Map<String, byte[]> parts = unzip(docx("张三 Java工程师"));
+        for (int i = 0; i < 5; i++) {
+            parts.put("word/media/image" + i + ".png", new byte[16]);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "resume.docx", null, DocxStreamExtractorTest.zip(parts));
+        assertThrows(UploadLimitExceededException.class, () -> parser.parseResume(file));
+        assertEquals(1L, guard.getStats().get("docxRejections"));
+        assertNull(registry.find(PipelineMetrics.STAGE_TIMER).tag("stage", "docx.xwpf-fallback").timer());
+    }
+
+    @Test
+    void altChunkDocxFallsBackToXwpf() throws IOException {
+        UploadResourceGuard guard = guard(10_000_000, 100_000, 2000, 50, 200_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResumeParserService parser = parser(guard, registry);
+
+        Map<String, byte[]> parts = unzip(docx("张三 Java工程师"));
+        String document = new String(parts.get("word/document.xml"), StandardCharsets.UTF_8);
+        String altChunk = "<w:altChunk xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\" r:id=\"rId99\"/>";
+        parts.put("word/document.xml", document.replace("</w:body>", altChunk + "</w:body>").getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile file = new MockMultipartFile("file", "resume.docx", null, DocxStreamExtractorTest.zip(parts));
+        assertTrue(parser.parseResume(file).getRawText().contains("Java工程师"));
+        assertNotNull(registry.find(PipelineMetrics.STAGE_TIMER).tag("stage", "docx.xwpf-fallback").timer());
+        assertEquals(0L, guard.getStats().get("docxRejections"));
+    }
+
+    private static UploadResourceGuard guard(long sourcePixels, long decodePixels, int docxEntries,
+                                             int pdfPages, int pdfObjects) {
+        return new UploadResourceGuard(sourcePixels, decodePixels, docxEntries, 200L << 20, 100,
+                pdfPages, pdfObjects, 64L << 20);
+    }
+
+    private static ResumeParserService parser(UploadResourceGuard guard, SimpleMeterRegistry registry) {
+        SkillNormalizer normalizer = new SkillNormalizer("", true, 7, 9, 10000);
+        return new ResumeParserService(normalizer, new ResumeSegmenter(normalizer), guard, new PipelineMetrics(registry));
+    }
+
+    private File png(int width, int height) throws IOException {
+        File file = tempDir.resolve(width + "x" + height + ".png").toFile();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY), "png", file);
+        return file;
+    }
+
+    private static byte[] pdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) document.addPage(new PDPage());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            document.save(bytes);
+            return bytes.toByteArray();
+        }
+    }
+
+    private static byte[] docx(String text) throws IOException {
+        try (XWPFDocument document = new XWPFDocument()) {
+            document.createParagraph().createRun().setText(text);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            document.write(bytes);
+            return bytes.toByteArray();
+        }
+    }
+
+    private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                parts.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.vector;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * SIMD内核与标量参考实现的一致性：长度不是向量通道数的整数倍、行偏移不为零、Top-K同分
+ */
+class VectorMathTest {
+
+    private static final double TOLERANCE = 1e-5;
+    private static final int[] LENGTHS = {1, 3, 7, 8, 15, 16, 17, 31, 33, 64, 100, 257, 300};
+
+    private static VectorKernels simd;
+    private static final VectorKernels scalar = ScalarVectorKernels.INSTANCE;
+
+    @BeforeAll
+    static void loadSimd() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "未加载jdk.incubator.vector模块");
+        simd = new SimdVectorKernels();
+    }
+
+    @Test
+    void dotMatchesScalarForAnyLengthAndOffset() {
+        Random random = new Random(7);
+        for (int length : LENGTHS) {
+            for (int aOffset : new int[]{0, 1, 5}) {
+                int bOffset = 3;
+                float[] a = gaussian(random, aOffset + length + 2);
+                float[] b = gaussian(random, bOffset + length);
+
+                double expected = scalar.dot(a, aOffset, b, bOffset, length);
+                double actual = simd.dot(a, aOffset, b, bOffset, length);
+                double scale = Math.sqrt(scalar.dot(a, aOffset, a, aOffset, length)
+                        * scalar.dot(b, bOffset, b, bOffset, length));
+                assertEquals(expected, actual, TOLERANCE * scale, "length=" + length + ", offset=" + aOffset);
+            }
+        }
+    }
+
+    @Test
+    void dotRowsMatchesScalarAtEveryRowOffset() {
+        Random random = new Random(11);
+        for (int dimension : LENGTHS) {
+            int rows = 9;
+            float[] query = normalized(random, dimension);
+            float[] matrix = new float[rows * dimension];
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(normalized(random, dimension), 0, matrix, row * dimension, dimension);
+            }
+
+            float[] expected = VectorMath.dotRows(scalar, query, matrix, dimension);
+            float[] actual = VectorMath.dotRows(simd, query, matrix, dimension);
+            for (int row = 0; row < rows; row++) {
+                assertEquals(expected[row], actual[row], TOLERANCE, "dimension=" + dimension + ", row=" + row);
+            }
+        }
+    }
+
+    @Test
+    void offHeapMatrixMatchesArray() {
+        Random random = new Random(19);
+        int dimension = 37;
+        int rows = 1000; // 超过一个复制块(16K个浮点数)
+        float[] query = normalized(random, dimension);
+        float[] matrix = new float[rows * dimension];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(normalized(random, dimension), 0, matrix, row * dimension, dimension);
+        }
+        FloatBuffer offHeap = ByteBuffer.allocateDirect(matrix.length * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer().put(matrix).flip();
+
+        float[] expected = VectorMath.dotRows(scalar, query, matrix, dimension);
+        float[] actual = VectorMath.dotRows(simd, query, offHeap, dimension);
+        for (int row = 0; row < rows; row++) {
+            assertEquals(expected[row], actual[row], TOLERANCE, "row=" + row);
+            assertEquals(expected[row], VectorMath.dotRow(query, offHeap, row), TOLERANCE, "row=" + row);
+        }
+        assertEquals(VectorMath.topK(scalar, query, matrix, dimension, 5).stream().map(VectorMath.ScoredRow::row).toList(),
+                VectorMath.topK(query, offHeap, dimension, 5).stream().map(VectorMath.ScoredRow::row).toList());
+    }
+
+    @Test
+    void cosineMatchesScalar() {
+        Random random = new Random(13);
+        for (int length : LENGTHS) {
+            float[] a = gaussian(random, length);
+            float[] b = gaussian(random, length);
+            assertEquals(VectorMath.cosine(scalar, a, b), VectorMath.cosine(simd, a, b), TOLERANCE, "length=" + length);
+        }
+        assertEquals(0.0, VectorMath.cosine(simd, new float[17], gaussian(random, 17)));
+    }
+
+    @Test
+    void topKMatchesScalar() {
+        Random random = new Random(17);
+        int dimension = 37;
+        int rows = 200;
+        float[] query = normalized(random, dimension);
+        float[] matrix = new float[rows * dimension];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(normalized(random, dimension), 0, matrix, row * dimension, dimension);
+        }
+
+        List<VectorMath.ScoredRow> expected = VectorMath.topK(scalar, query, matrix, dimension, 10);
+        List<VectorMath.ScoredRow> actual = VectorMath.topK(simd, query, matrix, dimension, 10);
+        assertEquals(10, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row(), actual.get(i).row(), "rank " + i);
+            assertEquals(expected.get(i).score(), actual.get(i).score(), TOLERANCE);
+        }
+    }
+
+    @Test
+    void topKBreaksTiesByLowerRow() {
+        int dimension = 19;
+        float[] query = new float[dimension];
+        query[0] = 1;
+        // 行1、3、4得分同为0.5，行2最高；取前3名时同分的行3、4只保留行号小的行3
+        float[] scores = {0.1f, 0.5f, 0.9f, 0.5f, 0.5f, 0.2f};
+        float[] matrix = new float[scores.length * dimension];
+        for (int row = 0; row < scores.length; row++) {
+            matrix[row * dimension] = scores[row];
+            matrix[row * dimension + dimension - 1] = 1; // 与查询正交的分量，只影响尾部通道
+        }
+
+        for (VectorKernels kernels : new VectorKernels[]{scalar, simd}) {
+            List<VectorMath.ScoredRow> top = VectorMath.topK(kernels, query, matrix, dimension, 3);
+            assertEquals(List.of(2, 1, 3), top.stream().map(VectorMath.ScoredRow::row).toList(), kernels.name());
+        }
+    }
+
+    private static float[] gaussian(Random random, int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) values[i] = (float) random.nextGaussian();
+        return values;
+    }
+
+    private static float[] normalized(Random random, int length) {
+        float[] values = gaussian(random, length);
+        VectorMath.normalize(values);
+        return values;
+    }
+}